@@ -55,9 +55,43 @@ public @interface LayoutSpec {
    */
   boolean isPureRender() default false;
 
+  /**
+   * @return Boolean indicating whether the layout of this component only depends on the size
+   * constraints it's measured with. When enabled via
+   * {@code ComponentsConfiguration.memoizeStaticLayouts}, the measured layout is kept across
+   * layout calculations of the same ComponentTree and re-used for compatible size constraints
+   * instead of calling onCreateLayout and measuring it again. A spec with a static layout can't
+   * declare props, state or tree props, and none of the components in its layout should have
+   * state or read tree props.
+   */
+  boolean hasStaticLayout() default false;
+
   /**
    * @return List of event POJOs this component can dispatch. Used to generate event dispatch
    * methods.
    */
   Class<?>[] events() default {};
+
+  /**
+   * @return The max number of Builders kept in the pool used by {@code create()}. Components that
+   * are created many times per layout, e.g. the items of a list, should use a larger pool.
+   */
+  int builderPoolSize() default 2;
+
+  /**
+   * @return Boolean indicating whether every thread should keep its own pool of Builders. This
+   * avoids contending on a single pool when this component is created from multiple layout threads
+   * at the same time.
+   */
+  boolean threadLocalBuilderPool() default false;
+
+  /**
+   * @return Boolean indicating whether a {@code <ComponentName>Benchmark} class should be generated
+   * next to the component. It creates the component with representative prop values and runs
+   * onCreateLayout, measure or a full layout calculation once per call, so that the layout cost of
+   * the component can be tracked by a benchmark harness. The class is abstract if the component
+   * has required props, such as components or drawables, with no representative value: their
+   * values are then created by the subclass.
+   */
+  boolean generateBenchmark() default false;
 }
@@ -90,4 +90,17 @@ public @interface MountSpec {
    * of MountSpec
    */
   int poolSize() default 15;
+
+  /**
+   * @return The max number of Builders kept in the pool used by {@code create()}. Components that
+   * are created many times per layout, e.g. the items of a list, should use a larger pool.
+   */
+  int builderPoolSize() default 2;
+
+  /**
+   * @return Boolean indicating whether every thread should keep its own pool of Builders. This
+   * avoids contending on a single pool when this component is created from multiple layout threads
+   * at the same time.
+   */
+  boolean threadLocalBuilderPool() default false;
 }
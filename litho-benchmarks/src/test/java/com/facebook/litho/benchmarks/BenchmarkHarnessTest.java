@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.benchmarks;
+
+import com.facebook.litho.Component;
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.widget.Text;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.facebook.litho.benchmarks.Scenarios.HEIGHT_SPEC;
+import static com.facebook.litho.benchmarks.Scenarios.TEXT;
+import static com.facebook.litho.benchmarks.Scenarios.WIDTH_SPEC;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.robolectric.RuntimeEnvironment.application;
+
+/**
+ * Runs the harness generated for {@link CardItemSpec}, whose required content prop is created by
+ * the subclass.
+ */
+@RunWith(ComponentsTestRunner.class)
+public class BenchmarkHarnessTest {
+
+  private ComponentContext mContext;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(application);
+  }
+
+  @Test
+  public void testHarnessRunsEveryStage() {
+    final int[] createdContents = new int[1];
+    final CardItemBenchmark harness = new CardItemBenchmark(mContext, WIDTH_SPEC, HEIGHT_SPEC) {
+      @Override
+      protected Component<?> createContentProp() {
+        createdContents[0]++;
+        return Text.create(mContext).text(TEXT).build();
+      }
+    };
+
+    harness.createLayout();
+    harness.measure();
+    harness.calculateLayout();
+    harness.calculateLayout();
+    harness.release();
+
+    assertThat(createdContents[0]).isEqualTo(4);
+  }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.benchmarks;
+
+/**
+ * The throughput and allocation rate of a {@link BenchmarkScenario} measured by
+ * {@link BenchmarkRunner}.
+ */
+final class BenchmarkResult {
+
+  private final String mName;
+  private final long mOperationCount;
+  private final double mOpsPerSecond;
+  private final long mAllocatedBytesPerOp;
+
+  BenchmarkResult(
+      String name,
+      long operationCount,
+      double opsPerSecond,
+      long allocatedBytesPerOp) {
+    mName = name;
+    mOperationCount = operationCount;
+    mOpsPerSecond = opsPerSecond;
+    mAllocatedBytesPerOp = allocatedBytesPerOp;
+  }
+
+  String getName() {
+    return mName;
+  }
+
+  long getOperationCount() {
+    return mOperationCount;
+  }
+
+  double getOpsPerSecond() {
+    return mOpsPerSecond;
+  }
+
+  /**
+   * @return the average number of bytes allocated by an operation, or -1 if the JVM can't measure
+   * allocations.
+   */
+  long getAllocatedBytesPerOp() {
+    return mAllocatedBytesPerOp;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%-48s %12.1f ops/s %12d B/op",
+        mName,
+        mOpsPerSecond,
+        mAllocatedBytesPerOp);
+  }
+}
@@ -0,0 +1,282 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.benchmarks;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a {@link BenchmarkScenario} for a warmup period, then measures how many operations it runs
+ * per second and how many bytes each operation allocates during a measurement period.
+ *
+ * The runner is configured with system properties:
+ * <ul>
+ *   <li>{@code litho.benchmark.warmupMillis} and {@code litho.benchmark.measurementMillis}, the
+ *   length of the two periods.</li>
+ *   <li>{@code litho.benchmark.output}, a properties file the results are written to.</li>
+ *   <li>{@code litho.benchmark.baseline}, a properties file written by a previous run. A scenario
+ *   fails if its throughput dropped by more than {@code litho.benchmark.tolerance} (0.15 by
+ *   default) compared to it.</li>
+ * </ul>
+ */
+final class BenchmarkRunner {
+
+  static final String WARMUP_MILLIS_PROPERTY = "litho.benchmark.warmupMillis";
+  static final String MEASUREMENT_MILLIS_PROPERTY = "litho.benchmark.measurementMillis";
+  static final String OUTPUT_PROPERTY = "litho.benchmark.output";
+  static final String BASELINE_PROPERTY = "litho.benchmark.baseline";
+  static final String TOLERANCE_PROPERTY = "litho.benchmark.tolerance";
+
+  private static final long DEFAULT_WARMUP_MILLIS = 500;
+  private static final long DEFAULT_MEASUREMENT_MILLIS = 1000;
+  private static final double DEFAULT_TOLERANCE = 0.15;
+
+  private static final String OPS_PER_SECOND_SUFFIX = ".opsPerSecond";
+  private static final String ALLOCATED_BYTES_PER_OP_SUFFIX = ".allocatedBytesPerOp";
+
+  private BenchmarkRunner() {
+  }
+
+  static BenchmarkResult run(BenchmarkScenario scenario) {
+    scenario.setUp();
+    final BenchmarkResult result;
+    try {
+      measure(scenario, Long.getLong(WARMUP_MILLIS_PROPERTY, DEFAULT_WARMUP_MILLIS));
+      result =
+          measure(scenario, Long.getLong(MEASUREMENT_MILLIS_PROPERTY, DEFAULT_MEASUREMENT_MILLIS));
+    } finally {
+      scenario.tearDown();
+    }
+
+    if (result.getOperationCount() == 0) {
+      throw new IllegalStateException(
+          "Scenario " + scenario.getName() + " didn't complete any operation");
+    }
+
+    System.out.println(result);
+    writeResult(result);
+    checkBaseline(result);
+    return result;
+  }
+
+  private static BenchmarkResult measure(BenchmarkScenario scenario, long durationMillis) {
+    final int threadCount = scenario.getThreadCount();
+    final Worker[] workers = new Worker[threadCount];
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final long deadlineNanos;
+
+    if (threadCount == 1) {
+      workers[0] = new Worker(scenario, startLatch);
+      startLatch.countDown();
+      deadlineNanos = System.nanoTime() + durationMillis * 1000000;
+      workers[0].runUntil(deadlineNanos);
+    } else {
+      final Thread[] threads = new Thread[threadCount];
+      for (int i = 0; i < threadCount; i++) {
+        workers[i] = new Worker(scenario, startLatch);
+        threads[i] = new Thread(workers[i], scenario.getName() + "-" + i);
+        threads[i].start();
+      }
+
+      deadlineNanos = System.nanoTime() + durationMillis * 1000000;
+      for (Worker worker : workers) {
+        worker.mDeadlineNanos = deadlineNanos;
+      }
+      startLatch.countDown();
+
+      for (Thread thread : threads) {
+        try {
+          thread.join();
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    }
+
+    long operationCount = 0;
+    long allocatedBytes = 0;
+    long elapsedNanos = 0;
+    for (Worker worker : workers) {
+      final Throwable error = worker.mError.get();
+      if (error != null) {
+        throw new RuntimeException("Scenario " + scenario.getName() + " failed", error);
+      }
+
+      operationCount += worker.mOperationCount;
+      allocatedBytes = allocatedBytes < 0 || worker.mAllocatedBytes < 0
+          ? -1
+          : allocatedBytes + worker.mAllocatedBytes;
+      elapsedNanos = Math.max(elapsedNanos, worker.mElapsedNanos);
+    }
+
+    return new BenchmarkResult(
+        scenario.getName(),
+        operationCount,
+        operationCount * 1e9 / Math.max(elapsedNanos, 1),
+        allocatedBytes < 0 ? -1 : allocatedBytes / Math.max(operationCount, 1));
+  }
+
+  private static synchronized void writeResult(BenchmarkResult result) {
+    final String path = System.getProperty(OUTPUT_PROPERTY);
+    if (path == null) {
+      return;
+    }
+
+    final File file = new File(path);
+    final Properties results = file.exists() ? loadProperties(path) : new Properties();
+    results.setProperty(
+        result.getName() + OPS_PER_SECOND_SUFFIX,
+        String.valueOf(result.getOpsPerSecond()));
+    results.setProperty(
+        result.getName() + ALLOCATED_BYTES_PER_OP_SUFFIX,
+        String.valueOf(result.getAllocatedBytesPerOp()));
+
+    OutputStream outputStream = null;
+    try {
+      outputStream = new FileOutputStream(file);
+      results.store(outputStream, "Litho benchmark results");
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      closeQuietly(outputStream);
+    }
+  }
+
+  private static void checkBaseline(BenchmarkResult result) {
+    final String path = System.getProperty(BASELINE_PROPERTY);
+    if (path == null) {
+      return;
+    }
+
+    final String baselineOpsPerSecond =
+        loadProperties(path).getProperty(result.getName() + OPS_PER_SECOND_SUFFIX);
+    if (baselineOpsPerSecond == null) {
+      return;
+    }
+
+    final double tolerance = System.getProperty(TOLERANCE_PROPERTY) != null
+        ? Double.parseDouble(System.getProperty(TOLERANCE_PROPERTY))
+        : DEFAULT_TOLERANCE;
+    final double minOpsPerSecond = Double.parseDouble(baselineOpsPerSecond) * (1 - tolerance);
+    if (result.getOpsPerSecond() < minOpsPerSecond) {
+      throw new AssertionError(
+          String.format(
+              "%s regressed: %.1f ops/s, baseline %s ops/s (tolerance %.2f)",
+              result.getName(),
+              result.getOpsPerSecond(),
+              baselineOpsPerSecond,
+              tolerance));
+    }
+  }
+
+  private static Properties loadProperties(String path) {
+    final Properties properties = new Properties();
+    InputStream inputStream = null;
+    try {
+      inputStream = new FileInputStream(path);
+      properties.load(inputStream);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      closeQuietly(inputStream);
+    }
+
+    return properties;
+  }
+
+  private static void closeQuietly(Closeable closeable) {
+    if (closeable == null) {
+      return;
+    }
+
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      // Nothing left to do with it.
+    }
+  }
+
+  /**
+   * Runs the operation of a scenario on one thread, measuring the bytes allocated by that thread.
+   */
+  private static class Worker implements Runnable {
+
+    private final BenchmarkScenario mScenario;
+    private final CountDownLatch mStartLatch;
+    private final AtomicReference<Throwable> mError = new AtomicReference<>();
+    private volatile long mDeadlineNanos;
+    private long mOperationCount;
+    private long mAllocatedBytes;
+    private long mElapsedNanos;
+
+    Worker(BenchmarkScenario scenario, CountDownLatch startLatch) {
+      mScenario = scenario;
+      mStartLatch = startLatch;
+    }
+
+    @Override
+    public void run() {
+      try {
+        mStartLatch.await();
+        runUntil(mDeadlineNanos);
+      } catch (Throwable t) {
+        mError.set(t);
+      }
+    }
+
+    void runUntil(long deadlineNanos) {
+      final long startAllocatedBytes = getAllocatedBytes();
+      final long startNanos = System.nanoTime();
+      long nowNanos = startNanos;
+
+      while (nowNanos < deadlineNanos) {
+        mScenario.runOperation();
+        mOperationCount++;
+        nowNanos = System.nanoTime();
+      }
+
+      mElapsedNanos = nowNanos - startNanos;
+      final long endAllocatedBytes = getAllocatedBytes();
+      mAllocatedBytes = startAllocatedBytes < 0 || endAllocatedBytes < 0
+          ? -1
+          : endAllocatedBytes - startAllocatedBytes;
+    }
+
+    /**
+     * @return the bytes allocated by the current thread so far, or -1 if the JVM doesn't support
+     * measuring it.
+     */
+    private static long getAllocatedBytes() {
+      final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+        return -1;
+      }
+
+      final com.sun.management.ThreadMXBean allocationMXBean =
+          (com.sun.management.ThreadMXBean) threadMXBean;
+      if (!allocationMXBean.isThreadAllocatedMemorySupported() ||
+          !allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+        return -1;
+      }
+
+      return allocationMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+  }
+}
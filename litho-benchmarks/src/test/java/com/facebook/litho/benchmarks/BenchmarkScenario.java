@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.benchmarks;
+
+/**
+ * A single benchmarked operation, run repeatedly by {@link BenchmarkRunner}.
+ */
+abstract class BenchmarkScenario {
+
+  private final String mName;
+  private final int mThreadCount;
+
+  BenchmarkScenario(String name) {
+    this(name, 1);
+  }
+
+  /**
+   * @param threadCount the number of threads running the operation concurrently. Scenarios with a
+   * single thread run on the calling thread, which is the main thread in Robolectric tests.
+   */
+  BenchmarkScenario(String name, int threadCount) {
+    mName = name;
+    mThreadCount = threadCount;
+  }
+
+  String getName() {
+    return mName;
+  }
+
+  int getThreadCount() {
+    return mThreadCount;
+  }
+
+  /**
+   * Called once before the operation is run, on the calling thread.
+   */
+  void setUp() {
+  }
+
+  /**
+   * Runs the benchmarked operation once. Must be thread safe if the scenario has more than one
+   * thread.
+   */
+  abstract void runOperation();
+
+  /**
+   * Called once after the operation was run for the last time, on the calling thread.
+   */
+  void tearDown() {
+  }
+}
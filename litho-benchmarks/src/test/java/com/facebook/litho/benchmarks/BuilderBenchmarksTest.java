@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.benchmarks;
+
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.facebook.litho.benchmarks.Scenarios.TEXT;
+import static org.robolectric.RuntimeEnvironment.application;
+
+/**
+ * Throughput of the create()/build() calls of generated components, with the default builder pool
+ * and with a larger thread local one, from one thread and from several layout threads at once.
+ */
+@RunWith(ComponentsTestRunner.class)
+public class BuilderBenchmarksTest {
+
+  private static final int THREAD_COUNT = 4;
+  private static final String TITLE = Scenarios.getTitle(0);
+
+  private ComponentContext mContext;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(application);
+  }
+
+  @Test
+  public void testCreateBuild() {
+    BenchmarkRunner.run(new DefaultPoolScenario("builder.createBuild", 1));
+  }
+
+  @Test
+  public void testCreateBuildMultithreaded() {
+    BenchmarkRunner.run(new DefaultPoolScenario("builder.createBuildMultithreaded", THREAD_COUNT));
+  }
+
+  @Test
+  public void testCreateBuildThreadLocalPool() {
+    BenchmarkRunner.run(new ThreadLocalPoolScenario("builder.createBuildThreadLocalPool", 1));
+  }
+
+  @Test
+  public void testCreateBuildThreadLocalPoolMultithreaded() {
+    BenchmarkRunner.run(
+        new ThreadLocalPoolScenario(
+            "builder.createBuildThreadLocalPoolMultithreaded",
+            THREAD_COUNT));
+  }
+
+  private class DefaultPoolScenario extends BenchmarkScenario {
+
+    DefaultPoolScenario(String name, int threadCount) {
+      super(name, threadCount);
+    }
+
+    @Override
+    void runOperation() {
+      FeedItem.create(mContext)
+          .title(TITLE)
+          .text(TEXT)
+          .build();
+    }
+  }
+
+  private class ThreadLocalPoolScenario extends BenchmarkScenario {
+
+    ThreadLocalPoolScenario(String name, int threadCount) {
+      super(name, threadCount);
+    }
+
+    @Override
+    void runOperation() {
+      PooledFeedItem.create(mContext)
+          .title(TITLE)
+          .text(TEXT)
+          .build();
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.benchmarks;
+
+import com.facebook.litho.Column;
+import com.facebook.litho.Component;
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.ComponentLayout;
+import com.facebook.litho.annotations.LayoutSpec;
+import com.facebook.litho.annotations.OnCreateLayout;
+import com.facebook.litho.annotations.Prop;
+import com.facebook.litho.widget.Text;
+import com.facebook.yoga.YogaEdge;
+
+/**
+ * A titled card around any content. Its generated harness is abstract, since there is no
+ * representative value for the content.
+ */
+@LayoutSpec(generateBenchmark = true)
+public class CardItemSpec {
+
+  @OnCreateLayout
+  static ComponentLayout onCreateLayout(
+      ComponentContext c,
+      @Prop String title,
+      @Prop Component<?> content) {
+    return Column.create(c)
+        .paddingDip(YogaEdge.ALL, 8)
+        .child(
+            Text.create(c)
+                .text(title)
+                .textSizeDip(18))
+        .child(content)
+        .build();
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.benchmarks;
+
+import com.facebook.litho.dataflow.BenchmarkTimingSource;
+import com.facebook.litho.dataflow.BindingListener;
+import com.facebook.litho.dataflow.ConstantNode;
+import com.facebook.litho.dataflow.DataFlowGraph;
+import com.facebook.litho.dataflow.GraphBinding;
+import com.facebook.litho.dataflow.SimpleNode;
+import com.facebook.litho.dataflow.SpringNode;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+
+/**
+ * Throughput of the frames of a {@link DataFlowGraph} running hundreds of springs at once, as in
+ * the transitions of a large list, and of starting and finishing that many springs.
+ */
+@RunWith(ComponentsTestRunner.class)
+public class DataFlowBenchmarksTest {
+
+  private static final int SPRING_COUNT = 300;
+
+  @Test
+  public void testFrame() {
+    BenchmarkRunner.run(new BenchmarkScenario("dataflow.frame") {
+      private final BenchmarkTimingSource mTimingSource = new BenchmarkTimingSource();
+      private final DataFlowGraph mDataFlowGraph = DataFlowGraph.create(mTimingSource);
+      private final ArrayList<GraphBinding> mFinishedBindings = new ArrayList<>();
+      private final BindingListener mListener = new BindingListener() {
+        @Override
+        public void onAllNodesFinished(GraphBinding binding) {
+          mFinishedBindings.add(binding);
+        }
+      };
+      private int mStartedCount;
+
+      @Override
+      void setUp() {
+        for (int i = 0; i < SPRING_COUNT; i++) {
+          startSpring();
+        }
+      }
+
+      @Override
+      void runOperation() {
+        mTimingSource.step();
+
+        // Springs that came to rest are replaced, so that the graph keeps the same size and some
+        // bindings start and finish on most frames.
+        for (int i = 0, size = mFinishedBindings.size(); i < size; i++) {
+          mFinishedBindings.get(i).deactivate();
+          startSpring();
+        }
+        mFinishedBindings.clear();
+      }
+
+      private void startSpring() {
+        // Different distances make the springs come to rest on different frames.
+        final GraphBinding binding =
+            createSpringBinding(mDataFlowGraph, 100 + (mStartedCount++ % SPRING_COUNT));
+        binding.setListener(mListener);
+        binding.activate();
+      }
+    });
+  }
+
+  @Test
+  public void testStartAndFinishSprings() {
+    BenchmarkRunner.run(new BenchmarkScenario("dataflow.startAndFinish") {
+      private final BenchmarkTimingSource mTimingSource = new BenchmarkTimingSource();
+      private final DataFlowGraph mDataFlowGraph = DataFlowGraph.create(mTimingSource);
+      private final GraphBinding[] mBindings = new GraphBinding[SPRING_COUNT];
+
+      @Override
+      void runOperation() {
+        for (int i = 0; i < SPRING_COUNT; i++) {
+          mBindings[i] = createSpringBinding(mDataFlowGraph, 100 + i);
+          mBindings[i].activate();
+        }
+
+        mTimingSource.step();
+
+        for (int i = 0; i < SPRING_COUNT; i++) {
+          mBindings[i].deactivate();
+        }
+      }
+    });
+  }
+
+  /**
+   * @return a binding animating a value from 0 to the given end value with a spring, like the
+   * bindings created for the transitions of mounted components.
+   */
+  private static GraphBinding createSpringBinding(DataFlowGraph dataFlowGraph, float endValue) {
+    final SpringNode springNode = new SpringNode();
+    final GraphBinding binding = GraphBinding.create(dataFlowGraph);
+    binding.addBinding(new ConstantNode(0), springNode, SpringNode.INITIAL_INPUT);
+    binding.addBinding(new ConstantNode(endValue), springNode, SpringNode.END_INPUT);
+    binding.addBinding(springNode, new SimpleNode());
+    return binding;
+  }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.benchmarks;
+
+import com.facebook.litho.Column;
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.ComponentLayout;
+import com.facebook.litho.Row;
+import com.facebook.litho.annotations.LayoutSpec;
+import com.facebook.litho.annotations.OnCreateLayout;
+import com.facebook.litho.annotations.Prop;
+import com.facebook.litho.widget.SolidColor;
+import com.facebook.litho.widget.Text;
+import com.facebook.yoga.YogaEdge;
+import com.facebook.yoga.YogaPositionType;
+
+import static android.graphics.Color.GRAY;
+import static android.graphics.Color.LTGRAY;
+import static android.graphics.Color.RED;
+import static android.graphics.Typeface.BOLD;
+import static android.graphics.Typeface.ITALIC;
+
+/**
+ * The feed item of the Lithography sample, with a solid color instead of the image so that it
+ * doesn't depend on Fresco.
+ */
+@LayoutSpec(generateBenchmark = true)
+public class FeedItemSpec {
+
+  @OnCreateLayout
+  static ComponentLayout onCreateLayout(
+      ComponentContext c,
+      @Prop String title,
+      @Prop String text) {
+    return Column.create(c)
+        .child(
+            Column.create(c)
+                .child(
+                    SolidColor.create(c)
+                        .color(LTGRAY)
+                        .withLayout()
+                        .aspectRatio(2))
+                .child(
+                    Text.create(c)
+                        .text(title)
+                        .textStyle(BOLD)
+                        .textSizeDip(24)
+                        .withLayout()
+                        .backgroundColor(0xDDFFFFFF)
+                        .positionType(YogaPositionType.ABSOLUTE)
+                        .positionDip(YogaEdge.BOTTOM, 4)
+                        .positionDip(YogaEdge.LEFT, 4)
+                        .paddingDip(YogaEdge.HORIZONTAL, 6))
+                .child(
+                    Row.create(c)
+                        .backgroundColor(0xDDFFFFFF)
+                        .positionType(YogaPositionType.ABSOLUTE)
+                        .positionDip(YogaEdge.RIGHT, 4)
+                        .positionDip(YogaEdge.TOP, 4)
+                        .paddingDip(YogaEdge.ALL, 2)
+                        .child(
+                            SolidColor.create(c)
+                                .color(RED)
+                                .withLayout()
+                                .widthDip(32)
+                                .heightDip(32))))
+        .child(
+            Column.create(c)
+                .paddingDip(YogaEdge.ALL, 8)
+                .child(
+                    Text.create(c)
+                        .text(text)
+                        .textSizeDip(14)
+                        .textColor(GRAY)
+                        .textStyle(ITALIC)))
+        .build();
+  }
+}
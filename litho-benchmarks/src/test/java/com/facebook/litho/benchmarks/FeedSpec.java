@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.benchmarks;
+
+import com.facebook.litho.Column;
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.ComponentLayout;
+import com.facebook.litho.annotations.LayoutSpec;
+import com.facebook.litho.annotations.OnCreateLayout;
+import com.facebook.litho.annotations.Prop;
+
+/**
+ * A column of {@link FeedItemSpec} items, laid out in a single ComponentTree.
+ */
+@LayoutSpec
+public class FeedSpec {
+
+  @OnCreateLayout
+  static ComponentLayout onCreateLayout(
+      ComponentContext c,
+      @Prop int itemCount) {
+    final ComponentLayout.ContainerBuilder column = Column.create(c);
+    for (int i = 0; i < itemCount; i++) {
+      column.child(
+          FeedItem.create(c)
+              .title(Scenarios.getTitle(i))
+              .text(Scenarios.TEXT));
+    }
+
+    return column.build();
+  }
+}
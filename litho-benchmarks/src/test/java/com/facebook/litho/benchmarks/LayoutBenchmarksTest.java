@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.benchmarks;
+
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.ComponentTree;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.facebook.litho.benchmarks.Scenarios.HEIGHT_SPEC;
+import static com.facebook.litho.benchmarks.Scenarios.WIDTH_SPEC;
+import static org.robolectric.RuntimeEnvironment.application;
+
+/**
+ * Layout throughput, from running onCreateLayout to calculating the whole LayoutState.
+ */
+@RunWith(ComponentsTestRunner.class)
+public class LayoutBenchmarksTest {
+
+  private ComponentContext mContext;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(application);
+  }
+
+  @Test
+  public void testCreateLayout() {
+    final FeedItemBenchmark harness = Scenarios.createFeedItemHarness(mContext);
+    BenchmarkRunner.run(new BenchmarkScenario("layout.createLayout") {
+      @Override
+      void runOperation() {
+        harness.createLayout();
+      }
+    });
+  }
+
+  @Test
+  public void testMeasure() {
+    final FeedItemBenchmark harness = Scenarios.createFeedItemHarness(mContext);
+    BenchmarkRunner.run(new BenchmarkScenario("layout.measure") {
+      @Override
+      void runOperation() {
+        harness.measure();
+      }
+    });
+  }
+
+  @Test
+  public void testRelayoutWithDiffing() {
+    final FeedItemBenchmark harness = Scenarios.createFeedItemHarness(mContext);
+    BenchmarkRunner.run(new BenchmarkScenario("layout.relayoutWithDiffing") {
+      @Override
+      void runOperation() {
+        harness.calculateLayout();
+      }
+
+      @Override
+      void tearDown() {
+        harness.release();
+      }
+    });
+  }
+
+  @Test
+  public void testCalculateLayout() {
+    runCalculateLayout("layout.calculateLayout", 1);
+  }
+
+  @Test
+  public void testCalculateFeedLayout() {
+    runCalculateLayout("layout.calculateFeedLayout", 10);
+  }
+
+  private void runCalculateLayout(String name, final int itemCount) {
+    BenchmarkRunner.run(new BenchmarkScenario(name) {
+      private ComponentTree mComponentTree;
+
+      @Override
+      void setUp() {
+        mComponentTree = ComponentTree.create(mContext, createFeed())
+            .layoutDiffing(false)
+            .build();
+      }
+
+      @Override
+      void runOperation() {
+        mComponentTree.setRootAndSizeSpec(createFeed(), WIDTH_SPEC, HEIGHT_SPEC);
+      }
+
+      @Override
+      void tearDown() {
+        mComponentTree.release();
+      }
+
+      private Feed createFeed() {
+        return Feed.create(mContext).itemCount(itemCount).build();
+      }
+    });
+  }
+}
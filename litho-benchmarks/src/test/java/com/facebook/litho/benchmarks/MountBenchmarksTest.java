@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.benchmarks;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.ComponentTree;
+import com.facebook.litho.LithoView;
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.ComponentTestHelper;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.facebook.litho.benchmarks.Scenarios.HEIGHT_SPEC;
+import static com.facebook.litho.benchmarks.Scenarios.SCREEN_HEIGHT;
+import static com.facebook.litho.benchmarks.Scenarios.SCREEN_WIDTH;
+import static com.facebook.litho.benchmarks.Scenarios.WIDTH_SPEC;
+import static org.robolectric.RuntimeEnvironment.application;
+
+/**
+ * Mount, incremental mount and draw throughput of mounted feeds. Robolectric canvases aren't
+ * hardware accelerated, so the draw scenarios measure the dispatch of the draw calls rather than
+ * the actual rendering. For the same reason static drawable runs are never recorded here: the
+ * scenario with their cache enabled only measures the cost of its software fallback.
+ */
+@RunWith(ComponentsTestRunner.class)
+public class MountBenchmarksTest {
+
+  private static final int SCROLL_STEP = 50;
+
+  private ComponentContext mContext;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(application);
+  }
+
+  @Test
+  public void testMountUnmount() {
+    BenchmarkRunner.run(new MountedFeedScenario("mount.mountUnmount", 10, true) {
+      private final Rect mVisibleRect = new Rect();
+      private final Rect mOffscreenRect = new Rect();
+
+      @Override
+      void setUp() {
+        super.setUp();
+        mVisibleRect.set(0, 0, mLithoView.getWidth(), mLithoView.getHeight());
+        mOffscreenRect.set(0, -SCREEN_HEIGHT, SCREEN_WIDTH, -1);
+      }
+
+      @Override
+      void runOperation() {
+        mLithoView.performIncrementalMount(mVisibleRect);
+        mLithoView.performIncrementalMount(mOffscreenRect);
+      }
+    });
+  }
+
+  @Test
+  public void testIncrementalMountScroll() {
+    BenchmarkRunner.run(new MountedFeedScenario("mount.incrementalMountScroll", 30, true) {
+      private final Rect mVisibleRect = new Rect();
+      private int mScrollRange;
+      private int mScrollY;
+
+      @Override
+      void setUp() {
+        super.setUp();
+        mScrollRange = Math.max(mLithoView.getHeight() - SCREEN_HEIGHT, SCROLL_STEP);
+      }
+
+      @Override
+      void runOperation() {
+        mScrollY = (mScrollY + SCROLL_STEP) % mScrollRange;
+        mVisibleRect.set(0, mScrollY, SCREEN_WIDTH, mScrollY + SCREEN_HEIGHT);
+        mLithoView.performIncrementalMount(mVisibleRect);
+      }
+    });
+  }
+
+  @Test
+  public void testDrawHost() {
+    runDraw("mount.drawHost", false);
+  }
+
+  @Test
+  public void testDrawHostWithStaticDrawableRunsFallback() {
+    runDraw("mount.drawHostWithStaticDrawableRunsFallback", true);
+  }
+
+  private void runDraw(String name, final boolean cacheStaticDrawableRuns) {
+    final boolean wasCachingStaticDrawableRuns =
+        ComponentsConfiguration.cacheStaticDrawableRunsInHosts;
+    BenchmarkRunner.run(new MountedFeedScenario(name, 3, false) {
+      private Canvas mCanvas;
+
+      @Override
+      void setUp() {
+        // Hosts read the flag when they are created.
+        ComponentsConfiguration.cacheStaticDrawableRunsInHosts = cacheStaticDrawableRuns;
+        super.setUp();
+        mCanvas = new Canvas(
+            Bitmap.createBitmap(
+                mLithoView.getWidth(),
+                mLithoView.getHeight(),
+                Bitmap.Config.ARGB_8888));
+      }
+
+      @Override
+      void runOperation() {
+        mLithoView.draw(mCanvas);
+      }
+
+      @Override
+      void tearDown() {
+        super.tearDown();
+        ComponentsConfiguration.cacheStaticDrawableRunsInHosts = wasCachingStaticDrawableRuns;
+      }
+    });
+  }
+
+  /**
+   * A scenario running on a LithoView that has a feed laid out and mounted.
+   */
+  private abstract class MountedFeedScenario extends BenchmarkScenario {
+
+    private final int mItemCount;
+    private final boolean mIncrementalMount;
+    LithoView mLithoView;
+
+    MountedFeedScenario(String name, int itemCount, boolean incrementalMount) {
+      super(name);
+      mItemCount = itemCount;
+      mIncrementalMount = incrementalMount;
+    }
+
+    @Override
+    void setUp() {
+      mLithoView = ComponentTestHelper.mountComponent(
+          new LithoView(mContext),
+          ComponentTree.create(mContext, Feed.create(mContext).itemCount(mItemCount).build())
+              .incrementalMount(mIncrementalMount)
+              .build(),
+          WIDTH_SPEC,
+          HEIGHT_SPEC);
+    }
+
+    @Override
+    void tearDown() {
+      ComponentTestHelper.unbindComponent(mLithoView);
+      mLithoView.release();
+    }
+  }
+}
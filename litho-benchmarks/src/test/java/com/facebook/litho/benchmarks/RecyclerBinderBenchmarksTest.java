@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.benchmarks;
+
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.ComponentInfo;
+import com.facebook.litho.Size;
+import com.facebook.litho.SizeSpec;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.widget.RecyclerBinder;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.benchmarks.Scenarios.SCREEN_HEIGHT;
+import static com.facebook.litho.benchmarks.Scenarios.SCREEN_WIDTH;
+import static org.robolectric.RuntimeEnvironment.application;
+
+/**
+ * Throughput of the range computation a RecyclerBinder does when it's measured. Only the part
+ * that runs on the calling thread is measured: the layouts of the rest of the range are posted to
+ * the layout threads.
+ */
+@RunWith(ComponentsTestRunner.class)
+public class RecyclerBinderBenchmarksTest {
+
+  private static final int ITEM_COUNT = 100;
+
+  @Test
+  public void testInitRange() {
+    BenchmarkRunner.run(new BenchmarkScenario("recycler.initRange") {
+      private final Size mSize = new Size();
+      private final int mHeightSpec = SizeSpec.makeSizeSpec(SCREEN_HEIGHT, EXACTLY);
+      // Alternating between two widths invalidates the range at every measure.
+      private final int[] mWidthSpecs = {
+          SizeSpec.makeSizeSpec(SCREEN_WIDTH, EXACTLY),
+          SizeSpec.makeSizeSpec(SCREEN_WIDTH - 1, EXACTLY),
+      };
+      private RecyclerBinder mRecyclerBinder;
+      private int mMeasureCount;
+
+      @Override
+      void setUp() {
+        final ComponentContext c = new ComponentContext(application);
+        mRecyclerBinder = new RecyclerBinder(c);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+          mRecyclerBinder.insertItemAt(
+              i,
+              ComponentInfo.create()
+                  .component(Scenarios.createFeedItem(c, i))
+                  .build());
+        }
+      }
+
+      @Override
+      void runOperation() {
+        mRecyclerBinder.measure(mSize, mWidthSpecs[mMeasureCount++ % 2], mHeightSpec, null);
+      }
+    });
+  }
+}
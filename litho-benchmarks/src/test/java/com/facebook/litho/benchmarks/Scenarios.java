@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.benchmarks;
+
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.SizeSpec;
+
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.SizeSpec.UNSPECIFIED;
+
+/**
+ * Values shared by the benchmark scenarios.
+ */
+final class Scenarios {
+
+  static final int SCREEN_WIDTH = 1080;
+  static final int SCREEN_HEIGHT = 1920;
+  static final int WIDTH_SPEC = SizeSpec.makeSizeSpec(SCREEN_WIDTH, EXACTLY);
+  static final int HEIGHT_SPEC = SizeSpec.makeSizeSpec(0, UNSPECIFIED);
+
+  static final String TEXT =
+      "Lithography is a method of printing originally based on the immiscibility of oil and " +
+          "water. The printing is from a stone or a metal plate with a smooth surface.";
+
+  private static final String[] TITLES = {
+      "Aloys Senefelder",
+      "Honore Daumier",
+      "Henri de Toulouse-Lautrec",
+      "Edvard Munch",
+  };
+
+  private Scenarios() {
+  }
+
+  static String getTitle(int index) {
+    return TITLES[index % TITLES.length];
+  }
+
+  static FeedItem createFeedItem(ComponentContext c, int index) {
+    return FeedItem.create(c)
+        .title(getTitle(index))
+        .text(TEXT)
+        .build();
+  }
+
+  /**
+   * @return the harness generated for {@link FeedItemSpec}, creating items with realistic props.
+   */
+  static FeedItemBenchmark createFeedItemHarness(ComponentContext c) {
+    return new FeedItemBenchmark(c, WIDTH_SPEC, HEIGHT_SPEC) {
+      private int mIndex;
+
+      @Override
+      protected FeedItem.Builder createBuilder(ComponentContext context) {
+        return FeedItem.create(context)
+            .title(getTitle(mIndex++))
+            .text(TEXT);
+      }
+    };
+  }
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.dataflow;
+
+/**
+ * TimingSource that lets benchmarks drive the frames of a {@link DataFlowGraph} one at a time.
+ */
+public class BenchmarkTimingSource implements TimingSource {
+
+  private static final long FRAME_TIME_NANOS = 16000000;
+
+  private DataFlowGraph mDataFlowGraph;
+  private boolean mIsRunning = false;
+  private long mCurrentTimeNanos = 0;
+
+  @Override
+  public void setDataFlowGraph(DataFlowGraph dataFlowGraph) {
+    mDataFlowGraph = dataFlowGraph;
+  }
+
+  @Override
+  public void start() {
+    mIsRunning = true;
+  }
+
+  @Override
+  public void stop() {
+    mIsRunning = false;
+  }
+
+  /**
+   * Runs the next frame of the graph, if it has bindings.
+   */
+  public void step() {
+    if (!mIsRunning) {
+      return;
+    }
+    mCurrentTimeNanos += FRAME_TIME_NANOS;
+    mDataFlowGraph.doFrame(mCurrentTimeNanos);
+  }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.annotation.Nullable;
+import android.support.v4.util.SimpleArrayMap;
+
+/**
+ * The allocations counted by {@link AllocationTracker} during a layout, mount or animation frame
+ * pass. Only accessed from the thread that runs the pass until it ends.
+ */
+public final class AllocationPass {
+
+  private final int mPassType;
+  private final @Nullable String mLogTag;
+  private final @Nullable AllocationPass mParent;
+  private final SimpleArrayMap<String, int[]> mPoolMisses = new SimpleArrayMap<>();
+  private final SimpleArrayMap<String, int[]> mAllocations = new SimpleArrayMap<>();
+  private int mPoolMissCount;
+  private int mAllocationCount;
+
+  AllocationPass(int passType, @Nullable String logTag, @Nullable AllocationPass parent) {
+    mPassType = passType;
+    mLogTag = logTag;
+    mParent = parent;
+  }
+
+  /**
+   * @return one of the {@code AllocationTracker.PASS_*} constants.
+   */
+  public int getPassType() {
+    return mPassType;
+  }
+
+  @Nullable
+  public String getLogTag() {
+    return mLogTag;
+  }
+
+  @Nullable
+  AllocationPass getParent() {
+    return mParent;
+  }
+
+  public int getPoolMissCount() {
+    return mPoolMissCount;
+  }
+
+  public int getPoolMissCount(String poolName) {
+    return getCount(mPoolMisses, poolName);
+  }
+
+  public int getAllocationCount() {
+    return mAllocationCount;
+  }
+
+  public int getAllocationCount(String site) {
+    return getCount(mAllocations, site);
+  }
+
+  void recordPoolMiss(String poolName) {
+    increment(mPoolMisses, poolName, 1);
+    mPoolMissCount++;
+  }
+
+  void recordAllocation(String site) {
+    increment(mAllocations, site, 1);
+    mAllocationCount++;
+  }
+
+  void addCounts(AllocationPass pass) {
+    for (int i = 0, size = pass.mPoolMisses.size(); i < size; i++) {
+      increment(mPoolMisses, pass.mPoolMisses.keyAt(i), pass.mPoolMisses.valueAt(i)[0]);
+    }
+    for (int i = 0, size = pass.mAllocations.size(); i < size; i++) {
+      increment(mAllocations, pass.mAllocations.keyAt(i), pass.mAllocations.valueAt(i)[0]);
+    }
+    mPoolMissCount += pass.mPoolMissCount;
+    mAllocationCount += pass.mAllocationCount;
+  }
+
+  private static void increment(SimpleArrayMap<String, int[]> counts, String key, int count) {
+    int[] value = counts.get(key);
+    if (value == null) {
+      value = new int[1];
+      counts.put(key, value);
+    }
+    value[0] += count;
+  }
+
+  private static int getCount(SimpleArrayMap<String, int[]> counts, String key) {
+    final int[] value = counts.get(key);
+    return value != null ? value[0] : 0;
+  }
+
+  /**
+   * @return the pass type and the counts by pool and by site, to be used in assertion messages.
+   */
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder()
+        .append(AllocationTracker.getPassName(mPassType))
+        .append(" pass (log tag ")
+        .append(mLogTag)
+        .append("): ")
+        .append(mPoolMissCount)
+        .append(" pool misses");
+    appendCounts(builder, mPoolMisses);
+    builder
+        .append(", ")
+        .append(mAllocationCount)
+        .append(" allocations");
+    appendCounts(builder, mAllocations);
+    return builder.toString();
+  }
+
+  private static void appendCounts(StringBuilder builder, SimpleArrayMap<String, int[]> counts) {
+    builder.append(" {");
+    for (int i = 0, size = counts.size(); i < size; i++) {
+      builder
+          .append(i > 0 ? ", " : "")
+          .append(counts.keyAt(i))
+          .append('=')
+          .append(counts.valueAt(i)[0]);
+    }
+    builder.append('}');
+  }
+}
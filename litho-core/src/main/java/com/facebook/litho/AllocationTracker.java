@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.annotation.Nullable;
+
+import com.facebook.infer.annotation.ThreadSafe;
+
+/**
+ * Counts the allocations of framework objects done by each layout, mount and animation frame
+ * pass: the pool misses of {@link RecyclePool}s and the known sites that always allocate. Every
+ * pass is reported to the {@link Listener} given to {@link #start(Listener)}, so that tests can
+ * assert allocation budgets, e.g. no pool misses in a steady state re-layout. The counts of a
+ * layout or mount pass are also added to its {@link ComponentsLogger} event.
+ *
+ * A pass is attributed the allocations done on the thread that runs it. The counts of a nested
+ * pass, e.g. the layout of a Recycler item computed while measuring the Recycler, are also added
+ * to the enclosing pass.
+ *
+ * Tracking is disabled until {@link #start(Listener)} is called. While disabled, passes and
+ * allocation sites only pay for a volatile read.
+ */
+@ThreadSafe
+public final class AllocationTracker {
+
+  public static final int PASS_LAYOUT = 0;
+  public static final int PASS_MOUNT = 1;
+  public static final int PASS_ANIMATION_FRAME = 2;
+
+  private static final String[] PASS_NAMES = {
+      "layout",
+      "mount",
+      "animationFrame",
+  };
+
+  public interface Listener {
+
+    /**
+     * Called on the thread that ran the pass, right after it ended.
+     */
+    void onPassEnded(AllocationPass pass);
+  }
+
+  private static final ThreadLocal<AllocationPass> sCurrentPass = new ThreadLocal<>();
+
+  private static volatile Listener sListener;
+
+  private AllocationTracker() {
+  }
+
+  public static void start(Listener listener) {
+    sListener = listener;
+  }
+
+  public static void stop() {
+    sListener = null;
+  }
+
+  public static boolean isTracking() {
+    return sListener != null;
+  }
+
+  public static String getPassName(int passType) {
+    return PASS_NAMES[passType];
+  }
+
+  /**
+   * Starts attributing the allocations done on the current thread to a new pass.
+   *
+   * @return the pass to give to {@link #endPass}, or null if tracking isn't started.
+   */
+  @Nullable
+  public static AllocationPass beginPass(int passType, @Nullable String logTag) {
+    if (sListener == null) {
+      return null;
+    }
+
+    final AllocationPass pass = new AllocationPass(passType, logTag, sCurrentPass.get());
+    sCurrentPass.set(pass);
+    return pass;
+  }
+
+  public static void endPass(@Nullable AllocationPass pass) {
+    if (pass == null) {
+      return;
+    }
+
+    final AllocationPass parent = pass.getParent();
+    sCurrentPass.set(parent);
+    if (parent != null) {
+      parent.addCounts(pass);
+    }
+
+    final Listener listener = sListener;
+    if (listener != null) {
+      listener.onPassEnded(pass);
+    }
+  }
+
+  /**
+   * Records that the pool with the given name was empty when an object was acquired from it.
+   */
+  static void onPoolMiss(String poolName) {
+    if (sListener == null) {
+      return;
+    }
+
+    final AllocationPass pass = sCurrentPass.get();
+    if (pass != null) {
+      pass.recordPoolMiss(poolName);
+    }
+  }
+
+  /**
+   * Records that an object was allocated at the given site, outside of any pool.
+   */
+  public static void onAllocation(String site) {
+    if (sListener == null) {
+      return;
+    }
+
+    final AllocationPass pass = sCurrentPass.get();
+    if (pass != null) {
+      pass.recordAllocation(site);
+    }
+  }
+}
@@ -17,6 +17,7 @@ import com.facebook.infer.annotation.ThreadConfined;
 import com.facebook.infer.annotation.ThreadSafe;
 import com.facebook.litho.ComponentLifecycle.MountType;
 import com.facebook.litho.ComponentLifecycle.StateContainer;
+import com.facebook.litho.config.ComponentsConfiguration;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -246,7 +247,7 @@ public abstract class Component<L extends ComponentLifecycle> implements HasEven
 
   protected Component(L lifecycle) {
     mLifecycle = lifecycle;
-    mKey = Integer.toString(mLifecycle.getId());
+    mKey = mLifecycle.getDefaultComponentKey();
   }
 
   public L getLifecycle() {
@@ -312,9 +313,20 @@ public abstract class Component<L extends ComponentLifecycle> implements HasEven
 
   static boolean isNestedTree(Component<?> component) {
     return (isLayoutSpecWithSizeSpec(component)
+        || hasMemoizableLayout(component)
         || (component != null && component.hasCachedLayout()));
   }
 
+  /**
+   * @return whether the layout of this component is resolved as a nested tree which can be kept
+   * in the {@link StaticLayoutCache} of its ComponentTree.
+   */
+  static boolean hasMemoizableLayout(Component<?> component) {
+    return ComponentsConfiguration.memoizeStaticLayouts
+        && isLayoutSpec(component)
+        && component.mLifecycle.hasStaticLayout();
+  }
+
   /**
    * Prepares a component for calling any pending state updates on it by setting a global key and
    *   a scoped component context and applies the pending state updates.
@@ -323,13 +335,27 @@ public abstract class Component<L extends ComponentLifecycle> implements HasEven
   void applyStateUpdates(ComponentContext c) {
     final Component<?> parentScope = c.getComponentScope();
     final String key = getKey();
-    setGlobalKey(parentScope == null ? key : parentScope.getGlobalKey() + key);
+    setGlobalKey(parentScope == null ? key : generateGlobalKey(c, parentScope.getGlobalKey(), key));
 
     setScopedContext(ComponentContext.withComponentScope(c, this));
 
     if (getLifecycle().hasState()) {
       c.getStateHandler().applyStateUpdatesForComponent(this);
     }
+
+    LayoutSnapshotRecorder.onComponentResolved(this, parentScope);
+  }
+
+  private static String generateGlobalKey(
+      ComponentContext c,
+      String parentGlobalKey,
+      String key) {
+    final GlobalKeyTable globalKeyTable = c.getGlobalKeyTable();
+    if (globalKeyTable != null) {
+      return globalKeyTable.getGlobalKey(parentGlobalKey, key);
+    }
+
+    return parentGlobalKey + key;
   }
 
   @Override
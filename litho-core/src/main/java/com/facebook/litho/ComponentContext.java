@@ -39,6 +39,8 @@ public class ComponentContext extends ContextWrapper {
   protected @ThreadConfined(ThreadConfined.ANY) TreeProps mTreeProps;
 
   private @ThreadConfined(ThreadConfined.ANY) ComponentTree mComponentTree;
+  // Set for the layout calculations of a ComponentTree when global keys are interned.
+  private @ThreadConfined(ThreadConfined.ANY) GlobalKeyTable mGlobalKeyTable;
 
   // Used to hold styling information applied to components
   private @ThreadConfined(ThreadConfined.ANY) @StyleRes int mDefStyleRes = 0;
@@ -90,6 +92,7 @@ public class ComponentContext extends ContextWrapper {
       mHeightSpec = componentContext.mHeightSpec;
       mComponentScope = componentContext.mComponentScope;
       mComponentTree = componentContext.mComponentTree;
+      mGlobalKeyTable = componentContext.mGlobalKeyTable;
     } else {
       mResourceCache = ResourceCache.getLatest(context.getResources().getConfiguration());
     }
@@ -118,6 +121,7 @@ public class ComponentContext extends ContextWrapper {
    * @return a new ComponentContext instance scoped to the given component
    */
   static ComponentContext withComponentScope(ComponentContext context, Component scope) {
+    AllocationTracker.onAllocation("ComponentContext.withComponentScope");
     ComponentContext componentContext = context.makeNewCopy();
     componentContext.mComponentScope = scope;
     componentContext.mComponentTree = context.mComponentTree;
@@ -125,6 +129,15 @@ public class ComponentContext extends ContextWrapper {
     return componentContext;
   }
 
+  @Nullable
+  GlobalKeyTable getGlobalKeyTable() {
+    return mGlobalKeyTable;
+  }
+
+  void setGlobalKeyTable(@Nullable GlobalKeyTable globalKeyTable) {
+    mGlobalKeyTable = globalKeyTable;
+  }
+
   ComponentContext makeNewCopy() {
     return new ComponentContext(this);
   }
@@ -231,6 +244,14 @@ public class ComponentContext extends ContextWrapper {
     return new EventHandler<E>(mComponentScope, id, params);
   }
 
+  <E> EventHandler<E> newEventHandler(int id, Object param0, Object param1) {
+    return new EventHandler<E>(mComponentScope, id, param0, param1);
+  }
+
+  <E> EventHandler<E> newEventHandler(int id, Object param0, long primitiveParam1) {
+    return new EventHandler<E>(mComponentScope, id, param0, primitiveParam1);
+  }
+
   InternalNode newLayoutBuilder(ComponentContext c) {
     return newLayoutBuilder(0, 0);
   }
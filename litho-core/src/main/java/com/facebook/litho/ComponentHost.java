@@ -25,6 +25,8 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewParent;
 
+import com.facebook.litho.config.ComponentsConfiguration;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -61,6 +63,7 @@ public class ComponentHost extends ViewGroup {
   private boolean mSuppressInvalidations;
 
   private final InterleavedDispatchDraw mDispatchDraw = new InterleavedDispatchDraw();
+  private StaticDrawableRunsCache mStaticDrawableRunsCache;
 
   private final List<ComponentHost> mScrapHosts = new ArrayList<>(3);
 
@@ -99,6 +102,29 @@ public class ComponentHost extends ViewGroup {
 
     mComponentAccessibilityDelegate = new ComponentAccessibilityDelegate(this);
     refreshAccessibilityDelegatesIfNeeded(isAccessibilityEnabled(context));
+    setStaticDrawableRunsCachingEnabled(ComponentsConfiguration.cacheStaticDrawableRunsInHosts);
+  }
+
+  /**
+   * Sets whether contiguous runs of static drawables mounted in this host should be recorded into
+   * a single cached DisplayList rather than being drawn one by one on every invalidation.
+   */
+  void setStaticDrawableRunsCachingEnabled(boolean enabled) {
+    if (enabled && mStaticDrawableRunsCache == null) {
+      mStaticDrawableRunsCache = new StaticDrawableRunsCache();
+    } else if (!enabled) {
+      mStaticDrawableRunsCache = null;
+    }
+  }
+
+  boolean isStaticDrawableRunsCachingEnabled() {
+    return mStaticDrawableRunsCache != null;
+  }
+
+  private void invalidateStaticDrawableRuns() {
+    if (mStaticDrawableRunsCache != null) {
+      mStaticDrawableRunsCache.invalidateAll();
+    }
   }
 
   /**
@@ -134,6 +160,7 @@ public class ComponentHost extends ViewGroup {
     }
 
     mMountItems.put(index, mountItem);
+    invalidateStaticDrawableRuns();
 
     maybeInvalidateAccessibilityState(mountItem);
   }
@@ -161,6 +188,7 @@ public class ComponentHost extends ViewGroup {
     }
 
     ComponentHostUtils.removeItem(index, mMountItems, mScrapMountItemsArray);
+    invalidateStaticDrawableRuns();
     releaseScrapDataStructuresIfNeeded();
     maybeInvalidateAccessibilityState(mountItem);
   }
@@ -175,6 +203,7 @@ public class ComponentHost extends ViewGroup {
     maybeUnregisterTouchExpansion(index, mountItem);
     ComponentHostUtils.removeItem(index, mViewMountItems, mScrapViewMountItemsArray);
     ComponentHostUtils.removeItem(index, mMountItems, mScrapMountItemsArray);
+    invalidateStaticDrawableRuns();
     releaseScrapDataStructuresIfNeeded();
     mDisappearingItems.put(index, mountItem);
   }
@@ -393,6 +422,16 @@ public class ComponentHost extends ViewGroup {
    * @param newIndex The new index of the MountItem.
    */
   void moveItem(MountItem item, int oldIndex, int newIndex) {
+    moveItem(item, oldIndex, newIndex, true);
+  }
+
+  /**
+   * Same as {@link ComponentHost#moveItem(MountItem, int, int)}. If {@code drawingOrderChanged} is
+   * false the caller guarantees that the item keeps its position relative to the other items of
+   * this host, so only its index gets updated and the host doesn't need to detach its view or to
+   * redraw.
+   */
+  void moveItem(MountItem item, int oldIndex, int newIndex, boolean drawingOrderChanged) {
     if (item == null && mScrapMountItemsArray != null) {
       item = mScrapMountItemsArray.get(oldIndex);
     }
@@ -403,12 +442,17 @@ public class ComponentHost extends ViewGroup {
     maybeMoveTouchExpansionIndexes(item, oldIndex, newIndex);
 
     final Object content = item.getContent();
+    final boolean detachView = drawingOrderChanged && content instanceof View;
     if (content instanceof Drawable) {
-      moveDrawableItem(item, oldIndex, newIndex);
+      moveDrawableItem(item, oldIndex, newIndex, drawingOrderChanged);
     } else if (content instanceof View) {
-      mIsChildDrawingOrderDirty = true;
+      if (drawingOrderChanged) {
+        mIsChildDrawingOrderDirty = true;
+      }
 
-      startTemporaryDetach(((View) content));
+      if (detachView) {
+        startTemporaryDetach(((View) content));
+      }
 
       if (mViewMountItems.get(newIndex) != null) {
         ensureScrapViewMountItemsArray();
@@ -426,14 +470,24 @@ public class ComponentHost extends ViewGroup {
     }
 
     ComponentHostUtils.moveItem(oldIndex, newIndex, mMountItems, mScrapMountItemsArray);
+    invalidateStaticDrawableRuns();
 
     releaseScrapDataStructuresIfNeeded();
 
-    if (content instanceof View) {
+    if (detachView) {
       finishTemporaryDetach(((View) content));
     }
   }
 
+  /**
+   * Notifies this host that the relative order of its items changed even though some of them kept
+   * their index, see {@link ComponentHost#moveItem(MountItem, int, int, boolean)}.
+   */
+  void invalidateDrawingOrder() {
+    mIsChildDrawingOrderDirty = true;
+    invalidate();
+  }
+
   /**
    * Sets view tag on this host.
    * @param viewTag the object to set as tag.
@@ -743,6 +797,7 @@ public class ComponentHost extends ViewGroup {
   @Override
   protected void drawableStateChanged() {
     super.drawableStateChanged();
+    invalidateStaticDrawableRuns();
 
     for (int i = 0, size = mDrawableMountItems.size(); i < size; i++) {
       final MountItem mountItem = mDrawableMountItems.valueAt(i);
@@ -766,6 +821,7 @@ public class ComponentHost extends ViewGroup {
   @Override
   public void setVisibility(int visibility) {
     super.setVisibility(visibility);
+    invalidateStaticDrawableRuns();
 
     for (int i = 0, size = mDrawableMountItems.size(); i < size; i++) {
       final Drawable drawable = (Drawable) mDrawableMountItems.valueAt(i).getContent();
@@ -794,6 +850,21 @@ public class ComponentHost extends ViewGroup {
     return super.getTag(key);
   }
 
+  @Override
+  public void invalidateDrawable(Drawable drawable) {
+    if (mStaticDrawableRunsCache != null) {
+      mStaticDrawableRunsCache.invalidateRunOf(drawable);
+    }
+
+    super.invalidateDrawable(drawable);
+  }
+
+  @Override
+  protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+    super.onSizeChanged(w, h, oldw, oldh);
+    invalidateStaticDrawableRuns();
+  }
+
   @Override
   public void invalidate(Rect dirty) {
     if (mSuppressInvalidations) {
@@ -959,7 +1030,11 @@ public class ComponentHost extends ViewGroup {
     releaseScrapDataStructuresIfNeeded();
   }
 
-  private void moveDrawableItem(MountItem item, int oldIndex, int newIndex) {
+  private void moveDrawableItem(
+      MountItem item,
+      int oldIndex,
+      int newIndex,
+      boolean drawingOrderChanged) {
     // When something is already present in newIndex position we need to keep track of it.
     if (mDrawableMountItems.get(newIndex) != null) {
       ensureScrapDrawableMountItemsArray();
@@ -981,7 +1056,9 @@ public class ComponentHost extends ViewGroup {
     }
 
     // Drawing order changed, invalidate the whole view.
-    this.invalidate();
+    if (drawingOrderChanged) {
+      this.invalidate();
+    }
 
     releaseScrapDataStructuresIfNeeded();
   }
@@ -1041,6 +1118,10 @@ public class ComponentHost extends ViewGroup {
         return;
       }
 
+      // Decided once per pass, so that the fallback path doesn't look for a run at every item.
+      final boolean drawRuns = mStaticDrawableRunsCache != null
+          && mStaticDrawableRunsCache.canDrawRuns(mCanvas);
+
       for (int i = mDrawIndex, size = mMountItems.size(); i < size; i++) {
         final MountItem mountItem = mMountItems.valueAt(i);
 
@@ -1057,6 +1138,21 @@ public class ComponentHost extends ViewGroup {
           return;
         }
 
+        if (drawRuns) {
+          final int runEnd = StaticDrawableRunsCache.findRunEnd(mMountItems, i);
+          if (runEnd - i >= StaticDrawableRunsCache.MIN_RUN_LENGTH
+              && mStaticDrawableRunsCache.drawRun(
+                  ComponentHost.this,
+                  mCanvas,
+                  mMountItems,
+                  i,
+                  runEnd)) {
+            // Skip the items that have been drawn as part of the run.
+            i = runEnd - 1;
+            continue;
+          }
+        }
+
         ComponentsSystrace.beginSection(mountItem.getComponent().getSimpleName());
         ((Drawable) content).draw(mCanvas);
         ComponentsSystrace.endSection();
@@ -20,6 +20,7 @@ import android.support.v4.widget.ExploreByTouchHelper;
 import android.view.View;
 
 import com.facebook.litho.annotations.OnCreateTreeProp;
+import com.facebook.litho.config.ComponentsConfiguration;
 import com.facebook.yoga.YogaBaselineFunction;
 import com.facebook.yoga.YogaMeasureFunction;
 import com.facebook.yoga.YogaMeasureMode;
@@ -41,6 +42,12 @@ public abstract class ComponentLifecycle implements EventDispatcher {
   private static final AtomicInteger sComponentId = new AtomicInteger();
   private static final int DEFAULT_MAX_PREALLOCATION = 15;
 
+  /**
+   * Change mask meaning that any prop or state value might have changed, see
+   * {@link #getChangeMask(Component, Component)}.
+   */
+  protected static final long CHANGE_MASK_ALL = ~0L;
+
   private boolean mPreallocationDone;
 
   public enum MountType {
@@ -76,6 +83,7 @@ public abstract class ComponentLifecycle implements EventDispatcher {
     private Size acquireSize(int initialValue) {
       Size size = mSizePool.acquire();
       if (size == null) {
+        AllocationTracker.onPoolMiss("MeasureSize");
         size = new Size();
       }
 
@@ -123,10 +131,14 @@ public abstract class ComponentLifecycle implements EventDispatcher {
           && diffNode.getLastHeightSpec() == heightSpec) {
         outputWidth = (int) diffNode.getLastMeasuredWidth();
         outputHeight = (int) diffNode.getLastMeasuredHeight();
+        node.setCachedMeasureReused(true);
       } else {
         final Size size = acquireSize(Integer.MIN_VALUE /* initialValue */);
 
         try {
+          final long debugStartNanos =
+              ComponentsConfiguration.isDebugModeEnabled ? System.nanoTime() : 0;
+          final long startNanos = LifecycleProfiler.beginMethod();
           component.getLifecycle().onMeasure(
               node.getContext(),
               node,
@@ -134,6 +146,15 @@ public abstract class ComponentLifecycle implements EventDispatcher {
               heightSpec,
               size,
               component);
+          LifecycleProfiler.endMethod(
+              startNanos,
+              LifecycleProfiler.METHOD_MEASURE,
+              component.getLifecycle(),
+              component);
+          if (debugStartNanos != 0) {
+            node.setLastMeasureDurationNanos(System.nanoTime() - debugStartNanos);
+          }
+          node.setCachedMeasureReused(false);
 
           if (size.width < 0 || size.height < 0) {
             throw new IllegalStateException(
@@ -164,6 +185,7 @@ public abstract class ComponentLifecycle implements EventDispatcher {
   };
 
   private final int mId;
+  private String mDefaultComponentKey;
 
   protected ComponentLifecycle() {
     mId = sComponentId.incrementAndGet();
@@ -173,19 +195,44 @@ public abstract class ComponentLifecycle implements EventDispatcher {
     return mId;
   }
 
+  /**
+   * @return the key of the components of this lifecycle that don't have an explicit one. It's the
+   * same for all of them, so it's only created once.
+   */
+  String getDefaultComponentKey() {
+    // A race here would just create an equal string more than once.
+    if (mDefaultComponentKey == null) {
+      mDefaultComponentKey = Integer.toString(getId());
+    }
+
+    return mDefaultComponentKey;
+  }
+
   Object createMountContent(ComponentContext c) {
-    return onCreateMountContent(c);
+    final long startNanos = LifecycleProfiler.beginMethod();
+    final Object mountContent = onCreateMountContent(c);
+    LifecycleProfiler.endMethod(
+        startNanos,
+        LifecycleProfiler.METHOD_CREATE_MOUNT_CONTENT,
+        this,
+        null);
+
+    return mountContent;
   }
 
   void mount(ComponentContext c, Object convertContent, Component<?> component) {
     c.enterNoStateUpdatesMethod("mount");
+    final long startNanos = LifecycleProfiler.beginMethod();
     onMount(c, convertContent, component);
+    LifecycleProfiler.endMethod(startNanos, LifecycleProfiler.METHOD_MOUNT, this, component);
     c.exitNoStateUpdatesMethod();
   }
 
   void bind(ComponentContext c, Object mountedContent, Component<?> component) {
     c.enterNoStateUpdatesMethod("bind");
+    final long startNanos = LifecycleProfiler.beginMethod();
     onBind(c, mountedContent, component);
+    LifecycleProfiler.endMethod(startNanos, LifecycleProfiler.METHOD_BIND, this, component);
     c.exitNoStateUpdatesMethod();
   }
 
@@ -222,14 +269,22 @@ public abstract class ComponentLifecycle implements EventDispatcher {
     if (deferNestedTreeResolution) {
       node = ComponentsPools.acquireInternalNode(context, context.getResources());
       node.markIsNestedTreeHolder(context.getTreeProps());
-    } else if (Component.isLayoutSpecWithSizeSpec(component)) {
-      node = (InternalNode) onCreateLayoutWithSizeSpec(
-          context,
-          context.getWidthSpec(),
-          context.getHeightSpec(),
-          component);
     } else {
-      node = (InternalNode) onCreateLayout(context, component);
+      final long startNanos = LifecycleProfiler.beginMethod();
+      if (Component.isLayoutSpecWithSizeSpec(component)) {
+        node = (InternalNode) onCreateLayoutWithSizeSpec(
+            context,
+            context.getWidthSpec(),
+            context.getHeightSpec(),
+            component);
+      } else {
+        node = (InternalNode) onCreateLayout(context, component);
+      }
+      LifecycleProfiler.endMethod(
+          startNanos,
+          LifecycleProfiler.METHOD_CREATE_LAYOUT,
+          this,
+          component);
     }
 
     ComponentsSystrace.endSection();
@@ -550,6 +605,14 @@ public abstract class ComponentLifecycle implements EventDispatcher {
     mPreallocationDone = true;
   }
 
+  /**
+   * @return whether the layout of this component only depends on the size constraints it's
+   * measured with, so that it can be memoized. See {@link StaticLayoutCache}.
+   */
+  protected boolean hasStaticLayout() {
+    return false;
+  }
+
   protected boolean isPureRender() {
     return false;
   }
@@ -595,6 +658,25 @@ public abstract class ComponentLifecycle implements EventDispatcher {
     return !previous.equals(next);
   }
 
+  /**
+   * Returns which props and state values differ between two components of this type. Each prop and
+   * state value of the spec is assigned a bit, in declaration order with props first. The code
+   * generated for pure render specs overrides this, other components report that everything might
+   * have changed.
+   */
+  protected long getChangeMask(Component previous, Component next) {
+    return CHANGE_MASK_ALL;
+  }
+
+  /**
+   * @return the bits of {@link #getChangeMask(Component, Component)} which correspond to the props
+   * and state values used when binding and unbinding the mounted content. If none of them changed
+   * the mounted content doesn't need to be bound again.
+   */
+  protected long getBindDependenciesMask() {
+    return CHANGE_MASK_ALL;
+  }
+
   /**
    * @return a {@link TransitionSet} specifying how to animate this component to its new layout
    * and props.
@@ -619,6 +701,46 @@ public abstract class ComponentLifecycle implements EventDispatcher {
     return new EventHandler<E>(c, id, params);
   }
 
+  /**
+   * Same as {@link #newEventHandler(ComponentContext, int, Object[])} for handlers with at most two
+   * params, which don't need to allocate an array to hold them.
+   */
+  protected static <E> EventHandler<E> newEventHandler(
+      ComponentContext c,
+      int id,
+      Object param0,
+      Object param1) {
+    return c.newEventHandler(id, param0, param1);
+  }
+
+  protected static <E> EventHandler<E> newEventHandler(
+      Component<?> c,
+      int id,
+      Object param0,
+      Object param1) {
+    return new EventHandler<E>(c, id, param0, param1);
+  }
+
+  /**
+   * Same as {@link #newEventHandler(ComponentContext, int, Object, Object)} for handlers whose
+   * second param is a primitive, encoded as described in {@link EventHandler#getPrimitiveParam}.
+   */
+  protected static <E> EventHandler<E> newEventHandler(
+      ComponentContext c,
+      int id,
+      Object param0,
+      long primitiveParam1) {
+    return c.newEventHandler(id, param0, primitiveParam1);
+  }
+
+  protected static <E> EventHandler<E> newEventHandler(
+      Component<?> c,
+      int id,
+      Object param0,
+      long primitiveParam1) {
+    return new EventHandler<E>(c, id, param0, primitiveParam1);
+  }
+
   protected boolean needsPreviousRenderInfo() {
     return false;
   }
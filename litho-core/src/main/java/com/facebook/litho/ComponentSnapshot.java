@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.annotation.Nullable;
+
+import com.facebook.litho.annotations.Prop;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The type and the props of a {@link Component}, as recorded in a {@link LayoutSnapshot}. Props
+ * that can't be serialized are only recorded by name, except for props that are themselves
+ * components, which are recorded as nested ComponentSnapshots.
+ */
+public final class ComponentSnapshot implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String mComponentClassName;
+  private final String mSimpleName;
+  private final HashMap<String, Serializable> mProps = new HashMap<>();
+  private final HashMap<String, ComponentSnapshot> mComponentProps = new HashMap<>();
+  private final ArrayList<String> mSkippedProps = new ArrayList<>();
+
+  private ComponentSnapshot(String componentClassName, String simpleName) {
+    mComponentClassName = componentClassName;
+    mSimpleName = simpleName;
+  }
+
+  static ComponentSnapshot create(Component<?> component) {
+    final ComponentSnapshot snapshot =
+        new ComponentSnapshot(component.getClass().getName(), component.getSimpleName());
+
+    for (Field field : component.getClass().getDeclaredFields()) {
+      if (field.getAnnotation(Prop.class) == null) {
+        continue;
+      }
+
+      final Object value = readField(field, component);
+      if (value instanceof Component) {
+        snapshot.mComponentProps.put(field.getName(), create((Component<?>) value));
+      } else if (isSerializable(value)) {
+        snapshot.mProps.put(field.getName(), (Serializable) value);
+      } else {
+        snapshot.mSkippedProps.add(field.getName());
+      }
+    }
+
+    return snapshot;
+  }
+
+  /**
+   * @return the name of the generated class of the component, which can be instantiated again to
+   * replay the layout.
+   */
+  public String getComponentClassName() {
+    return mComponentClassName;
+  }
+
+  public String getSimpleName() {
+    return mSimpleName;
+  }
+
+  /**
+   * @return the values of the serializable props, by name.
+   */
+  public Map<String, Serializable> getProps() {
+    return Collections.unmodifiableMap(mProps);
+  }
+
+  /**
+   * @return the snapshots of the props that are components, by name.
+   */
+  public Map<String, ComponentSnapshot> getComponentProps() {
+    return Collections.unmodifiableMap(mComponentProps);
+  }
+
+  /**
+   * @return the names of the props whose value couldn't be recorded.
+   */
+  public List<String> getSkippedProps() {
+    return Collections.unmodifiableList(mSkippedProps);
+  }
+
+  @Override
+  public String toString() {
+    return mSimpleName + " props=" + mProps + " componentProps=" + mComponentProps +
+        " skippedProps=" + mSkippedProps;
+  }
+
+  @Nullable
+  static Object readField(Field field, Object object) {
+    try {
+      field.setAccessible(true);
+      return field.get(object);
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * @return whether the given value can be written to an {@link ObjectOutputStream}. A
+   * {@link Serializable} collection may still hold values that can't, so the value is actually
+   * written out.
+   */
+  static boolean isSerializable(@Nullable Object value) {
+    if (value == null) {
+      return true;
+    }
+
+    if (!(value instanceof Serializable)) {
+      return false;
+    }
+
+    try {
+      final ObjectOutputStream outputStream = new ObjectOutputStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+      });
+      outputStream.writeObject(value);
+      outputStream.close();
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+}
@@ -28,6 +28,7 @@ import android.view.ViewParent;
 import com.facebook.infer.annotation.ReturnsOwnership;
 import com.facebook.infer.annotation.ThreadConfined;
 import com.facebook.infer.annotation.ThreadSafe;
+import com.facebook.litho.config.ComponentsConfiguration;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -41,8 +42,10 @@ import javax.annotation.concurrent.GuardedBy;
 import static com.facebook.litho.ComponentLifecycle.StateUpdate;
 import static com.facebook.litho.FrameworkLogEvents.EVENT_LAYOUT_CALCULATE;
 import static com.facebook.litho.FrameworkLogEvents.EVENT_PRE_ALLOCATE_MOUNT_CONTENT;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_ALLOCATIONS_COUNT;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_IS_BACKGROUND_LAYOUT;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_LOG_TAG;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_POOL_MISSES_COUNT;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_TREE_DIFF_ENABLED;
 import static com.facebook.litho.ThreadUtils.assertHoldsLock;
 import static com.facebook.litho.ThreadUtils.assertMainThread;
@@ -93,13 +96,13 @@ public class ComponentTree {
   private final Runnable mCalculateLayoutRunnable = new Runnable() {
     @Override
     public void run() {
-      calculateLayout(null, false);
+      calculateLayout(null, false, MainThreadLayoutDetector.TRIGGER_ASYNC_LAYOUT);
     }
   };
   private final Runnable mAnimatedCalculateLayoutRunnable = new Runnable() {
     @Override
     public void run() {
-      calculateLayout(null, true);
+      calculateLayout(null, true, MainThreadLayoutDetector.TRIGGER_ASYNC_LAYOUT);
     }
   };
 
@@ -150,6 +153,14 @@ public class ComponentTree {
   @GuardedBy("this")
   private StateHandler mStateHandler;
 
+  private final StaticLayoutCache mStaticLayoutCache = new StaticLayoutCache();
+  // The global keys of the last layout calculation, which the next one starts from.
+  @GuardedBy("this")
+  private GlobalKeyTable mGlobalKeyTable;
+
+  // Only created once a tool such as Stetho inspects this tree.
+  private volatile DebugComponentIndex mDebugComponentIndex;
+
   @ThreadConfined(ThreadConfined.UI)
   private RenderState mPreviousRenderState;
 
@@ -411,11 +422,16 @@ public class ComponentTree {
     // Per ComponentTree visible area. Because LithoViews can be nested and mounted
     // not in "depth order", this variable cannot be static.
     final Rect currentVisibleArea = ComponentsPools.acquireRect();
+    final long startNanos = PhaseTracer.beginPhase();
 
-    if (getVisibleRect(currentVisibleArea)) {
-      mountComponent(currentVisibleArea);
+    try {
+      if (getVisibleRect(currentVisibleArea)) {
+        mountComponent(currentVisibleArea);
+      }
+      // if false: no-op, doesn't have visible area, is not ready or not attached
+    } finally {
+      PhaseTracer.endPhase(startNanos, PhaseTracer.PHASE_INCREMENTAL_MOUNT, mContext, null);
     }
-    // if false: no-op, doesn't have visible area, is not ready or not attached
     ComponentsPools.release(currentVisibleArea);
   }
 
@@ -578,6 +594,20 @@ public class ComponentTree {
     }
 
     if (component != null) {
+      // In strict mode this throws, so it has to happen before the current layout is released.
+      final long detectorStartNanos;
+      try {
+        detectorStartNanos = MainThreadLayoutDetector.beginLayout(
+            MainThreadLayoutDetector.TRIGGER_MEASURE,
+            component,
+            mContext);
+      } catch (IllegalStateException e) {
+        synchronized (this) {
+          mIsMeasuring = false;
+        }
+        throw e;
+      }
+
       // TODO: We should re-use the existing CSSNodeDEPRECATED tree instead of re-creating it.
       if (mMainThreadLayoutState != null) {
         // It's beneficial to delete the old layout state before we start creating a new one since
@@ -591,21 +621,42 @@ public class ComponentTree {
       }
 
       // We have no layout that matches the given spec, so we need to compute it on the main thread.
-      LayoutState localLayoutState = calculateLayoutState(
-          mLayoutLock,
-          mContext,
+      final AllocationPass allocationPass =
+          AllocationTracker.beginPass(AllocationTracker.PASS_LAYOUT, mContext.getLogTag());
+      final long startNanos = PhaseTracer.beginPhase();
+      LayoutState localLayoutState;
+      try {
+        localLayoutState = calculateLayoutState(
+            mLayoutLock,
+            mContext,
+            component,
+            widthSpec,
+            heightSpec,
+            mIsLayoutDiffingEnabled,
+            mLastShouldAnimateTransitions,
+            null,
+            null);
+      } finally {
+        PhaseTracer.endPhase(
+            startNanos,
+            PhaseTracer.PHASE_CALCULATE_LAYOUT,
+            mId,
+            mContext.getLogTag(),
+            component);
+        AllocationTracker.endPass(allocationPass);
+      }
+      MainThreadLayoutDetector.endLayout(
+          detectorStartNanos,
+          MainThreadLayoutDetector.TRIGGER_MEASURE,
           component,
-          widthSpec,
-          heightSpec,
-          mIsLayoutDiffingEnabled,
-          mLastShouldAnimateTransitions,
-          null);
+          mContext);
 
       final StateHandler layoutStateStateHandler =
           localLayoutState.consumeStateHandler();
       synchronized (this) {
         if (layoutStateStateHandler != null) {
           mStateHandler.commit(layoutStateStateHandler);
+          localLayoutState.setCommittedStateVersion(mStateHandler.getVersion());
           ComponentsPools.release(layoutStateStateHandler);
         }
 
@@ -641,7 +692,8 @@ public class ComponentTree {
           SIZE_UNINITIALIZED,
           layoutScheduleType == SCHEDULE_LAYOUT_ASYNC,
           true /* = shouldAnimateTransitions */,
-          null /*output */);
+          null /*output */,
+          MainThreadLayoutDetector.TRIGGER_STATE_UPDATE);
     }
   }
 
@@ -691,7 +743,8 @@ public class ComponentTree {
         SIZE_UNINITIALIZED,
         false /* isAsync */,
         shouldAnimateTransitions,
-        null /* output */);
+        null /* output */,
+        MainThreadLayoutDetector.TRIGGER_SET_ROOT);
   }
 
   public void preAllocateMountContent() {
@@ -739,7 +792,8 @@ public class ComponentTree {
         SIZE_UNINITIALIZED,
         true /* isAsync */,
         false /* shouldAnimateTransitions */,
-        null /* output */);
+        null /* output */,
+        MainThreadLayoutDetector.TRIGGER_SET_ROOT);
   }
 
   synchronized void updateStateLazy(String componentKey, StateUpdate stateUpdate) {
@@ -793,7 +847,8 @@ public class ComponentTree {
         SIZE_UNINITIALIZED,
         isAsync,
         true /* shouldAnimateTransitions */,
-        null /*output */);
+        null /*output */,
+        MainThreadLayoutDetector.TRIGGER_STATE_UPDATE);
   }
 
   /**
@@ -816,7 +871,8 @@ public class ComponentTree {
         heightSpec,
         false /* isAsync */,
         false /* shouldAnimateTransitions */,
-        output /* output */);
+        output /* output */,
+        MainThreadLayoutDetector.TRIGGER_SET_ROOT);
   }
 
   public void setSizeSpecAsync(int widthSpec, int heightSpec) {
@@ -826,7 +882,8 @@ public class ComponentTree {
         heightSpec,
         true /* isAsync */,
         false /* shouldAnimateTransitions */,
-        null /* output */);
+        null /* output */,
+        MainThreadLayoutDetector.TRIGGER_SET_ROOT);
   }
 
   /**
@@ -855,7 +912,8 @@ public class ComponentTree {
         heightSpec,
         true /* isAsync */,
         shouldAnimateTransitions,
-        null /* output */);
+        null /* output */,
+        MainThreadLayoutDetector.TRIGGER_SET_ROOT);
   }
 
   /**
@@ -884,7 +942,8 @@ public class ComponentTree {
         heightSpec,
         false /* isAsync */,
         shouldAnimateTransitions,
-        null /* output */);
+        null /* output */,
+        MainThreadLayoutDetector.TRIGGER_SET_ROOT);
   }
 
   public void setRootAndSizeSpec(Component<?> root, int widthSpec, int heightSpec, Size output) {
@@ -898,7 +957,8 @@ public class ComponentTree {
         heightSpec,
         false /* isAsync */,
         false /* shouldAnimateTransitions */,
-        output);
+        output,
+        MainThreadLayoutDetector.TRIGGER_SET_ROOT);
   }
 
   /**
@@ -941,7 +1001,8 @@ public class ComponentTree {
       int heightSpec,
       boolean isAsync,
       boolean shouldAnimateTransitions,
-      Size output) {
+      Size output,
+      @MainThreadLayoutDetector.LayoutTrigger int trigger) {
 
     synchronized (this) {
 
@@ -1020,7 +1081,7 @@ public class ComponentTree {
               mAnimatedCalculateLayoutRunnable :
               mCalculateLayoutRunnable);
     } else {
-      calculateLayout(output, shouldAnimateTransitions);
+      calculateLayout(output, shouldAnimateTransitions, trigger);
     }
   }
 
@@ -1028,12 +1089,18 @@ public class ComponentTree {
    * Calculates the layout.
    * @param output a destination where the size information should be saved
    * @param shouldAnimateTransitions whether component transitions should be animated
+   * @param trigger what triggered the layout, reported if it's calculated on the main thread
    */
-  private void calculateLayout(Size output, boolean shouldAnimateTransitions) {
+  private void calculateLayout(
+      Size output,
+      boolean shouldAnimateTransitions,
+      @MainThreadLayoutDetector.LayoutTrigger int trigger) {
     int widthSpec;
     int heightSpec;
     Component<?> root;
     LayoutState previousLayoutState = null;
+    LayoutState backgroundLayoutState = null;
+    final long detectorStartNanos;
 
     // Cancel any scheduled requests we might have in the background queue since we are starting
     // a new layout computation.
@@ -1060,9 +1127,26 @@ public class ComponentTree {
       heightSpec = mHeightSpec;
       root = mRoot.makeShallowCopy();
 
+      // In strict mode this throws, so it has to happen before the previous layout is acquired.
+      detectorStartNanos = MainThreadLayoutDetector.beginLayout(trigger, root, mContext);
+
       if (mMainThreadLayoutState != null) {
         previousLayoutState = mMainThreadLayoutState.acquireRef();
       }
+
+      if (ComponentsConfiguration.incrementalStateUpdates
+          && mBackgroundLayoutState != null
+          && mBackgroundLayoutState != mMainThreadLayoutState) {
+        backgroundLayoutState = mBackgroundLayoutState.acquireRef();
+      }
+    }
+
+    // Only the main thread LayoutState is re-used by incremental state updates, so the node tree
+    // of a background one that was never mounted can give its memoized nested trees back now.
+    if (backgroundLayoutState != null) {
+      backgroundLayoutState.releaseLayoutRoot();
+      backgroundLayoutState.releaseRef();
+      backgroundLayoutState = null;
     }
 
     final ComponentsLogger logger = mContext.getLogger();
@@ -1074,15 +1158,31 @@ public class ComponentTree {
       layoutEvent.addParam(PARAM_IS_BACKGROUND_LAYOUT, String.valueOf(!ThreadUtils.isMainThread()));
     }
 
-    LayoutState localLayoutState = calculateLayoutState(
-        mLayoutLock,
-        mContext,
-        root,
-        widthSpec,
-        heightSpec,
-        mIsLayoutDiffingEnabled,
-        shouldAnimateTransitions,
-        previousLayoutState != null ? previousLayoutState.getDiffTree() : null);
+    final AllocationPass allocationPass =
+        AllocationTracker.beginPass(AllocationTracker.PASS_LAYOUT, mContext.getLogTag());
+    final long startNanos = PhaseTracer.beginPhase();
+    LayoutState localLayoutState;
+    try {
+      localLayoutState = calculateLayoutState(
+          mLayoutLock,
+          mContext,
+          root,
+          widthSpec,
+          heightSpec,
+          mIsLayoutDiffingEnabled,
+          shouldAnimateTransitions,
+          previousLayoutState != null ? previousLayoutState.getDiffTree() : null,
+          previousLayoutState);
+    } finally {
+      PhaseTracer.endPhase(
+          startNanos,
+          PhaseTracer.PHASE_CALCULATE_LAYOUT,
+          mId,
+          mContext.getLogTag(),
+          root);
+      AllocationTracker.endPass(allocationPass);
+    }
+    MainThreadLayoutDetector.endLayout(detectorStartNanos, trigger, root, mContext);
 
     if (output != null) {
       output.width = localLayoutState.getWidth();
@@ -1106,6 +1206,7 @@ public class ComponentTree {
           if (layoutStateStateHandler != null) {
             if (mStateHandler != null) { // we could have been released
               mStateHandler.commit(layoutStateStateHandler);
+              localLayoutState.setCommittedStateVersion(mStateHandler.getVersion());
             }
             ComponentsPools.release(layoutStateStateHandler);
           }
@@ -1130,6 +1231,14 @@ public class ComponentTree {
     }
 
     if (logger != null) {
+      if (allocationPass != null) {
+        layoutEvent.addParam(
+            PARAM_POOL_MISSES_COUNT,
+            String.valueOf(allocationPass.getPoolMissCount()));
+        layoutEvent.addParam(
+            PARAM_ALLOCATIONS_COUNT,
+            String.valueOf(allocationPass.getAllocationCount()));
+      }
       logger.log(layoutEvent);
     }
   }
@@ -1175,6 +1284,7 @@ public class ComponentTree {
 
       // TODO t15532529
       mStateHandler = null;
+      mGlobalKeyTable = null;
 
       if (mPreviousRenderState != null && !mPreviousRenderStateSetFromBuilder) {
         ComponentsPools.release(mPreviousRenderState);
@@ -1192,6 +1302,34 @@ public class ComponentTree {
       backgroundLayoutState.releaseRef();
       backgroundLayoutState = null;
     }
+
+    mStaticLayoutCache.release();
+  }
+
+  StaticLayoutCache getStaticLayoutCache() {
+    return mStaticLayoutCache;
+  }
+
+  DebugComponentIndex getDebugComponentIndex() {
+    DebugComponentIndex debugComponentIndex = mDebugComponentIndex;
+    if (debugComponentIndex == null) {
+      synchronized (this) {
+        if (mDebugComponentIndex == null) {
+          mDebugComponentIndex = new DebugComponentIndex();
+        }
+        debugComponentIndex = mDebugComponentIndex;
+      }
+    }
+
+    return debugComponentIndex;
+  }
+
+  /**
+   * @return the {@link DebugComponentIndex} of this tree, or null if it was never inspected.
+   */
+  @Nullable
+  DebugComponentIndex peekDebugComponentIndex() {
+    return mDebugComponentIndex;
   }
 
   private boolean isCompatibleComponentAndSpec(LayoutState layoutState) {
@@ -1280,16 +1418,24 @@ public class ComponentTree {
       int heightSpec,
       boolean diffingEnabled,
       boolean shouldAnimateTransitions,
-      @Nullable DiffNode diffNode) {
+      @Nullable DiffNode diffNode,
+      @Nullable LayoutState previousLayoutState) {
     final ComponentContext contextWithStateHandler;
+    final GlobalKeyTable globalKeyTable;
+    AllocationTracker.onAllocation("ComponentTree.calculateLayoutState");
     synchronized (this) {
        contextWithStateHandler =
           new ComponentContext(context, StateHandler.acquireNewInstance(mStateHandler));
+      globalKeyTable = ComponentsConfiguration.internGlobalKeys
+          ? new GlobalKeyTable(mGlobalKeyTable)
+          : null;
     }
+    contextWithStateHandler.setGlobalKeyTable(globalKeyTable);
 
+    final LayoutState layoutState;
     if (lock != null) {
       synchronized (lock) {
-        return LayoutState.calculate(
+        layoutState = LayoutState.calculate(
             contextWithStateHandler,
             root,
             mId,
@@ -1298,10 +1444,11 @@ public class ComponentTree {
             diffingEnabled,
             shouldAnimateTransitions,
             diffNode,
-            mCanPrefetchDisplayLists);
+            mCanPrefetchDisplayLists,
+            previousLayoutState);
       }
     } else {
-      return LayoutState.calculate(
+      layoutState = LayoutState.calculate(
           contextWithStateHandler,
           root,
           mId,
@@ -1310,8 +1457,18 @@ public class ComponentTree {
           diffingEnabled,
           shouldAnimateTransitions,
           diffNode,
-          mCanPrefetchDisplayLists);
+          mCanPrefetchDisplayLists,
+          previousLayoutState);
     }
+
+    if (globalKeyTable != null) {
+      globalKeyTable.complete();
+      synchronized (this) {
+        mGlobalKeyTable = globalKeyTable;
+      }
+    }
+
+    return layoutState;
   }
 
   /**
@@ -476,6 +476,7 @@ public class ComponentsPools {
   @ThreadSafe(enableChecks = false)
   static void release(StateHandler stateHandler) {
     if (!ComponentsConfiguration.usePooling) {
+      stateHandler.releaseBaseStateContainers();
       return;
     }
     stateHandler.release();
@@ -508,6 +509,24 @@ public class ComponentsPools {
     sInternalNodePool.release(node);
   }
 
+  /**
+   * Releases a layout tree built outside of a layout calculation, e.g. by a benchmark harness
+   * calling {@link Layout#create}, back to the pools.
+   */
+  public static void releaseLayoutTree(ComponentLayout layout) {
+    if (layout != null && layout != ComponentContext.NULL_LAYOUT) {
+      LayoutState.releaseNodeTree((InternalNode) layout, false /* isNestedTree */);
+    }
+  }
+
+  /**
+   * Releases the layout a component kept after being measured outside of a layout calculation,
+   * e.g. by a benchmark harness calling {@link Component#measure}, back to the pools.
+   */
+  public static void releaseMeasuredLayout(Component<?> component) {
+    component.releaseCachedLayout();
+  }
+
   @ThreadSafe(enableChecks = false)
   static void release(NodeInfo nodeInfo) {
     if (!ComponentsConfiguration.usePooling) {
@@ -11,7 +11,6 @@ package com.facebook.litho;
 
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
-import android.support.v4.util.SimpleArrayMap;
 import android.view.View;
 
 import com.facebook.litho.reference.Reference;
@@ -44,29 +43,40 @@ public final class DebugComponent {
     void applyOverrides(DebugComponent node);
   }
 
-  private final static SimpleArrayMap<String, DebugComponent> mDebugNodes = new SimpleArrayMap<>();
-
-  private String mKey;
+  private final DebugComponentIndex mIndex;
+  private final String mNodeKey;
+  private final String mKey;
+  private final int mComponentIndex;
   private WeakReference<InternalNode> mNode;
-  private int mComponentIndex;
   private Overrider mOverrider;
+  private DebugComponent[] mChildComponents;
+  private int mChildCount;
+
+  DebugComponent(
+      DebugComponentIndex index,
+      String nodeKey,
+      String key,
+      int componentIndex) {
+    mIndex = index;
+    mNodeKey = nodeKey;
+    mKey = key;
+    mComponentIndex = componentIndex;
+  }
+
+  private static DebugComponent getInstance(
+      DebugComponentIndex index,
+      InternalNode node,
+      String nodeKey,
+      int componentIndex) {
+    final DebugComponent debugComponent = index.getOrCreate(nodeKey, componentIndex);
+    debugComponent.bind(node);
+    return debugComponent;
+  }
 
-  private DebugComponent() {}
-
-  static synchronized DebugComponent getInstance(InternalNode node, int componentIndex) {
-    final String globalKey = createKey(node, componentIndex);
-    DebugComponent debugComponent = mDebugNodes.get(globalKey);
-
-    if (debugComponent == null) {
-      debugComponent = new DebugComponent();
-      mDebugNodes.put(globalKey, debugComponent);
+  private void bind(InternalNode node) {
+    if (mNode == null || mNode.get() != node) {
+      mNode = new WeakReference<>(node);
     }
-
-    debugComponent.mKey = globalKey;
-    debugComponent.mNode = new WeakReference<>(node);
-    debugComponent.mComponentIndex = componentIndex;
-
-    return debugComponent;
   }
 
   /**
@@ -77,6 +87,33 @@ public final class DebugComponent {
     return getRootInstance(view.getComponentTree());
   }
 
+  /**
+   * @return How long the last layout of the LithoView's ComponentTree took to calculate, or -1 if
+   * it is unknown. Only recorded in debug mode.
+   */
+  public static long getLastLayoutDurationNanos(LithoView view) {
+    final ComponentTree componentTree = view.getComponentTree();
+    final LayoutState layoutState = componentTree == null ?
+        null :
+        componentTree.getMainThreadLayoutState();
+    return layoutState == null ? -1 : layoutState.getCalculateDurationNanos();
+  }
+
+  /**
+   * @return How long the last mount pass of the LithoView took, or -1 if it is unknown. Only
+   * recorded in debug mode.
+   */
+  public static long getLastMountDurationNanos(LithoView view) {
+    return view.getMountState().getLastMountDurationNanos();
+  }
+
+  /**
+   * @return The number of items currently mounted by the LithoView.
+   */
+  public static int getMountedItemCount(LithoView view) {
+    return view.getMountState().getItemCount();
+  }
+
   public static DebugComponent getRootInstance(ComponentTree componentTree) {
     final LayoutState layoutState = componentTree == null ?
         null :
@@ -84,7 +121,11 @@ public final class DebugComponent {
     final InternalNode root = layoutState == null ? null : layoutState.getLayoutRoot();
     if (root != null) {
       final int outerWrapperComponentIndex = Math.max(0, root.getComponents().size() - 1);
-      return DebugComponent.getInstance(root, outerWrapperComponentIndex);
+      return getInstance(
+          componentTree.getDebugComponentIndex(),
+          root,
+          Integer.toString(componentTree.mId),
+          outerWrapperComponentIndex);
     }
     return null;
   }
@@ -125,6 +166,9 @@ public final class DebugComponent {
 
   public void setOverrider(Overrider overrider) {
     mOverrider = overrider;
+    if (overrider != null) {
+      mIndex.onOverriderSet();
+    }
   }
 
   /**
@@ -142,26 +186,52 @@ public final class DebugComponent {
 
     if (mComponentIndex > 0) {
       final int wrappedComponentIndex = mComponentIndex - 1;
-      return Arrays.asList(getInstance(node, wrappedComponentIndex));
+      return Arrays.asList(getInstance(mIndex, node, mNodeKey, wrappedComponentIndex));
     }
 
-    final ArrayList<DebugComponent> children = new ArrayList<>();
+    final InternalNode nestedTree = node.hasNestedTree() ? node.getNestedTree() : null;
+    final int childCount = node.getChildCount();
+    final int nestedChildCount = nestedTree == null ? 0 : nestedTree.getChildCount();
 
-    for (int i = 0, count = node.getChildCount(); i < count; i++) {
-      final InternalNode childNode = node.getChildAt(i);
-      final int outerWrapperComponentIndex = Math.max(0, childNode.getComponents().size() - 1);
-      children.add(getInstance(childNode, outerWrapperComponentIndex));
+    // The key of a child only depends on its position, so as long as the number of children didn't
+    // change, the children found by the last call can be bound to the nodes of the current layout
+    // without building their keys and looking them up again.
+    if (mChildComponents == null
+        || mChildCount != childCount
+        || mChildComponents.length != childCount + nestedChildCount) {
+      mChildComponents = new DebugComponent[childCount + nestedChildCount];
+      mChildCount = childCount;
     }
 
-    if (node.hasNestedTree()) {
-      final InternalNode nestedTree = node.getNestedTree();
-      for (int i = 0, count = nestedTree.getChildCount(); i < count; i++) {
-        final InternalNode childNode = nestedTree.getChildAt(i);
-        children.add(getInstance(childNode, Math.max(0, childNode.getComponents().size() - 1)));
-      }
+    for (int i = 0; i < childCount; i++) {
+      bindChildComponent(i, node.getChildAt(i), false, i);
+    }
+
+    for (int i = 0; i < nestedChildCount; i++) {
+      bindChildComponent(childCount + i, nestedTree.getChildAt(i), true, i);
     }
 
-    return children;
+    // Copied, as the children of a later call are bound into the same array.
+    return new ArrayList<>(Arrays.asList(mChildComponents));
+  }
+
+  private void bindChildComponent(
+      int position,
+      InternalNode childNode,
+      boolean isInNestedTree,
+      int childIndex) {
+    final int outerWrapperComponentIndex = Math.max(0, childNode.getComponents().size() - 1);
+    final DebugComponent childComponent = mChildComponents[position];
+
+    if (childComponent != null && childComponent.mComponentIndex == outerWrapperComponentIndex) {
+      childComponent.bind(childNode);
+    } else {
+      mChildComponents[position] = getInstance(
+          mIndex,
+          childNode,
+          createChildNodeKey(mKey, isInNestedTree, childIndex),
+          outerWrapperComponentIndex);
+    }
   }
 
   /**
@@ -514,6 +584,76 @@ public final class DebugComponent {
     mNode.get().borderWidthPx(edge, (int) value);
   }
 
+  /**
+   * @return How long the last onMeasure call of this component took, or -1 if it wasn't called,
+   * e.g. because this component isn't a measured mount spec. Only recorded in debug mode.
+   */
+  public long getLastMeasureDurationNanos() {
+    final InternalNode node = mNode.get();
+    if (node == null || !isLayoutNode()) {
+      return -1;
+    }
+
+    return node.getLastMeasureDurationNanos();
+  }
+
+  /**
+   * @return True if the last measure of this component re-used the size cached by the previous
+   * layout through its DiffNode instead of calling onMeasure.
+   */
+  public boolean isCachedMeasureReused() {
+    final InternalNode node = mNode.get();
+    return node != null && isLayoutNode() && node.isCachedMeasureReused();
+  }
+
+  /**
+   * @return The type of content this component mounts: the class name of the mounted content, or
+   * the mount type of the component if it isn't mounted. Null if this component doesn't mount
+   * content.
+   */
+  public String getMountContentType() {
+    final InternalNode node = mNode.get();
+    final Component component = node == null || mComponentIndex > 0
+        ? null
+        : node.getRootComponent();
+    if (component == null
+        || component.getLifecycle().getMountType() == ComponentLifecycle.MountType.NONE) {
+      return null;
+    }
+
+    final MountItem mountItem = getMountItem();
+    return mountItem != null && mountItem.getContent() != null
+        ? mountItem.getContent().getClass().getName()
+        : component.getLifecycle().getMountType().toString();
+  }
+
+  /**
+   * @return True if the mounted content of this component was acquired from its mount content
+   * pool, false if it was created or if this component isn't mounted.
+   */
+  public boolean isMountContentFromPool() {
+    final MountItem mountItem = getMountItem();
+    return mountItem != null && mountItem.isContentFromPool();
+  }
+
+  /**
+   * @return The number of visibility event handlers set on this component.
+   */
+  public int getVisibilityHandlerCount() {
+    final InternalNode node = mNode.get();
+    if (node == null || !isLayoutNode()) {
+      return 0;
+    }
+
+    int count = 0;
+    count += node.getVisibleHandler() != null ? 1 : 0;
+    count += node.getFocusedHandler() != null ? 1 : 0;
+    count += node.getUnfocusedHandler() != null ? 1 : 0;
+    count += node.getFullImpressionHandler() != null ? 1 : 0;
+    count += node.getInvisibleHandler() != null ? 1 : 0;
+    return count;
+  }
+
   public ComponentLifecycle.StateContainer getStateContainer() {
     final Component component = getComponent();
     return component == null ? null : component.getStateContainer();
@@ -545,22 +685,66 @@ public final class DebugComponent {
     return node.getY() + getYFromRoot(parent(node));
   }
 
-  private static String createKey(InternalNode node, int componentIndex) {
+  /**
+   * Applies the overrides set on the components of the given node and of its descendants, from
+   * the layout thread, before the layout of the node is calculated.
+   */
+  static void applyOverrides(InternalNode node) {
+    final ComponentTree tree = node.getContext().getComponentTree();
+    final DebugComponentIndex index = tree == null ? null : tree.peekDebugComponentIndex();
+    if (index == null || !index.hasOverriders()) {
+      return;
+    }
+
+    applyOverridesRecursive(index, node, createNodeKey(tree, node));
+  }
+
+  private static void applyOverridesRecursive(
+      DebugComponentIndex index,
+      InternalNode node,
+      String nodeKey) {
+    final DebugComponent debugComponent = index.find(nodeKey, 0);
+    if (debugComponent != null) {
+      debugComponent.bind(node);
+      debugComponent.applyOverrides();
+    }
+
+    final String key = createKey(nodeKey, 0);
+    for (int i = 0, count = node.getChildCount(); i < count; i++) {
+      applyOverridesRecursive(index, node.getChildAt(i), createChildNodeKey(key, false, i));
+    }
+    if (node.hasNestedTree()) {
+      applyOverridesRecursive(index, node.getNestedTree(), key + ".nested");
+    }
+  }
+
+  static String createKey(String nodeKey, int componentIndex) {
+    return nodeKey + "(" + componentIndex + ")";
+  }
+
+  private static String createChildNodeKey(String key, boolean isInNestedTree, int childIndex) {
+    return isInNestedTree ? key + ".nested(0)." + childIndex : key + "." + childIndex;
+  }
+
+  /**
+   * @return The key of the given node, built by walking up to the root of its tree. Only needed
+   * for nodes that aren't reached from the root, as the keys of children are built from the key of
+   * their parent.
+   */
+  private static String createNodeKey(ComponentTree tree, InternalNode node) {
     final InternalNode parent = node.getParent();
     final InternalNode nestedTreeHolder = node.getNestedTreeHolder();
 
-    String key;
     if (parent != null) {
-      key = createKey(parent, 0) + "." + parent.getChildIndex(node);
+      return createChildNodeKey(
+          createKey(createNodeKey(tree, parent), 0),
+          false,
+          parent.getChildIndex(node));
     } else if (nestedTreeHolder != null) {
-      key = createKey(nestedTreeHolder, 0) + ".nested";
-    } else {
-      final ComponentContext c = node.getContext();
-      final ComponentTree tree = c.getComponentTree();
-      key = Integer.toString(System.identityHashCode(tree));
+      return createKey(createNodeKey(tree, nestedTreeHolder), 0) + ".nested";
     }
 
-    return key + "(" + componentIndex + ")";
+    return Integer.toString(tree.mId);
   }
 
   public String getId() {
@@ -581,6 +765,11 @@ public final class DebugComponent {
   }
 
   private Object getMountedContent() {
+    final MountItem mountItem = getMountItem();
+    return mountItem == null ? null : mountItem.getContent();
+  }
+
+  private MountItem getMountItem() {
     if (mComponentIndex > 0) {
       return null;
     }
@@ -598,7 +787,7 @@ public final class DebugComponent {
 
         if (component != null &&
             component == node.getRootComponent()) {
-          return mountItem.getContent();
+          return mountItem;
         }
       }
     }
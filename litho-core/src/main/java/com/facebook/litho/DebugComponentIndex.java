@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.util.SimpleArrayMap;
+
+import com.facebook.infer.annotation.ThreadSafe;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * The {@link DebugComponent}s of a {@link ComponentTree}, keyed by their position in the tree. It
+ * is only created once a tool such as Stetho inspects the tree, and it is only filled with the
+ * components the tool actually visits. Components are referenced weakly, so the ones the tool
+ * dropped can be collected, and the index itself goes away with its tree.
+ */
+@ThreadSafe
+class DebugComponentIndex {
+
+  /**
+   * Collected components are only removed from the index once it grows past this many keys, or
+   * past twice the number of keys that were left after the last prune.
+   */
+  @VisibleForTesting
+  static final int INITIAL_PRUNE_THRESHOLD = 64;
+
+  private final SimpleArrayMap<String, WeakReference<DebugComponent>> mDebugComponents =
+      new SimpleArrayMap<>();
+  private int mPruneThreshold = INITIAL_PRUNE_THRESHOLD;
+  private volatile boolean mHasOverriders;
+
+  /**
+   * @return the component at the given position in the tree, created if it isn't in the index.
+   */
+  synchronized DebugComponent getOrCreate(String nodeKey, int componentIndex) {
+    final String key = DebugComponent.createKey(nodeKey, componentIndex);
+    final WeakReference<DebugComponent> reference = mDebugComponents.get(key);
+    DebugComponent debugComponent = reference == null ? null : reference.get();
+
+    if (debugComponent == null) {
+      if (mDebugComponents.size() >= mPruneThreshold) {
+        prune();
+      }
+
+      debugComponent = new DebugComponent(this, nodeKey, key, componentIndex);
+      mDebugComponents.put(key, new WeakReference<>(debugComponent));
+    }
+
+    return debugComponent;
+  }
+
+  /**
+   * @return the component at the given position in the tree, or null if it isn't in the index.
+   */
+  @Nullable
+  synchronized DebugComponent find(String nodeKey, int componentIndex) {
+    final WeakReference<DebugComponent> reference =
+        mDebugComponents.get(DebugComponent.createKey(nodeKey, componentIndex));
+    return reference == null ? null : reference.get();
+  }
+
+  @VisibleForTesting
+  synchronized int size() {
+    return mDebugComponents.size();
+  }
+
+  void onOverriderSet() {
+    mHasOverriders = true;
+  }
+
+  /**
+   * @return true if an overrider was ever set on one of the components of this index, in which case
+   * the layouts of the tree need to look the overridden components up.
+   */
+  boolean hasOverriders() {
+    return mHasOverriders;
+  }
+
+  private void prune() {
+    for (int i = mDebugComponents.size() - 1; i >= 0; i--) {
+      if (mDebugComponents.valueAt(i).get() == null) {
+        mDebugComponents.removeAt(i);
+      }
+    }
+
+    mPruneThreshold = Math.max(INITIAL_PRUNE_THRESHOLD, mDebugComponents.size() * 2);
+  }
+}
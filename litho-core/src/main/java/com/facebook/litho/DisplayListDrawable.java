@@ -241,6 +241,10 @@ class DisplayListDrawable extends Drawable implements Drawable.Callback {
     invalidateSelf();
   }
 
+  DisplayList getDisplayList() {
+    return mDisplayList;
+  }
+
   public void suppressInvalidations(boolean suppress) {
     mIgnoreInvalidations = suppress;
   }
@@ -118,7 +118,16 @@ public final class DisplayListPrefetcher implements Runnable {
         break;
       }
 
-      currentLayoutState.createDisplayList(currentLayoutOutput);
+      final long startNanos = PhaseTracer.beginPhase();
+      try {
+        currentLayoutState.createDisplayList(currentLayoutOutput);
+      } finally {
+        PhaseTracer.endPhase(
+            startNanos,
+            PhaseTracer.PHASE_DISPLAY_LIST_PREFETCH,
+            currentLayoutState.getComponentTreeId(),
+            currentLayoutOutput.getComponent());
+      }
       if (currentLayoutOutput.getDisplayList() != null) {
         // successfully created DL
         final long actualElapsedNs = System.nanoTime() - startPrefetchNs;
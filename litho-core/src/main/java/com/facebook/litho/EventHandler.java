@@ -15,14 +15,85 @@ public class EventHandler<E> {
   public final int id;
   public final Object[] params;
 
+  /**
+   * Handlers with at most two params keep them in these fields instead of {@link #params}, so that
+   * creating them doesn't need to allocate an array. A primitive second param is kept in
+   * {@link #mPrimitiveParam1}, encoded as described in {@link #getPrimitiveParam(int)}, so that it
+   * isn't boxed either.
+   */
+  private final Object mParam0;
+  private final Object mParam1;
+  private final long mPrimitiveParam1;
+
   protected EventHandler(HasEventDispatcher hasEventDispatcher, int id) {
     this(hasEventDispatcher, id, null);
   }
 
   public EventHandler(HasEventDispatcher hasEventDispatcher, int id, Object[] params) {
+    this(hasEventDispatcher, id, params, null, null, 0);
+  }
+
+  EventHandler(HasEventDispatcher hasEventDispatcher, int id, Object param0, Object param1) {
+    this(hasEventDispatcher, id, null, param0, param1, 0);
+  }
+
+  EventHandler(
+      HasEventDispatcher hasEventDispatcher,
+      int id,
+      Object param0,
+      long primitiveParam1) {
+    this(hasEventDispatcher, id, null, param0, null, primitiveParam1);
+  }
+
+  private EventHandler(
+      HasEventDispatcher hasEventDispatcher,
+      int id,
+      Object[] params,
+      Object param0,
+      Object param1,
+      long primitiveParam1) {
     this.mHasEventDispatcher = hasEventDispatcher;
     this.id = id;
     this.params = params;
+    mParam0 = param0;
+    mParam1 = param1;
+    mPrimitiveParam1 = primitiveParam1;
+  }
+
+  /**
+   * @return the param at the given index, reading {@link #params} if this handler was created with
+   * an array.
+   */
+  public Object getParam(int index) {
+    if (params != null) {
+      return params[index];
+    }
+
+    return index == 0 ? mParam0 : mParam1;
+  }
+
+  /**
+   * @return the primitive param at the given index, reading {@link #params} if this handler was
+   * created with an array. Integral values are widened to a long, booleans are 1 or 0, and floats
+   * and doubles are stored as their raw bits.
+   */
+  public long getPrimitiveParam(int index) {
+    if (params == null) {
+      return mPrimitiveParam1;
+    }
+
+    final Object param = params[index];
+    if (param instanceof Boolean) {
+      return (Boolean) param ? 1 : 0;
+    } else if (param instanceof Character) {
+      return (Character) param;
+    } else if (param instanceof Float) {
+      return Float.floatToRawIntBits((Float) param);
+    } else if (param instanceof Double) {
+      return Double.doubleToRawLongBits((Double) param);
+    }
+
+    return ((Number) param).longValue();
   }
 
   public void dispatchEvent(E event) {
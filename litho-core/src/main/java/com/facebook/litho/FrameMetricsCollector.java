@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.util.SimpleArrayMap;
+
+import com.facebook.litho.dataflow.ChoreographerCompat;
+
+import static com.facebook.litho.FrameworkLogEvents.EVENT_FRAME_METRICS;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_FRAME_DURATION_US;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_FRAME_LITHO_TIME_US;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_FRAME_LOG_TAGS;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_FRAME_PHASES;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_FRAME_SYNC_LAYOUTS_COUNT;
+
+/**
+ * Attributes the Litho work done on the main thread to the frame it delays. The phases traced by
+ * {@link PhaseTracer} between two Choreographer frame callbacks are added up, and every frame
+ * with Litho work is reported to a {@link ComponentsLogger} as an {@code EVENT_FRAME_METRICS}
+ * event. The event has the time between the two callbacks and the Litho time spent in that
+ * interval, broken down by phase and by ComponentTree log tag.
+ *
+ * Layouts calculated synchronously on the main thread are also counted separately, since they
+ * are the ones that should have happened in the background.
+ */
+public class FrameMetricsCollector extends ChoreographerCompat.FrameCallback {
+
+  private static final String UNKNOWN_LOG_TAG = "unknown";
+
+  private static volatile FrameMetricsCollector sInstance;
+
+  private final ComponentsLogger mLogger;
+  // All the following fields are only accessed from the main thread.
+  private final long[] mPhaseNanos = new long[PhaseTracer.PHASE_COUNT];
+  private final SimpleArrayMap<String, long[]> mLogTagNanos = new SimpleArrayMap<>();
+  private long mLithoNanos;
+  private int mSyncLayoutsCount;
+  private int mPhaseDepth;
+  private long mLastFrameTimeNanos;
+  private boolean mIsStopped;
+
+  @VisibleForTesting
+  FrameMetricsCollector(ComponentsLogger logger) {
+    mLogger = logger;
+  }
+
+  /**
+   * Starts reporting the Litho work of every frame to the given logger. Must be called from the
+   * main thread.
+   */
+  public static void start(ComponentsLogger logger) {
+    ThreadUtils.assertMainThread();
+    stop();
+
+    final FrameMetricsCollector collector = new FrameMetricsCollector(logger);
+    sInstance = collector;
+    ChoreographerCompat.getInstance().postFrameCallback(collector);
+  }
+
+  /**
+   * Stops reporting frames. Must be called from the main thread.
+   */
+  public static void stop() {
+    ThreadUtils.assertMainThread();
+
+    final FrameMetricsCollector collector = sInstance;
+    if (collector != null) {
+      collector.mIsStopped = true;
+      ChoreographerCompat.getInstance().removeFrameCallback(collector);
+      sInstance = null;
+    }
+  }
+
+  @VisibleForTesting
+  @Nullable
+  static FrameMetricsCollector getInstance() {
+    return sInstance;
+  }
+
+  static boolean isCollecting() {
+    return sInstance != null;
+  }
+
+  static void onPhaseStarted() {
+    final FrameMetricsCollector collector = sInstance;
+    if (collector != null && ThreadUtils.isMainThread()) {
+      collector.mPhaseDepth++;
+    }
+  }
+
+  static void onPhaseEnded(int phase, @Nullable String logTag, long durationNanos) {
+    final FrameMetricsCollector collector = sInstance;
+    if (collector != null && ThreadUtils.isMainThread()) {
+      collector.addPhase(phase, logTag, durationNanos);
+    }
+  }
+
+  @VisibleForTesting
+  void addPhase(int phase, @Nullable String logTag, long durationNanos) {
+    mPhaseNanos[phase] += durationNanos;
+    if (phase == PhaseTracer.PHASE_CALCULATE_LAYOUT) {
+      mSyncLayoutsCount++;
+    }
+
+    // Only count the outermost phases in the total, since phases are nested in each other. The
+    // depth can't go below 0, e.g. if collecting started in the middle of a phase.
+    mPhaseDepth = Math.max(mPhaseDepth - 1, 0);
+    if (mPhaseDepth > 0) {
+      return;
+    }
+
+    mLithoNanos += durationNanos;
+
+    final String key = logTag != null ? logTag : UNKNOWN_LOG_TAG;
+    long[] logTagNanos = mLogTagNanos.get(key);
+    if (logTagNanos == null) {
+      logTagNanos = new long[1];
+      mLogTagNanos.put(key, logTagNanos);
+    }
+    logTagNanos[0] += durationNanos;
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    if (mIsStopped) {
+      return;
+    }
+
+    if (mLastFrameTimeNanos != 0 && mLithoNanos > 0) {
+      reportFrame(frameTimeNanos - mLastFrameTimeNanos);
+    }
+
+    reset();
+    mLastFrameTimeNanos = frameTimeNanos;
+    ChoreographerCompat.getInstance().postFrameCallback(this);
+  }
+
+  private void reportFrame(long frameDurationNanos) {
+    final LogEvent event = mLogger.newEvent(EVENT_FRAME_METRICS);
+    event.addParam(PARAM_FRAME_DURATION_US, String.valueOf(frameDurationNanos / 1000));
+    event.addParam(PARAM_FRAME_LITHO_TIME_US, String.valueOf(mLithoNanos / 1000));
+    event.addParam(PARAM_FRAME_SYNC_LAYOUTS_COUNT, String.valueOf(mSyncLayoutsCount));
+
+    final StringBuilder phases = new StringBuilder();
+    for (int phase = 0; phase < PhaseTracer.PHASE_COUNT; phase++) {
+      if (mPhaseNanos[phase] > 0) {
+        appendEntry(phases, PhaseTracer.getPhaseName(phase), mPhaseNanos[phase]);
+      }
+    }
+    event.addParam(PARAM_FRAME_PHASES, phases.toString());
+
+    final StringBuilder logTags = new StringBuilder();
+    for (int i = 0, size = mLogTagNanos.size(); i < size; i++) {
+      if (mLogTagNanos.valueAt(i)[0] > 0) {
+        appendEntry(logTags, mLogTagNanos.keyAt(i), mLogTagNanos.valueAt(i)[0]);
+      }
+    }
+    event.addParam(PARAM_FRAME_LOG_TAGS, logTags.toString());
+
+    mLogger.log(event);
+  }
+
+  private static void appendEntry(StringBuilder builder, String name, long nanos) {
+    if (builder.length() > 0) {
+      builder.append(',');
+    }
+    builder.append(name).append('=').append(nanos / 1000);
+  }
+
+  private void reset() {
+    for (int i = 0; i < mPhaseNanos.length; i++) {
+      mPhaseNanos[i] = 0;
+    }
+    for (int i = 0, size = mLogTagNanos.size(); i < size; i++) {
+      mLogTagNanos.valueAt(i)[0] = 0;
+    }
+    mLithoNanos = 0;
+    mSyncLayoutsCount = 0;
+    mPhaseDepth = 0;
+  }
+}
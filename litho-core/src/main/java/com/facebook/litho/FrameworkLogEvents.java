@@ -26,6 +26,8 @@ public interface FrameworkLogEvents {
   int EVENT_STETHO_UPDATE_COMPONENT = 9;
   int EVENT_STETHO_INSPECT_COMPONENT = 10;
   int EVENT_ERROR = 11;
+  int EVENT_FRAME_METRICS = 12;
+  int EVENT_MAIN_THREAD_LAYOUT = 13;
 
   String PARAM_COMPONENT = "component";
   String PARAM_LOG_TAG = "log_tag";
@@ -39,6 +41,15 @@ public interface FrameworkLogEvents {
   String PARAM_MOUNTED_COUNT = "mounted_count";
   String PARAM_UPDATED_COUNT = "updated_count";
   String PARAM_NO_OP_COUNT = "no_op_count";
+  String PARAM_FLATTENED_HOSTS_COUNT = "flattened_hosts_count";
   String PARAM_IS_DIRTY = "is_dirty";
   String PARAM_MESSAGE = "message";
+  String PARAM_FRAME_DURATION_US = "frame_duration_us";
+  String PARAM_FRAME_LITHO_TIME_US = "frame_litho_time_us";
+  String PARAM_FRAME_PHASES = "frame_phases";
+  String PARAM_FRAME_LOG_TAGS = "frame_log_tags";
+  String PARAM_FRAME_SYNC_LAYOUTS_COUNT = "frame_sync_layouts_count";
+  String PARAM_LAYOUT_TRIGGER = "layout_trigger";
+  String PARAM_POOL_MISSES_COUNT = "pool_misses_count";
+  String PARAM_ALLOCATIONS_COUNT = "allocations_count";
 }
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import com.facebook.infer.annotation.ThreadConfined;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns the global keys of the components created by a layout calculation: every parent global
+ * key and key pair is mapped to a single key instance. The table starts from the one of the
+ * previous layout calculation of the same {@link ComponentTree}, so the components created for the
+ * same position by consecutive layouts share their key instead of concatenating a new string.
+ *
+ * <p>Every layout calculation fills its own table, so looking keys up doesn't take a lock. Keys are
+ * only carried over when a layout uses them again, so a table never holds more than the keys of
+ * the previous layout and of its own.
+ */
+@ThreadConfined(ThreadConfined.ANY)
+class GlobalKeyTable {
+
+  private final Map<String, Map<String, String>> mGlobalKeys = new HashMap<>();
+  // Only read, and dropped once this table is complete.
+  private @Nullable GlobalKeyTable mPreviousTable;
+  private int mSize;
+
+  /**
+   * @param previousTable the complete table of the previous layout calculation, or null.
+   */
+  GlobalKeyTable(@Nullable GlobalKeyTable previousTable) {
+    mPreviousTable = previousTable;
+  }
+
+  /**
+   * @return the interned global key of the component with the given key in the scope of the
+   * component with the given global key.
+   */
+  String getGlobalKey(String parentGlobalKey, String key) {
+    Map<String, String> globalKeysForParent = mGlobalKeys.get(parentGlobalKey);
+    if (globalKeysForParent == null) {
+      globalKeysForParent = new HashMap<>(4);
+      mGlobalKeys.put(parentGlobalKey, globalKeysForParent);
+    }
+
+    String globalKey = globalKeysForParent.get(key);
+    if (globalKey == null) {
+      globalKey = mPreviousTable != null ? mPreviousTable.get(parentGlobalKey, key) : null;
+      if (globalKey == null) {
+        globalKey = parentGlobalKey + key;
+      }
+
+      globalKeysForParent.put(key, globalKey);
+      mSize++;
+    }
+
+    return globalKey;
+  }
+
+  /**
+   * Called once the layout calculation filling this table is done. The table can then be read by
+   * the next layout calculations from any thread, as long as it's safely published to them.
+   */
+  void complete() {
+    mPreviousTable = null;
+  }
+
+  @VisibleForTesting
+  int size() {
+    return mSize;
+  }
+
+  private @Nullable String get(String parentGlobalKey, String key) {
+    final Map<String, String> globalKeysForParent = mGlobalKeys.get(parentGlobalKey);
+    return globalKeysForParent != null ? globalKeysForParent.get(key) : null;
+  }
+}
@@ -138,6 +138,21 @@ class InternalNode implements ComponentLayout, ComponentLayout.ContainerBuilder
   // When this flag is set, border color was explicitly set on this node.
   private static final long PFLAG_BORDER_COLOR_IS_SET = 1L << 29;
 
+  // The flags of the properties that a nested tree holder transfers to the root of its nested tree.
+  private static final long PFLAGS_COPIED_INTO_NESTED_TREE =
+      PFLAG_IMPORTANT_FOR_ACCESSIBILITY_IS_SET
+          | PFLAG_DUPLICATE_PARENT_STATE_IS_SET
+          | PFLAG_BACKGROUND_IS_SET
+          | PFLAG_FOREGROUND_IS_SET
+          | PFLAG_VISIBLE_HANDLER_IS_SET
+          | PFLAG_FOCUSED_HANDLER_IS_SET
+          | PFLAG_FULL_IMPRESSION_HANDLER_IS_SET
+          | PFLAG_INVISIBLE_HANDLER_IS_SET
+          | PFLAG_UNFOCUSED_HANDLER_IS_SET
+          | PFLAG_PADDING_IS_SET
+          | PFLAG_BORDER_WIDTH_IS_SET
+          | PFLAG_TRANSITION_KEY_IS_SET;
+
   private final ResourceResolver mResourceResolver = new ResourceResolver();
 
   YogaNode mYogaNode;
@@ -186,7 +201,11 @@ class InternalNode implements ComponentLayout, ComponentLayout.ContainerBuilder
   private DiffNode mDiffNode;
 
   private boolean mCachedMeasuresValid;
+  // Only recorded in debug mode, for Stetho.
+  private long mLastMeasureDurationNanos = -1;
+  private boolean mCachedMeasureReused;
   private TreeProps mPendingTreeProps;
+  private List<String> mNestedTreeGlobalKeys;
 
   void init(YogaNode yogaNode, ComponentContext componentContext, Resources resources) {
     yogaNode.setData(this);
@@ -341,6 +360,30 @@ class InternalNode implements ComponentLayout, ComponentLayout.ContainerBuilder
     return mCachedMeasuresValid;
   }
 
+  /**
+   * @return how long the last call to onMeasure of the component of this node took, or -1 if it
+   * wasn't measured or debug mode isn't enabled.
+   */
+  long getLastMeasureDurationNanos() {
+    return mLastMeasureDurationNanos;
+  }
+
+  void setLastMeasureDurationNanos(long durationNanos) {
+    mLastMeasureDurationNanos = durationNanos;
+  }
+
+  /**
+   * @return whether the last measure of this node re-used the size cached in its {@link DiffNode}
+   * instead of calling onMeasure.
+   */
+  boolean isCachedMeasureReused() {
+    return mCachedMeasureReused;
+  }
+
+  void setCachedMeasureReused(boolean cachedMeasureReused) {
+    mCachedMeasureReused = cachedMeasureReused;
+  }
+
   void setDiffNode(DiffNode diffNode) {
     mDiffNode = diffNode;
   }
@@ -350,7 +393,8 @@ class InternalNode implements ComponentLayout, ComponentLayout.ContainerBuilder
    */
   void markIsNestedTreeHolder(TreeProps currentTreeProps) {
     mIsNestedTreeHolder = true;
-    mPendingTreeProps = TreeProps.copy(currentTreeProps);
+    // The nested tree is resolved after the tree props of the parent have been released.
+    mPendingTreeProps = TreeProps.flatCopy(currentTreeProps);
   }
 
   /**
@@ -1429,22 +1473,12 @@ class InternalNode implements ComponentLayout, ComponentLayout.ContainerBuilder
 
   void calculateLayout(float width, float height) {
     if (ComponentsConfiguration.isDebugModeEnabled) {
-      applyOverridesRecursive(this);
+      DebugComponent.applyOverrides(this);
     }
 
     mYogaNode.calculateLayout(width, height);
   }
 
-  private static void applyOverridesRecursive(InternalNode node) {
-    DebugComponent.getInstance(node, 0).applyOverrides();
-    for (int i = 0, count = node.getChildCount(); i < count; i++) {
-      applyOverridesRecursive(node.getChildAt(i));
-    }
-    if (node.hasNestedTree()) {
-      applyOverridesRecursive(node.getNestedTree());
-    }
-  }
-
   void calculateLayout() {
     calculateLayout(YogaConstants.UNDEFINED, YogaConstants.UNDEFINED);
   }
@@ -1926,6 +1960,8 @@ class InternalNode implements ComponentLayout, ComponentLayout.ContainerBuilder
     mLastMeasuredWidth = DiffNode.UNSPECIFIED;
     mDiffNode = null;
     mCachedMeasuresValid = false;
+    mLastMeasureDurationNanos = -1;
+    mCachedMeasureReused = false;
     mIsNestedTreeHolder = false;
     mTestKey = null;
 
@@ -1934,6 +1970,7 @@ class InternalNode implements ComponentLayout, ComponentLayout.ContainerBuilder
       ComponentsPools.release(mPendingTreeProps);
       mPendingTreeProps = null;
     }
+    mNestedTreeGlobalKeys = null;
   }
 
   private NodeInfo getOrCreateNodeInfo() {
@@ -1944,6 +1981,17 @@ class InternalNode implements ComponentLayout, ComponentLayout.ContainerBuilder
     return mNodeInfo;
   }
 
+  /**
+   * @return whether {@link #copyInto(InternalNode)} would transfer any property, other than the
+   * layout direction, from this nested tree holder to the root of its nested tree.
+   */
+  boolean hasPropsForNestedTree() {
+    return mNodeInfo != null
+        || mTestKey != null
+        || mForceViewWrapping
+        || (mPrivateFlags & PFLAGS_COPIED_INTO_NESTED_TREE) != 0L;
+  }
+
   /**
    * Check that the root of the nested tree we are going to use, has valid layout directions
    * with its main tree holder node.
@@ -2018,6 +2066,18 @@ class InternalNode implements ComponentLayout, ComponentLayout.ContainerBuilder
     return mPendingTreeProps;
   }
 
+  /**
+   * Sets the global keys of the stateful components that were created while resolving the nested
+   * tree this node is the root of.
+   */
+  void setNestedTreeGlobalKeys(List<String> globalKeys) {
+    mNestedTreeGlobalKeys = globalKeys;
+  }
+
+  @Nullable List<String> getNestedTreeGlobalKeys() {
+    return mNestedTreeGlobalKeys;
+  }
+
   private <T extends Drawable> void setPaddingFromDrawableReference(Reference<T> ref) {
     if (ref == null) {
       return;
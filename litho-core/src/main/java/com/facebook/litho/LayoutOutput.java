@@ -135,6 +135,18 @@ class LayoutOutput implements Cloneable {
     return mNodeInfo;
   }
 
+  /**
+   * Replaces the NodeInfo of this output. Used when the view properties of a flattened host get
+   * hoisted into the host this output represents.
+   */
+  void replaceNodeInfo(NodeInfo nodeInfo) {
+    if (mNodeInfo != null) {
+      mNodeInfo.release();
+    }
+
+    mNodeInfo = nodeInfo.acquireRef();
+  }
+
   public void setUpdateState(@UpdateState int state) {
     mUpdateState = state;
   }
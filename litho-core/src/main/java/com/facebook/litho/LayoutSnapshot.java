@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The inputs of a layout calculation, i.e. the root component with its props, the size specs and
+ * the state of the components resolved during the layout, together with how long the layout and
+ * each of its {@link PhaseTracer} phases took. Taken by {@link LayoutSnapshotRecorder}, it can be
+ * written to a file with {@link #writeTo(OutputStream)} and replayed on a JVM to reproduce the
+ * performance of the layout.
+ */
+public final class LayoutSnapshot implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final ComponentSnapshot mRoot;
+  private final int mWidthSpec;
+  private final int mHeightSpec;
+  private final @Nullable String mLogTag;
+  private final ArrayList<StateSnapshot> mStates = new ArrayList<>();
+  private final long[] mPhaseDurationsNanos = new long[PhaseTracer.PHASE_COUNT];
+  private long mDurationNanos;
+
+  // Only used while the snapshot is being taken.
+  private final transient LayoutSnapshot mParent;
+  private final transient long mStartNanos;
+  private transient HashMap<String, String> mPathsByGlobalKey;
+  private transient HashMap<String, int[]> mSiblingCounts;
+
+  LayoutSnapshot(
+      ComponentSnapshot root,
+      int widthSpec,
+      int heightSpec,
+      @Nullable String logTag,
+      @Nullable LayoutSnapshot parent) {
+    mRoot = root;
+    mWidthSpec = widthSpec;
+    mHeightSpec = heightSpec;
+    mLogTag = logTag;
+    mParent = parent;
+    mStartNanos = System.nanoTime();
+    mPathsByGlobalKey = new HashMap<>();
+    mSiblingCounts = new HashMap<>();
+  }
+
+  /**
+   * Reads a snapshot written by {@link #writeTo(OutputStream)}. The classes of the components and
+   * of the recorded values must be available.
+   */
+  public static LayoutSnapshot readFrom(InputStream inputStream) throws IOException {
+    final ObjectInputStream objectInputStream = new ObjectInputStream(inputStream);
+    try {
+      return (LayoutSnapshot) objectInputStream.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Can't read layout snapshot", e);
+    }
+  }
+
+  public void writeTo(OutputStream outputStream) throws IOException {
+    final ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
+    objectOutputStream.writeObject(this);
+    objectOutputStream.flush();
+  }
+
+  public ComponentSnapshot getRoot() {
+    return mRoot;
+  }
+
+  public int getWidthSpec() {
+    return mWidthSpec;
+  }
+
+  public int getHeightSpec() {
+    return mHeightSpec;
+  }
+
+  @Nullable
+  public String getLogTag() {
+    return mLogTag;
+  }
+
+  /**
+   * @return the state of every stateful component resolved during the layout, in resolution order.
+   */
+  public List<StateSnapshot> getStates() {
+    return Collections.unmodifiableList(mStates);
+  }
+
+  public long getDurationNanos() {
+    return mDurationNanos;
+  }
+
+  /**
+   * @return the total time spent in the given {@link PhaseTracer} phase during the layout. Phases
+   * may nest, e.g. a nested tree phase includes the create tree phase of the nested tree.
+   */
+  public long getPhaseDurationNanos(int phase) {
+    return mPhaseDurationsNanos[phase];
+  }
+
+  @Nullable
+  LayoutSnapshot getParent() {
+    return mParent;
+  }
+
+  void onComponentResolved(Component<?> component, @Nullable Component<?> parentScope) {
+    final String globalKey = component.getGlobalKey();
+    // Nested trees may be resolved more than once during the same layout.
+    if (mPathsByGlobalKey.containsKey(globalKey)) {
+      return;
+    }
+
+    final String path;
+    if (parentScope == null) {
+      path = component.getSimpleName();
+    } else {
+      final String parentPath = mPathsByGlobalKey.get(parentScope.getGlobalKey());
+      final String siblingPrefix = parentPath + "/" + component.getSimpleName();
+      int[] siblingCount = mSiblingCounts.get(siblingPrefix);
+      if (siblingCount == null) {
+        siblingCount = new int[1];
+        mSiblingCounts.put(siblingPrefix, siblingCount);
+      }
+      path = siblingPrefix + "[" + siblingCount[0]++ + "]";
+    }
+    mPathsByGlobalKey.put(globalKey, path);
+
+    if (component.getLifecycle().hasState() && component.getStateContainer() != null) {
+      mStates.add(StateSnapshot.create(path, component));
+    }
+  }
+
+  void addPhaseDuration(int phase, long durationNanos) {
+    mPhaseDurationsNanos[phase] += durationNanos;
+  }
+
+  void end() {
+    mDurationNanos = System.nanoTime() - mStartNanos;
+    mPathsByGlobalKey = null;
+    mSiblingCounts = null;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder()
+        .append(mRoot.getSimpleName())
+        .append(" (log tag ")
+        .append(mLogTag)
+        .append(") ")
+        .append(SizeSpec.toString(mWidthSpec))
+        .append(" x ")
+        .append(SizeSpec.toString(mHeightSpec))
+        .append(": ")
+        .append(mDurationNanos / 1000)
+        .append("us");
+    for (int phase = 0; phase < PhaseTracer.PHASE_COUNT; phase++) {
+      if (mPhaseDurationsNanos[phase] > 0) {
+        builder
+            .append(", ")
+            .append(PhaseTracer.getPhaseName(phase))
+            .append('=')
+            .append(mPhaseDurationsNanos[phase] / 1000)
+            .append("us");
+      }
+    }
+    return builder.toString();
+  }
+}
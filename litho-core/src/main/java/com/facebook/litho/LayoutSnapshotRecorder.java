@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.annotation.Nullable;
+
+import com.facebook.infer.annotation.ThreadSafe;
+
+/**
+ * Takes a {@link LayoutSnapshot} of every layout calculated while recording, and reports it to the
+ * {@link Listener} given to {@link #start(Listener)} on the thread that calculated the layout.
+ *
+ * Recording reads the props and the state of the components through reflection, so it is meant to
+ * be started for a short time, e.g. while reproducing a slow screen. While it isn't started,
+ * layouts only pay for a volatile read per resolved component.
+ */
+@ThreadSafe
+public final class LayoutSnapshotRecorder {
+
+  public interface Listener {
+
+    void onSnapshotTaken(LayoutSnapshot snapshot);
+  }
+
+  private static final ThreadLocal<LayoutSnapshot> sCurrentSnapshot = new ThreadLocal<>();
+
+  private static volatile Listener sListener;
+
+  private LayoutSnapshotRecorder() {
+  }
+
+  public static void start(Listener listener) {
+    sListener = listener;
+  }
+
+  public static void stop() {
+    sListener = null;
+  }
+
+  public static boolean isRecording() {
+    return sListener != null;
+  }
+
+  /**
+   * Starts a snapshot of the layout of the given root component, recording its props.
+   *
+   * @return the snapshot to give to {@link #endSnapshot}, or null if recording isn't started.
+   */
+  @Nullable
+  static LayoutSnapshot beginSnapshot(
+      ComponentContext c,
+      Component<?> root,
+      int widthSpec,
+      int heightSpec) {
+    if (sListener == null) {
+      return null;
+    }
+
+    final LayoutSnapshot snapshot = new LayoutSnapshot(
+        ComponentSnapshot.create(root),
+        widthSpec,
+        heightSpec,
+        c.getLogTag(),
+        sCurrentSnapshot.get());
+    sCurrentSnapshot.set(snapshot);
+    return snapshot;
+  }
+
+  /**
+   * Called once the global key and the state of a component were set during a layout.
+   */
+  static void onComponentResolved(Component<?> component, @Nullable Component<?> parentScope) {
+    if (sListener == null) {
+      return;
+    }
+
+    final LayoutSnapshot snapshot = sCurrentSnapshot.get();
+    if (snapshot != null) {
+      snapshot.onComponentResolved(component, parentScope);
+    }
+  }
+
+  static void onPhaseEnded(int phase, long durationNanos) {
+    if (sListener == null) {
+      return;
+    }
+
+    final LayoutSnapshot snapshot = sCurrentSnapshot.get();
+    if (snapshot != null) {
+      snapshot.addPhaseDuration(phase, durationNanos);
+    }
+  }
+
+  static void endSnapshot(@Nullable LayoutSnapshot snapshot) {
+    if (snapshot == null) {
+      return;
+    }
+
+    snapshot.end();
+    sCurrentSnapshot.set(snapshot.getParent());
+
+    final Listener listener = sListener;
+    if (listener != null) {
+      listener.onSnapshotTaken(snapshot);
+    }
+  }
+}
@@ -20,6 +20,7 @@ import android.os.Build;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 import android.support.v4.util.LongSparseArray;
+import android.support.v4.util.SimpleArrayMap;
 import android.support.v4.view.accessibility.AccessibilityManagerCompat;
 import android.text.TextUtils;
 import android.view.View;
@@ -43,7 +44,9 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static android.content.Context.ACCESSIBILITY_SERVICE;
@@ -59,11 +62,13 @@ import static com.facebook.litho.Component.isMountSpec;
 import static com.facebook.litho.Component.isMountViewSpec;
 import static com.facebook.litho.ComponentContext.NULL_LAYOUT;
 import static com.facebook.litho.ComponentLifecycle.MountType.NONE;
+import static com.facebook.litho.ComponentLifecycle.StateUpdate;
 import static com.facebook.litho.ContextUtils.getValidActivityForContext;
 import static com.facebook.litho.FrameworkLogEvents.EVENT_COLLECT_RESULTS;
 import static com.facebook.litho.FrameworkLogEvents.EVENT_CREATE_LAYOUT;
 import static com.facebook.litho.FrameworkLogEvents.EVENT_CSS_LAYOUT;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_COMPONENT;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_FLATTENED_HOSTS_COUNT;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_LOG_TAG;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_TREE_DIFF_ENABLED;
 import static com.facebook.litho.MountItem.FLAG_DUPLICATE_PARENT_STATE;
@@ -140,6 +145,8 @@ class LayoutState {
 
   private InternalNode mLayoutRoot;
   private DiffNode mDiffTreeRoot;
+  // Version of the ComponentTree's StateHandler after the state of this LayoutState was committed.
+  private int mCommittedStateVersion = -1;
   // Reference count will be initialized to 1 in init().
   private final AtomicInteger mReferenceCount = new AtomicInteger(-1);
 
@@ -166,6 +173,9 @@ class LayoutState {
 
   private StateHandler mStateHandler;
   private boolean mCanPrefetchDisplayLists;
+  private int mFlattenedHostsCount;
+  // Only recorded in debug mode, for Stetho.
+  private long mCalculateDurationNanos = -1;
   private ArrayList<Component> mComponentsNeedingPreviousRenderInfo;
 
   LayoutState() {
@@ -524,8 +534,13 @@ class LayoutState {
 
     int hostLayoutPosition = -1;
 
-    // 1. Insert a host LayoutOutput if we have some interactive content to be attached to.
-    if (needsHostView) {
+    // 1. Insert a host LayoutOutput if we have some interactive content to be attached to, unless
+    // its view properties can be hoisted into the current host.
+    if (needsHostView
+        && ComponentsConfiguration.flattenHostViews
+        && canFlattenIntoCurrentHost(node, layoutState)) {
+      flattenIntoCurrentHost(node, layoutState);
+    } else if (needsHostView) {
       hostLayoutPosition = addHostLayoutOutput(node, layoutState, diffNode);
 
       layoutState.mCurrentLevel++;
@@ -546,9 +561,10 @@ class LayoutState {
     final LayoutOutput layoutOutput = createGenericLayoutOutput(node, layoutState);
     if (layoutOutput != null) {
       final long previousId = shouldUseCachedOutputs ? currentDiffNode.getContent().getId() : -1;
-      layoutState.mLayoutStateOutputIdCalculator.calculateAndSetLayoutOutputIdAndUpdateState(
+      calculateAndSetLayoutOutputIdAndUpdateState(
+          node,
           layoutOutput,
-          layoutState.mCurrentLevel,
+          layoutState,
           LayoutOutput.TYPE_CONTENT,
           previousId,
           isCachedOutputUpdated);
@@ -685,10 +701,16 @@ class LayoutState {
       final long previousId =
           shouldUseCachedOutputs ? currentDiffNode.getVisibilityOutput().getId() : -1;
 
-      layoutState.mLayoutStateOutputIdCalculator.calculateAndSetVisibilityOutputId(
-          visibilityOutput,
-          layoutState.mCurrentLevel,
-          previousId);
+      if (ComponentsConfiguration.useGlobalKeysForOutputIds) {
+        layoutState.mLayoutStateOutputIdCalculator.calculateAndSetVisibilityOutputIdFromKey(
+            visibilityOutput,
+            getOutputKeyHash(node, layoutState));
+      } else {
+        layoutState.mLayoutStateOutputIdCalculator.calculateAndSetVisibilityOutputId(
+            visibilityOutput,
+            layoutState.mCurrentLevel,
+            previousId);
+      }
       layoutState.mVisibilityOutputs.add(visibilityOutput);
 
       if (diffNode != null) {
@@ -718,6 +740,91 @@ class LayoutState {
     }
   }
 
+  /**
+   * A node that needs a host view can share the current host instead if both would have the same
+   * bounds and all the view properties of the node can be applied to the current host without
+   * overriding any of its own.
+   */
+  private static boolean canFlattenIntoCurrentHost(InternalNode node, LayoutState layoutState) {
+    if (layoutState.isLayoutRoot(node)
+        || layoutState.mCurrentHostOutputPosition < 0
+        || layoutState.mCurrentHostMarker == ROOT_HOST_ID) {
+      return false;
+    }
+
+    if (node.isForceViewWrapping()
+        || node.hasTouchExpansion()
+        || node.getTransitionKey() != null
+        || node.getImportantForAccessibility() != IMPORTANT_FOR_ACCESSIBILITY_AUTO) {
+      return false;
+    }
+
+    final Component<?> component = node.getRootComponent();
+    if (component != null && component.getLifecycle().implementsAccessibility()) {
+      return false;
+    }
+
+    final NodeInfo nodeInfo = node.getNodeInfo();
+    if (nodeInfo != null && nodeInfo.hasAccessibilityHandlers()) {
+      return false;
+    }
+
+    final LayoutOutput hostOutput =
+        layoutState.mMountableOutputs.get(layoutState.mCurrentHostOutputPosition);
+    final boolean hostDuplicatesParentState =
+        (hostOutput.getFlags() & FLAG_DUPLICATE_PARENT_STATE) != 0;
+    if (hostDuplicatesParentState != node.isDuplicateParentStateEnabled()) {
+      return false;
+    }
+
+    final ViewNodeInfo hostViewNodeInfo = hostOutput.getViewNodeInfo();
+    if (hostViewNodeInfo == null
+        || hostViewNodeInfo.getLayoutDirection() != node.getResolvedLayoutDirection()) {
+      return false;
+    }
+
+    final int l = layoutState.mCurrentX + node.getX();
+    final int t = layoutState.mCurrentY + node.getY();
+    final Rect hostBounds = hostOutput.getBounds();
+    if (hostBounds.left != l
+        || hostBounds.top != t
+        || hostBounds.width() != node.getWidth()
+        || hostBounds.height() != node.getHeight()) {
+      return false;
+    }
+
+    final NodeInfo hostNodeInfo = hostOutput.getNodeInfo();
+    return nodeInfo == null || hostNodeInfo == null || hostNodeInfo.canBeMergedWith(nodeInfo);
+  }
+
+  /**
+   * Hoists the view properties of the given node into the current host, so that its content gets
+   * mounted there instead of into a host view of its own.
+   */
+  private static void flattenIntoCurrentHost(InternalNode node, LayoutState layoutState) {
+    final NodeInfo nodeInfo = node.getNodeInfo();
+    if (nodeInfo != null) {
+      final LayoutOutput hostOutput =
+          layoutState.mMountableOutputs.get(layoutState.mCurrentHostOutputPosition);
+      final NodeInfo hostNodeInfo = hostOutput.getNodeInfo();
+      final NodeInfo mergedNodeInfo = NodeInfo.acquire();
+
+      if (hostNodeInfo != null) {
+        mergedNodeInfo.mergeWith(hostNodeInfo);
+      }
+      mergedNodeInfo.mergeWith(nodeInfo);
+
+      hostOutput.replaceNodeInfo(mergedNodeInfo);
+      mergedNodeInfo.release();
+
+      // The update state of the host was calculated from its own NodeInfo only, so its view
+      // attributes must be set again to pick up the merged ones.
+      hostOutput.setUpdateState(LayoutOutput.STATE_DIRTY);
+    }
+
+    layoutState.mFlattenedHostsCount++;
+  }
+
   private static void calculateAndSetHostOutputIdAndUpdateState(
       InternalNode node,
       LayoutOutput hostOutput,
@@ -732,15 +839,57 @@ class LayoutState {
       hostOutput.setHostMarker(ROOT_HOST_ID);
       hostOutput.setUpdateState(LayoutOutput.STATE_DIRTY);
     } else {
-      layoutState.mLayoutStateOutputIdCalculator.calculateAndSetLayoutOutputIdAndUpdateState(
+      calculateAndSetLayoutOutputIdAndUpdateState(
+          node,
           hostOutput,
-          layoutState.mCurrentLevel,
+          layoutState,
           LayoutOutput.TYPE_HOST,
           -1,
           isCachedOutputUpdated);
     }
   }
 
+  private static void calculateAndSetLayoutOutputIdAndUpdateState(
+      InternalNode node,
+      LayoutOutput layoutOutput,
+      LayoutState layoutState,
+      @LayoutOutput.LayoutOutputType int type,
+      long previousId,
+      boolean isCachedOutputUpdated) {
+    if (ComponentsConfiguration.useGlobalKeysForOutputIds) {
+      layoutState.mLayoutStateOutputIdCalculator.calculateAndSetLayoutOutputIdFromKeyAndUpdateState(
+          layoutOutput,
+          getOutputKeyHash(node, layoutState),
+          type,
+          previousId,
+          isCachedOutputUpdated);
+    } else {
+      layoutState.mLayoutStateOutputIdCalculator.calculateAndSetLayoutOutputIdAndUpdateState(
+          layoutOutput,
+          layoutState.mCurrentLevel,
+          type,
+          previousId,
+          isCachedOutputUpdated);
+    }
+  }
+
+  /**
+   * @return the hash identifying the outputs generated by the given node. It is based on the global
+   * key of the node's component when available, otherwise on the component type and the host the
+   * outputs are mounted into.
+   */
+  private static long getOutputKeyHash(InternalNode node, LayoutState layoutState) {
+    final Component<?> component = node.getRootComponent();
+    final String globalKey = component != null ? component.getGlobalKey() : null;
+    if (globalKey != null) {
+      return LayoutStateOutputIdCalculator.hashKey(globalKey);
+    }
+
+    return LayoutStateOutputIdCalculator.mix(
+        layoutState.mCurrentHostMarker,
+        component != null ? component.getLifecycle().getId() : 0);
+  }
+
   private static LayoutOutput addDrawableComponent(
       InternalNode node,
       LayoutState layoutState,
@@ -811,9 +960,10 @@ class LayoutState {
         drawableComponent,
         layoutState,
         node);
-    layoutState.mLayoutStateOutputIdCalculator.calculateAndSetLayoutOutputIdAndUpdateState(
+    calculateAndSetLayoutOutputIdAndUpdateState(
+        node,
         drawableLayoutOutput,
-        layoutState.mCurrentLevel,
+        layoutState,
         layoutOutputType,
         previousId,
         isCachedOutputUpdated);
@@ -846,13 +996,293 @@ class LayoutState {
       releaseNodeTree(child, isNestedTree);
     }
 
-    if (node.hasNestedTree() && node.getNestedTree() != NULL_LAYOUT) {
+    if (node.hasNestedTree()
+        && node.getNestedTree() != NULL_LAYOUT
+        && !memoizeNestedTree(node)) {
       releaseNodeTree(node.getNestedTree(), true);
     }
 
     ComponentsPools.release(node);
   }
 
+  /**
+   * Puts the nested tree of a holder whose component has a static layout back into the
+   * {@link StaticLayoutCache} of its ComponentTree.
+   *
+   * @return whether the cache took ownership of the nested tree.
+   */
+  private static boolean memoizeNestedTree(InternalNode nestedTreeHolder) {
+    if (!StaticLayoutCache.canMemoizeNestedTree(nestedTreeHolder)) {
+      return false;
+    }
+
+    return StaticLayoutCache.getCache(nestedTreeHolder).put(
+        nestedTreeHolder.getRootComponent().getGlobalKey(),
+        nestedTreeHolder.getNestedTree());
+  }
+
+  /**
+   * Takes the memoized nested tree for the given holder out of the {@link StaticLayoutCache} of
+   * its ComponentTree, if it's compatible with the given size specs.
+   */
+  @Nullable
+  private static InternalNode acquireMemoizedNestedTree(
+      InternalNode nestedTreeHolder,
+      int widthSpec,
+      int heightSpec) {
+    if (!StaticLayoutCache.canMemoizeNestedTree(nestedTreeHolder)) {
+      return null;
+    }
+
+    final InternalNode memoizedTree = StaticLayoutCache.getCache(nestedTreeHolder).acquire(
+        nestedTreeHolder.getRootComponent().getGlobalKey());
+
+    if (memoizedTree == null) {
+      return null;
+    }
+
+    if (!InternalNode.hasValidLayoutDirectionInNestedTree(nestedTreeHolder, memoizedTree)
+        || !hasCompatibleSizeSpec(
+            memoizedTree.getLastWidthSpec(),
+            memoizedTree.getLastHeightSpec(),
+            widthSpec,
+            heightSpec,
+            memoizedTree.getLastMeasuredWidth(),
+            memoizedTree.getLastMeasuredHeight())) {
+      releaseNodeTree(memoizedTree, true /* isNestedTree */);
+      return null;
+    }
+
+    // The DiffNodes of the memoized tree belong to a LayoutState that may have been released.
+    resetDiffNodes(memoizedTree);
+
+    return memoizedTree;
+  }
+
+  /**
+   * Re-uses the node tree of the previous LayoutState if the only changes since it was calculated
+   * are state updates of components inside nested trees. Only the innermost nested trees that
+   * contain those components are created and measured again, with the size specs they were
+   * measured with before, and they replace the previous ones if their size didn't change.
+   *
+   * @return the root of the updated node tree, now owned by the caller, or null if the whole tree
+   * needs to be calculated again.
+   */
+  @Nullable
+  private static InternalNode relayoutDirtyNestedTrees(
+      ComponentContext c,
+      Component<?> component,
+      int widthSpec,
+      int heightSpec,
+      @Nullable DiffNode previousDiffTreeRoot,
+      LayoutState previousLayoutState) {
+    final StateHandler stateHandler = c.getStateHandler();
+    if (stateHandler == null
+        || ComponentsConfiguration.isDebugModeEnabled
+        || previousLayoutState.mComponent == null
+        || previousLayoutState.mComponent.getId() != component.getId()
+        || previousLayoutState.mWidthSpec != widthSpec
+        || previousLayoutState.mHeightSpec != heightSpec
+        || previousLayoutState.mCommittedStateVersion != stateHandler.getVersion()) {
+      return null;
+    }
+
+    final Map<String, List<StateUpdate>> pendingStateUpdates =
+        stateHandler.getPendingStateUpdates();
+    if (pendingStateUpdates == null || pendingStateUpdates.isEmpty()) {
+      return null;
+    }
+
+    final InternalNode root = previousLayoutState.takeLayoutRoot();
+    if (root == null) {
+      return null;
+    }
+
+    final SimpleArrayMap<String, InternalNode> dirtyHolders = new SimpleArrayMap<>();
+    findDirtyNestedTreeHolders(root, pendingStateUpdates.keySet(), dirtyHolders);
+    if (dirtyHolders.size() != pendingStateUpdates.size()) {
+      // Some of the components to update are not inside a nested tree.
+      previousLayoutState.restoreLayoutRoot(root);
+      return null;
+    }
+
+    final List<InternalNode> holders = new ArrayList<>(dirtyHolders.size());
+    collectOutermostDirtyHolders(root, dirtyHolders, holders);
+
+    // The DiffNodes of the tree belong to LayoutStates that may have been released.
+    resetDiffNodes(root);
+    if (previousDiffTreeRoot != null) {
+      applyDiffNodeToUnchangedNodes(root, previousDiffTreeRoot);
+    }
+    applyDiffNodesToNestedTrees(root);
+
+    final List<InternalNode> nestedTrees = new ArrayList<>(holders.size());
+    for (int i = 0, size = holders.size(); i < size; i++) {
+      final InternalNode nestedTree = relayoutNestedTree(holders.get(i), stateHandler);
+      if (nestedTree == null) {
+        break;
+      }
+      nestedTrees.add(nestedTree);
+    }
+
+    if (nestedTrees.size() != holders.size()) {
+      for (int i = 0, size = nestedTrees.size(); i < size; i++) {
+        releaseNodeTree(nestedTrees.get(i), true /* isNestedTree */);
+      }
+      stateHandler.discardAppliedStateUpdates();
+      previousLayoutState.restoreLayoutRoot(root);
+      return null;
+    }
+
+    for (int i = 0, size = holders.size(); i < size; i++) {
+      final InternalNode holder = holders.get(i);
+      releaseNodeTree(holder.getNestedTree(), true /* isNestedTree */);
+      holder.setNestedTree(nestedTrees.get(i));
+    }
+
+    return root;
+  }
+
+  /**
+   * Maps each of the given global keys to the innermost nested tree holder whose component, or one
+   * of the stateful components of whose nested tree, has that key.
+   */
+  private static void findDirtyNestedTreeHolders(
+      InternalNode node,
+      Set<String> dirtyGlobalKeys,
+      SimpleArrayMap<String, InternalNode> dirtyHolders) {
+    if (node.isNestedTreeHolder()) {
+      final InternalNode nestedTree = node.getNestedTree();
+      if (nestedTree == null || nestedTree == NULL_LAYOUT) {
+        return;
+      }
+
+      final String holderGlobalKey = node.getRootComponent().getGlobalKey();
+      final List<String> nestedTreeGlobalKeys = nestedTree.getNestedTreeGlobalKeys();
+      for (String dirtyGlobalKey : dirtyGlobalKeys) {
+        // Nested trees are visited after the ones containing them, so the innermost holder wins.
+        if (dirtyGlobalKey.equals(holderGlobalKey)
+            || (nestedTreeGlobalKeys != null && nestedTreeGlobalKeys.contains(dirtyGlobalKey))) {
+          dirtyHolders.put(dirtyGlobalKey, node);
+        }
+      }
+
+      findDirtyNestedTreeHolders(nestedTree, dirtyGlobalKeys, dirtyHolders);
+      return;
+    }
+
+    for (int i = 0, count = node.getChildCount(); i < count; i++) {
+      findDirtyNestedTreeHolders(node.getChildAt(i), dirtyGlobalKeys, dirtyHolders);
+    }
+  }
+
+  /**
+   * Collects the dirty nested tree holders that aren't inside the nested tree of another dirty
+   * holder, since re-creating that one re-creates them as well.
+   */
+  private static void collectOutermostDirtyHolders(
+      InternalNode node,
+      SimpleArrayMap<String, InternalNode> dirtyHolders,
+      List<InternalNode> outermostDirtyHolders) {
+    if (node.isNestedTreeHolder()) {
+      final InternalNode nestedTree = node.getNestedTree();
+      if (dirtyHolders.containsValue(node)) {
+        outermostDirtyHolders.add(node);
+      } else if (nestedTree != null && nestedTree != NULL_LAYOUT) {
+        collectOutermostDirtyHolders(nestedTree, dirtyHolders, outermostDirtyHolders);
+      }
+      return;
+    }
+
+    for (int i = 0, count = node.getChildCount(); i < count; i++) {
+      collectOutermostDirtyHolders(node.getChildAt(i), dirtyHolders, outermostDirtyHolders);
+    }
+  }
+
+  private static void applyDiffNodesToNestedTrees(InternalNode node) {
+    if (node.isNestedTreeHolder()) {
+      final InternalNode nestedTree = node.getNestedTree();
+      if (nestedTree == null || nestedTree == NULL_LAYOUT) {
+        return;
+      }
+
+      if (node.getDiffNode() != null) {
+        applyDiffNodeToUnchangedNodes(nestedTree, node.getDiffNode());
+      }
+      applyDiffNodesToNestedTrees(nestedTree);
+      return;
+    }
+
+    for (int i = 0, count = node.getChildCount(); i < count; i++) {
+      applyDiffNodesToNestedTrees(node.getChildAt(i));
+    }
+  }
+
+  /**
+   * Creates and measures again the nested tree of the given holder, with the state of the given
+   * StateHandler and the size specs the previous nested tree was measured with.
+   *
+   * @return the new nested tree or null if its size changed.
+   */
+  @Nullable
+  private static InternalNode relayoutNestedTree(
+      InternalNode nestedTreeHolder,
+      StateHandler stateHandler) {
+    final InternalNode previousNestedTree = nestedTreeHolder.getNestedTree();
+    final Component<?> previousComponent = nestedTreeHolder.getRootComponent();
+    final int widthSpec = previousNestedTree.getLastWidthSpec();
+    final int heightSpec = previousNestedTree.getLastHeightSpec();
+
+    // The component was created by a parent that doesn't run again, so it's copied to get its own
+    // state container and a context with the new StateHandler.
+    final Component<?> component = previousComponent.makeShallowCopy();
+    component.setScopedContext(
+        ComponentContext.withComponentScope(
+            new ComponentContext(previousComponent.getScopedContext(), stateHandler),
+            component));
+    if (component.getLifecycle().hasState()) {
+      stateHandler.applyStateUpdatesForComponent(component);
+    }
+
+    final InternalNode nestedTree = createAndMeasureTreeForComponent(
+        component.getScopedContext(),
+        component,
+        nestedTreeHolder,
+        widthSpec,
+        heightSpec,
+        nestedTreeHolder.getDiffNode());
+
+    if (nestedTree == NULL_LAYOUT) {
+      return null;
+    }
+
+    if (nestedTree.getWidth() != previousNestedTree.getLastMeasuredWidth()
+        || nestedTree.getHeight() != previousNestedTree.getLastMeasuredHeight()) {
+      releaseNodeTree(nestedTree, true /* isNestedTree */);
+      return null;
+    }
+
+    nestedTree.setLastWidthSpec(widthSpec);
+    nestedTree.setLastHeightSpec(heightSpec);
+    nestedTree.setLastMeasuredWidth(nestedTree.getWidth());
+    nestedTree.setLastMeasuredHeight(nestedTree.getHeight());
+
+    return nestedTree;
+  }
+
+  private static void resetDiffNodes(InternalNode node) {
+    node.setDiffNode(null);
+    node.setCachedMeasuresValid(false);
+
+    for (int i = 0, count = node.getChildCount(); i < count; i++) {
+      resetDiffNodes(node.getChildAt(i));
+    }
+
+    if (node.hasNestedTree() && node.getNestedTree() != NULL_LAYOUT) {
+      resetDiffNodes(node.getNestedTree());
+    }
+  }
+
   /**
    * If we have an interactive LayoutSpec or a MountSpec Drawable, we need to insert an
    * HostComponent in the Outputs such as it will be used as a HostView at Mount time. View
@@ -908,89 +1338,167 @@ class LayoutState {
       boolean shouldAnimatedTransitions,
       DiffNode previousDiffTreeRoot,
       boolean canPrefetchDisplayLists) {
+    return calculate(
+        c,
+        component,
+        componentTreeId,
+        widthSpec,
+        heightSpec,
+        shouldGenerateDiffTree,
+        shouldAnimatedTransitions,
+        previousDiffTreeRoot,
+        canPrefetchDisplayLists,
+        null);
+  }
+
+  /**
+   * Same as {@link #calculate(ComponentContext, Component, int, int, int, boolean, boolean,
+   * DiffNode, boolean)} but also takes the previous {@link LayoutState} of the same
+   * {@link ComponentTree}, whose node tree may be re-used by incremental state updates. The caller
+   * must hold a reference to the previous LayoutState for the duration of this call.
+   */
+  static <T extends ComponentLifecycle> LayoutState calculate(
+      ComponentContext c,
+      Component<T> component,
+      int componentTreeId,
+      int widthSpec,
+      int heightSpec,
+      boolean shouldGenerateDiffTree,
+      boolean shouldAnimatedTransitions,
+      DiffNode previousDiffTreeRoot,
+      boolean canPrefetchDisplayLists,
+      @Nullable LayoutState previousLayoutState) {
 
     // Detect errors internal to components
     component.markLayoutStarted();
 
+    final LayoutSnapshot snapshot =
+        LayoutSnapshotRecorder.beginSnapshot(c, component, widthSpec, heightSpec);
+    final long debugStartNanos = ComponentsConfiguration.isDebugModeEnabled ? System.nanoTime() : 0;
+
     LayoutState layoutState = ComponentsPools.acquireLayoutState(c);
-    layoutState.mShouldGenerateDiffTree = shouldGenerateDiffTree;
-    layoutState.mComponentTreeId = componentTreeId;
-    layoutState.mAccessibilityManager =
-        (AccessibilityManager) c.getSystemService(ACCESSIBILITY_SERVICE);
-    layoutState.mAccessibilityEnabled = isAccessibilityEnabled(layoutState.mAccessibilityManager);
-    layoutState.mComponent = component;
-    layoutState.mWidthSpec = widthSpec;
-    layoutState.mHeightSpec = heightSpec;
-    layoutState.mShouldAnimateTransitions = shouldAnimatedTransitions;
-    layoutState.mCanPrefetchDisplayLists = canPrefetchDisplayLists;
-
-    component.applyStateUpdates(c);
-
-    final InternalNode root = createAndMeasureTreeForComponent(
-        component.getScopedContext(),
-        component,
-        null, // nestedTreeHolder is null because this is measuring the root component tree.
-        widthSpec,
-        heightSpec,
-        previousDiffTreeRoot);
+    try {
+      layoutState.mShouldGenerateDiffTree = shouldGenerateDiffTree;
+      layoutState.mComponentTreeId = componentTreeId;
+      layoutState.mAccessibilityManager =
+          (AccessibilityManager) c.getSystemService(ACCESSIBILITY_SERVICE);
+      layoutState.mAccessibilityEnabled = isAccessibilityEnabled(layoutState.mAccessibilityManager);
+      layoutState.mComponent = component;
+      layoutState.mWidthSpec = widthSpec;
+      layoutState.mHeightSpec = heightSpec;
+      layoutState.mShouldAnimateTransitions = shouldAnimatedTransitions;
+      layoutState.mCanPrefetchDisplayLists = canPrefetchDisplayLists;
+
+      InternalNode root = null;
+      if (ComponentsConfiguration.incrementalStateUpdates && previousLayoutState != null) {
+        root = relayoutDirtyNestedTrees(
+            c,
+            component,
+            widthSpec,
+            heightSpec,
+            previousDiffTreeRoot,
+            previousLayoutState);
+      }
 
-    switch (SizeSpec.getMode(widthSpec)) {
-      case SizeSpec.EXACTLY:
-        layoutState.mWidth = SizeSpec.getSize(widthSpec);
-        break;
-      case SizeSpec.AT_MOST:
-        layoutState.mWidth = Math.min(root.getWidth(), SizeSpec.getSize(widthSpec));
-        break;
-      case SizeSpec.UNSPECIFIED:
-        layoutState.mWidth = root.getWidth();
-        break;
-    }
+      component.applyStateUpdates(c);
 
-    switch (SizeSpec.getMode(heightSpec)) {
-      case SizeSpec.EXACTLY:
-        layoutState.mHeight = SizeSpec.getSize(heightSpec);
-        break;
-      case SizeSpec.AT_MOST:
-        layoutState.mHeight = Math.min(root.getHeight(), SizeSpec.getSize(heightSpec));
-        break;
-      case SizeSpec.UNSPECIFIED:
-        layoutState.mHeight = root.getHeight();
-        break;
-    }
+      if (root == null) {
+        if (ComponentsConfiguration.incrementalStateUpdates && previousLayoutState != null) {
+          // The previous node tree can't be re-used, so give the nested trees it memoized back to
+          // the StaticLayoutCache before they are looked up again.
+          previousLayoutState.releaseLayoutRoot();
+        }
+        root = createAndMeasureTreeForComponent(
+            component.getScopedContext(),
+            component,
+            null, // nestedTreeHolder is null because this is measuring the root component tree.
+            widthSpec,
+            heightSpec,
+            previousDiffTreeRoot);
+      }
 
-    layoutState.mLayoutStateOutputIdCalculator.clear();
+      switch (SizeSpec.getMode(widthSpec)) {
+        case SizeSpec.EXACTLY:
+          layoutState.mWidth = SizeSpec.getSize(widthSpec);
+          break;
+        case SizeSpec.AT_MOST:
+          layoutState.mWidth = Math.min(root.getWidth(), SizeSpec.getSize(widthSpec));
+          break;
+        case SizeSpec.UNSPECIFIED:
+          layoutState.mWidth = root.getWidth();
+          break;
+      }
 
-    // Reset markers before collecting layout outputs.
-    layoutState.mCurrentHostMarker = -1;
+      switch (SizeSpec.getMode(heightSpec)) {
+        case SizeSpec.EXACTLY:
+          layoutState.mHeight = SizeSpec.getSize(heightSpec);
+          break;
+        case SizeSpec.AT_MOST:
+          layoutState.mHeight = Math.min(root.getHeight(), SizeSpec.getSize(heightSpec));
+          break;
+        case SizeSpec.UNSPECIFIED:
+          layoutState.mHeight = root.getHeight();
+          break;
+      }
 
-    final ComponentsLogger logger = c.getLogger();
+      layoutState.mLayoutStateOutputIdCalculator.clear();
 
-    if (root == NULL_LAYOUT) {
-      return layoutState;
-    }
+      // Reset markers before collecting layout outputs.
+      layoutState.mCurrentHostMarker = -1;
 
-    layoutState.mLayoutRoot = root;
+      final ComponentsLogger logger = c.getLogger();
 
-    ComponentsSystrace.beginSection("collectResults:" + component.getSimpleName());
-    LogEvent collectResultsEvent = null;
-    if (logger != null) {
-      collectResultsEvent = logger.newPerformanceEvent(EVENT_COLLECT_RESULTS);
-      collectResultsEvent.addParam(PARAM_LOG_TAG, c.getLogTag());
-    }
+      if (root == NULL_LAYOUT) {
+        return layoutState;
+      }
 
-    collectResults(root, layoutState, null);
+      layoutState.mLayoutRoot = root;
 
-    if (ComponentsConfiguration.collectResultFix) {
-      Collections.sort(layoutState.mMountableOutputTops, sTopsComparator);
-      Collections.sort(layoutState.mMountableOutputBottoms, sBottomsComparator);
+      ComponentsSystrace.beginSection("collectResults:" + component.getSimpleName());
+      final long collectResultsStartNanos = PhaseTracer.beginPhase();
+      try {
+        LogEvent collectResultsEvent = null;
+        if (logger != null) {
+          collectResultsEvent = logger.newPerformanceEvent(EVENT_COLLECT_RESULTS);
+          collectResultsEvent.addParam(PARAM_LOG_TAG, c.getLogTag());
+        }
+
+        collectResults(root, layoutState, null);
+
+        if (ComponentsConfiguration.collectResultFix) {
+          Collections.sort(layoutState.mMountableOutputTops, sTopsComparator);
+          Collections.sort(layoutState.mMountableOutputBottoms, sBottomsComparator);
+        }
+
+        if (logger != null) {
+          if (ComponentsConfiguration.flattenHostViews) {
+            collectResultsEvent.addParam(
+                PARAM_FLATTENED_HOSTS_COUNT,
+                String.valueOf(layoutState.mFlattenedHostsCount));
+          }
+          logger.log(collectResultsEvent);
+        }
+      } finally {
+        PhaseTracer.endPhase(
+            collectResultsStartNanos,
+            PhaseTracer.PHASE_COLLECT_RESULTS,
+            componentTreeId,
+            c.getLogTag(),
+            component);
+      }
+      ComponentsSystrace.endSection();
+    } finally {
+      LayoutSnapshotRecorder.endSnapshot(snapshot);
     }
 
-    if (logger != null) {
-      logger.log(collectResultsEvent);
+    if (debugStartNanos != 0) {
+      layoutState.mCalculateDurationNanos = System.nanoTime() - debugStartNanos;
     }
-    ComponentsSystrace.endSection();
 
-    if (!ComponentsConfiguration.isDebugModeEnabled && layoutState.mLayoutRoot != null) {
+    // The node tree is kept for Stetho integration and to re-use it for incremental state updates.
+    if (!ComponentsConfiguration.isDebugModeEnabled
+        && !ComponentsConfiguration.incrementalStateUpdates
+        && layoutState.mLayoutRoot != null) {
       releaseNodeTree(layoutState.mLayoutRoot, false /* isNestedTree */);
       layoutState.mLayoutRoot = null;
     }
@@ -1220,10 +1728,16 @@ class LayoutState {
       createLayoutEvent.addParam(PARAM_COMPONENT, component.getSimpleName());
     }
 
-    final InternalNode root = (InternalNode) component.getLifecycle().createLayout(
-        context,
-        component,
-        true /* resolveNestedTree */);
+    final long startNanos = PhaseTracer.beginPhase();
+    final InternalNode root;
+    try {
+      root = (InternalNode) component.getLifecycle().createLayout(
+          context,
+          component,
+          true /* resolveNestedTree */);
+    } finally {
+      PhaseTracer.endPhase(startNanos, PhaseTracer.PHASE_CREATE_TREE, context, component);
+    }
 
     if (logger != null) {
       logger.log(createLayoutEvent);
@@ -1263,13 +1777,18 @@ class LayoutState {
       layoutEvent.addParam(PARAM_TREE_DIFF_ENABLED, String.valueOf(previousDiffTreeRoot != null));
     }
 
-    root.calculateLayout(
-        SizeSpec.getMode(widthSpec) == SizeSpec.UNSPECIFIED
-            ? YogaConstants.UNDEFINED
-            : SizeSpec.getSize(widthSpec),
-        SizeSpec.getMode(heightSpec) == SizeSpec.UNSPECIFIED
-            ? YogaConstants.UNDEFINED
-            : SizeSpec.getSize(heightSpec));
+    final long startNanos = PhaseTracer.beginPhase();
+    try {
+      root.calculateLayout(
+          SizeSpec.getMode(widthSpec) == SizeSpec.UNSPECIFIED
+              ? YogaConstants.UNDEFINED
+              : SizeSpec.getSize(widthSpec),
+          SizeSpec.getMode(heightSpec) == SizeSpec.UNSPECIFIED
+              ? YogaConstants.UNDEFINED
+              : SizeSpec.getSize(heightSpec));
+    } finally {
+      PhaseTracer.endPhase(startNanos, PhaseTracer.PHASE_CSS_LAYOUT, context, component);
+    }
 
     if (logger != null) {
       logger.log(layoutEvent);
@@ -1327,13 +1846,22 @@ class LayoutState {
       }
 
       if (nestedTree == null) {
-        nestedTree = createAndMeasureTreeForComponent(
-            context,
-            component,
-            nestedTreeHolder,
-            widthSpec,
-            heightSpec,
-            nestedTreeHolder.getDiffNode()); // Previously set while traversing the holder's tree.
+        nestedTree = acquireMemoizedNestedTree(nestedTreeHolder, widthSpec, heightSpec);
+      }
+
+      if (nestedTree == null) {
+        final long startNanos = PhaseTracer.beginPhase();
+        try {
+          nestedTree = createAndMeasureTreeForComponent(
+              context,
+              component,
+              nestedTreeHolder,
+              widthSpec,
+              heightSpec,
+              nestedTreeHolder.getDiffNode()); // Previously set while traversing the holder's tree.
+        } finally {
+          PhaseTracer.endPhase(startNanos, PhaseTracer.PHASE_NESTED_TREE, context, component);
+        }
         nestedTree.setLastWidthSpec(widthSpec);
         nestedTree.setLastHeightSpec(heightSpec);
         nestedTree.setLastMeasuredHeight(nestedTree.getHeight());
@@ -1382,6 +1910,15 @@ class LayoutState {
       c.setTreeProps(null);
     }
 
+    // Remember which stateful components a nested tree contains, so that it can be re-created on
+    // its own when their state changes.
+    final StateHandler stateHandler = c.getStateHandler();
+    final boolean shouldRecordGlobalKeys = hasNestedTreeHolder
+        && stateHandler != null
+        && ComponentsConfiguration.incrementalStateUpdates;
+    final int firstGlobalKeyIndex =
+        shouldRecordGlobalKeys ? stateHandler.getAppliedGlobalKeysCount() : 0;
+
     // Account for the size specs in ComponentContext in case the tree is a NestedTree.
     final int previousWidthSpec = c.getWidthSpec();
     final int previousHeightSpec = c.getHeightSpec();
@@ -1406,7 +1943,8 @@ class LayoutState {
 
     // If measuring a ComponentTree with a LayoutSpecWithSizeSpec at the root, the nested tree
     // holder argument will be null.
-    if (hasNestedTreeHolder && isLayoutSpecWithSizeSpec(component)) {
+    if (hasNestedTreeHolder
+        && (isLayoutSpecWithSizeSpec(component) || Component.hasMemoizableLayout(component))) {
       // Transfer information from the holder node to the nested tree root before measurement.
       nestedTreeHolder.copyInto(root);
       diffTreeRoot = nestedTreeHolder.getDiffNode();
@@ -1421,6 +1959,10 @@ class LayoutState {
         heightSpec,
         diffTreeRoot);
 
+    if (shouldRecordGlobalKeys) {
+      root.setNestedTreeGlobalKeys(stateHandler.copyAppliedGlobalKeys(firstGlobalKeyIndex));
+    }
+
     return root;
   }
 
@@ -1625,6 +2167,22 @@ class LayoutState {
     return mWidth;
   }
 
+  /**
+   * @return how long it took to resolve, measure and collect the results of this layout, or -1 if
+   * debug mode isn't enabled.
+   */
+  long getCalculateDurationNanos() {
+    return mCalculateDurationNanos;
+  }
+
+  /**
+   * @return the number of host views that have been avoided by hoisting their view properties
+   * into an enclosing host. See {@link ComponentsConfiguration#flattenHostViews}.
+   */
+  int getFlattenedHostsCount() {
+    return mFlattenedHostsCount;
+  }
+
   int getHeight() {
     return mHeight;
   }
@@ -1649,6 +2207,14 @@ class LayoutState {
     if (count == 0) {
       mContext = null;
       mComponent = null;
+      mCommittedStateVersion = -1;
+
+      // The state handler of a LayoutState that never got committed still reads the state of the
+      // ComponentTree it was calculated for.
+      if (mStateHandler != null) {
+        mStateHandler.releaseBaseStateContainers();
+        mStateHandler = null;
+      }
 
       mWidth = 0;
       mHeight = 0;
@@ -1658,6 +2224,8 @@ class LayoutState {
       mCurrentHostMarker = -1;
       mCurrentHostOutputPosition = -1;
       mComponentTreeId = -1;
+      mFlattenedHostsCount = 0;
+      mCalculateDurationNanos = -1;
 
       mShouldDuplicateParentState = true;
 
@@ -1698,8 +2266,9 @@ class LayoutState {
         mTransitionContext = null;
       }
 
-      // This should only ever be true in non-release builds as we need this for Stetho integration.
-      // In release builds the node tree is released in calculateLayout().
+      // This should only ever be true in non-release builds as we need this for Stetho integration,
+      // or if incremental state updates are enabled. Otherwise the node tree is released in
+      // calculateLayout().
       if (mLayoutRoot != null) {
         releaseNodeTree(mLayoutRoot, false /* isNestedTree */);
         mLayoutRoot = null;
@@ -1751,6 +2320,43 @@ class LayoutState {
     return mLayoutRoot;
   }
 
+  /**
+   * Takes ownership of the node tree this LayoutState kept, if any.
+   */
+  @Nullable
+  private synchronized InternalNode takeLayoutRoot() {
+    final InternalNode layoutRoot = mLayoutRoot;
+    mLayoutRoot = null;
+    return layoutRoot;
+  }
+
+  private synchronized void restoreLayoutRoot(InternalNode layoutRoot) {
+    mLayoutRoot = layoutRoot;
+  }
+
+  /**
+   * Releases the node tree kept for incremental state updates, which also gives the nested trees
+   * memoized in it back to the {@link StaticLayoutCache}. The tree is kept in debug mode.
+   */
+  void releaseLayoutRoot() {
+    if (ComponentsConfiguration.isDebugModeEnabled) {
+      return;
+    }
+
+    final InternalNode layoutRoot = takeLayoutRoot();
+    if (layoutRoot != null) {
+      releaseNodeTree(layoutRoot, false /* isNestedTree */);
+    }
+  }
+
+  /**
+   * Records that the state of this LayoutState got committed into the StateHandler of its
+   * ComponentTree, which then had the given version.
+   */
+  void setCommittedStateVersion(int stateVersion) {
+    mCommittedStateVersion = stateVersion;
+  }
+
   // If the layout root is a nested tree holder node, it gets skipped immediately while
   // collecting the LayoutOutputs. The nested tree itself effectively becomes the layout
   // root in this case.
@@ -21,6 +21,10 @@ class LayoutStateOutputIdCalculator {
   private final LongSparseArray<Integer> mLayoutCurrentSequenceForBaseId = new LongSparseArray<>(8);
   private final LongSparseArray<Integer> mVisibilityCurrentSequenceForBaseId =
       new LongSparseArray<>(8);
+  // Ids already handed out in this LayoutState when ids are derived from component keys, used to
+  // resolve hash collisions.
+  private final LongSparseArray<Boolean> mAssignedLayoutOutputIds = new LongSparseArray<>(8);
+  private final LongSparseArray<Boolean> mAssignedVisibilityOutputIds = new LongSparseArray<>(8);
 
   private static final int MAX_SEQUENCE = 65535; // (2^16 - 1)
   private static final int MAX_LEVEL = 255; // (2^8 - 1)
@@ -32,6 +36,11 @@ class LayoutStateOutputIdCalculator {
   // Last 16 bits are for sequence.
   private static final short TYPE_SHIFT = 16;
 
+  // 64-bit FNV-1a parameters.
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final long GOLDEN_RATIO = 0x9e3779b97f4a7c15L;
+
   void calculateAndSetLayoutOutputIdAndUpdateState(
       LayoutOutput layoutOutput,
       int level,
@@ -112,9 +121,106 @@ class LayoutStateOutputIdCalculator {
     mVisibilityCurrentSequenceForBaseId.put(baseVisibilityId, sequence + 1);
   }
 
+  /**
+   * Assigns to the given {@link LayoutOutput} an id derived from the hash of the key of the node
+   * that generated it (see {@link #hashKey(String)}) and from its type. Unlike
+   * {@link #calculateAndSetLayoutOutputIdAndUpdateState(LayoutOutput, int, int, long, boolean)}
+   * the id doesn't depend on the depth or position of the output, so it stays the same when
+   * siblings are inserted, removed or reordered. Outputs sharing the same key and type, as well as
+   * the rare hash collisions, are disambiguated deterministically so that ids are always unique.
+   */
+  void calculateAndSetLayoutOutputIdFromKeyAndUpdateState(
+      LayoutOutput layoutOutput,
+      long keyHash,
+      @LayoutOutput.LayoutOutputType int type,
+      long previousId,
+      boolean isCachedOutputUpdated) {
+    final long baseLayoutId = mix(keyHash, type);
+    final long layoutOutputId = nextUniqueId(
+        baseLayoutId,
+        mLayoutCurrentSequenceForBaseId,
+        mAssignedLayoutOutputIds);
+
+    // The previous LayoutOutput can only be re-used if it ended up with exactly the same id.
+    if (previousId == layoutOutputId) {
+      layoutOutput.setUpdateState(
+          isCachedOutputUpdated ? LayoutOutput.STATE_UPDATED : LayoutOutput.STATE_DIRTY);
+    } else {
+      layoutOutput.setUpdateState(LayoutOutput.STATE_UNKNOWN);
+    }
+
+    layoutOutput.setId(layoutOutputId);
+  }
+
+  /**
+   * Same as {@link #calculateAndSetLayoutOutputIdFromKeyAndUpdateState} for a
+   * {@link VisibilityOutput}.
+   */
+  void calculateAndSetVisibilityOutputIdFromKey(VisibilityOutput visibilityOutput, long keyHash) {
+    visibilityOutput.setId(
+        nextUniqueId(keyHash, mVisibilityCurrentSequenceForBaseId, mAssignedVisibilityOutputIds));
+  }
+
   void clear() {
     mLayoutCurrentSequenceForBaseId.clear();
     mVisibilityCurrentSequenceForBaseId.clear();
+    mAssignedLayoutOutputIds.clear();
+    mAssignedVisibilityOutputIds.clear();
+  }
+
+  /**
+   * @return a 64-bit hash of the given key.
+   */
+  static long hashKey(String key) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0, length = key.length(); i < length; i++) {
+      hash ^= key.charAt(i);
+      hash *= FNV_PRIME;
+    }
+
+    return finalizeHash(hash);
+  }
+
+  /**
+   * @return a 64-bit hash combining the given hash and value.
+   */
+  static long mix(long hash, long value) {
+    return finalizeHash(hash ^ (value * GOLDEN_RATIO + (hash << 6) + (hash >>> 2)));
+  }
+
+  /**
+   * Returns the first id derived from {@code baseId} which hasn't been assigned yet. The same base
+   * id always yields the same sequence of candidates, which keeps the resolution of duplicates and
+   * collisions stable between layout calculations. Ids are always positive, since 0 is reserved
+   * for the root host and negative values mean that no id was assigned.
+   */
+  private static long nextUniqueId(
+      long baseId,
+      LongSparseArray<Integer> currentSequenceForBaseId,
+      LongSparseArray<Boolean> assignedIds) {
+    int sequence = currentSequenceForBaseId.get(baseId, 0);
+    long id;
+    do {
+      id = (sequence == 0 ? baseId : mix(baseId, sequence)) & Long.MAX_VALUE;
+      sequence++;
+    } while (id == MountState.ROOT_HOST_ID || assignedIds.get(id, false));
+
+    currentSequenceForBaseId.put(baseId, sequence);
+    assignedIds.put(id, true);
+
+    return id;
+  }
+
+  /**
+   * Spreads the bits of the given value (finalizer of MurmurHash3).
+   */
+  private static long finalizeHash(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
   }
   
   /**
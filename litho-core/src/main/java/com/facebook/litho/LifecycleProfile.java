@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+/**
+ * The calls of the lifecycle methods of a component type sampled by {@link LifecycleProfiler}.
+ * Durations are inclusive, e.g. the time spent in onCreateLayout includes the time spent creating
+ * the layouts of the children.
+ *
+ * Durations are also put in a histogram with power of two buckets: bucket 0 counts the calls that
+ * took less than 1 microsecond and bucket i the ones that took between 2^(i-1) and 2^i
+ * microseconds. The last bucket counts all the calls that took longer.
+ */
+public class LifecycleProfile {
+
+  public static final int BUCKET_COUNT = 20;
+
+  private final int mLifecycleId;
+  private final Class<?> mLifecycleClass;
+  private String mComponentName;
+  private final long[] mCounts = new long[LifecycleProfiler.METHOD_COUNT];
+  private final long[] mTotalNanos = new long[LifecycleProfiler.METHOD_COUNT];
+  private final long[][] mHistograms = new long[LifecycleProfiler.METHOD_COUNT][BUCKET_COUNT];
+
+  LifecycleProfile(int lifecycleId, Class<?> lifecycleClass) {
+    mLifecycleId = lifecycleId;
+    mLifecycleClass = lifecycleClass;
+  }
+
+  LifecycleProfile(LifecycleProfile profile) {
+    this(profile.mLifecycleId, profile.mLifecycleClass);
+    mComponentName = profile.mComponentName;
+    System.arraycopy(profile.mCounts, 0, mCounts, 0, mCounts.length);
+    System.arraycopy(profile.mTotalNanos, 0, mTotalNanos, 0, mTotalNanos.length);
+    for (int i = 0; i < mHistograms.length; i++) {
+      System.arraycopy(profile.mHistograms[i], 0, mHistograms[i], 0, BUCKET_COUNT);
+    }
+  }
+
+  void record(int method, long durationNanos, Component<?> component) {
+    if (mComponentName == null && component != null) {
+      mComponentName = component.getSimpleName();
+    }
+
+    mCounts[method]++;
+    mTotalNanos[method] += durationNanos;
+    mHistograms[method][getBucket(durationNanos)]++;
+  }
+
+  static int getBucket(long durationNanos) {
+    final long durationMicros = durationNanos / 1000;
+    return Math.min(64 - Long.numberOfLeadingZeros(durationMicros), BUCKET_COUNT - 1);
+  }
+
+  public int getLifecycleId() {
+    return mLifecycleId;
+  }
+
+  /**
+   * @return the name of the components of this type, or the name of the lifecycle class if none
+   * of the sampled calls had a component.
+   */
+  public String getComponentName() {
+    return mComponentName != null ? mComponentName : mLifecycleClass.getSimpleName();
+  }
+
+  /**
+   * @return the number of sampled calls of the given method.
+   */
+  public long getCount(int method) {
+    return mCounts[method];
+  }
+
+  public long getTotalNanos(int method) {
+    return mTotalNanos[method];
+  }
+
+  /**
+   * @return the total time spent in the sampled calls of all the methods.
+   */
+  public long getTotalNanos() {
+    long totalNanos = 0;
+    for (long methodTotalNanos : mTotalNanos) {
+      totalNanos += methodTotalNanos;
+    }
+
+    return totalNanos;
+  }
+
+  /**
+   * @return the number of sampled calls of the given method in the given bucket.
+   */
+  public long getHistogramCount(int method, int bucket) {
+    return mHistograms[method][bucket];
+  }
+}
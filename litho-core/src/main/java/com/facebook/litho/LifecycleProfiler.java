@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.v4.util.SparseArrayCompat;
+
+import com.facebook.infer.annotation.ThreadSafe;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Samples the calls of the lifecycle methods of all components and accumulates their durations
+ * per component type, to find the specs responsible for most of the layout and mount time.
+ *
+ * Profiling is disabled until {@link #start(int)} is called. While disabled, the lifecycle
+ * methods only pay for a volatile read.
+ */
+@ThreadSafe
+public final class LifecycleProfiler {
+
+  public static final int METHOD_CREATE_LAYOUT = 0;
+  public static final int METHOD_MEASURE = 1;
+  public static final int METHOD_CREATE_MOUNT_CONTENT = 2;
+  public static final int METHOD_MOUNT = 3;
+  public static final int METHOD_BIND = 4;
+
+  static final int METHOD_COUNT = 5;
+
+  private static final String[] METHOD_NAMES = {
+      "onCreateLayout",
+      "onMeasure",
+      "onCreateMountContent",
+      "onMount",
+      "onBind",
+  };
+
+  private static final Comparator<LifecycleProfile> sTotalTimeComparator =
+      new Comparator<LifecycleProfile>() {
+        @Override
+        public int compare(LifecycleProfile lhs, LifecycleProfile rhs) {
+          final long lhsTotalNanos = lhs.getTotalNanos();
+          final long rhsTotalNanos = rhs.getTotalNanos();
+          return lhsTotalNanos > rhsTotalNanos ? -1 : (lhsTotalNanos == rhsTotalNanos ? 0 : 1);
+        }
+      };
+
+  private static final SparseArrayCompat<LifecycleProfile> sProfiles = new SparseArrayCompat<>();
+
+  // 0 while profiling is disabled.
+  private static volatile int sSamplingInterval;
+  // Racy on purpose, a lost increment only shifts which call is sampled.
+  private static int sCallCount;
+
+  private LifecycleProfiler() {
+  }
+
+  /**
+   * Starts profiling one out of every {@code samplingInterval} lifecycle method calls.
+   */
+  public static void start(int samplingInterval) {
+    if (samplingInterval <= 0) {
+      throw new IllegalArgumentException("The sampling interval must be positive");
+    }
+
+    sSamplingInterval = samplingInterval;
+  }
+
+  /**
+   * Stops profiling. The profiles collected so far are kept until {@link #reset()} is called.
+   */
+  public static void stop() {
+    sSamplingInterval = 0;
+  }
+
+  public static boolean isProfiling() {
+    return sSamplingInterval != 0;
+  }
+
+  public static int getSamplingInterval() {
+    return sSamplingInterval;
+  }
+
+  public static void reset() {
+    synchronized (sProfiles) {
+      sProfiles.clear();
+    }
+  }
+
+  public static String getMethodName(int method) {
+    return METHOD_NAMES[method];
+  }
+
+  /**
+   * @return a copy of the profiles of all the component types that had sampled calls, sorted by
+   * the total time spent in their lifecycle methods.
+   */
+  public static List<LifecycleProfile> getProfiles() {
+    final List<LifecycleProfile> profiles;
+    synchronized (sProfiles) {
+      profiles = new ArrayList<>(sProfiles.size());
+      for (int i = 0, size = sProfiles.size(); i < size; i++) {
+        profiles.add(new LifecycleProfile(sProfiles.valueAt(i)));
+      }
+    }
+
+    Collections.sort(profiles, sTotalTimeComparator);
+    return profiles;
+  }
+
+  /**
+   * Prints the profiles returned by {@link #getProfiles()}, one line per component type and method.
+   */
+  public static void dump(PrintWriter writer) {
+    writer.println("Sampling interval: " + sSamplingInterval);
+    for (LifecycleProfile profile : getProfiles()) {
+      writer.println(profile.getComponentName() + " (id " + profile.getLifecycleId() + ")");
+      for (int method = 0; method < METHOD_COUNT; method++) {
+        final long count = profile.getCount(method);
+        if (count == 0) {
+          continue;
+        }
+
+        final long totalMicros = profile.getTotalNanos(method) / 1000;
+        writer.print(
+            "  " + METHOD_NAMES[method] +
+                ": count=" + count +
+                " total=" + totalMicros + "us" +
+                " avg=" + (totalMicros / count) + "us" +
+                " histogram=[");
+        for (int bucket = 0; bucket < LifecycleProfile.BUCKET_COUNT; bucket++) {
+          writer.print((bucket > 0 ? "," : "") + profile.getHistogramCount(method, bucket));
+        }
+        writer.println("]");
+      }
+    }
+    writer.flush();
+  }
+
+  /**
+   * @return the start time to pass to {@link #endMethod}, or 0 if this call isn't sampled.
+   */
+  static long beginMethod() {
+    final int samplingInterval = sSamplingInterval;
+    if (samplingInterval == 0 || (samplingInterval > 1 && ++sCallCount % samplingInterval != 0)) {
+      return 0;
+    }
+
+    return System.nanoTime();
+  }
+
+  static void endMethod(
+      long startNanos,
+      int method,
+      ComponentLifecycle lifecycle,
+      Component<?> component) {
+    if (startNanos == 0) {
+      return;
+    }
+
+    final long durationNanos = System.nanoTime() - startNanos;
+    synchronized (sProfiles) {
+      LifecycleProfile profile = sProfiles.get(lifecycle.getId());
+      if (profile == null) {
+        profile = new LifecycleProfile(lifecycle.getId(), lifecycle.getClass());
+        sProfiles.put(lifecycle.getId(), profile);
+      }
+
+      profile.record(method, durationNanos, component);
+    }
+  }
+}
@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.annotation.IntDef;
+import android.support.v4.util.SimpleArrayMap;
+
+import com.facebook.infer.annotation.ThreadSafe;
+import com.facebook.litho.config.ComponentsConfiguration;
+
+import java.io.PrintWriter;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import static com.facebook.litho.FrameworkLogEvents.EVENT_MAIN_THREAD_LAYOUT;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_COMPONENT;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_LAYOUT_TRIGGER;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_LOG_TAG;
+
+/**
+ * Counts the layouts a {@link ComponentTree} calculates synchronously on the main thread, because
+ * no compatible layout was calculated in the background beforehand. Layouts are counted by what
+ * triggered them and by the type of their root component, and one out of every
+ * {@code samplingInterval} of them is kept as a {@link MainThreadLayoutSample} with its stack
+ * trace and reported to the {@link ComponentsLogger} of the tree.
+ *
+ * Detection is disabled until {@link #start(int)} is called. Independently of that, setting
+ * {@link ComponentsConfiguration#throwOnMainThreadLayout} in debug mode makes every main thread
+ * layout throw.
+ */
+@ThreadSafe
+public final class MainThreadLayoutDetector {
+
+  /** The view of the tree was measured with specs no existing layout is compatible with. */
+  public static final int TRIGGER_MEASURE = 0;
+  /** A synchronous state update. */
+  public static final int TRIGGER_STATE_UPDATE = 1;
+  /** A synchronous setRoot, setSizeSpec or setRootAndSizeSpec. */
+  public static final int TRIGGER_SET_ROOT = 2;
+  /** An asynchronous layout that ran on the main thread because of the tree's LayoutHandler. */
+  public static final int TRIGGER_ASYNC_LAYOUT = 3;
+
+  static final int TRIGGER_COUNT = 4;
+
+  @IntDef({TRIGGER_MEASURE, TRIGGER_STATE_UPDATE, TRIGGER_SET_ROOT, TRIGGER_ASYNC_LAYOUT})
+  @Retention(RetentionPolicy.SOURCE)
+  @interface LayoutTrigger {}
+
+  private static final String[] TRIGGER_NAMES = {
+      "measure",
+      "stateUpdate",
+      "setRoot",
+      "asyncLayout",
+  };
+
+  static final int MAX_SAMPLES = 50;
+
+  private static final Object sLock = new Object();
+  private static final long[] sTriggerCounts = new long[TRIGGER_COUNT];
+  private static final SimpleArrayMap<String, long[]> sRootComponentCounts =
+      new SimpleArrayMap<>();
+  private static final LinkedList<MainThreadLayoutSample> sSamples = new LinkedList<>();
+
+  // 0 while detection is disabled.
+  private static volatile int sSamplingInterval;
+  // Only accessed from the main thread.
+  private static int sLayoutCount;
+
+  private MainThreadLayoutDetector() {
+  }
+
+  /**
+   * Starts counting main thread layouts, sampling one out of every {@code samplingInterval}.
+   */
+  public static void start(int samplingInterval) {
+    if (samplingInterval <= 0) {
+      throw new IllegalArgumentException("The sampling interval must be positive");
+    }
+
+    sSamplingInterval = samplingInterval;
+  }
+
+  /**
+   * Stops counting. The counts and samples collected so far are kept until {@link #reset()} is
+   * called.
+   */
+  public static void stop() {
+    sSamplingInterval = 0;
+  }
+
+  public static boolean isDetecting() {
+    return sSamplingInterval != 0;
+  }
+
+  public static void reset() {
+    synchronized (sLock) {
+      for (int i = 0; i < TRIGGER_COUNT; i++) {
+        sTriggerCounts[i] = 0;
+      }
+      sRootComponentCounts.clear();
+      sSamples.clear();
+    }
+  }
+
+  public static String getTriggerName(int trigger) {
+    return TRIGGER_NAMES[trigger];
+  }
+
+  /**
+   * @return the number of main thread layouts with the given trigger counted so far.
+   */
+  public static long getCount(@LayoutTrigger int trigger) {
+    synchronized (sLock) {
+      return sTriggerCounts[trigger];
+    }
+  }
+
+  /**
+   * @return the number of main thread layouts of trees with the given root component type counted
+   * so far.
+   */
+  public static long getCount(String rootComponentName) {
+    synchronized (sLock) {
+      final long[] counts = sRootComponentCounts.get(rootComponentName);
+      if (counts == null) {
+        return 0;
+      }
+
+      long count = 0;
+      for (long triggerCount : counts) {
+        count += triggerCount;
+      }
+      return count;
+    }
+  }
+
+  /**
+   * @return the last {@link #MAX_SAMPLES} sampled layouts, oldest first.
+   */
+  public static List<MainThreadLayoutSample> getSamples() {
+    synchronized (sLock) {
+      return new ArrayList<>(sSamples);
+    }
+  }
+
+  /**
+   * Prints the counts per trigger and per root component type, followed by the samples.
+   */
+  public static void dump(PrintWriter writer) {
+    synchronized (sLock) {
+      writer.println("Sampling interval: " + sSamplingInterval);
+      for (int trigger = 0; trigger < TRIGGER_COUNT; trigger++) {
+        writer.println(TRIGGER_NAMES[trigger] + ": " + sTriggerCounts[trigger]);
+      }
+
+      for (int i = 0, size = sRootComponentCounts.size(); i < size; i++) {
+        final long[] counts = sRootComponentCounts.valueAt(i);
+        writer.print(sRootComponentCounts.keyAt(i) + ":");
+        for (int trigger = 0; trigger < TRIGGER_COUNT; trigger++) {
+          if (counts[trigger] > 0) {
+            writer.print(" " + TRIGGER_NAMES[trigger] + "=" + counts[trigger]);
+          }
+        }
+        writer.println();
+      }
+
+      for (MainThreadLayoutSample sample : sSamples) {
+        writer.println(
+            "Sample: " + sample.getRootComponentName() +
+                " log_tag=" + sample.getLogTag() +
+                " trigger=" + TRIGGER_NAMES[sample.getTrigger()] +
+                " duration=" + (sample.getDurationNanos() / 1000) + "us");
+        for (StackTraceElement element : sample.getStackTrace()) {
+          writer.println("  at " + element);
+        }
+      }
+    }
+    writer.flush();
+  }
+
+  /**
+   * Called right before a layout is calculated. Throws in strict mode if called on the main
+   * thread, so callers have to call it before changing any state the layout would replace.
+   *
+   * @return the start time to pass to {@link #endLayout}, or 0 if the layout isn't calculated on
+   * the main thread or detection isn't started.
+   */
+  static long beginLayout(
+      @LayoutTrigger int trigger,
+      Component<?> root,
+      ComponentContext context) {
+    final boolean throwOnMainThreadLayout = ComponentsConfiguration.isDebugModeEnabled &&
+        ComponentsConfiguration.throwOnMainThreadLayout;
+    final boolean isDetecting = sSamplingInterval != 0;
+    // Checking the thread isn't free, so it's skipped for every background layout when disabled.
+    if ((!throwOnMainThreadLayout && !isDetecting) || !ThreadUtils.isMainThread()) {
+      return 0;
+    }
+
+    if (throwOnMainThreadLayout) {
+      throw new IllegalStateException(
+          "Layout of " + root.getSimpleName() + " (log tag " + context.getLogTag() +
+              ") calculated on the main thread from " + TRIGGER_NAMES[trigger]);
+    }
+
+    return isDetecting ? System.nanoTime() : 0;
+  }
+
+  static void endLayout(
+      long startNanos,
+      @LayoutTrigger int trigger,
+      Component<?> root,
+      ComponentContext context) {
+    final int samplingInterval = sSamplingInterval;
+    // Detection might have been stopped after the layout began.
+    if (startNanos == 0 || samplingInterval == 0) {
+      return;
+    }
+
+    final long durationNanos = System.nanoTime() - startNanos;
+    final String rootComponentName = root.getSimpleName();
+    final boolean isSampled = ++sLayoutCount % samplingInterval == 0;
+
+    synchronized (sLock) {
+      sTriggerCounts[trigger]++;
+
+      long[] counts = sRootComponentCounts.get(rootComponentName);
+      if (counts == null) {
+        counts = new long[TRIGGER_COUNT];
+        sRootComponentCounts.put(rootComponentName, counts);
+      }
+      counts[trigger]++;
+
+      if (isSampled) {
+        if (sSamples.size() == MAX_SAMPLES) {
+          sSamples.removeFirst();
+        }
+        sSamples.addLast(
+            new MainThreadLayoutSample(
+                trigger,
+                rootComponentName,
+                context.getLogTag(),
+                durationNanos,
+                new Throwable().getStackTrace()));
+      }
+    }
+
+    final ComponentsLogger logger = context.getLogger();
+    if (isSampled && logger != null) {
+      final LogEvent event = logger.newEvent(EVENT_MAIN_THREAD_LAYOUT);
+      event.addParam(PARAM_LOG_TAG, context.getLogTag());
+      event.addParam(PARAM_COMPONENT, rootComponentName);
+      event.addParam(PARAM_LAYOUT_TRIGGER, TRIGGER_NAMES[trigger]);
+      logger.log(event);
+    }
+  }
+}
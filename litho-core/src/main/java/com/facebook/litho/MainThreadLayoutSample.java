@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.annotation.Nullable;
+
+/**
+ * A layout calculated synchronously on the main thread, sampled by
+ * {@link MainThreadLayoutDetector}.
+ */
+public final class MainThreadLayoutSample {
+
+  private final int mTrigger;
+  private final String mRootComponentName;
+  private final @Nullable String mLogTag;
+  private final long mDurationNanos;
+  private final StackTraceElement[] mStackTrace;
+
+  MainThreadLayoutSample(
+      int trigger,
+      String rootComponentName,
+      @Nullable String logTag,
+      long durationNanos,
+      StackTraceElement[] stackTrace) {
+    mTrigger = trigger;
+    mRootComponentName = rootComponentName;
+    mLogTag = logTag;
+    mDurationNanos = durationNanos;
+    mStackTrace = stackTrace;
+  }
+
+  /**
+   * @return one of the {@code MainThreadLayoutDetector.TRIGGER_*} constants.
+   */
+  public int getTrigger() {
+    return mTrigger;
+  }
+
+  public String getRootComponentName() {
+    return mRootComponentName;
+  }
+
+  @Nullable
+  public String getLogTag() {
+    return mLogTag;
+  }
+
+  public long getDurationNanos() {
+    return mDurationNanos;
+  }
+
+  /**
+   * @return the stack trace of the layout calculation, which shows the call path that triggered it.
+   */
+  public StackTraceElement[] getStackTrace() {
+    return mStackTrace;
+  }
+}
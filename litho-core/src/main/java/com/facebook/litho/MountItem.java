@@ -36,6 +36,7 @@ class MountItem {
   private Object mContent;
   private ComponentHost mHost;
   private boolean mIsBound;
+  private boolean mIsContentFromPool;
   private int mImportantForAccessibility;
   private DisplayListDrawable mDisplayListDrawable;
 
@@ -213,6 +214,7 @@ class MountItem {
     mContent = null;
     mFlags = 0;
     mIsBound = false;
+    mIsContentFromPool = false;
     mImportantForAccessibility = IMPORTANT_FOR_ACCESSIBILITY_AUTO;
   }
 
@@ -256,6 +258,18 @@ class MountItem {
     mIsBound = bound;
   }
 
+  /**
+   * @return Whether the content of this MountItem was acquired from the mount content pool of its
+   * component, or from its recycled hosts for a ComponentHost, rather than created.
+   */
+  boolean isContentFromPool() {
+    return mIsContentFromPool;
+  }
+
+  void setIsContentFromPool(boolean isContentFromPool) {
+    mIsContentFromPool = isContentFromPool;
+  }
+
   DisplayListDrawable getDisplayListDrawable() {
     return mDisplayListDrawable;
   }
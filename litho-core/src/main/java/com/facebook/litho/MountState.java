@@ -25,6 +25,7 @@ import android.view.ViewOutlineProvider;
 import com.facebook.infer.annotation.ThreadConfined;
 import com.facebook.litho.animation.AnimationBinding;
 import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.displaylist.DisplayList;
 import com.facebook.litho.reference.Reference;
 
 import java.util.ArrayList;
@@ -44,12 +45,14 @@ import static com.facebook.litho.ComponentHostUtils.maybeSetDrawableState;
 import static com.facebook.litho.FrameworkLogEvents.EVENT_MOUNT;
 import static com.facebook.litho.FrameworkLogEvents.EVENT_PREPARE_MOUNT;
 import static com.facebook.litho.FrameworkLogEvents.EVENT_SHOULD_UPDATE_REFERENCE_LAYOUT_MISMATCH;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_ALLOCATIONS_COUNT;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_IS_DIRTY;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_LOG_TAG;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_MESSAGE;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_MOUNTED_COUNT;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_MOVED_COUNT;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_NO_OP_COUNT;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_POOL_MISSES_COUNT;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_UNCHANGED_COUNT;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_UNMOUNTED_COUNT;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_UPDATED_COUNT;
@@ -100,11 +103,14 @@ class MountState {
   private final LithoView mLithoView;
   private final Rect mPreviousLocalVisibleRect = new Rect();
   private final PrepareMountStats mPrepareMountStats = new PrepareMountStats();
+  private final MoveDetector mMoveDetector = new MoveDetector();
   private final MountStats mMountStats = new MountStats();
   private DataFlowTransitionManager mTransitionManager;
   private int mPreviousTopsIndex;
   private int mPreviousBottomsIndex;
   private int mLastMountedComponentTreeId;
+  // Only recorded in debug mode, for Stetho.
+  private long mLastMountDurationNanos = -1;
   private final HashMap<String, Integer> mMountedTransitionKeys = new HashMap<>();
 
   private final MountItem mRootHostMountItem;
@@ -147,6 +153,13 @@ class MountState {
     return mIsDirty;
   }
 
+  /**
+   * @return how long the last mount pass took, or -1 if debug mode isn't enabled.
+   */
+  long getLastMountDurationNanos() {
+    return mLastMountDurationNanos;
+  }
+
   /**
    * Mount the layoutState on the pre-set HostView.
    * @param layoutState
@@ -161,7 +174,22 @@ class MountState {
       throw new IllegalStateException("Trying to mount a null layoutState");
     }
 
+    final long startNanos = PhaseTracer.beginPhase();
+    try {
+      mountLayoutState(layoutState, localVisibleRect);
+    } finally {
+      PhaseTracer.endPhase(
+          startNanos,
+          PhaseTracer.PHASE_MOUNT,
+          layoutState.getComponentTreeId(),
+          mLithoView.getComponentTree().getContext().getLogTag(),
+          null);
+    }
+  }
+
+  private void mountLayoutState(LayoutState layoutState, Rect localVisibleRect) {
     ComponentsSystrace.beginSection("mount");
+    final long debugStartNanos = ComponentsConfiguration.isDebugModeEnabled ? System.nanoTime() : 0;
 
     final ComponentTree componentTree = mLithoView.getComponentTree();
     final ComponentsLogger logger = componentTree.getContext().getLogger();
@@ -172,113 +200,142 @@ class MountState {
       mountEvent = logger.newPerformanceEvent(EVENT_MOUNT);
     }
 
-    // the isDirty check here prevents us from animating for incremental mounts
-    final boolean shouldAnimateTransitions =
-        mIsDirty &&
-        layoutState.shouldAnimateTransitions() &&
-        layoutState.hasTransitionContext() &&
-        mLastMountedComponentTreeId == componentTreeId;
-
-    prepareTransitionManager(layoutState);
-    if (shouldAnimateTransitions) {
-      collectPendingAnimations(layoutState);
-      createAutoMountTransitions(layoutState);
-      mTransitionManager.onNewTransitionContext(layoutState.getTransitionContext());
-
-      recordMountedItemsWithTransitionKeys(
-          mTransitionManager,
-          mIndexToItemMap,
-          true /* isPreMount */);
-    }
-
-    if (mIsDirty) {
-      suppressInvalidationsOnHosts(true);
-
-      // Prepare the data structure for the new LayoutState and removes mountItems
-      // that are not present anymore if isUpdateMountInPlace is enabled.
-      prepareMount(layoutState);
-    }
-
-    mMountStats.reset();
-
-    final boolean isIncrementalMountEnabled = localVisibleRect != null;
-
-    if (!isIncrementalMountEnabled ||
-        !performIncrementalMount(layoutState, localVisibleRect)) {
-      final MountItem rootMountItem = mIndexToItemMap.get(ROOT_HOST_ID);
-
-      for (int i = 0, size = layoutState.getMountableOutputCount(); i < size; i++) {
-        final LayoutOutput layoutOutput = layoutState.getMountableOutputAt(i);
-        final Component component = layoutOutput.getComponent();
-        ComponentsSystrace.beginSection(component.getSimpleName());
-        final MountItem currentMountItem = getItemAt(i);
-
-        final boolean isMounted = currentMountItem != null;
-        final boolean isMountable =
-            !isIncrementalMountEnabled ||
-                isMountedHostWithChildContent(currentMountItem) ||
-                Rect.intersects(localVisibleRect, layoutOutput.getBounds()) ||
-                (currentMountItem != null && currentMountItem == rootMountItem);
+    final AllocationPass allocationPass = AllocationTracker.beginPass(
+        AllocationTracker.PASS_MOUNT,
+        componentTree.getContext().getLogTag());
+    try {
+      // the isDirty check here prevents us from animating for incremental mounts
+      final boolean shouldAnimateTransitions =
+          mIsDirty &&
+          layoutState.shouldAnimateTransitions() &&
+          layoutState.hasTransitionContext() &&
+          mLastMountedComponentTreeId == componentTreeId;
+
+      prepareTransitionManager(layoutState);
+      if (shouldAnimateTransitions) {
+        collectPendingAnimations(layoutState);
+        createAutoMountTransitions(layoutState);
+        mTransitionManager.onNewTransitionContext(layoutState.getTransitionContext());
+
+        recordMountedItemsWithTransitionKeys(
+            mTransitionManager,
+            mIndexToItemMap,
+            true /* isPreMount */);
+      }
 
-        if (isMountable && !isMounted) {
-          mountLayoutOutput(i, layoutOutput, layoutState);
-        } else if (!isMountable && isMounted) {
-          unmountItem(mContext, i, mHostsByMarker);
-        } else if (isMounted) {
-          if (isIncrementalMountEnabled && canMountIncrementally(component)) {
-            mountItemIncrementally(currentMountItem, layoutOutput.getBounds(), localVisibleRect);
-          }
+      if (mIsDirty) {
+        suppressInvalidationsOnHosts(true);
 
-          if (mIsDirty) {
-            final boolean useUpdateValueFromLayoutOutput =
-                (componentTreeId >= 0) && (componentTreeId == mLastMountedComponentTreeId);
+        // Prepare the data structure for the new LayoutState and removes mountItems
+        // that are not present anymore if isUpdateMountInPlace is enabled.
+        prepareMount(layoutState);
+      }
 
-            final boolean itemUpdated = updateMountItemIfNeeded(
-                layoutOutput,
-                currentMountItem,
-                useUpdateValueFromLayoutOutput,
-                logger,
-                componentTreeId,
-                i);
+      mMountStats.reset();
+
+      final boolean isIncrementalMountEnabled = localVisibleRect != null;
+
+      if (!isIncrementalMountEnabled ||
+          !performIncrementalMount(layoutState, localVisibleRect)) {
+        final MountItem rootMountItem = mIndexToItemMap.get(ROOT_HOST_ID);
+
+        for (int i = 0, size = layoutState.getMountableOutputCount(); i < size; i++) {
+          final LayoutOutput layoutOutput = layoutState.getMountableOutputAt(i);
+          final Component component = layoutOutput.getComponent();
+          ComponentsSystrace.beginSection(component.getSimpleName());
+          final MountItem currentMountItem = getItemAt(i);
+
+          final boolean isMounted = currentMountItem != null;
+          final boolean isMountable =
+              !isIncrementalMountEnabled ||
+                  isMountedHostWithChildContent(currentMountItem) ||
+                  Rect.intersects(localVisibleRect, layoutOutput.getBounds()) ||
+                  (currentMountItem != null && currentMountItem == rootMountItem);
+
+          if (isMountable && !isMounted) {
+            mountLayoutOutput(i, layoutOutput, layoutState);
+          } else if (!isMountable && isMounted) {
+            unmountItem(mContext, i, mHostsByMarker);
+          } else if (isMounted) {
+            if (isIncrementalMountEnabled && canMountIncrementally(component)) {
+              mountItemIncrementally(currentMountItem, layoutOutput.getBounds(), localVisibleRect);
+            }
 
-            if (itemUpdated) {
-              mMountStats.updatedCount++;
-            } else {
-              mMountStats.noOpCount++;
+            if (mIsDirty) {
+              final boolean useUpdateValueFromLayoutOutput =
+                  (componentTreeId >= 0) && (componentTreeId == mLastMountedComponentTreeId);
+
+              final boolean itemUpdated = updateMountItemIfNeeded(
+                  layoutOutput,
+                  currentMountItem,
+                  useUpdateValueFromLayoutOutput,
+                  logger,
+                  componentTreeId,
+                  i);
+
+              if (itemUpdated) {
+                mMountStats.updatedCount++;
+              } else {
+                mMountStats.noOpCount++;
+              }
             }
           }
+
+          ComponentsSystrace.endSection();
         }
 
-        ComponentsSystrace.endSection();
+        if (isIncrementalMountEnabled) {
+          setupPreviousMountableOutputData(layoutState, localVisibleRect);
+        }
       }
 
-      if (isIncrementalMountEnabled) {
-        setupPreviousMountableOutputData(layoutState, localVisibleRect);
+      mIsDirty = false;
+      if (localVisibleRect != null) {
+        mPreviousLocalVisibleRect.set(localVisibleRect);
       }
-    }
 
-    mIsDirty = false;
-    if (localVisibleRect != null) {
-      mPreviousLocalVisibleRect.set(localVisibleRect);
-    }
+      final long visibilityStartNanos = PhaseTracer.beginPhase();
+      try {
+        processVisibilityOutputs(layoutState, localVisibleRect);
+      } finally {
+        PhaseTracer.endPhase(
+            visibilityStartNanos,
+            PhaseTracer.PHASE_VISIBILITY,
+            componentTreeId,
+            componentTree.getContext().getLogTag(),
+            null);
+      }
 
-    processVisibilityOutputs(layoutState, localVisibleRect);
+      if (shouldAnimateTransitions) {
+        recordMountedItemsWithTransitionKeys(
+            mTransitionManager,
+            mIndexToItemMap,
+            false /* isPreMount */);
+        mTransitionManager.runTransitions();
+      }
 
-    if (shouldAnimateTransitions) {
-      recordMountedItemsWithTransitionKeys(
-          mTransitionManager,
-          mIndexToItemMap,
-          false /* isPreMount */);
-      mTransitionManager.runTransitions();
-    }
+      processTestOutputs(layoutState);
 
-    processTestOutputs(layoutState);
+      suppressInvalidationsOnHosts(false);
 
-    suppressInvalidationsOnHosts(false);
+      mLastMountedComponentTreeId = componentTreeId;
+    } finally {
+      AllocationTracker.endPass(allocationPass);
+    }
 
-    mLastMountedComponentTreeId = componentTreeId;
+    if (debugStartNanos != 0) {
+      mLastMountDurationNanos = System.nanoTime() - debugStartNanos;
+    }
 
     if (logger != null) {
+      if (allocationPass != null) {
+        mountEvent.addParam(
+            PARAM_POOL_MISSES_COUNT,
+            String.valueOf(allocationPass.getPoolMissCount()));
+        mountEvent.addParam(
+            PARAM_ALLOCATIONS_COUNT,
+            String.valueOf(allocationPass.getAllocationCount()));
+      }
       mountEvent.addParam(PARAM_LOG_TAG, componentTree.getContext().getLogTag());
       mountEvent.addParam(PARAM_MOUNTED_COUNT, String.valueOf(mMountStats.mountedCount));
       mountEvent.addParam(PARAM_UNMOUNTED_COUNT, String.valueOf(mMountStats.unmountedCount));
@@ -571,8 +628,11 @@ class MountState {
       host.maybeUnregisterTouchExpansion(index, currentMountItem);
     }
 
-    // 3. We will re-bind this later in 7 regardless so let's make sure it's currently unbound.
-    if (currentMountItem.isBound()) {
+    // 3. We will re-bind this later in 6 so let's make sure it's currently unbound, unless we
+    // know that binding the new component would be a no-op.
+    final boolean shouldRebind =
+        shouldUpdate || !canSkipRebind(currentMountItem, itemComponent, layoutOutputComponent);
+    if (shouldRebind && currentMountItem.isBound()) {
       itemComponent.getLifecycle().onUnbind(
           getContextForComponent(itemComponent),
           currentMountItem.getContent(),
@@ -581,6 +641,9 @@ class MountState {
     }
 
     // 4. Re initialize the MountItem internal state with the new attributes from LayoutOutput
+    if (!shouldUpdate && ComponentsConfiguration.reuseDisplayListsAcrossLayoutStates) {
+      maybeReuseDisplayList(layoutOutput, currentMountItem);
+    }
     currentMountItem.init(layoutOutput.getComponent(), currentMountItem, layoutOutput);
 
     // 5. If the mount item is not valid for this component update its content and view attributes.
@@ -596,11 +659,13 @@ class MountState {
     final Object currentContent = currentMountItem.getContent();
 
     // 6. Set the mounted content on the Component and call the bind callback.
-    layoutOutputComponent.getLifecycle().bind(
-        getContextForComponent(layoutOutputComponent),
-        currentContent,
-        layoutOutputComponent);
-    currentMountItem.setIsBound(true);
+    if (shouldRebind) {
+      layoutOutputComponent.getLifecycle().bind(
+          getContextForComponent(layoutOutputComponent),
+          currentContent,
+          layoutOutputComponent);
+      currentMountItem.setIsBound(true);
+    }
 
     // 7. Update the bounds of the mounted content. This needs to be done regardless of whether
     // the component has been updated or not since the mounted item might might have the same
@@ -623,6 +688,28 @@ class MountState {
     return shouldUpdate;
   }
 
+  /**
+   * LayoutStates calculated off the main thread don't copy the DisplayLists of unchanged outputs
+   * from their DiffNodes, so re-initializing the MountItem would drop a DisplayList that is still
+   * valid. Hand it over to the new LayoutOutput if the drawable keeps its bounds.
+   */
+  private static void maybeReuseDisplayList(LayoutOutput layoutOutput, MountItem mountItem) {
+    final DisplayListDrawable displayListDrawable = mountItem.getDisplayListDrawable();
+    if (layoutOutput.getDisplayList() != null || displayListDrawable == null) {
+      return;
+    }
+
+    final DisplayList displayList = displayListDrawable.getDisplayList();
+    if (displayList == null || !displayList.isValid()) {
+      return;
+    }
+
+    layoutOutput.getMountBounds(sTempRect);
+    if (sTempRect.equals(((Drawable) mountItem.getContent()).getBounds())) {
+      layoutOutput.setDisplayList(displayList);
+    }
+  }
+
   private static boolean shouldUpdateMountItem(
       LayoutOutput layoutOutput,
       MountItem currentMountItem,
@@ -708,6 +795,34 @@ class MountState {
         nextComponent);
   }
 
+  /**
+   * @return whether the given bound item can stay bound while its component gets replaced by
+   * {@code nextComponent}, because none of the props and state used to bind it changed. Bind
+   * methods reading values the change mask doesn't track, such as inter-stage outputs or tree
+   * props, always get bound again.
+   */
+  @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
+  static boolean canSkipRebind(
+      MountItem item,
+      Component previousComponent,
+      Component nextComponent) {
+    if (!ComponentsConfiguration.skipRebindOfUnchangedMountItems || !item.isBound()) {
+      return false;
+    }
+
+    final ComponentLifecycle lifecycle = nextComponent.getLifecycle();
+    if (previousComponent.getLifecycle() != lifecycle) {
+      return false;
+    }
+
+    final long bindDependenciesMask = lifecycle.getBindDependenciesMask();
+    if (bindDependenciesMask == ComponentLifecycle.CHANGE_MASK_ALL) {
+      return false;
+    }
+
+    return (lifecycle.getChangeMask(previousComponent, nextComponent) & bindDependenciesMask) == 0;
+  }
+
   private static boolean sameSize(LayoutOutput layoutOutput, MountItem item) {
     final Rect layoutOutputBounds = layoutOutput.getBounds();
     final Object mountedContent = item.getContent();
@@ -758,39 +873,49 @@ class MountState {
     final ComponentsLogger logger = component.getContext().getLogger();
     final String logTag = component.getContext().getLogTag();
 
-    LogEvent prepareEvent = null;
-    if (logger != null) {
-      prepareEvent = logger.newPerformanceEvent(EVENT_PREPARE_MOUNT);
-    }
+    final long startNanos = PhaseTracer.beginPhase();
+    try {
+      LogEvent prepareEvent = null;
+      if (logger != null) {
+        prepareEvent = logger.newPerformanceEvent(EVENT_PREPARE_MOUNT);
+      }
 
-    PrepareMountStats stats = unmountOrMoveOldItems(layoutState);
+      PrepareMountStats stats = unmountOrMoveOldItems(layoutState);
 
-    if (logger != null) {
-      prepareEvent.addParam(PARAM_LOG_TAG, logTag);
-      prepareEvent.addParam(PARAM_UNMOUNTED_COUNT, String.valueOf(stats.unmountedCount));
-      prepareEvent.addParam(PARAM_MOVED_COUNT, String.valueOf(stats.movedCount));
-      prepareEvent.addParam(PARAM_UNCHANGED_COUNT, String.valueOf(stats.unchangedCount));
-    }
+      if (logger != null) {
+        prepareEvent.addParam(PARAM_LOG_TAG, logTag);
+        prepareEvent.addParam(PARAM_UNMOUNTED_COUNT, String.valueOf(stats.unmountedCount));
+        prepareEvent.addParam(PARAM_MOVED_COUNT, String.valueOf(stats.movedCount));
+        prepareEvent.addParam(PARAM_UNCHANGED_COUNT, String.valueOf(stats.unchangedCount));
+      }
 
-    if (mHostsByMarker.get(ROOT_HOST_ID) == null) {
-      // Mounting always starts with the root host.
-      registerHost(ROOT_HOST_ID, mLithoView);
+      if (mHostsByMarker.get(ROOT_HOST_ID) == null) {
+        // Mounting always starts with the root host.
+        registerHost(ROOT_HOST_ID, mLithoView);
 
-      // Root host is implicitly marked as mounted.
-      mIndexToItemMap.put(ROOT_HOST_ID, mRootHostMountItem);
-    }
+        // Root host is implicitly marked as mounted.
+        mIndexToItemMap.put(ROOT_HOST_ID, mRootHostMountItem);
+      }
 
-    int outputCount = layoutState.getMountableOutputCount();
-    if (mLayoutOutputsIds == null || outputCount != mLayoutOutputsIds.length) {
-      mLayoutOutputsIds = new long[layoutState.getMountableOutputCount()];
-    }
+      int outputCount = layoutState.getMountableOutputCount();
+      if (mLayoutOutputsIds == null || outputCount != mLayoutOutputsIds.length) {
+        mLayoutOutputsIds = new long[layoutState.getMountableOutputCount()];
+      }
 
-    for (int i = 0; i < outputCount; i++) {
-      mLayoutOutputsIds[i] = layoutState.getMountableOutputAt(i).getId();
-    }
+      for (int i = 0; i < outputCount; i++) {
+        mLayoutOutputsIds[i] = layoutState.getMountableOutputAt(i).getId();
+      }
 
-    if (logger != null) {
-      logger.log(prepareEvent);
+      if (logger != null) {
+        logger.log(prepareEvent);
+      }
+    } finally {
+      PhaseTracer.endPhase(
+          startNanos,
+          PhaseTracer.PHASE_PREPARE_MOUNT,
+          layoutState.getComponentTreeId(),
+          logTag,
+          null);
     }
   }
 
@@ -828,12 +953,15 @@ class MountState {
   /**
    * Go over all the mounted items from the leaves to the root and unmount only the items that are
    * not present in the new LayoutOutputs.
-   * If an item is still present but in a new position move the item inside its host.
+   * If an item is still present but in a new position move the item inside its host. Only the items
+   * outside of the longest run of items that keep their relative order within a host are actually
+   * moved, the others just get their index updated (see {@link MoveDetector}).
    * The condition where an item changed host doesn't need any special treatment here since we
    * mark them as removed and re-added when calculating the new LayoutOutputs
    */
   private PrepareMountStats unmountOrMoveOldItems(LayoutState newLayoutState) {
     mPrepareMountStats.reset();
+    mMoveDetector.reset();
 
     if (mLayoutOutputsIds == null) {
       return mPrepareMountStats;
@@ -879,21 +1007,48 @@ class MountState {
           // recursively unmounted.
           unmountItem(mContext, i, mHostsByMarker);
           mPrepareMountStats.unmountedCount++;
-        } else if (newPosition != i) {
-          // If a MountItem for this id exists and the hostMarker has not changed but its position
-          // in the outputs array has changed we need to update the position in the Host to ensure
-          // the z-ordering.
-          oldItem.getHost().moveItem(oldItem, i, newPosition);
-          mPrepareMountStats.movedCount++;
         } else {
-          mPrepareMountStats.unchangedCount++;
+          // The item stays in the same host. Moves are applied once all the unmounts are done, so
+          // that we know which items keep their relative order.
+          mMoveDetector.add(i, newPosition, newHostMarker);
         }
       }
     }
 
+    moveOldItems();
+
     return mPrepareMountStats;
   }
 
+  /**
+   * If a MountItem for an id exists and the hostMarker has not changed but its position in the
+   * outputs array has changed we need to update the position in the Host to ensure the z-ordering.
+   */
+  private void moveOldItems() {
+    mMoveDetector.detectMoves();
+
+    for (int i = 0, size = mMoveDetector.size(); i < size; i++) {
+      final int oldIndex = mMoveDetector.getOldIndex(i);
+      final int newPosition = mMoveDetector.getNewPosition(i);
+      final boolean needsMove = mMoveDetector.needsMove(i);
+
+      final MountItem oldItem = getItemAt(oldIndex);
+
+      if (oldIndex != newPosition) {
+        oldItem.getHost().moveItem(oldItem, oldIndex, newPosition, needsMove);
+      } else if (needsMove) {
+        // The item keeps its index but other items of its host are moved across it.
+        oldItem.getHost().invalidateDrawingOrder();
+      }
+
+      if (needsMove && oldIndex != newPosition) {
+        mPrepareMountStats.movedCount++;
+      } else {
+        mPrepareMountStats.unchangedCount++;
+      }
+    }
+  }
+
   private void removeDisappearingItemMappings(int fromIndex, int toIndex) {
     for (int i = fromIndex; i <= toIndex; i++) {
       final MountItem item = getItemAt(i);
@@ -972,6 +1127,7 @@ class MountState {
 
     // 2. Generate the component's mount state (this might also be a ComponentHost View).
     Object content = acquireMountContent(component, host);
+    final boolean isContentFromPool = content != null;
     if (content == null) {
       content = lifecycle.createMountContent(mContext);
     }
@@ -990,6 +1146,7 @@ class MountState {
 
     // 4. Mount the content into the selected host.
     final MountItem item = mountContent(index, component, content, host, layoutOutput);
+    item.setIsContentFromPool(isContentFromPool);
 
     // 5. Notify the component that mounting has completed
     lifecycle.bind(context, content, component);
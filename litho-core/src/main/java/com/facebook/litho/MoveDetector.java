@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.v4.util.LongSparseArray;
+
+/**
+ * Finds the minimal set of mounted items that need to be moved when mounting a new
+ * {@link LayoutState}. The items that stay in the same host are grouped by host and, for each
+ * host, the longest subsequence of items whose new positions are already in increasing order is
+ * kept in place. Only the items outside of that subsequence actually change their drawing order,
+ * every other item just needs its index to be updated.
+ */
+class MoveDetector {
+
+  private int mSize;
+  private int[] mOldIndexes = new int[0];
+  private int[] mNewPositions = new int[0];
+  private long[] mHostMarkers = new long[0];
+  private boolean[] mInOrder = new boolean[0];
+
+  // Scratch data used to group the items by host and to find the longest increasing subsequences.
+  private final LongSparseArray<Integer> mGroupEnds = new LongSparseArray<>();
+  private int[] mGroupedItems = new int[0];
+  private int[] mGroupedNewPositions = new int[0];
+  private boolean[] mGroupedInOrder = new boolean[0];
+  private int[] mTails = new int[0];
+  private int[] mPredecessors = new int[0];
+
+  void reset() {
+    mSize = 0;
+    mGroupEnds.clear();
+  }
+
+  /**
+   * Adds an item which is mounted at {@code oldIndex} and which will be at {@code newPosition} in
+   * the host identified by {@code hostMarker}. Items must be added in increasing order of their
+   * old index.
+   */
+  void add(int oldIndex, int newPosition, long hostMarker) {
+    ensureCapacity(mSize + 1);
+
+    mOldIndexes[mSize] = oldIndex;
+    mNewPositions[mSize] = newPosition;
+    mHostMarkers[mSize] = hostMarker;
+    mInOrder[mSize] = false;
+    mSize++;
+  }
+
+  /**
+   * Computes which of the added items have to change their drawing order within their host, see
+   * {@link #needsMove(int)}.
+   */
+  void detectMoves() {
+    // Count the items of each host.
+    for (int i = 0; i < mSize; i++) {
+      final long hostMarker = mHostMarkers[i];
+      mGroupEnds.put(hostMarker, mGroupEnds.get(hostMarker, 0) + 1);
+    }
+
+    // Turn the counts into the start offset of each group.
+    int offset = 0;
+    for (int g = 0, groups = mGroupEnds.size(); g < groups; g++) {
+      final int count = mGroupEnds.valueAt(g);
+      mGroupEnds.setValueAt(g, offset);
+      offset += count;
+    }
+
+    // Distribute the items in their group preserving their order. At the end of this each offset
+    // points right after the end of its group.
+    for (int i = 0; i < mSize; i++) {
+      final long hostMarker = mHostMarkers[i];
+      final int position = mGroupEnds.get(hostMarker);
+      mGroupedItems[position] = i;
+      mGroupedNewPositions[position] = mNewPositions[i];
+      mGroupEnds.put(hostMarker, position + 1);
+    }
+
+    int start = 0;
+    for (int g = 0, groups = mGroupEnds.size(); g < groups; g++) {
+      final int end = mGroupEnds.valueAt(g);
+      markLongestIncreasingSubsequence(start, end);
+      start = end;
+    }
+
+    for (int i = 0; i < mSize; i++) {
+      mInOrder[mGroupedItems[i]] = mGroupedInOrder[i];
+    }
+  }
+
+  int size() {
+    return mSize;
+  }
+
+  int getOldIndex(int i) {
+    return mOldIndexes[i];
+  }
+
+  int getNewPosition(int i) {
+    return mNewPositions[i];
+  }
+
+  /**
+   * @return whether the i-th added item changes its drawing order relative to the other items of
+   * its host. Only valid after {@link #detectMoves()}.
+   */
+  boolean needsMove(int i) {
+    return !mInOrder[i];
+  }
+
+  /**
+   * Marks the elements of {@code mGroupedNewPositions} in {@code [start, end)} which belong to a
+   * longest strictly increasing subsequence, in O(n log n).
+   */
+  private void markLongestIncreasingSubsequence(int start, int end) {
+    int length = 0;
+    for (int i = start; i < end; i++) {
+      final int value = mGroupedNewPositions[i];
+
+      // Find the shortest subsequence found so far whose last element is not smaller than value.
+      int low = 0;
+      int high = length;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (mGroupedNewPositions[mTails[start + mid]] < value) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+
+      mPredecessors[i] = low > 0 ? mTails[start + low - 1] : -1;
+      mTails[start + low] = i;
+      if (low == length) {
+        length++;
+      }
+      mGroupedInOrder[i] = false;
+    }
+
+    for (int i = length > 0 ? mTails[start + length - 1] : -1; i >= 0; i = mPredecessors[i]) {
+      mGroupedInOrder[i] = true;
+    }
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= mOldIndexes.length) {
+      return;
+    }
+
+    final int newCapacity = Math.max(capacity, mOldIndexes.length * 2);
+
+    final int[] oldIndexes = new int[newCapacity];
+    System.arraycopy(mOldIndexes, 0, oldIndexes, 0, mSize);
+    mOldIndexes = oldIndexes;
+
+    final int[] newPositions = new int[newCapacity];
+    System.arraycopy(mNewPositions, 0, newPositions, 0, mSize);
+    mNewPositions = newPositions;
+
+    final long[] hostMarkers = new long[newCapacity];
+    System.arraycopy(mHostMarkers, 0, hostMarkers, 0, mSize);
+    mHostMarkers = hostMarkers;
+
+    final boolean[] inOrder = new boolean[newCapacity];
+    System.arraycopy(mInOrder, 0, inOrder, 0, mSize);
+    mInOrder = inOrder;
+
+    mGroupedItems = new int[newCapacity];
+    mGroupedNewPositions = new int[newCapacity];
+    mGroupedInOrder = new boolean[newCapacity];
+    mTails = new int[newCapacity];
+    mPredecessors = new int[newCapacity];
+  }
+}
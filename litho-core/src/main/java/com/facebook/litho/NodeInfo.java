@@ -374,6 +374,33 @@ class NodeInfo {
     }
   }
 
+  /**
+   * @return whether this NodeInfo and the given one can be applied to the same view i.e. none of
+   * the properties set on one of them is also set on the other.
+   */
+  boolean canBeMergedWith(NodeInfo other) {
+    return (mPrivateFlags & other.mPrivateFlags) == 0
+        && (mViewTag == null || other.mViewTag == null)
+        && (mViewTags == null || other.mViewTags == null)
+        && (mInterceptTouchHandler == null || other.mInterceptTouchHandler == null)
+        && (mFocusState == FOCUS_UNSET || other.mFocusState == FOCUS_UNSET);
+  }
+
+  /**
+   * Applies all the properties set on the given NodeInfo to this one. Unlike
+   * {@link #updateWith(NodeInfo)}, the merged properties are also tracked as set on this NodeInfo
+   * so that it can be merged again later on.
+   */
+  void mergeWith(NodeInfo other) {
+    updateWith(other);
+
+    if (other.mInterceptTouchHandler != null) {
+      mInterceptTouchHandler = other.mInterceptTouchHandler;
+    }
+
+    mPrivateFlags |= other.mPrivateFlags;
+  }
+
   static NodeInfo acquire() {
     final NodeInfo nodeInfo = ComponentsPools.acquireNodeInfo();
 
@@ -407,6 +434,7 @@ class NodeInfo {
     mClickHandler = null;
     mLongClickHandler = null;
     mTouchHandler = null;
+    mInterceptTouchHandler = null;
     mDispatchPopulateAccessibilityEventHandler = null;
     mOnInitializeAccessibilityEventHandler = null;
     mOnPopulateAccessibilityEventHandler = null;
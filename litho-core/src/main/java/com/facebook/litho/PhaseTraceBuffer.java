@@ -0,0 +1,377 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.infer.annotation.ThreadSafe;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ring buffer of the phases recorded by {@link PhaseTracer}. Records are kept in primitive arrays
+ * allocated upfront, and the oldest ones are overwritten once the buffer is full. Besides the
+ * records, the buffer keeps the number of calls and the total duration of every phase for every
+ * component type, which aren't affected by records being overwritten.
+ *
+ * <p>Phases end on the main thread and on every layout thread at the same time, so recording a
+ * phase doesn't take a lock. A writer claims a slot by incrementing an atomic sequence, then takes
+ * the slot over with a compare-and-set and publishes the record once its fields are written. If
+ * the writers lap the ring while a slot is still being written, the later record is dropped
+ * rather than torn. Every thread keeps its own aggregates, which are summed when they are read.
+ * The records are meant to be read once tracing is stopped: {@link #writeTrace} skips the ones
+ * that are overwritten while it runs.
+ */
+@ThreadSafe
+public class PhaseTraceBuffer {
+
+  private static final int NO_COMPONENT_ID = -1;
+  private static final int AGGREGATE_COUNT = 0;
+  private static final int AGGREGATE_TOTAL_NANOS = 1;
+  private static final int AGGREGATE_MAX_NANOS = 2;
+  private static final int AGGREGATE_FIELD_COUNT = 3;
+
+  private final int mCapacity;
+  private final int[] mPhases;
+  private final int[] mComponentTreeIds;
+  private final int[] mComponentIds;
+  private final long[] mStartNanos;
+  private final long[] mDurationNanos;
+  // The sequence number of the record held by every slot plus one, or minus that while the record
+  // is being written.
+  private final AtomicLongArray mPublishedSequences;
+  // The sequence number of the next record, i.e. the number of records ever written.
+  private final AtomicLong mNextSequence = new AtomicLong();
+  // The sequence number of the first record written after the last clear().
+  private volatile long mFirstSequence;
+
+  private final ThreadLocal<ThreadAggregates> mThreadAggregates = new ThreadLocal<>();
+  // The aggregates of every thread that recorded a phase for a component since the last clear().
+  private volatile List<ThreadAggregates> mAllThreadAggregates = new CopyOnWriteArrayList<>();
+
+  PhaseTraceBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The capacity of a trace buffer must be positive");
+    }
+
+    mCapacity = capacity;
+    mPhases = new int[capacity];
+    mComponentTreeIds = new int[capacity];
+    mComponentIds = new int[capacity];
+    mStartNanos = new long[capacity];
+    mDurationNanos = new long[capacity];
+    mPublishedSequences = new AtomicLongArray(capacity);
+  }
+
+  void record(
+      int phase,
+      int componentTreeId,
+      Component<?> component,
+      long startNanos,
+      long durationNanos) {
+    final int componentId = component != null ? component.getLifecycle().getId() : NO_COMPONENT_ID;
+
+    // The aggregates are updated first, so that the component name of a published record is known.
+    if (componentId != NO_COMPONENT_ID) {
+      getThreadAggregates().add(phase, componentId, component, durationNanos);
+    }
+
+    final long sequence = mNextSequence.getAndIncrement();
+    final int index = (int) (sequence % mCapacity);
+    final long previousSequence = mPublishedSequences.get(index);
+    if (previousSequence < 0
+        || previousSequence > sequence
+        || !mPublishedSequences.compareAndSet(index, previousSequence, -(sequence + 1))) {
+      // Another writer lapped the ring and owns this slot.
+      return;
+    }
+
+    mPhases[index] = phase;
+    mComponentTreeIds[index] = componentTreeId;
+    mComponentIds[index] = componentId;
+    mStartNanos[index] = startNanos;
+    mDurationNanos[index] = durationNanos;
+    mPublishedSequences.set(index, sequence + 1);
+  }
+
+  private ThreadAggregates getThreadAggregates() {
+    final List<ThreadAggregates> allThreadAggregates = mAllThreadAggregates;
+    ThreadAggregates threadAggregates = mThreadAggregates.get();
+    if (threadAggregates == null || threadAggregates.mOwner != allThreadAggregates) {
+      threadAggregates = new ThreadAggregates(allThreadAggregates);
+      allThreadAggregates.add(threadAggregates);
+      mThreadAggregates.set(threadAggregates);
+    }
+
+    return threadAggregates;
+  }
+
+  /**
+   * @return the number of records currently in the buffer.
+   */
+  public int size() {
+    return (int) Math.min(mNextSequence.get() - mFirstSequence, mCapacity);
+  }
+
+  /**
+   * @return the phase of the i-th oldest record in the buffer.
+   */
+  public int getPhase(int i) {
+    return mPhases[getIndex(i)];
+  }
+
+  public int getComponentTreeId(int i) {
+    return mComponentTreeIds[getIndex(i)];
+  }
+
+  /**
+   * @return the lifecycle id of the component the i-th oldest record was traced for, or -1 if it
+   * wasn't traced for a component.
+   */
+  public int getComponentId(int i) {
+    return mComponentIds[getIndex(i)];
+  }
+
+  public long getDurationNanos(int i) {
+    return mDurationNanos[getIndex(i)];
+  }
+
+  /**
+   * @return how many times the given phase was traced for components of the given type.
+   */
+  public long getCount(int phase, int componentId) {
+    return getAggregate(getAggregateKey(phase, componentId), AGGREGATE_COUNT);
+  }
+
+  /**
+   * @return the total time spent in the given phase for components of the given type.
+   */
+  public long getTotalNanos(int phase, int componentId) {
+    return getAggregate(getAggregateKey(phase, componentId), AGGREGATE_TOTAL_NANOS);
+  }
+
+  /**
+   * Drops the records and the aggregates. Phases that end while the buffer is cleared may still be
+   * counted in the old aggregates.
+   */
+  public void clear() {
+    mFirstSequence = mNextSequence.get();
+    mAllThreadAggregates = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * Writes the records in the Trace Event Format understood by chrome://tracing and Perfetto, with
+   * one track per ComponentTree. The aggregates of every component type are written under the
+   * "componentAggregates" key.
+   */
+  public void writeTrace(Writer writer) throws IOException {
+    final long nextSequence = mNextSequence.get();
+    final long firstSequence =
+        Math.max(mFirstSequence, Math.max(0, nextSequence - mCapacity));
+
+    writer.write("{\"traceEvents\":[");
+    boolean isFirstEvent = true;
+    for (long sequence = firstSequence; sequence < nextSequence; sequence++) {
+      final int index = (int) (sequence % mCapacity);
+      if (mPublishedSequences.get(index) != sequence + 1) {
+        continue;
+      }
+
+      final int phase = mPhases[index];
+      final int componentTreeId = mComponentTreeIds[index];
+      final int componentId = mComponentIds[index];
+      final long startNanos = mStartNanos[index];
+      final long durationNanos = mDurationNanos[index];
+      // The slot was claimed by a newer record while it was being read.
+      if (mPublishedSequences.get(index) != sequence + 1) {
+        continue;
+      }
+
+      if (!isFirstEvent) {
+        writer.write(',');
+      }
+      isFirstEvent = false;
+
+      writer.write("{\"name\":\"");
+      writer.write(PhaseTracer.getPhaseName(phase));
+      writer.write("\",\"cat\":\"litho\",\"ph\":\"X\",\"pid\":0,\"tid\":");
+      writer.write(Integer.toString(componentTreeId));
+      writer.write(",\"ts\":");
+      writer.write(Long.toString(startNanos / 1000));
+      writer.write(",\"dur\":");
+      writer.write(Long.toString(durationNanos / 1000));
+      if (componentId != NO_COMPONENT_ID) {
+        writer.write(",\"args\":{\"component\":\"");
+        writer.write(getComponentName(mAllThreadAggregates, componentId));
+        writer.write("\"}");
+      }
+      writer.write('}');
+    }
+
+    writer.write("],\"componentAggregates\":[");
+    final List<ThreadAggregates> allThreadAggregates = mAllThreadAggregates;
+    int aggregateKeyCount = 0;
+    for (ThreadAggregates threadAggregates : allThreadAggregates) {
+      aggregateKeyCount = Math.max(aggregateKeyCount, threadAggregates.getKeyCount());
+    }
+
+    boolean isFirstAggregate = true;
+    for (int key = 0; key < aggregateKeyCount; key++) {
+      final long count = getAggregate(allThreadAggregates, key, AGGREGATE_COUNT);
+      if (count == 0) {
+        continue;
+      }
+
+      if (!isFirstAggregate) {
+        writer.write(',');
+      }
+      isFirstAggregate = false;
+
+      writer.write("{\"component\":\"");
+      writer.write(getComponentName(allThreadAggregates, key / PhaseTracer.PHASE_COUNT));
+      writer.write("\",\"phase\":\"");
+      writer.write(PhaseTracer.getPhaseName(key % PhaseTracer.PHASE_COUNT));
+      writer.write("\",\"count\":");
+      writer.write(Long.toString(count));
+      writer.write(",\"totalUs\":");
+      writer.write(
+          Long.toString(getAggregate(allThreadAggregates, key, AGGREGATE_TOTAL_NANOS) / 1000));
+      writer.write(",\"maxUs\":");
+      writer.write(
+          Long.toString(getAggregate(allThreadAggregates, key, AGGREGATE_MAX_NANOS) / 1000));
+      writer.write('}');
+    }
+    writer.write("]}");
+  }
+
+  private long getAggregate(int key, int field) {
+    return getAggregate(mAllThreadAggregates, key, field);
+  }
+
+  private static long getAggregate(
+      List<ThreadAggregates> allThreadAggregates,
+      int key,
+      int field) {
+    long aggregate = 0;
+    for (ThreadAggregates threadAggregates : allThreadAggregates) {
+      final long value = threadAggregates.get(key, field);
+      aggregate = field == AGGREGATE_MAX_NANOS ? Math.max(aggregate, value) : aggregate + value;
+    }
+
+    return aggregate;
+  }
+
+  private static String getComponentName(
+      List<ThreadAggregates> allThreadAggregates,
+      int componentId) {
+    for (ThreadAggregates threadAggregates : allThreadAggregates) {
+      final String componentName = threadAggregates.getComponentName(componentId);
+      if (componentName != null) {
+        return componentName;
+      }
+    }
+
+    return null;
+  }
+
+  private int getIndex(int i) {
+    final long nextSequence = mNextSequence.get();
+    final int size = (int) Math.min(nextSequence - mFirstSequence, mCapacity);
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+    }
+
+    return (int) ((nextSequence - size + i) % mCapacity);
+  }
+
+  private static int getAggregateKey(int phase, int componentId) {
+    return componentId * PhaseTracer.PHASE_COUNT + phase;
+  }
+
+  /**
+   * The aggregates of the phases recorded by a single thread. Only that thread writes them, so
+   * updating them doesn't need a lock or a compare-and-set, and any thread can read them. They're
+   * indexed by lifecycle id, which are allocated sequentially, and grow as new component types are
+   * traced.
+   */
+  private static class ThreadAggregates {
+
+    // The list of aggregates this one was added to, which clear() replaces.
+    private final List<ThreadAggregates> mOwner;
+    // The count, total and max duration of every aggregate key, one after the other.
+    private volatile AtomicLongArray mAggregates = new AtomicLongArray(0);
+    private volatile AtomicReferenceArray<String> mComponentNames =
+        new AtomicReferenceArray<>(0);
+
+    ThreadAggregates(List<ThreadAggregates> owner) {
+      mOwner = owner;
+    }
+
+    void add(int phase, int componentId, Component<?> component, long durationNanos) {
+      if (componentId >= mComponentNames.length()) {
+        grow(componentId + 1);
+      }
+
+      final AtomicReferenceArray<String> componentNames = mComponentNames;
+      if (componentNames.get(componentId) == null) {
+        componentNames.lazySet(componentId, component.getSimpleName());
+      }
+
+      final AtomicLongArray aggregates = mAggregates;
+      final int offset = getAggregateKey(phase, componentId) * AGGREGATE_FIELD_COUNT;
+      final int countOffset = offset + AGGREGATE_COUNT;
+      final int totalOffset = offset + AGGREGATE_TOTAL_NANOS;
+      final int maxOffset = offset + AGGREGATE_MAX_NANOS;
+      aggregates.lazySet(countOffset, aggregates.get(countOffset) + 1);
+      aggregates.lazySet(totalOffset, aggregates.get(totalOffset) + durationNanos);
+      aggregates.lazySet(maxOffset, Math.max(aggregates.get(maxOffset), durationNanos));
+    }
+
+    private void grow(int minComponentCount) {
+      final AtomicReferenceArray<String> componentNames = mComponentNames;
+      final AtomicLongArray aggregates = mAggregates;
+      final int componentCount = Math.max(minComponentCount, componentNames.length() * 2);
+
+      final AtomicReferenceArray<String> newComponentNames =
+          new AtomicReferenceArray<>(componentCount);
+      for (int i = 0; i < componentNames.length(); i++) {
+        newComponentNames.lazySet(i, componentNames.get(i));
+      }
+
+      final AtomicLongArray newAggregates =
+          new AtomicLongArray(componentCount * PhaseTracer.PHASE_COUNT * AGGREGATE_FIELD_COUNT);
+      for (int i = 0; i < aggregates.length(); i++) {
+        newAggregates.lazySet(i, aggregates.get(i));
+      }
+
+      mComponentNames = newComponentNames;
+      mAggregates = newAggregates;
+    }
+
+    int getKeyCount() {
+      return mAggregates.length() / AGGREGATE_FIELD_COUNT;
+    }
+
+    long get(int key, int field) {
+      final AtomicLongArray aggregates = mAggregates;
+      final int index = key * AGGREGATE_FIELD_COUNT + field;
+      return index < aggregates.length() ? aggregates.get(index) : 0;
+    }
+
+    String getComponentName(int componentId) {
+      final AtomicReferenceArray<String> componentNames = mComponentNames;
+      return componentId < componentNames.length() ? componentNames.get(componentId) : null;
+    }
+  }
+}
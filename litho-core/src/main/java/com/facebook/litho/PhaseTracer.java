@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.annotation.Nullable;
+
+/**
+ * Records how long each phase of the layout and mount of a {@link ComponentTree} takes into a
+ * {@link PhaseTraceBuffer}. Unlike {@link ComponentsLogger} events and {@link ComponentsSystrace}
+ * sections, recording a phase doesn't allocate, so it can be left enabled in production builds.
+ *
+ * Tracing is disabled until {@link #start(int)} is called. While disabled, tracing a phase costs a
+ * volatile read. The phases that run on the main thread are also reported to the
+ * {@link FrameMetricsCollector}, if it was started, and the phases of a layout to its
+ * {@link LayoutSnapshot}, if the {@link LayoutSnapshotRecorder} was started.
+ */
+public final class PhaseTracer {
+
+  public static final int PHASE_CALCULATE_LAYOUT = 0;
+  public static final int PHASE_CREATE_TREE = 1;
+  public static final int PHASE_CSS_LAYOUT = 2;
+  public static final int PHASE_NESTED_TREE = 3;
+  public static final int PHASE_COLLECT_RESULTS = 4;
+  public static final int PHASE_PREPARE_MOUNT = 5;
+  public static final int PHASE_MOUNT = 6;
+  public static final int PHASE_VISIBILITY = 7;
+  public static final int PHASE_INCREMENTAL_MOUNT = 8;
+  public static final int PHASE_DISPLAY_LIST_PREFETCH = 9;
+  public static final int PHASE_INIT_RANGE = 10;
+
+  public static final int PHASE_COUNT = 11;
+
+  private static final String[] PHASE_NAMES = {
+      "calculateLayout",
+      "createTree",
+      "cssLayout",
+      "nestedTree",
+      "collectResults",
+      "prepareMount",
+      "mount",
+      "visibility",
+      "incrementalMount",
+      "displayListPrefetch",
+      "initRange",
+  };
+
+  private static volatile PhaseTraceBuffer sBuffer;
+
+  private PhaseTracer() {
+  }
+
+  /**
+   * Starts recording phases into a new buffer that keeps the last {@code capacity} records.
+   */
+  public static void start(int capacity) {
+    sBuffer = new PhaseTraceBuffer(capacity);
+  }
+
+  /**
+   * Stops recording phases.
+   *
+   * @return the buffer the phases were recorded into, or null if tracing wasn't started.
+   */
+  @Nullable
+  public static PhaseTraceBuffer stop() {
+    final PhaseTraceBuffer buffer = sBuffer;
+    sBuffer = null;
+    return buffer;
+  }
+
+  /**
+   * @return the buffer phases are currently recorded into, or null if tracing isn't started.
+   */
+  @Nullable
+  public static PhaseTraceBuffer getBuffer() {
+    return sBuffer;
+  }
+
+  public static String getPhaseName(int phase) {
+    return PHASE_NAMES[phase];
+  }
+
+  /**
+   * @return the start time to pass to {@link #endPhase}, or 0 if neither tracing, frame metrics
+   * collection nor layout snapshot recording is started.
+   */
+  public static long beginPhase() {
+    if (sBuffer == null
+        && !FrameMetricsCollector.isCollecting()
+        && !LayoutSnapshotRecorder.isRecording()) {
+      return 0;
+    }
+
+    FrameMetricsCollector.onPhaseStarted();
+    return System.nanoTime();
+  }
+
+  public static void endPhase(
+      long startNanos,
+      int phase,
+      @Nullable ComponentContext c,
+      @Nullable Component<?> component) {
+    if (startNanos == 0) {
+      return;
+    }
+
+    final ComponentTree componentTree = c != null ? c.getComponentTree() : null;
+    endPhase(
+        startNanos,
+        phase,
+        componentTree != null ? componentTree.mId : -1,
+        c != null ? c.getLogTag() : null,
+        component);
+  }
+
+  static void endPhase(long startNanos, int phase, int componentTreeId, Component<?> component) {
+    endPhase(startNanos, phase, componentTreeId, null, component);
+  }
+
+  static void endPhase(
+      long startNanos,
+      int phase,
+      int componentTreeId,
+      @Nullable String logTag,
+      @Nullable Component<?> component) {
+    if (startNanos == 0) {
+      return;
+    }
+
+    final long durationNanos = System.nanoTime() - startNanos;
+    FrameMetricsCollector.onPhaseEnded(phase, logTag, durationNanos);
+    LayoutSnapshotRecorder.onPhaseEnded(phase, durationNanos);
+
+    final PhaseTraceBuffer buffer = sBuffer;
+    // Tracing might have been stopped after the phase began.
+    if (buffer != null) {
+      buffer.record(phase, componentTreeId, component, startNanos, durationNanos);
+    }
+  }
+}
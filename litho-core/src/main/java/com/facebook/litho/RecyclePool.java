@@ -41,6 +41,10 @@ public class RecyclePool<T> {
       item = mPool.acquire();
       mCurrentSize = Math.max(0, mCurrentSize - 1);
     }
+
+    if (item == null) {
+      AllocationTracker.onPoolMiss(mName);
+    }
     return item;
   }
 
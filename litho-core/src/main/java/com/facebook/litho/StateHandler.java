@@ -13,6 +13,7 @@ import android.support.v4.util.Pools;
 
 import com.facebook.infer.annotation.ThreadSafe;
 import com.facebook.litho.ComponentLifecycle.StateContainer;
+import com.facebook.litho.config.ComponentsConfiguration;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -25,6 +26,11 @@ import static com.facebook.litho.ComponentLifecycle.StateUpdate;
 
 /**
  * Holds information about the current State of the components in a Component Tree.
+ *
+ * The StateHandler used by a layout calculation is a snapshot of the one held by the
+ * {@link ComponentTree}. Instead of copying all the committed state containers, a snapshot shares
+ * them as a read-only base and only records the state containers of the components it lays out in
+ * its own map. The committed map is only copied when it's written while a snapshot still reads it.
  */
 public class StateHandler {
 
@@ -50,17 +56,42 @@ public class StateHandler {
 
   /**
    * Maps a component key to a component object that retains the current state values for that key.
+   * For a snapshot, this only contains the state containers that were set after it was acquired and
+   * takes precedence over {@link #mBaseStateContainers}.
    */
   public Map<String, StateContainer> mStateContainers;
 
+  /**
+   * The state containers of the StateHandler this was acquired from, shared read-only.
+   */
+  private SharedStateContainers mBaseStateContainers;
+
+  /**
+   * Set while {@link #mStateContainers} is shared as the base of some snapshots.
+   */
+  private SharedStateContainers mSharedStateContainers;
+
   private Set<String> mKnownGlobalKeys;
 
+  /**
+   * Global keys of the components whose state was set by this StateHandler, in order. Only kept
+   * when {@link ComponentsConfiguration#incrementalStateUpdates} is enabled.
+   */
+  private List<String> mAppliedGlobalKeys;
+
+  /**
+   * Number of layout passes committed into this StateHandler or, for a snapshot, into the
+   * StateHandler it was acquired from at the time it was acquired.
+   */
+  private int mVersion;
+
   void init(StateHandler stateHandler) {
     if (stateHandler == null) {
       return;
     }
     copyPendingStateUpdatesMap(stateHandler.getPendingStateUpdates());
-    copyCurrentStateContainers(stateHandler.getStateContainers());
+    mBaseStateContainers = stateHandler.acquireStateContainersSnapshot();
+    mVersion = stateHandler.mVersion;
   }
 
   public static StateHandler acquireNewInstance(StateHandler stateHandler) {
@@ -68,7 +99,8 @@ public class StateHandler {
   }
 
   public boolean isEmpty() {
-    return mStateContainers == null || mStateContainers.isEmpty();
+    return (mStateContainers == null || mStateContainers.isEmpty())
+        && mBaseStateContainers == null;
   }
 
   /**
@@ -108,8 +140,7 @@ public class StateHandler {
 
     final StateContainer previousStateContainer;
     final String key = component.getGlobalKey();
-    final StateContainer currentStateContainer =
-        mStateContainers.get(key);
+    final StateContainer currentStateContainer = getStateContainer(key);
 
     if (mKnownGlobalKeys.contains(key)) {
       // We found two components with the same global key.
@@ -120,6 +151,13 @@ public class StateHandler {
     }
     mKnownGlobalKeys.add(key);
 
+    if (ComponentsConfiguration.incrementalStateUpdates) {
+      if (mAppliedGlobalKeys == null) {
+        mAppliedGlobalKeys = new ArrayList<>();
+      }
+      mAppliedGlobalKeys.add(key);
+    }
+
     if (currentStateContainer != null) {
       lifecycle.transferState(
           component.getScopedContext(),
@@ -142,6 +180,9 @@ public class StateHandler {
       }
     }
 
+    if (mBaseStateContainers == null) {
+      prepareStateContainersForWrite();
+    }
     mStateContainers.put(key, component.getStateContainer());
   }
 
@@ -151,8 +192,16 @@ public class StateHandler {
    * @param stateHandler state handler that was used to apply state updates in a layout pass
    */
   void commit(StateHandler stateHandler) {
+    mVersion++;
     clearStateUpdates(stateHandler.getPendingStateUpdates());
-    updateCurrentComponentsWithState(stateHandler.getStateContainers());
+
+    // The committed snapshot doesn't need its base anymore. Dropping it first lets us update our
+    // state containers in place when no other snapshot is reading them.
+    stateHandler.releaseBaseStateContainers();
+
+    // Only the state containers set by the layout pass are merged: the ones the snapshot read from
+    // its base are either already ours or have been replaced by a more recent commit.
+    updateCurrentComponentsWithState(stateHandler.mStateContainers);
   }
 
   private void clearStateUpdates(Map<String, List<StateUpdate>> appliedStateUpdates) {
@@ -184,10 +233,60 @@ public class StateHandler {
       return;
     }
 
-    maybeInitStateContainers();
+    flattenBaseStateContainers();
+    prepareStateContainersForWrite();
     mStateContainers.putAll(updatedStateContainers);
   }
 
+  /**
+   * Forgets all the state set on this snapshot since it was acquired, so that the layout pass that
+   * uses it can start over.
+   */
+  void discardAppliedStateUpdates() {
+    if (mStateContainers != null) {
+      mStateContainers.clear();
+    }
+
+    if (mKnownGlobalKeys != null) {
+      mKnownGlobalKeys.clear();
+    }
+
+    if (mAppliedGlobalKeys != null) {
+      mAppliedGlobalKeys.clear();
+    }
+  }
+
+  int getVersion() {
+    return mVersion;
+  }
+
+  int getAppliedGlobalKeysCount() {
+    return mAppliedGlobalKeys == null ? 0 : mAppliedGlobalKeys.size();
+  }
+
+  /**
+   * @return a copy of the global keys of the components whose state was set after the given
+   * number of them had been, or null if there are none.
+   */
+  List<String> copyAppliedGlobalKeys(int fromIndex) {
+    if (mAppliedGlobalKeys == null || mAppliedGlobalKeys.size() <= fromIndex) {
+      return null;
+    }
+
+    return new ArrayList<>(mAppliedGlobalKeys.subList(fromIndex, mAppliedGlobalKeys.size()));
+  }
+
+  /**
+   * Drops the reference to the state containers this snapshot was acquired from. After this, only
+   * the state containers set on this StateHandler are available.
+   */
+  void releaseBaseStateContainers() {
+    if (mBaseStateContainers != null) {
+      mBaseStateContainers.release();
+      mBaseStateContainers = null;
+    }
+  }
+
   void release() {
     if (mPendingStateUpdates != null) {
       mPendingStateUpdates.clear();
@@ -195,10 +294,16 @@ public class StateHandler {
       mPendingStateUpdates = null;
     }
 
+    releaseBaseStateContainers();
+
     if (mStateContainers != null) {
-      mStateContainers.clear();
-      sStateContainersMapPool.release(mStateContainers);
+      // If some snapshot still reads our map, the last one to release it will recycle it.
+      if (mSharedStateContainers == null || !mSharedStateContainers.detachIfReferenced()) {
+        mStateContainers.clear();
+        sStateContainersMapPool.release(mStateContainers);
+      }
       mStateContainers = null;
+      mSharedStateContainers = null;
     }
 
     if (mKnownGlobalKeys != null) {
@@ -206,6 +311,9 @@ public class StateHandler {
       sKnownGlobalKeysSetPool.release(mKnownGlobalKeys);
       mKnownGlobalKeys = null;
     }
+
+    mAppliedGlobalKeys = null;
+    mVersion = 0;
   }
 
   private static List<StateUpdate> acquireStateUpdatesList() {
@@ -230,8 +338,31 @@ public class StateHandler {
     sStateUpdatesListPool.release(list);
   }
 
+  /**
+   * @return all the state containers of this StateHandler, including the ones it shares with the
+   * StateHandler it was acquired from.
+   */
   Map<String, StateContainer> getStateContainers() {
-    return mStateContainers;
+    if (mBaseStateContainers == null) {
+      return mStateContainers;
+    }
+
+    final Map<String, StateContainer> stateContainers =
+        new HashMap<>(mBaseStateContainers.mStateContainers);
+    if (mStateContainers != null) {
+      stateContainers.putAll(mStateContainers);
+    }
+
+    return stateContainers;
+  }
+
+  private StateContainer getStateContainer(String key) {
+    final StateContainer stateContainer = mStateContainers.get(key);
+    if (stateContainer != null || mBaseStateContainers == null) {
+      return stateContainer;
+    }
+
+    return mBaseStateContainers.mStateContainers.get(key);
   }
 
   Map<String, List<StateUpdate>> getPendingStateUpdates() {
@@ -255,26 +386,87 @@ public class StateHandler {
   }
 
   /**
-   * @return copy the list of given state containers into the map that holds the current
-   * state containers of components.
+   * @return the state containers a new snapshot of this StateHandler should read from, with a
+   * reference acquired on behalf of the snapshot, or null if there are none.
    */
-  private void copyCurrentStateContainers(Map<String, StateContainer> stateContainers) {
-    if (stateContainers == null || stateContainers.isEmpty()) {
+  private SharedStateContainers acquireStateContainersSnapshot() {
+    final boolean hasStateContainers = mStateContainers != null && !mStateContainers.isEmpty();
+
+    if (mBaseStateContainers == null) {
+      if (!hasStateContainers) {
+        return null;
+      }
+
+      if (mSharedStateContainers == null) {
+        mSharedStateContainers = new SharedStateContainers(mStateContainers, false);
+      }
+      mSharedStateContainers.acquire();
+      return mSharedStateContainers;
+    }
+
+    if (!hasStateContainers) {
+      mBaseStateContainers.acquire();
+      return mBaseStateContainers;
+    }
+
+    // This is a snapshot with its own changes: the new snapshot gets a private merged copy.
+    final Map<String, StateContainer> stateContainers = acquireStateContainersMap();
+    stateContainers.putAll(mBaseStateContainers.mStateContainers);
+    stateContainers.putAll(mStateContainers);
+
+    final SharedStateContainers merged = new SharedStateContainers(stateContainers, true);
+    merged.acquire();
+    return merged;
+  }
+
+  /**
+   * Folds the base state containers into our own map, so that the result of a commit can be shared
+   * with later snapshots without them having to chain bases.
+   */
+  private void flattenBaseStateContainers() {
+    if (mBaseStateContainers == null) {
       return;
     }
 
+    final Map<String, StateContainer> stateContainers = acquireStateContainersMap();
+    stateContainers.putAll(mBaseStateContainers.mStateContainers);
+    if (mStateContainers != null) {
+      stateContainers.putAll(mStateContainers);
+      mStateContainers.clear();
+      sStateContainersMapPool.release(mStateContainers);
+    }
+
+    mStateContainers = stateContainers;
+    releaseBaseStateContainers();
+  }
+
+  /**
+   * Makes sure {@link #mStateContainers} can be written without affecting the snapshots that read
+   * it, copying it if any of them is still around.
+   */
+  private void prepareStateContainersForWrite() {
     maybeInitStateContainers();
-    for (String key : stateContainers.keySet()) {
-      mStateContainers.put(key, stateContainers.get(key));
+
+    if (mSharedStateContainers != null && mSharedStateContainers.detachIfReferenced()) {
+      final Map<String, StateContainer> stateContainers = acquireStateContainersMap();
+      stateContainers.putAll(mStateContainers);
+      mStateContainers = stateContainers;
+      mSharedStateContainers = null;
+    }
+  }
+
+  private static Map<String, StateContainer> acquireStateContainersMap() {
+    Map<String, StateContainer> stateContainers = sStateContainersMapPool.acquire();
+    if (stateContainers == null) {
+      stateContainers = new HashMap<>(INITIAL_MAP_CAPACITY);
     }
+
+    return stateContainers;
   }
 
   private void maybeInitStateContainers() {
     if (mStateContainers == null) {
-      mStateContainers = sStateContainersMapPool.acquire();
-      if (mStateContainers == null) {
-        mStateContainers = new HashMap<>(INITIAL_MAP_CAPACITY);
-      }
+      mStateContainers = acquireStateContainersMap();
     }
   }
 
@@ -295,4 +487,48 @@ public class StateHandler {
       }
     }
   }
+
+  /**
+   * A map of state containers shared read-only between a StateHandler and its snapshots. Once its
+   * owner stops using it (it's detached), the last snapshot to release it recycles the map.
+   */
+  private static class SharedStateContainers {
+    private final Map<String, StateContainer> mStateContainers;
+    private int mRefCount;
+    private boolean mIsDetached;
+
+    SharedStateContainers(Map<String, StateContainer> stateContainers, boolean isDetached) {
+      mStateContainers = stateContainers;
+      mIsDetached = isDetached;
+    }
+
+    synchronized void acquire() {
+      mRefCount++;
+    }
+
+    void release() {
+      synchronized (this) {
+        mRefCount--;
+        if (mRefCount > 0 || !mIsDetached) {
+          return;
+        }
+      }
+
+      mStateContainers.clear();
+      sStateContainersMapPool.release(mStateContainers);
+    }
+
+    /**
+     * Detaches the map from its owner if some snapshot still reads it.
+     * @return whether the map got detached, in which case the owner must stop writing to it.
+     */
+    synchronized boolean detachIfReferenced() {
+      if (mRefCount == 0) {
+        return false;
+      }
+
+      mIsDetached = true;
+      return true;
+    }
+  }
 }
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.annotation.Nullable;
+
+import com.facebook.litho.ComponentLifecycle.StateContainer;
+import com.facebook.litho.annotations.State;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state values of a component resolved during a layout, as recorded in a
+ * {@link LayoutSnapshot}. Components are identified by a path of component names and sibling
+ * indexes from the root, since their global keys depend on the process that calculated the
+ * layout.
+ */
+public final class StateSnapshot implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String mPath;
+  private final String mSimpleName;
+  private final HashMap<String, Serializable> mValues = new HashMap<>();
+  private final ArrayList<String> mSkippedValues = new ArrayList<>();
+  private final transient StateContainer mStateContainer;
+
+  private StateSnapshot(String path, String simpleName, StateContainer stateContainer) {
+    mPath = path;
+    mSimpleName = simpleName;
+    mStateContainer = stateContainer;
+  }
+
+  static StateSnapshot create(String path, Component<?> component) {
+    final StateContainer stateContainer = component.getStateContainer();
+    final StateSnapshot snapshot =
+        new StateSnapshot(path, component.getSimpleName(), stateContainer);
+
+    for (Field field : stateContainer.getClass().getDeclaredFields()) {
+      if (field.getAnnotation(State.class) == null) {
+        continue;
+      }
+
+      final Object value = ComponentSnapshot.readField(field, stateContainer);
+      if (ComponentSnapshot.isSerializable(value)) {
+        snapshot.mValues.put(field.getName(), (Serializable) value);
+      } else {
+        snapshot.mSkippedValues.add(field.getName());
+      }
+    }
+
+    return snapshot;
+  }
+
+  /**
+   * @return the path of the component from the root, e.g. {@code Feed/Column[0]/Story[2]}.
+   */
+  public String getPath() {
+    return mPath;
+  }
+
+  public String getSimpleName() {
+    return mSimpleName;
+  }
+
+  /**
+   * @return the serializable state values, by name.
+   */
+  public Map<String, Serializable> getValues() {
+    return Collections.unmodifiableMap(mValues);
+  }
+
+  /**
+   * @return the names of the state values that couldn't be recorded.
+   */
+  public List<String> getSkippedValues() {
+    return Collections.unmodifiableList(mSkippedValues);
+  }
+
+  /**
+   * @return the state container the values were read from. Only available in the process that
+   * took the snapshot, which allows a replay to overwrite the values it holds.
+   */
+  @Nullable
+  public StateContainer getStateContainer() {
+    return mStateContainer;
+  }
+
+  @Override
+  public String toString() {
+    return mPath + " values=" + mValues + " skippedValues=" + mSkippedValues;
+  }
+}
@@ -0,0 +1,226 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.util.SimpleArrayMap;
+import android.support.v4.util.SparseArrayCompat;
+
+import com.facebook.litho.displaylist.DisplayList;
+import com.facebook.litho.displaylist.DisplayListException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records contiguous runs of static drawables mounted in a {@link ComponentHost} into a single
+ * {@link DisplayList} per run. Redrawing the host then replays one DisplayList per run instead of
+ * issuing the draw calls of every drawable in it. A run is re-recorded only after one of its
+ * drawables gets invalidated, and all runs are dropped whenever the mounted items change.
+ */
+class StaticDrawableRunsCache {
+
+  /**
+   * Runs shorter than this are drawn directly, since recording them wouldn't save any work.
+   */
+  static final int MIN_RUN_LENGTH = 2;
+
+  // Runs keyed by the position of their first MountItem in the host.
+  private final SparseArrayCompat<Run> mRuns = new SparseArrayCompat<>();
+  // The run every recorded drawable was drawn into, so that invalidations don't scan the items.
+  // Drawables don't override equals() and hashCode(), so they are matched by identity.
+  private final SimpleArrayMap<Drawable, Run> mRunsByDrawable = new SimpleArrayMap<>();
+  private boolean mDisplayListsUnsupported;
+
+  /**
+   * @return whether the given item can be part of a cached run. Drawables whose state follows the
+   * host or that handle touch events can change without going through an invalidation of the host,
+   * so they are always drawn directly.
+   */
+  static boolean isStaticDrawable(MountItem mountItem) {
+    final Object content = mountItem.getContent();
+    if (!(content instanceof Drawable) || content instanceof Touchable) {
+      return false;
+    }
+
+    final NodeInfo nodeInfo = mountItem.getNodeInfo();
+    if (nodeInfo != null && nodeInfo.hasTouchEventHandlers()) {
+      return false;
+    }
+
+    return !MountItem.isDuplicateParentState(mountItem.getFlags())
+        || !((Drawable) content).isStateful();
+  }
+
+  /**
+   * @return the position right after the end of the run of static drawables starting at
+   * {@code start} in the given items.
+   */
+  static int findRunEnd(SparseArrayCompat<MountItem> mountItems, int start) {
+    int end = start;
+    for (int size = mountItems.size(); end < size; end++) {
+      if (!isStaticDrawable(mountItems.valueAt(end))) {
+        break;
+      }
+    }
+
+    return end;
+  }
+
+  /**
+   * @return whether runs can be drawn from DisplayLists on the given canvas. If not, the caller
+   * should draw every item directly without looking for runs.
+   */
+  boolean canDrawRuns(Canvas canvas) {
+    return !mDisplayListsUnsupported && canvas.isHardwareAccelerated();
+  }
+
+  /**
+   * Draws the items in {@code [start, end)} through the DisplayList cached for that run, recording
+   * it first if needed.
+   *
+   * @return false if the run could not be drawn from a DisplayList, in which case the caller is
+   * responsible for drawing the items directly.
+   */
+  boolean drawRun(
+      ComponentHost host,
+      Canvas canvas,
+      SparseArrayCompat<MountItem> mountItems,
+      int start,
+      int end) {
+    if (!canDrawRuns(canvas)) {
+      return false;
+    }
+
+    Run run = mRuns.get(start);
+    if (run != null && run.mEnd != end) {
+      mRuns.remove(start);
+      removeDrawables(run);
+      run = null;
+    }
+
+    if (run == null) {
+      final DisplayList displayList = createDisplayList();
+      if (displayList == null) {
+        mDisplayListsUnsupported = true;
+        return false;
+      }
+
+      run = new Run(end, displayList);
+      mRuns.put(start, run);
+    }
+
+    try {
+      if (run.mDirty || !run.mDisplayList.isValid()) {
+        ComponentsSystrace.beginSection("recordStaticDrawableRun");
+        final int width = host.getWidth();
+        final int height = host.getHeight();
+        final Canvas recordingCanvas = run.mDisplayList.start(width, height);
+
+        removeDrawables(run);
+        for (int i = start; i < end; i++) {
+          final MountItem mountItem = mountItems.valueAt(i);
+          final Drawable drawable = getDrawable(mountItem);
+          drawable.draw(recordingCanvas);
+          addDrawable(run, drawable);
+          addDrawable(run, (Drawable) mountItem.getContent());
+        }
+
+        run.mDisplayList.end(recordingCanvas);
+        run.mDisplayList.setBounds(0, 0, width, height);
+        run.mDirty = false;
+        ComponentsSystrace.endSection();
+      }
+
+      run.mDisplayList.draw(canvas);
+      return true;
+    } catch (DisplayListException e) {
+      // Let's make sure next draw calls will just draw the drawables directly.
+      mDisplayListsUnsupported = true;
+      invalidateAll();
+      return false;
+    }
+  }
+
+  /**
+   * Marks as dirty the run the given drawable was recorded into, if any.
+   */
+  void invalidateRunOf(Drawable drawable) {
+    final Run run = mRunsByDrawable.get(drawable);
+    if (run != null) {
+      run.mDirty = true;
+    }
+  }
+
+  /**
+   * Drops all the recorded runs. Needs to be called whenever items are mounted, unmounted or moved
+   * within the host, or when the host's size or drawable state changes.
+   */
+  void invalidateAll() {
+    mRuns.clear();
+    mRunsByDrawable.clear();
+  }
+
+  int getRunCount() {
+    return mRuns.size();
+  }
+
+  @VisibleForTesting
+  int getRecordedDrawableCount() {
+    return mRunsByDrawable.size();
+  }
+
+  @VisibleForTesting
+  DisplayList createDisplayList() {
+    return DisplayList.createDisplayList("StaticDrawableRun");
+  }
+
+  private void addDrawable(Run run, Drawable drawable) {
+    if (mRunsByDrawable.put(drawable, run) != run) {
+      run.mDrawables.add(drawable);
+    }
+  }
+
+  /**
+   * Removes the drawables recorded into the given run from the lookup, unless they have been
+   * recorded into another run since.
+   */
+  private void removeDrawables(Run run) {
+    for (int i = 0, size = run.mDrawables.size(); i < size; i++) {
+      final Drawable drawable = run.mDrawables.get(i);
+      if (mRunsByDrawable.get(drawable) == run) {
+        mRunsByDrawable.remove(drawable);
+      }
+    }
+    run.mDrawables.clear();
+  }
+
+  static Drawable getDrawable(MountItem mountItem) {
+    final DisplayListDrawable displayListDrawable = mountItem.getDisplayListDrawable();
+    return displayListDrawable != null
+        ? displayListDrawable
+        : (Drawable) mountItem.getContent();
+  }
+
+  private static class Run {
+    private final int mEnd;
+    private final DisplayList mDisplayList;
+    // The drawables this run was last recorded with, as keys of mRunsByDrawable.
+    private final List<Drawable> mDrawables = new ArrayList<>();
+    private boolean mDirty = true;
+
+    private Run(int end, DisplayList displayList) {
+      mEnd = end;
+      mDisplayList = displayList;
+    }
+  }
+}
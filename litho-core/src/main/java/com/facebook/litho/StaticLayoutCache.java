@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.annotation.Nullable;
+import android.support.v4.util.SimpleArrayMap;
+
+import com.facebook.infer.annotation.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the measured layouts of the components of a {@link ComponentTree} that have a static
+ * layout (see {@link ComponentLifecycle#hasStaticLayout()}) across layout calculations, indexed by
+ * the global key of the component.
+ *
+ * The layouts of these components are resolved as nested trees. A memoized layout is owned by at
+ * most one {@link LayoutState} at a time: it's taken out of the cache when a nested tree holder
+ * resolves it and it's put back, instead of being released, when the node tree of that
+ * LayoutState is released.
+ */
+@ThreadSafe
+class StaticLayoutCache {
+
+  private final SimpleArrayMap<String, InternalNode> mLayouts = new SimpleArrayMap<>();
+  private boolean mIsReleased;
+
+  /**
+   * @return whether the nested tree of the given holder can be taken from and put back into the
+   * cache. Holders that need to transfer their own props to the root of their nested tree are
+   * excluded, since the memoized layout would then depend on them.
+   */
+  static boolean canMemoizeNestedTree(InternalNode nestedTreeHolder) {
+    final Component<?> component = nestedTreeHolder.getRootComponent();
+
+    return Component.hasMemoizableLayout(component)
+        && component.getGlobalKey() != null
+        && !nestedTreeHolder.hasPropsForNestedTree()
+        && getCache(nestedTreeHolder) != null;
+  }
+
+  @Nullable
+  static StaticLayoutCache getCache(InternalNode nestedTreeHolder) {
+    final ComponentTree componentTree = nestedTreeHolder.getContext().getComponentTree();
+    return componentTree != null ? componentTree.getStaticLayoutCache() : null;
+  }
+
+  /**
+   * Takes the memoized layout for the component with the given global key out of the cache. The
+   * caller owns the returned layout and is responsible for checking that it's compatible with the
+   * current size constraints.
+   */
+  @Nullable
+  synchronized InternalNode acquire(String globalKey) {
+    return mLayouts.remove(globalKey);
+  }
+
+  /**
+   * Puts a measured layout in the cache.
+   *
+   * @return whether the cache took ownership of the layout. If not, the caller must release it.
+   */
+  synchronized boolean put(String globalKey, InternalNode layout) {
+    if (mIsReleased || mLayouts.containsKey(globalKey)) {
+      return false;
+    }
+
+    mLayouts.put(globalKey, layout);
+    return true;
+  }
+
+  synchronized int size() {
+    return mLayouts.size();
+  }
+
+  /**
+   * Releases all the memoized layouts. Layouts put afterwards won't be accepted.
+   */
+  void release() {
+    final List<InternalNode> layouts;
+    synchronized (this) {
+      mIsReleased = true;
+      layouts = new ArrayList<>(mLayouts.size());
+      for (int i = 0, size = mLayouts.size(); i < size; i++) {
+        layouts.add(mLayouts.valueAt(i));
+      }
+      mLayouts.clear();
+    }
+
+    for (int i = 0, size = layouts.size(); i < size; i++) {
+      LayoutState.releaseNodeTree(layouts.get(i), true /* isNestedTree */);
+    }
+  }
+}
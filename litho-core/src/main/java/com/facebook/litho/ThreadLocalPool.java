@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.v4.util.Pools;
+
+/**
+ * A {@link Pools.Pool} that keeps a separate {@link Pools.SimplePool} for every thread, so that
+ * acquiring and releasing doesn't need any synchronization. This is used by generated components
+ * whose Builders are acquired very frequently from multiple layout threads.
+ */
+public class ThreadLocalPool<T> implements Pools.Pool<T> {
+
+  private final ThreadLocal<Pools.SimplePool<T>> mPools;
+
+  public ThreadLocalPool(final int maxPoolSize) {
+    if (maxPoolSize <= 0) {
+      throw new IllegalArgumentException("The max pool size must be > 0");
+    }
+
+    mPools = new ThreadLocal<Pools.SimplePool<T>>() {
+      @Override
+      protected Pools.SimplePool<T> initialValue() {
+        return new Pools.SimplePool<>(maxPoolSize);
+      }
+    };
+  }
+
+  @Override
+  public T acquire() {
+    return mPools.get().acquire();
+  }
+
+  /**
+   * Releases the instance into the pool of the calling thread, which may not be the thread that
+   * acquired it.
+   */
+  @Override
+  public boolean release(T instance) {
+    return mPools.get().release(instance);
+  }
+}
@@ -9,34 +9,63 @@
 
 package com.facebook.litho;
 
+import android.support.annotation.VisibleForTesting;
 import android.support.v4.util.ArrayMap;
 
 import com.facebook.infer.annotation.ThreadConfined;
 import com.facebook.infer.annotation.ThreadSafe;
 import com.facebook.litho.annotations.TreeProp;
+import com.facebook.litho.config.ComponentsConfiguration;
 
 import java.util.Collections;
 import java.util.Map;
 
 /**
  * A data structure to store tree props.
+ *
+ * When {@link ComponentsConfiguration#shareParentTreeProps} is enabled, a copy only holds the
+ * props that were put into it and points to the TreeProps it was copied from for the rest. The
+ * source must then stay untouched for as long as the copy is used, which is the case for the tree
+ * props of a component while its children are created.
  * @see {@link TreeProp}.
  */
 @ThreadConfined(ThreadConfined.ANY)
 public class TreeProps {
 
+  /**
+   * Maximum number of parents a TreeProps can point to before a copy flattens all of them into its
+   * own map, so that lookups stay short in deep trees.
+   */
+  @VisibleForTesting
+  static final int MAX_DEPTH = 4;
+
   private final ArrayMap<Class, Object> mMap = new ArrayMap<>();
+  private TreeProps mParent;
+  private int mDepth;
 
   public void put(Class key, Object value) {
     mMap.put(key, value);
   }
 
   public <T> T get(Class key) {
-    return (T) mMap.get(key);
+    for (TreeProps treeProps = this; treeProps != null; treeProps = treeProps.mParent) {
+      final int index = treeProps.mMap.indexOfKey(key);
+      if (index >= 0) {
+        return (T) treeProps.mMap.valueAt(index);
+      }
+    }
+
+    return null;
   }
 
   public Map<Class, Object> toMap() {
-    return Collections.unmodifiableMap(mMap);
+    if (mParent == null) {
+      return Collections.unmodifiableMap(mMap);
+    }
+
+    final ArrayMap<Class, Object> map = new ArrayMap<>();
+    putAllInto(map);
+    return Collections.unmodifiableMap(map);
   }
 
   /**
@@ -46,15 +75,59 @@ public class TreeProps {
    */
   @ThreadSafe(enableChecks = false)
   public static TreeProps copy(TreeProps source) {
+    if (!ComponentsConfiguration.shareParentTreeProps) {
+      return flatCopy(source);
+    }
+
     final TreeProps newProps = ComponentsPools.acquireTreeProps();
     if (source != null) {
-      newProps.mMap.putAll((Map<? extends Class, ?>) source.mMap);
+      // Empty TreeProps don't need to be part of the chain.
+      final TreeProps parent = source.mMap.isEmpty() ? source.mParent : source;
+      if (parent == null) {
+        return newProps;
+      }
+
+      if (parent.mDepth < MAX_DEPTH) {
+        newProps.mParent = parent;
+        newProps.mDepth = parent.mDepth + 1;
+      } else {
+        parent.putAllInto(newProps.mMap);
+      }
     }
 
     return newProps;
   }
 
+  /**
+   * Copies all the props of the given TreeProps, including the ones of its parents. The copy
+   * doesn't reference the source, so it can outlive it.
+   */
+  @ThreadSafe(enableChecks = false)
+  static TreeProps flatCopy(TreeProps source) {
+    final TreeProps newProps = ComponentsPools.acquireTreeProps();
+    if (source != null) {
+      source.putAllInto(newProps.mMap);
+    }
+
+    return newProps;
+  }
+
+  private void putAllInto(ArrayMap<Class, Object> map) {
+    if (mParent != null) {
+      mParent.putAllInto(map);
+    }
+
+    map.putAll((Map<? extends Class, ?>) mMap);
+  }
+
+  @VisibleForTesting
+  int getDepth() {
+    return mDepth;
+  }
+
   void reset() {
     mMap.clear();
+    mParent = null;
+    mDepth = 0;
   }
 }
@@ -47,6 +47,13 @@ public class ComponentsConfiguration {
    */
   public static boolean debugHighlightMountBounds = false;
 
+  /**
+   * Debug option to throw when a ComponentTree calculates a layout synchronously on the main
+   * thread. Only has an effect while {@link #isDebugModeEnabled} is set. See
+   * {@link com.facebook.litho.MainThreadLayoutDetector}.
+   */
+  public static boolean throwOnMainThreadLayout = false;
+
   /**
    * Populates additional metadata to find mounted components at runtime. Defaults to the presence
    * of an <pre>IS_TESTING</pre> system property at startup but can be overridden at runtime.
@@ -77,6 +84,69 @@ public class ComponentsConfiguration {
    */
   public static boolean collectResultFix = false;
 
+  /**
+   * Whether remounting a drawable that doesn't need an update keeps its recorded DisplayList when
+   * its bounds didn't change. Layouts calculated on the main thread already get the DisplayList
+   * from their DiffNode; this covers the ones calculated in the background.
+   */
+  public static boolean reuseDisplayListsAcrossLayoutStates = false;
+
+  /**
+   * Whether ComponentHosts should record contiguous runs of static drawables into a single cached
+   * DisplayList instead of drawing each of them on every invalidation.
+   */
+  public static boolean cacheStaticDrawableRunsInHosts = false;
+
+  /**
+   * Whether LayoutState should avoid creating a host view for a node that has exactly the same
+   * bounds as its enclosing host, by hoisting its view properties (click handlers, tags, etc.)
+   * into the enclosing host when they don't conflict.
+   */
+  public static boolean flattenHostViews = false;
+
+  /**
+   * Whether LayoutOutput and VisibilityOutput ids should be derived from a 64-bit hash of the
+   * global key of the component that generated them instead of from their depth and position in
+   * the tree. This keeps ids stable across reorders and insertions and lifts the limits on tree
+   * depth and number of siblings.
+   */
+  public static boolean useGlobalKeysForOutputIds = false;
+
+  /**
+   * Whether MountState should keep a mount item bound, instead of unbinding and binding it again,
+   * when none of the props and state used by its bind methods changed.
+   */
+  public static boolean skipRebindOfUnchangedMountItems = false;
+
+  /**
+   * Whether the measured layouts of components with a static layout should be kept across layout
+   * calculations of the same ComponentTree, and re-used for compatible size constraints instead of
+   * being created and measured again.
+   */
+  public static boolean memoizeStaticLayouts = false;
+
+  /**
+   * Whether a layout calculation caused only by state updates of components inside nested trees
+   * should re-use the node tree of the previous layout, re-creating and measuring only the nested
+   * trees that contain those components as long as their size doesn't change. This keeps the node
+   * tree of the current layout around until the next one is calculated.
+   */
+  public static boolean incrementalStateUpdates = false;
+
+  /**
+   * Whether the layout calculations of a ComponentTree should re-use the global keys of the
+   * previous one, so that they don't build new key strings and look up state with keys that are
+   * already hashed.
+   */
+  public static boolean internGlobalKeys = false;
+
+  /**
+   * Whether TreeProps copied for the children of a component should point to the TreeProps of the
+   * parent instead of copying all of its entries. Lookups walk the chain of parents, which is
+   * flattened into a single map once it gets too deep.
+   */
+  public static boolean shareParentTreeProps = false;
+
   /**
    * Force all section component prop updates to be async
    */
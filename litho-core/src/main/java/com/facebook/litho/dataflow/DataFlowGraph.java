@@ -12,12 +12,13 @@ package com.facebook.litho.dataflow;
 import android.support.annotation.VisibleForTesting;
 import android.support.v4.util.SimpleArrayMap;
 
+import com.facebook.litho.AllocationPass;
+import com.facebook.litho.AllocationTracker;
 import com.facebook.litho.ComponentsPools;
 import com.facebook.litho.internal.ArraySet;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -51,13 +52,25 @@ public class DataFlowGraph {
   private final TimingSource mTimingSource;
   private final CopyOnWriteArrayList<GraphBinding> mBindings = new CopyOnWriteArrayList<>();
   private final ArrayList<ValueNode> mSortedNodes = new ArrayList<>();
+  // The sorted nodes that still need to be calculated on each frame, see regenerateActiveNodes.
+  private final ArrayList<ValueNode> mActiveNodes = new ArrayList<>();
   private final ArraySet<ValueNode> mFinishedNodes = new ArraySet<>();
   private final ArraySet<ValueNode> mNodesWithFinishedInputs = new ArraySet<>();
   private final SimpleArrayMap<GraphBinding, ArraySet<ValueNode>> mBindingToNodes =
       new SimpleArrayMap<>();
   private final ArraySet<GraphBinding> mFinishedBindings = new ArraySet<>();
+  private final SimpleArrayMap<ValueNode, Integer> mNodeToBindingCount = new SimpleArrayMap<>();
+  private final SimpleArrayMap<ValueNode, Integer> mNodesToOutputsLeft = new SimpleArrayMap<>();
 
+  // Bindings registered since the last frame whose nodes can be sorted on their own and appended to
+  // the sorted nodes, and nodes that no binding references anymore, to remove from them.
+  private final ArrayList<GraphBinding> mAddedBindings = new ArrayList<>();
+  private final ArraySet<ValueNode> mRemovedNodes = new ArraySet<>();
+
+  // Whether the sorted nodes need to be regenerated from scratch, because a binding shares nodes
+  // with the graph and so might have changed the connections between existing nodes.
   private boolean mIsDirty = false;
+  private boolean mAreActiveNodesDirty = false;
 
   private DataFlowGraph(TimingSource timingSource) {
     mTimingSource = timingSource;
@@ -72,11 +85,30 @@ public class DataFlowGraph {
       throw new RuntimeException("Expected added GraphBinding to be active: " + binding);
     }
     mBindings.add(binding);
-    mBindingToNodes.put(binding, binding.getAllNodes());
+
+    final ArraySet<ValueNode> nodes = binding.getAllNodes();
+    mBindingToNodes.put(binding, nodes);
+
+    boolean sharesNodes = false;
+    for (int i = 0, size = nodes.size(); i < size; i++) {
+      final ValueNode node = nodes.valueAt(i);
+      final Integer bindingCount = mNodeToBindingCount.get(node);
+      if (bindingCount != null || mRemovedNodes.contains(node)) {
+        sharesNodes = true;
+      }
+      mNodeToBindingCount.put(node, bindingCount == null ? 1 : bindingCount + 1);
+    }
+
+    if (sharesNodes) {
+      mIsDirty = true;
+    } else {
+      mAddedBindings.add(binding);
+    }
+    mAreActiveNodesDirty = true;
+
     if (mBindings.size() == 1) {
       mTimingSource.start();
     }
-    mIsDirty = true;
   }
 
   /**
@@ -87,88 +119,224 @@ public class DataFlowGraph {
     if (!mBindings.remove(binding)) {
       throw new RuntimeException("Tried to unregister non-existent binding");
     }
-    mBindingToNodes.remove(binding);
+
+    final ArraySet<ValueNode> nodes = mBindingToNodes.remove(binding);
+    for (int i = 0, size = nodes.size(); i < size; i++) {
+      final ValueNode node = nodes.valueAt(i);
+      final int bindingCount = mNodeToBindingCount.get(node) - 1;
+      if (bindingCount > 0) {
+        mNodeToBindingCount.put(node, bindingCount);
+      } else {
+        mNodeToBindingCount.remove(node);
+        mRemovedNodes.add(node);
+        mFinishedNodes.remove(node);
+        mNodesWithFinishedInputs.remove(node);
+      }
+    }
+
+    mAddedBindings.remove(binding);
     mFinishedBindings.remove(binding);
+    mAreActiveNodesDirty = true;
+
     if (mBindings.isEmpty()) {
       mTimingSource.stop();
     }
-    mIsDirty = true;
   }
 
   void doFrame(long frameTimeNanos) {
-    if (mIsDirty) {
-      regenerateSortedNodes();
-    }
+    final AllocationPass allocationPass =
+        AllocationTracker.beginPass(AllocationTracker.PASS_ANIMATION_FRAME, null);
 
-    propagate(frameTimeNanos);
-    updateFinishedStates();
+    try {
+      if (mIsDirty) {
+        regenerateSortedNodes();
+      } else {
+        updateSortedNodes();
+      }
+
+      if (mAreActiveNodesDirty) {
+        regenerateActiveNodes();
+      }
+
+      propagate(frameTimeNanos);
+      updateFinishedStates();
+    } finally {
+      AllocationTracker.endPass(allocationPass);
+    }
   }
 
   private void propagate(long frameTimeNanos) {
-    final int size = mSortedNodes.size();
+    final int size = mActiveNodes.size();
     for (int i = 0; i < size; i++) {
-      final ValueNode node = mSortedNodes.get(i);
+      final ValueNode node = mActiveNodes.get(i);
       node.doCalculateValue(frameTimeNanos);
     }
   }
 
   private void regenerateSortedNodes() {
     mSortedNodes.clear();
+    mAddedBindings.clear();
+    mRemovedNodes.clear();
+    mAreActiveNodesDirty = true;
 
     if (mBindings.size() == 0) {
       return;
     }
 
-    final ArraySet<ValueNode> leafNodes = ComponentsPools.acquireArraySet();
-    final SimpleArrayMap<ValueNode, Integer> nodesToOutputsLeft = new SimpleArrayMap<>();
-
+    final ArraySet<ValueNode> nodes = ComponentsPools.acquireArraySet();
     for (int i = 0, bindingsSize = mBindingToNodes.size(); i < bindingsSize; i++) {
-      final ArraySet<ValueNode> nodes = mBindingToNodes.valueAt(i);
-      for (int j = 0, nodesSize = nodes.size(); j < nodesSize; j++) {
-        final ValueNode node = nodes.valueAt(j);
-        final int outputCount = node.getOutputCount();
-        if (outputCount == 0) {
-          leafNodes.add(node);
-        } else {
-          nodesToOutputsLeft.put(node, outputCount);
-        }
+      final ArraySet<ValueNode> bindingNodes = mBindingToNodes.valueAt(i);
+      for (int j = 0, nodesSize = bindingNodes.size(); j < nodesSize; j++) {
+        nodes.add(bindingNodes.valueAt(j));
       }
     }
 
-    if (!nodesToOutputsLeft.isEmpty() && leafNodes.isEmpty()) {
+    final boolean isSorted = appendSortedNodes(nodes);
+    ComponentsPools.release(nodes);
+
+    if (!isSorted) {
       throw new DetectedCycleException(
-          "Graph has nodes, but they represent a cycle with no leaf nodes!");
+          "Had unreachable nodes in graph -- this likely means there was a cycle");
+    }
+
+    mIsDirty = false;
+  }
+
+  /**
+   * Updates the sorted nodes with the bindings registered and unregistered since the last frame,
+   * without sorting the nodes that were already in the graph again: removing nodes from a
+   * topological order keeps it topological, and the nodes of a binding that doesn't share nodes
+   * with the graph can't be connected to the nodes already in it.
+   */
+  private void updateSortedNodes() {
+    if (!mRemovedNodes.isEmpty()) {
+      int sortedNodesCount = 0;
+      for (int i = 0, size = mSortedNodes.size(); i < size; i++) {
+        final ValueNode node = mSortedNodes.get(i);
+        if (!mRemovedNodes.contains(node)) {
+          mSortedNodes.set(sortedNodesCount++, node);
+        }
+      }
+      for (int i = mSortedNodes.size() - 1; i >= sortedNodesCount; i--) {
+        mSortedNodes.remove(i);
+      }
+      mRemovedNodes.clear();
     }
 
+    for (int i = 0, size = mAddedBindings.size(); i < size; i++) {
+      if (!appendSortedNodes(mBindingToNodes.get(mAddedBindings.get(i)))) {
+        // The binding is connected to nodes outside of it after all, or has a cycle: let the full
+        // sort figure it out.
+        regenerateSortedNodes();
+        return;
+      }
+    }
+    mAddedBindings.clear();
+  }
+
+  /**
+   * Appends the given nodes to the sorted nodes, in topological order.
+   *
+   * @return false, without appending anything, if the nodes have a cycle or are connected to nodes
+   * that aren't in the given set.
+   */
+  private boolean appendSortedNodes(ArraySet<ValueNode> nodes) {
+    final int start = mSortedNodes.size();
     final ArrayDeque<ValueNode> nodesToProcess = ComponentsPools.acquireArrayDeque();
-    nodesToProcess.addAll(leafNodes);
 
-    while (!nodesToProcess.isEmpty()) {
+    for (int i = 0, size = nodes.size(); i < size; i++) {
+      final ValueNode node = nodes.valueAt(i);
+      final int outputCount = node.getOutputCount();
+      if (outputCount == 0) {
+        nodesToProcess.addLast(node);
+      } else {
+        mNodesToOutputsLeft.put(node, outputCount);
+      }
+    }
+
+    boolean hasUnexpectedInput = false;
+    while (!hasUnexpectedInput && !nodesToProcess.isEmpty()) {
       final ValueNode next = nodesToProcess.pollFirst();
       mSortedNodes.add(next);
       for (int i = 0, count = next.getInputCount(); i < count; i++) {
         final ValueNode input = next.getInputAt(i);
-        final int outputsLeft = nodesToOutputsLeft.get(input) - 1;
-        nodesToOutputsLeft.put(input, outputsLeft);
-        if (outputsLeft == 0) {
+        final Integer outputsLeft = mNodesToOutputsLeft.get(input);
+        if (outputsLeft == null || outputsLeft <= 0) {
+          hasUnexpectedInput = true;
+          break;
+        }
+
+        mNodesToOutputsLeft.put(input, outputsLeft - 1);
+        if (outputsLeft == 1) {
           nodesToProcess.addLast(input);
-        } else if (outputsLeft < 0) {
-          throw new DetectedCycleException("Detected cycle.");
         }
       }
     }
 
-    int expectedTotalNodes = nodesToOutputsLeft.size() + leafNodes.size();
-    if (mSortedNodes.size() != expectedTotalNodes) {
-      throw new DetectedCycleException(
-          "Had unreachable nodes in graph -- this likely means there was a cycle");
+    mNodesToOutputsLeft.clear();
+    ComponentsPools.release(nodesToProcess);
+
+    final int end = mSortedNodes.size();
+    if (hasUnexpectedInput || end - start != nodes.size()) {
+      for (int i = end - 1; i >= start; i--) {
+        mSortedNodes.remove(i);
+      }
+      return false;
     }
 
-    Collections.reverse(mSortedNodes);
-    mIsDirty = false;
+    // Nodes were added from the outputs to the inputs.
+    for (int i = start, j = end - 1; i < j; i++, j--) {
+      final ValueNode node = mSortedNodes.get(i);
+      mSortedNodes.set(i, mSortedNodes.get(j));
+      mSortedNodes.set(j, node);
+    }
 
-    ComponentsPools.release(nodesToProcess);
-    ComponentsPools.release(leafNodes);
+    return true;
+  }
+
+  /**
+   * Partitions the sorted nodes by binding: nodes that only belong to finished bindings and whose
+   * inputs don't need to be calculated either keep their last value, so they are left out of the
+   * frames until one of their bindings is unregistered.
+   */
+  private void regenerateActiveNodes() {
+    mActiveNodes.clear();
+    mAreActiveNodesDirty = false;
+
+    if (mFinishedBindings.isEmpty()) {
+      mActiveNodes.addAll(mSortedNodes);
+      return;
+    }
+
+    final ArraySet<ValueNode> activeNodes = ComponentsPools.acquireArraySet();
+    for (int i = 0, bindingsSize = mBindingToNodes.size(); i < bindingsSize; i++) {
+      if (mFinishedBindings.contains(mBindingToNodes.keyAt(i))) {
+        continue;
+      }
+      final ArraySet<ValueNode> nodes = mBindingToNodes.valueAt(i);
+      for (int j = 0, nodesSize = nodes.size(); j < nodesSize; j++) {
+        activeNodes.add(nodes.valueAt(j));
+      }
+    }
+
+    for (int i = 0, size = mSortedNodes.size(); i < size; i++) {
+      final ValueNode node = mSortedNodes.get(i);
+      if (activeNodes.contains(node) || hasActiveInput(node, activeNodes)) {
+        activeNodes.add(node);
+        mActiveNodes.add(node);
+      }
+    }
+
+    ComponentsPools.release(activeNodes);
+  }
+
+  private static boolean hasActiveInput(ValueNode node, ArraySet<ValueNode> activeNodes) {
+    for (int i = 0, inputCount = node.getInputCount(); i < inputCount; i++) {
+      if (activeNodes.contains(node.getInputAt(i))) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private void updateFinishedStates() {
@@ -177,8 +345,8 @@ public class DataFlowGraph {
   }
 
   private void updateFinishedNodes() {
-    for (int i = 0, size = mSortedNodes.size(); i < size; i++) {
-      final ValueNode node = mSortedNodes.get(i);
+    for (int i = 0, size = mActiveNodes.size(); i < size; i++) {
+      final ValueNode node = mActiveNodes.get(i);
       if (mFinishedNodes.contains(node)) {
         continue;
       }
@@ -227,8 +395,9 @@ public class DataFlowGraph {
         }
       }
       if (allAreFinished) {
-        binding.notifyNodesHaveFinished();
         mFinishedBindings.add(binding);
+        mAreActiveNodesDirty = true;
+        binding.notifyNodesHaveFinished();
       }
     }
   }
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.SizeSpec.makeSizeSpec;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.robolectric.RuntimeEnvironment.application;
+
+@RunWith(ComponentsTestRunner.class)
+public class AllocationTrackerTest {
+
+  private final int mWidthSpec = makeSizeSpec(100, EXACTLY);
+  private final int mHeightSpec = makeSizeSpec(100, EXACTLY);
+  private final List<AllocationPass> mEndedPasses = new ArrayList<>();
+  private final AllocationTracker.Listener mListener = new AllocationTracker.Listener() {
+    @Override
+    public void onPassEnded(AllocationPass pass) {
+      mEndedPasses.add(pass);
+    }
+  };
+
+  private ComponentContext mContext;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(application);
+  }
+
+  @After
+  public void tearDown() {
+    AllocationTracker.stop();
+  }
+
+  @Test
+  public void testNothingIsTrackedByDefault() {
+    assertThat(AllocationTracker.isTracking()).isFalse();
+    assertThat(AllocationTracker.beginPass(AllocationTracker.PASS_LAYOUT, "tag")).isNull();
+  }
+
+  @Test
+  public void testPoolMissesAreCountedByPool() {
+    AllocationTracker.start(mListener);
+    final RecyclePool<Object> pool = new RecyclePool<>("TestPool", 1, false);
+
+    final AllocationPass pass = AllocationTracker.beginPass(AllocationTracker.PASS_MOUNT, "tag");
+    pool.acquire();
+    pool.release(new Object());
+    pool.acquire();
+    AllocationTracker.onAllocation("Test.site");
+    AllocationTracker.endPass(pass);
+
+    assertThat(pass.getPoolMissCount()).isEqualTo(1);
+    assertThat(pass.getPoolMissCount("TestPool")).isEqualTo(1);
+    assertThat(pass.getAllocationCount("Test.site")).isEqualTo(1);
+    assertThat(mEndedPasses).containsExactly(pass);
+  }
+
+  @Test
+  public void testNestedPassCountsAreAddedToEnclosingPass() {
+    AllocationTracker.start(mListener);
+
+    final AllocationPass outer = AllocationTracker.beginPass(AllocationTracker.PASS_MOUNT, null);
+    AllocationTracker.onAllocation("Test.outer");
+    final AllocationPass inner = AllocationTracker.beginPass(AllocationTracker.PASS_LAYOUT, null);
+    AllocationTracker.onAllocation("Test.inner");
+    AllocationTracker.endPass(inner);
+    AllocationTracker.endPass(outer);
+
+    assertThat(inner.getAllocationCount()).isEqualTo(1);
+    assertThat(outer.getAllocationCount()).isEqualTo(2);
+    assertThat(outer.getAllocationCount("Test.inner")).isEqualTo(1);
+    assertThat(mEndedPasses).containsExactly(inner, outer);
+  }
+
+  @Test
+  public void testLayoutPassIsTracked() {
+    AllocationTracker.start(mListener);
+    final ComponentTree componentTree = ComponentTree.create(mContext).build();
+    componentTree.setRootAndSizeSpec(
+        TestDrawableComponent.create(mContext).build(),
+        mWidthSpec,
+        mHeightSpec);
+
+    assertThat(mEndedPasses).hasSize(1);
+    final AllocationPass pass = mEndedPasses.get(0);
+    assertThat(pass.getPassType()).isEqualTo(AllocationTracker.PASS_LAYOUT);
+    assertThat(pass.getAllocationCount("ComponentTree.calculateLayoutState")).isEqualTo(1);
+  }
+
+  @Test
+  public void testFailedLayoutEndsItsPass() {
+    AllocationTracker.start(mListener);
+    final ComponentTree componentTree = ComponentTree.create(mContext).build();
+
+    try {
+      componentTree.setRootAndSizeSpec(
+          new InlineLayoutSpec() {
+            @Override
+            protected ComponentLayout onCreateLayout(ComponentContext c) {
+              throw new IllegalStateException("Failed layout");
+            }
+          },
+          mWidthSpec,
+          mHeightSpec);
+      fail("The layout should have thrown");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage()).isEqualTo("Failed layout");
+    }
+
+    assertThat(mEndedPasses).hasSize(1);
+    assertThat(mEndedPasses.get(0).getPassType()).isEqualTo(AllocationTracker.PASS_LAYOUT);
+
+    // The next pass isn't nested in the failed one.
+    final AllocationPass pass = AllocationTracker.beginPass(AllocationTracker.PASS_MOUNT, null);
+    assertThat(pass.getParent()).isNull();
+    AllocationTracker.endPass(pass);
+  }
+
+  @Test
+  public void testSteadyStateLayoutDoesNotMissLayoutStatePool() {
+    final ComponentTree componentTree = ComponentTree.create(mContext).build();
+    for (int i = 0; i < 3; i++) {
+      componentTree.setRootAndSizeSpec(
+          TestDrawableComponent.create(mContext).build(),
+          mWidthSpec,
+          mHeightSpec);
+    }
+
+    AllocationTracker.start(mListener);
+    componentTree.setRootAndSizeSpec(
+        TestDrawableComponent.create(mContext).build(),
+        mWidthSpec,
+        mHeightSpec);
+
+    assertThat(mEndedPasses).hasSize(1);
+    assertThat(mEndedPasses.get(0).getPoolMissCount("LayoutState"))
+        .describedAs(mEndedPasses.get(0).toString())
+        .isEqualTo(0);
+  }
+}
@@ -15,6 +15,7 @@ import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
 import android.support.v4.util.SparseArrayCompat;
 import android.util.SparseArray;
+import android.view.MotionEvent;
 import android.view.View;
 
 import com.facebook.litho.testing.TestDrawableComponent;
@@ -656,6 +657,43 @@ public class ComponentHostTest {
     assertThat(getDrawableMountItemAt(2)).isEqualTo(mountItem3);
   }
 
+  @Test
+  public void testStaticDrawableRunsEndAtViews() {
+    mount(0, new ColorDrawable(BLACK));
+    mount(1, new ColorDrawable(BLACK));
+    mount(2, new View(mContext));
+    mount(3, new ColorDrawable(BLACK));
+
+    SparseArrayCompat<MountItem> mountItems = Whitebox.getInternalState(mHost, "mMountItems");
+
+    assertThat(StaticDrawableRunsCache.findRunEnd(mountItems, 0)).isEqualTo(2);
+    assertThat(StaticDrawableRunsCache.findRunEnd(mountItems, 2)).isEqualTo(2);
+    assertThat(StaticDrawableRunsCache.findRunEnd(mountItems, 3)).isEqualTo(4);
+  }
+
+  @Test
+  public void testTouchableDrawablesAreNotStatic() {
+    mount(0, new ColorDrawable(BLACK));
+    mount(1, new TouchableDrawable());
+
+    SparseArrayCompat<MountItem> mountItems = Whitebox.getInternalState(mHost, "mMountItems");
+
+    assertThat(StaticDrawableRunsCache.isStaticDrawable(mountItems.valueAt(0))).isTrue();
+    assertThat(StaticDrawableRunsCache.isStaticDrawable(mountItems.valueAt(1))).isFalse();
+    assertThat(StaticDrawableRunsCache.findRunEnd(mountItems, 0)).isEqualTo(1);
+  }
+
+  @Test
+  public void testStaticDrawableRunsCachingIsOptIn() {
+    assertThat(mHost.isStaticDrawableRunsCachingEnabled()).isFalse();
+
+    mHost.setStaticDrawableRunsCachingEnabled(true);
+    assertThat(mHost.isStaticDrawableRunsCachingEnabled()).isTrue();
+
+    mHost.setStaticDrawableRunsCachingEnabled(false);
+    assertThat(mHost.isStaticDrawableRunsCachingEnabled()).isFalse();
+  }
+
   private int getDrawableItemsSize()
       throws Exception {
     SparseArrayCompat drawableItems = Whitebox.getInternalState(mHost, "mDrawableMountItems");
@@ -833,4 +871,17 @@ public class ComponentHostTest {
       mInvalidationRect.set(l, t, r, b);
     }
   }
+
+  private static class TouchableDrawable extends ColorDrawable implements Touchable {
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event, View host) {
+      return false;
+    }
+
+    @Override
+    public boolean shouldHandleTouchEvent(MotionEvent event) {
+      return false;
+    }
+  }
 }
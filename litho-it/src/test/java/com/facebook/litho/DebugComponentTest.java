@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.SizeSpec.makeSizeSpec;
+import static com.facebook.litho.testing.ComponentTestHelper.mountComponent;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.robolectric.RuntimeEnvironment.application;
+
+@RunWith(ComponentsTestRunner.class)
+public class DebugComponentTest {
+
+  private ComponentContext mContext;
+  private boolean mWasDebugModeEnabled;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(application);
+    mWasDebugModeEnabled = ComponentsConfiguration.isDebugModeEnabled;
+    ComponentsConfiguration.isDebugModeEnabled = true;
+  }
+
+  @After
+  public void tearDown() {
+    ComponentsConfiguration.isDebugModeEnabled = mWasDebugModeEnabled;
+  }
+
+  @Test
+  public void testPerformanceOfMeasuredAndMountedComponent() {
+    final LithoView lithoView = mountComponent(
+        mContext,
+        new InlineLayoutSpec() {
+          @Override
+          protected ComponentLayout onCreateLayout(ComponentContext c) {
+            return Column.create(c)
+                .child(TestDrawableComponent.create(c))
+                .build();
+          }
+        });
+
+    final DebugComponent root = DebugComponent.getRootInstance(lithoView);
+    final DebugComponent drawable = root.getChildComponents().get(0);
+
+    assertThat(drawable.getLastMeasureDurationNanos()).isGreaterThanOrEqualTo(0);
+    assertThat(drawable.isCachedMeasureReused()).isFalse();
+    assertThat(drawable.getMountContentType()).isNotNull();
+    assertThat(drawable.isMountContentFromPool()).isFalse();
+    assertThat(drawable.getVisibilityHandlerCount()).isEqualTo(0);
+
+    assertThat(root.getLastMeasureDurationNanos()).isEqualTo(-1);
+    assertThat(root.getMountContentType()).isNull();
+  }
+
+  @Test
+  public void testLithoViewSummary() {
+    final LithoView lithoView =
+        mountComponent(mContext, TestDrawableComponent.create(mContext).build());
+
+    assertThat(DebugComponent.getLastLayoutDurationNanos(lithoView)).isGreaterThanOrEqualTo(0);
+    assertThat(DebugComponent.getLastMountDurationNanos(lithoView)).isGreaterThanOrEqualTo(0);
+    assertThat(DebugComponent.getMountedItemCount(lithoView)).isGreaterThan(0);
+  }
+
+  @Test
+  public void testInstancesAreStableAcrossLayouts() {
+    final LithoView lithoView = mountComponent(mContext, createColumn());
+    final ComponentTree componentTree = lithoView.getComponentTree();
+
+    final DebugComponent root = DebugComponent.getRootInstance(lithoView);
+    final List<DebugComponent> children = root.getChildComponents();
+    assertThat(children).hasSize(2);
+
+    relayout(componentTree);
+
+    assertThat(DebugComponent.getRootInstance(lithoView)).isSameAs(root);
+    final List<DebugComponent> childrenAfterRelayout = root.getChildComponents();
+    assertThat(childrenAfterRelayout.get(0)).isSameAs(children.get(0));
+    assertThat(childrenAfterRelayout.get(1)).isSameAs(children.get(1));
+    assertThat(childrenAfterRelayout.get(1).getComponent())
+        .isSameAs(componentTree.getMainThreadLayoutState().getLayoutRoot().getChildAt(1)
+            .getRootComponent());
+  }
+
+  @Test
+  public void testInstancesAreIndexedPerTree() {
+    final LithoView lithoView = mountComponent(mContext, createColumn());
+    final LithoView otherLithoView = mountComponent(mContext, createColumn());
+
+    assertThat(lithoView.getComponentTree().peekDebugComponentIndex()).isNull();
+
+    final DebugComponent root = DebugComponent.getRootInstance(lithoView);
+    final DebugComponent otherRoot = DebugComponent.getRootInstance(otherLithoView);
+
+    assertThat(root).isNotSameAs(otherRoot);
+    assertThat(root.getId()).isNotEqualTo(otherRoot.getId());
+    assertThat(lithoView.getComponentTree().peekDebugComponentIndex().size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testOverridesAreAppliedOnRelayout() {
+    final LithoView lithoView = mountComponent(mContext, createColumn());
+    final DebugComponent child = DebugComponent.getRootInstance(lithoView)
+        .getChildComponents()
+        .get(1);
+    final int[] overridesCount = new int[1];
+    child.setOverrider(new DebugComponent.Overrider() {
+      @Override
+      public void applyOverrides(DebugComponent node) {
+        overridesCount[0]++;
+      }
+    });
+
+    relayout(lithoView.getComponentTree());
+
+    assertThat(overridesCount[0]).isGreaterThan(0);
+  }
+
+  private InlineLayoutSpec createColumn() {
+    return new InlineLayoutSpec() {
+      @Override
+      protected ComponentLayout onCreateLayout(ComponentContext c) {
+        return Column.create(c)
+            .child(TestDrawableComponent.create(c))
+            .child(TestDrawableComponent.create(c))
+            .build();
+      }
+    };
+  }
+
+  private void relayout(ComponentTree componentTree) {
+    componentTree.setRootAndSizeSpec(
+        createColumn(),
+        makeSizeSpec(100, EXACTLY),
+        makeSizeSpec(100, EXACTLY));
+  }
+}
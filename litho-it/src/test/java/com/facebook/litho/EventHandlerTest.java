@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Tests that handlers with inline params and handlers built by hand with a params array are
+ * dispatched the same way.
+ */
+@RunWith(ComponentsTestRunner.class)
+public class EventHandlerTest {
+
+  private static final int ON_ITEM_CLICK_ID = 0;
+  private static final int ON_CHECKED_CHANGE_ID = 1;
+
+  private ComponentContext mContext;
+  private DispatchingLifecycle mLifecycle;
+  private Component<?> mComponent;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(RuntimeEnvironment.application);
+    mLifecycle = new DispatchingLifecycle();
+    mComponent = new Component<DispatchingLifecycle>(mLifecycle) {
+      @Override
+      public String getSimpleName() {
+        return "DispatchingComponent";
+      }
+    };
+  }
+
+  @Test
+  public void testInlineParamsAreDispatched() {
+    ComponentLifecycle.newEventHandler(mComponent, ON_ITEM_CLICK_ID, mContext, "item")
+        .dispatchEvent(new Object());
+    ComponentLifecycle.newEventHandler(mComponent, ON_CHECKED_CHANGE_ID, mContext, 1L)
+        .dispatchEvent(new Object());
+
+    assertThat(mLifecycle.mContext).isSameAs(mContext);
+    assertThat(mLifecycle.mItem).isEqualTo("item");
+    assertThat(mLifecycle.mChecked).isTrue();
+  }
+
+  @Test
+  public void testHandBuiltHandlersAreDispatched() {
+    ComponentLifecycle.newEventHandler(
+        mComponent,
+        ON_ITEM_CLICK_ID,
+        new Object[] {mContext, "item"})
+        .dispatchEvent(new Object());
+    ComponentLifecycle.newEventHandler(
+        mComponent,
+        ON_CHECKED_CHANGE_ID,
+        new Object[] {mContext, true})
+        .dispatchEvent(new Object());
+
+    assertThat(mLifecycle.mContext).isSameAs(mContext);
+    assertThat(mLifecycle.mItem).isEqualTo("item");
+    assertThat(mLifecycle.mChecked).isTrue();
+  }
+
+  @Test
+  public void testPrimitiveParamsOfHandBuiltHandlersAreEncoded() {
+    final EventHandler eventHandler =
+        new EventHandler(mComponent, 0, new Object[] {mContext, 'c', 1.5f, 2.5d, false, 7});
+
+    assertThat(eventHandler.getParam(0)).isSameAs(mContext);
+    assertThat((char) eventHandler.getPrimitiveParam(1)).isEqualTo('c');
+    assertThat(Float.intBitsToFloat((int) eventHandler.getPrimitiveParam(2))).isEqualTo(1.5f);
+    assertThat(Double.longBitsToDouble(eventHandler.getPrimitiveParam(3))).isEqualTo(2.5d);
+    assertThat(eventHandler.getPrimitiveParam(4)).isEqualTo(0);
+    assertThat(eventHandler.getPrimitiveParam(5)).isEqualTo(7);
+  }
+
+  /**
+   * Reads params the way the generated dispatchOnEvent does for event methods with inline params.
+   */
+  private static class DispatchingLifecycle extends ComponentLifecycle {
+
+    private ComponentContext mContext;
+    private String mItem;
+    private boolean mChecked;
+
+    @Override
+    public Object dispatchOnEvent(EventHandler eventHandler, Object eventState) {
+      switch (eventHandler.id) {
+        case ON_ITEM_CLICK_ID:
+          mContext = (ComponentContext) eventHandler.getParam(0);
+          mItem = (String) eventHandler.getParam(1);
+          return null;
+        case ON_CHECKED_CHANGE_ID:
+          mContext = (ComponentContext) eventHandler.getParam(0);
+          mChecked = eventHandler.getPrimitiveParam(1) != 0;
+          return null;
+        default:
+          return null;
+      }
+    }
+  }
+}
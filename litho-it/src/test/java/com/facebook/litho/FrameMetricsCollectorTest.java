@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.testing.ComponentTestHelper;
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.reflect.Whitebox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.litho.FrameworkLogEvents.EVENT_FRAME_METRICS;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_FRAME_DURATION_US;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_FRAME_LITHO_TIME_US;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_FRAME_LOG_TAGS;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_FRAME_PHASES;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_FRAME_SYNC_LAYOUTS_COUNT;
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.SizeSpec.makeSizeSpec;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.robolectric.RuntimeEnvironment.application;
+
+@RunWith(ComponentsTestRunner.class)
+public class FrameMetricsCollectorTest {
+
+  private final List<LogEvent> mFrameEvents = new ArrayList<>();
+  private ComponentsLogger mLogger;
+
+  @Before
+  public void setup() {
+    mLogger = new TestComponentsLogger() {
+      @Override
+      public void onEvent(LogEvent event) {
+        if (event.getEventId() == EVENT_FRAME_METRICS) {
+          mFrameEvents.add(event);
+        }
+      }
+    };
+  }
+
+  @After
+  public void tearDown() {
+    FrameMetricsCollector.stop();
+  }
+
+  @Test
+  public void testFramesWithoutLithoWorkAreNotReported() {
+    final FrameMetricsCollector collector = new FrameMetricsCollector(mLogger);
+    collector.doFrame(1000000);
+    collector.doFrame(17000000);
+
+    assertThat(mFrameEvents).isEmpty();
+  }
+
+  @Test
+  public void testLithoWorkIsAttributedToTheFrame() {
+    final FrameMetricsCollector collector = new FrameMetricsCollector(mLogger);
+    collector.doFrame(1000000);
+    collector.addPhase(PhaseTracer.PHASE_CALCULATE_LAYOUT, "feed", 3000000);
+    collector.addPhase(PhaseTracer.PHASE_MOUNT, "feed", 2000000);
+    collector.addPhase(PhaseTracer.PHASE_MOUNT, null, 1000000);
+    collector.doFrame(41000000);
+
+    assertThat(mFrameEvents).hasSize(1);
+    final LogEvent event = mFrameEvents.get(0);
+    assertThat((String) event.getParam(PARAM_FRAME_DURATION_US)).isEqualTo("40000");
+    assertThat((String) event.getParam(PARAM_FRAME_LITHO_TIME_US)).isEqualTo("6000");
+    assertThat((String) event.getParam(PARAM_FRAME_SYNC_LAYOUTS_COUNT)).isEqualTo("1");
+    assertThat((String) event.getParam(PARAM_FRAME_PHASES))
+        .isEqualTo("calculateLayout=3000,mount=3000");
+    assertThat((String) event.getParam(PARAM_FRAME_LOG_TAGS)).isEqualTo("feed=5000,unknown=1000");
+
+    // The next frame starts from scratch.
+    collector.doFrame(57000000);
+    assertThat(mFrameEvents).hasSize(1);
+  }
+
+  @Test
+  public void testMainThreadLayoutAndMountAreReported() {
+    FrameMetricsCollector.start(mLogger);
+    final FrameMetricsCollector collector = FrameMetricsCollector.getInstance();
+    collector.doFrame(1000000);
+
+    final ComponentContext c = new ComponentContext(application, "feed", mLogger);
+    final LithoView lithoView = new LithoView(c);
+    lithoView.setComponentTree(
+        ComponentTree.create(c, TestDrawableComponent.create(c).build())
+            .incrementalMount(false)
+            .layoutDiffing(false)
+            .build());
+    lithoView.onAttachedToWindow();
+    ComponentTestHelper.measureAndLayout(lithoView);
+
+    collector.doFrame(17000000);
+
+    assertThat(mFrameEvents).hasSize(1);
+    final LogEvent event = mFrameEvents.get(0);
+    assertThat((String) event.getParam(PARAM_FRAME_PHASES))
+        .contains("calculateLayout=")
+        .contains("createTree=")
+        .contains("mount=");
+    assertThat((String) event.getParam(PARAM_FRAME_LOG_TAGS)).startsWith("feed=");
+    assertThat(Integer.parseInt((String) event.getParam(PARAM_FRAME_SYNC_LAYOUTS_COUNT)))
+        .isPositive();
+  }
+
+  @Test
+  public void testPhasesOfFailedLayoutsAreEnded() {
+    FrameMetricsCollector.start(mLogger);
+    final FrameMetricsCollector collector = FrameMetricsCollector.getInstance();
+    final ComponentContext context = new ComponentContext(application);
+    final ComponentTree componentTree = ComponentTree.create(
+        context,
+        new InlineLayoutSpec() {
+          @Override
+          protected ComponentLayout onCreateLayout(ComponentContext c) {
+            throw new IllegalStateException("Failed layout");
+          }
+        })
+        .incrementalMount(false)
+        .layoutDiffing(false)
+        .build();
+
+    try {
+      componentTree.setSizeSpec(makeSizeSpec(100, EXACTLY), makeSizeSpec(100, EXACTLY));
+      fail("The layout should have thrown");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage()).isEqualTo("Failed layout");
+    }
+
+    assertThat((int) Whitebox.getInternalState(collector, "mPhaseDepth")).isEqualTo(0);
+  }
+
+  @Test
+  public void testPhaseDepthIsResetEveryFrame() {
+    FrameMetricsCollector.start(mLogger);
+    final FrameMetricsCollector collector = FrameMetricsCollector.getInstance();
+    collector.doFrame(1000000);
+    // A phase that never ended.
+    PhaseTracer.beginPhase();
+    collector.doFrame(17000000);
+
+    final long startNanos = PhaseTracer.beginPhase();
+    PhaseTracer.endPhase(startNanos, PhaseTracer.PHASE_MOUNT, -1, "feed", null);
+    collector.doFrame(33000000);
+
+    assertThat(mFrameEvents).hasSize(1);
+    assertThat((String) mFrameEvents.get(0).getParam(PARAM_FRAME_LOG_TAGS)).startsWith("feed=");
+  }
+
+  @Test
+  public void testPhasesAreNotTimedWhenNotCollecting() {
+    assertThat(FrameMetricsCollector.isCollecting()).isFalse();
+    assertThat(PhaseTracer.beginPhase()).isEqualTo(0);
+
+    FrameMetricsCollector.start(mLogger);
+    assertThat(PhaseTracer.beginPhase()).isNotEqualTo(0);
+  }
+}
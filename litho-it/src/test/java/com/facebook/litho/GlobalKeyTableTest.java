@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.SizeSpec.makeSizeSpec;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.robolectric.RuntimeEnvironment.application;
+
+@RunWith(ComponentsTestRunner.class)
+public class GlobalKeyTableTest {
+
+  private GlobalKeyTable mGlobalKeyTable;
+
+  @Before
+  public void setup() {
+    mGlobalKeyTable = new GlobalKeyTable(null);
+  }
+
+  @After
+  public void tearDown() {
+    ComponentsConfiguration.internGlobalKeys = false;
+  }
+
+  @Test
+  public void testSameKeysReturnSameInstance() {
+    final String globalKey = mGlobalKeyTable.getGlobalKey(new String("1"), new String("2"));
+
+    assertThat(globalKey).isEqualTo("12");
+    assertThat(mGlobalKeyTable.getGlobalKey(new String("1"), new String("2"))).isSameAs(globalKey);
+    assertThat(mGlobalKeyTable.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testDifferentKeysReturnDifferentInstances() {
+    assertThat(mGlobalKeyTable.getGlobalKey("1", "2")).isEqualTo("12");
+    assertThat(mGlobalKeyTable.getGlobalKey("1", "3")).isEqualTo("13");
+    assertThat(mGlobalKeyTable.getGlobalKey("2", "3")).isEqualTo("23");
+    assertThat(mGlobalKeyTable.size()).isEqualTo(3);
+  }
+
+  @Test
+  public void testOnlyKeysUsedAgainAreCarriedOver() {
+    final String globalKey = mGlobalKeyTable.getGlobalKey("1", "2");
+    final String unusedGlobalKey = mGlobalKeyTable.getGlobalKey("1", "3");
+    mGlobalKeyTable.complete();
+
+    final GlobalKeyTable nextGlobalKeyTable = new GlobalKeyTable(mGlobalKeyTable);
+    assertThat(nextGlobalKeyTable.getGlobalKey(new String("1"), new String("2")))
+        .isSameAs(globalKey);
+    nextGlobalKeyTable.getGlobalKey("2", "3");
+    nextGlobalKeyTable.complete();
+    assertThat(nextGlobalKeyTable.size()).isEqualTo(2);
+
+    final GlobalKeyTable lastGlobalKeyTable = new GlobalKeyTable(nextGlobalKeyTable);
+    assertThat(lastGlobalKeyTable.getGlobalKey("1", "2")).isSameAs(globalKey);
+    assertThat(lastGlobalKeyTable.getGlobalKey("1", "3")).isNotSameAs(unusedGlobalKey);
+  }
+
+  @Test
+  public void testComponentsGetInternedGlobalKeysAcrossLayouts() {
+    ComponentsConfiguration.internGlobalKeys = true;
+
+    final Component<?>[] children = new Component<?>[2];
+    final Component<?> root = new InlineLayoutSpec() {
+      private int mLayoutCount;
+
+      @Override
+      protected ComponentLayout onCreateLayout(ComponentContext c) {
+        final Component<?> child = TestDrawableComponent.create(c).build();
+        children[mLayoutCount++] = child;
+        return Column.create(c)
+            .child(child)
+            .build();
+      }
+    };
+
+    final ComponentContext c = new ComponentContext(application);
+    final ComponentTree componentTree = ComponentTree.create(c, root)
+        .incrementalMount(false)
+        .layoutDiffing(false)
+        .build();
+    componentTree.setSizeSpec(makeSizeSpec(100, EXACTLY), makeSizeSpec(100, EXACTLY));
+    componentTree.setSizeSpec(makeSizeSpec(200, EXACTLY), makeSizeSpec(100, EXACTLY));
+
+    assertThat(children[0]).isNotSameAs(children[1]);
+    assertThat(children[1].getGlobalKey()).isSameAs(children[0].getGlobalKey());
+  }
+}
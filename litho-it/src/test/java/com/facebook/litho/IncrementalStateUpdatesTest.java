@@ -0,0 +1,298 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.os.Looper;
+
+import com.facebook.litho.ComponentLifecycle.StateContainer;
+import com.facebook.litho.ComponentLifecycle.StateUpdate;
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.ComponentTestHelper;
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.reflect.Whitebox;
+import org.robolectric.Shadows;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.robolectric.RuntimeEnvironment.application;
+
+@RunWith(ComponentsTestRunner.class)
+public class IncrementalStateUpdatesTest {
+
+  // The drawables of the counters follow the root host in the mounted layout.
+  private static final int NESTED_COUNTER_MOUNT_INDEX = 1;
+  private static final int OUTER_COUNTER_MOUNT_INDEX = 2;
+
+  private boolean mWasDebugModeEnabled;
+  private ComponentContext mContext;
+  private ShadowLooper mLayoutThreadShadowLooper;
+
+  private int mRootCreateLayoutCount;
+  private HolderLifecycle mHolderLifecycle;
+  private CounterLifecycle mNestedCounterLifecycle;
+  private CounterLifecycle mOuterCounterLifecycle;
+  private ComponentTree mComponentTree;
+  private LithoView mLithoView;
+
+  @Before
+  public void setup() throws Exception {
+    mWasDebugModeEnabled = ComponentsConfiguration.isDebugModeEnabled;
+    // Debug mode needs the node tree of the mounted layout, so it disables incremental updates.
+    ComponentsConfiguration.isDebugModeEnabled = false;
+    ComponentsConfiguration.incrementalStateUpdates = true;
+
+    mContext = new ComponentContext(application);
+    mLayoutThreadShadowLooper = Shadows.shadowOf(
+        (Looper) Whitebox.invokeMethod(
+            ComponentTree.class,
+            "getDefaultLayoutThreadLooper"));
+  }
+
+  @After
+  public void tearDown() {
+    ComponentsConfiguration.isDebugModeEnabled = mWasDebugModeEnabled;
+    ComponentsConfiguration.incrementalStateUpdates = false;
+  }
+
+  @Test
+  public void testStateUpdateInNestedTreeOnlyRecreatesNestedTree() {
+    mountTree(false);
+    final int rootCreateLayoutCount = mRootCreateLayoutCount;
+    final int holderCreateLayoutCount = mHolderLifecycle.mCreateLayoutCount;
+
+    updateState(mNestedCounterLifecycle);
+
+    assertThat(mRootCreateLayoutCount).isEqualTo(rootCreateLayoutCount);
+    assertThat(mHolderLifecycle.mCreateLayoutCount).isEqualTo(holderCreateLayoutCount + 1);
+    assertThat(getCommittedCount(mNestedCounterLifecycle)).isEqualTo(1);
+    assertThat(getCommittedCount(mOuterCounterLifecycle)).isEqualTo(0);
+    assertThat(getMountedCount(NESTED_COUNTER_MOUNT_INDEX)).isEqualTo(1);
+    assertThat(getMountedCount(OUTER_COUNTER_MOUNT_INDEX)).isEqualTo(0);
+  }
+
+  @Test
+  public void testConsecutiveStateUpdatesInNestedTree() {
+    mountTree(false);
+    final int rootCreateLayoutCount = mRootCreateLayoutCount;
+
+    updateState(mNestedCounterLifecycle);
+    updateState(mNestedCounterLifecycle);
+
+    assertThat(mRootCreateLayoutCount).isEqualTo(rootCreateLayoutCount);
+    assertThat(getCommittedCount(mNestedCounterLifecycle)).isEqualTo(2);
+    assertThat(getMountedCount(NESTED_COUNTER_MOUNT_INDEX)).isEqualTo(2);
+  }
+
+  @Test
+  public void testStateUpdateOutsideNestedTreesRecreatesWholeTree() {
+    mountTree(false);
+    final int rootCreateLayoutCount = mRootCreateLayoutCount;
+
+    updateState(mOuterCounterLifecycle);
+
+    assertThat(mRootCreateLayoutCount).isEqualTo(rootCreateLayoutCount + 1);
+    assertThat(getCommittedCount(mOuterCounterLifecycle)).isEqualTo(1);
+  }
+
+  @Test
+  public void testNestedTreeSizeChangeRecreatesWholeTree() {
+    mountTree(true);
+    final int rootCreateLayoutCount = mRootCreateLayoutCount;
+
+    updateState(mNestedCounterLifecycle);
+
+    assertThat(mRootCreateLayoutCount).isEqualTo(rootCreateLayoutCount + 1);
+    assertThat(getCommittedCount(mNestedCounterLifecycle)).isEqualTo(1);
+  }
+
+  @Test
+  public void testStateUpdateRecreatesWholeTreeWhenDisabled() {
+    ComponentsConfiguration.incrementalStateUpdates = false;
+    mountTree(false);
+    final int rootCreateLayoutCount = mRootCreateLayoutCount;
+
+    updateState(mNestedCounterLifecycle);
+
+    assertThat(mRootCreateLayoutCount).isEqualTo(rootCreateLayoutCount + 1);
+    assertThat(getCommittedCount(mNestedCounterLifecycle)).isEqualTo(1);
+  }
+
+  private void mountTree(boolean nestedCounterGrowsWithCount) {
+    mNestedCounterLifecycle = new CounterLifecycle(nestedCounterGrowsWithCount);
+    mOuterCounterLifecycle = new CounterLifecycle(false);
+    mHolderLifecycle = new HolderLifecycle(mNestedCounterLifecycle);
+
+    final Component<?> root = new InlineLayoutSpec() {
+      @Override
+      protected ComponentLayout onCreateLayout(ComponentContext c) {
+        mRootCreateLayoutCount++;
+        return Column.create(c)
+            .child(new TestComponent<>(mHolderLifecycle))
+            .child(new CounterComponent(mOuterCounterLifecycle))
+            .build();
+      }
+    };
+
+    mComponentTree = ComponentTree.create(mContext, root)
+        .incrementalMount(false)
+        .build();
+    mLithoView = new LithoView(mContext);
+    mLithoView.setComponentTree(mComponentTree);
+    mLithoView.onAttachedToWindow();
+    ComponentTestHelper.measureAndLayout(mLithoView);
+  }
+
+  private void updateState(CounterLifecycle lifecycle) {
+    mComponentTree.updateStateAsync(lifecycle.mLastGlobalKey, new IncrementStateUpdate());
+    mLayoutThreadShadowLooper.runOneTask();
+    ShadowLooper.runUiThreadTasks();
+  }
+
+  private int getCommittedCount(CounterLifecycle lifecycle) {
+    final StateHandler stateHandler = Whitebox.getInternalState(mComponentTree, "mStateHandler");
+    final CounterStateContainer stateContainer =
+        (CounterStateContainer) stateHandler.getStateContainers().get(lifecycle.mLastGlobalKey);
+    return stateContainer.mCount;
+  }
+
+  /**
+   * @return the count drawn by the counter mounted at the given index, which is the one of the
+   * layout that got mounted last.
+   */
+  private int getMountedCount(int index) {
+    final MountItem mountItem = mLithoView.getMountState().getItemAt(index);
+    return Color.blue(((ColorDrawable) mountItem.getContent()).getColor());
+  }
+
+  private static class HolderLifecycle extends ComponentLifecycle {
+    private final CounterLifecycle mCounterLifecycle;
+    private int mCreateLayoutCount;
+
+    HolderLifecycle(CounterLifecycle counterLifecycle) {
+      mCounterLifecycle = counterLifecycle;
+    }
+
+    @Override
+    protected boolean canMeasure() {
+      return true;
+    }
+
+    @Override
+    protected ComponentLayout onCreateLayoutWithSizeSpec(
+        ComponentContext c,
+        int widthSpec,
+        int heightSpec,
+        Component<?> component) {
+      mCreateLayoutCount++;
+      return Column.create(c)
+          .child(new CounterComponent(mCounterLifecycle))
+          .build();
+    }
+  }
+
+  private static class CounterLifecycle extends ComponentLifecycle {
+    private final boolean mGrowsWithCount;
+    private String mLastGlobalKey;
+
+    CounterLifecycle(boolean growsWithCount) {
+      mGrowsWithCount = growsWithCount;
+    }
+
+    @Override
+    protected boolean hasState() {
+      return true;
+    }
+
+    @Override
+    protected void createInitialState(ComponentContext c, Component component) {
+      mLastGlobalKey = component.getGlobalKey();
+    }
+
+    @Override
+    protected void transferState(
+        ComponentContext c,
+        StateContainer stateContainer,
+        Component component) {
+      mLastGlobalKey = component.getGlobalKey();
+      ((CounterComponent) component).mStateContainer.mCount =
+          ((CounterStateContainer) stateContainer).mCount;
+    }
+
+    @Override
+    protected ComponentLayout onCreateLayout(ComponentContext c, Component<?> component) {
+      final int count = ((CounterComponent) component).mStateContainer.mCount;
+      return TestDrawableComponent.create(c)
+          .color(Color.rgb(0, 0, count))
+          .withLayout()
+          .widthPx(10)
+          .heightPx(mGrowsWithCount ? 10 * (count + 1) : 10)
+          .build();
+    }
+  }
+
+  private static class CounterComponent extends Component<CounterLifecycle> {
+    private CounterStateContainer mStateContainer = new CounterStateContainer();
+
+    CounterComponent(CounterLifecycle lifecycle) {
+      super(lifecycle);
+    }
+
+    @Override
+    public String getSimpleName() {
+      return "CounterComponent";
+    }
+
+    @Override
+    protected StateContainer getStateContainer() {
+      return mStateContainer;
+    }
+
+    @Override
+    public Component<CounterLifecycle> makeShallowCopy() {
+      final CounterComponent component = (CounterComponent) super.makeShallowCopy();
+      component.mStateContainer = new CounterStateContainer();
+      return component;
+    }
+  }
+
+  private static class CounterStateContainer implements StateContainer {
+    private int mCount;
+  }
+
+  private static class IncrementStateUpdate implements StateUpdate {
+
+    @Override
+    public void updateState(StateContainer stateContainer, Component component) {
+      ((CounterComponent) component).mStateContainer.mCount =
+          ((CounterStateContainer) stateContainer).mCount + 1;
+    }
+  }
+
+  private static class TestComponent<L extends ComponentLifecycle> extends Component<L> {
+
+    TestComponent(L lifecycle) {
+      super(lifecycle);
+    }
+
+    @Override
+    public String getSimpleName() {
+      return "TestComponent";
+    }
+  }
+}
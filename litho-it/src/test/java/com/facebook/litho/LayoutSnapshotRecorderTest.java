@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.testing.LayoutReplayResult;
+import com.facebook.litho.testing.LayoutSnapshotReplayer;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+import com.facebook.litho.widget.Text;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.litho.SizeSpec.AT_MOST;
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.SizeSpec.makeSizeSpec;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.robolectric.RuntimeEnvironment.application;
+
+@RunWith(ComponentsTestRunner.class)
+public class LayoutSnapshotRecorderTest {
+
+  private final int mWidthSpec = makeSizeSpec(100, EXACTLY);
+  private final int mHeightSpec = makeSizeSpec(200, AT_MOST);
+  private final List<LayoutSnapshot> mSnapshots = new ArrayList<>();
+  private final LayoutSnapshotRecorder.Listener mListener = new LayoutSnapshotRecorder.Listener() {
+    @Override
+    public void onSnapshotTaken(LayoutSnapshot snapshot) {
+      mSnapshots.add(snapshot);
+    }
+  };
+
+  private ComponentContext mContext;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(application);
+  }
+
+  @After
+  public void tearDown() {
+    LayoutSnapshotRecorder.stop();
+  }
+
+  @Test
+  public void testNothingIsRecordedByDefault() {
+    calculateLayout(Text.create(mContext).text("Hello").build());
+
+    assertThat(LayoutSnapshotRecorder.isRecording()).isFalse();
+    assertThat(mSnapshots).isEmpty();
+  }
+
+  @Test
+  public void testInputsAndTimingsAreRecorded() {
+    LayoutSnapshotRecorder.start(mListener);
+    calculateLayout(Text.create(mContext).text("Hello").textSizePx(20).build());
+
+    assertThat(mSnapshots).hasSize(1);
+    final LayoutSnapshot snapshot = mSnapshots.get(0);
+    assertThat(snapshot.getWidthSpec()).isEqualTo(mWidthSpec);
+    assertThat(snapshot.getHeightSpec()).isEqualTo(mHeightSpec);
+    assertThat(snapshot.getRoot().getSimpleName()).isEqualTo("Text");
+    assertThat(snapshot.getRoot().getProps().get("text")).isEqualTo("Hello");
+    assertThat(snapshot.getRoot().getProps().get("textSize")).isEqualTo(20);
+    assertThat(snapshot.getDurationNanos()).isGreaterThan(0);
+    assertThat(snapshot.getPhaseDurationNanos(PhaseTracer.PHASE_CREATE_TREE)).isGreaterThan(0);
+  }
+
+  @Test
+  public void testFailedLayoutEndsItsSnapshot() {
+    LayoutSnapshotRecorder.start(mListener);
+    try {
+      calculateLayout(new InlineLayoutSpec() {
+        @Override
+        protected ComponentLayout onCreateLayout(ComponentContext c) {
+          throw new IllegalStateException("Failed layout");
+        }
+      });
+      fail("The layout should have thrown");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage()).isEqualTo("Failed layout");
+    }
+
+    calculateLayout(Text.create(mContext).text("Hello").build());
+
+    assertThat(mSnapshots).hasSize(2);
+    // The next snapshot isn't nested in the failed one.
+    assertThat(mSnapshots.get(1).getParent()).isNull();
+  }
+
+  @Test
+  public void testSnapshotIsReplayedAfterSerialization() throws Exception {
+    LayoutSnapshotRecorder.start(mListener);
+    calculateLayout(Text.create(mContext).text("Hello").build());
+    LayoutSnapshotRecorder.stop();
+
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    mSnapshots.get(0).writeTo(outputStream);
+    final LayoutSnapshot snapshot =
+        LayoutSnapshot.readFrom(new ByteArrayInputStream(outputStream.toByteArray()));
+
+    final Component<?> rebuilt = LayoutSnapshotReplayer.rebuild(snapshot.getRoot());
+    assertThat(rebuilt).isEqualTo(Text.create(mContext).text("Hello").build());
+
+    final LayoutReplayResult result = LayoutSnapshotReplayer.replay(mContext, snapshot, 3);
+    assertThat(result.getReplayed()).hasSize(3);
+    assertThat(result.getUnmatchedStatePaths()).isEmpty();
+    assertThat(result.getMedianDurationNanos()).isGreaterThan(0);
+    assertThat(LayoutSnapshotRecorder.isRecording()).isFalse();
+  }
+
+  private void calculateLayout(Component<?> component) {
+    final ComponentTree componentTree = ComponentTree.create(mContext, component).build();
+    componentTree.setRootAndSizeSpec(component, mWidthSpec, mHeightSpec);
+    componentTree.release();
+  }
+}
@@ -14,6 +14,7 @@ import android.graphics.Rect;
 import android.util.SparseArray;
 import android.view.accessibility.AccessibilityManager;
 
+import com.facebook.litho.config.ComponentsConfiguration;
 import com.facebook.litho.testing.TestComponent;
 import com.facebook.litho.testing.TestDrawableComponent;
 import com.facebook.litho.testing.TestLayoutComponent;
@@ -2339,6 +2340,81 @@ public class LayoutStateCalculateTest {
     assertThat(getComponentAt(layoutState, 1)).isInstanceOf(DrawableComponent.class);
   }
 
+  @Test
+  public void testNestedHostsWithSameBoundsAreFlattened() {
+    final Object viewTag = new Object();
+    final Component component = new InlineLayoutSpec() {
+      @Override
+      protected ComponentLayout onCreateLayout(final ComponentContext c) {
+        return create(c)
+            .child(
+                create(c)
+                    .child(
+                        create(c)
+                            .child(TestDrawableComponent.create(c))
+                            .viewTag(viewTag))
+                    .clickHandler(c.newEventHandler(1)))
+            .build();
+      }
+    };
+
+    ComponentsConfiguration.flattenHostViews = true;
+    try {
+      final LayoutState layoutState = calculateLayoutState(
+          application,
+          component,
+          -1,
+          makeSizeSpec(100, EXACTLY),
+          makeSizeSpec(100, EXACTLY));
+
+      assertThat(layoutState.getMountableOutputCount()).isEqualTo(3);
+      assertThat(layoutState.getFlattenedHostsCount()).isEqualTo(1);
+      assertThat(getComponentAt(layoutState, 1)).isInstanceOf(HostComponent.class);
+      assertThat(getComponentAt(layoutState, 2)).isInstanceOf(TestDrawableComponent.class);
+
+      final NodeInfo hostNodeInfo = layoutState.getMountableOutputAt(1).getNodeInfo();
+      assertThat(hostNodeInfo.getClickHandler()).isNotNull();
+      assertThat(hostNodeInfo.getViewTag()).isSameAs(viewTag);
+      assertThat(layoutState.getMountableOutputAt(2).getHostMarker())
+          .isEqualTo(layoutState.getMountableOutputAt(1).getId());
+    } finally {
+      ComponentsConfiguration.flattenHostViews = false;
+    }
+  }
+
+  @Test
+  public void testNestedHostsWithConflictingPropertiesAreNotFlattened() {
+    final Component component = new InlineLayoutSpec() {
+      @Override
+      protected ComponentLayout onCreateLayout(final ComponentContext c) {
+        return create(c)
+            .child(
+                create(c)
+                    .child(
+                        create(c)
+                            .child(TestDrawableComponent.create(c))
+                            .clickHandler(c.newEventHandler(2)))
+                    .clickHandler(c.newEventHandler(1)))
+            .build();
+      }
+    };
+
+    ComponentsConfiguration.flattenHostViews = true;
+    try {
+      final LayoutState layoutState = calculateLayoutState(
+          application,
+          component,
+          -1,
+          makeSizeSpec(100, EXACTLY),
+          makeSizeSpec(100, EXACTLY));
+
+      assertThat(layoutState.getMountableOutputCount()).isEqualTo(4);
+      assertThat(layoutState.getFlattenedHostsCount()).isEqualTo(0);
+    } finally {
+      ComponentsConfiguration.flattenHostViews = false;
+    }
+  }
+
   private void enableAccessibility() {
     final ShadowAccessibilityManager manager = Shadows.shadowOf(
         (AccessibilityManager)
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.v4.util.LongSparseArray;
+
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.facebook.litho.Column.create;
+import static com.facebook.litho.LayoutOutput.TYPE_BACKGROUND;
+import static com.facebook.litho.LayoutOutput.TYPE_CONTENT;
+import static com.facebook.litho.LayoutOutput.TYPE_HOST;
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.SizeSpec.makeSizeSpec;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.robolectric.RuntimeEnvironment.application;
+
+@RunWith(ComponentsTestRunner.class)
+public class LayoutStateOutputIdCalculatorTest {
+
+  private static final int DEEP_TREE_LEVELS = 300;
+
+  private LayoutStateOutputIdCalculator mCalculator;
+
+  @Before
+  public void setup() {
+    mCalculator = new LayoutStateOutputIdCalculator();
+    ComponentsConfiguration.useGlobalKeysForOutputIds = true;
+  }
+
+  @After
+  public void tearDown() {
+    ComponentsConfiguration.useGlobalKeysForOutputIds = false;
+  }
+
+  @Test
+  public void testKeyHashIsStable() {
+    assertThat(LayoutStateOutputIdCalculator.hashKey("123[Text1]"))
+        .isEqualTo(LayoutStateOutputIdCalculator.hashKey("123[Text1]"));
+    assertThat(LayoutStateOutputIdCalculator.hashKey("123[Text1]"))
+        .isNotEqualTo(LayoutStateOutputIdCalculator.hashKey("123[Text2]"));
+  }
+
+  @Test
+  public void testOutputsWithSameKeyGetDifferentIds() {
+    final long keyHash = LayoutStateOutputIdCalculator.hashKey("key");
+
+    final LayoutOutput content = calculateIdFromKey(keyHash, TYPE_CONTENT, -1);
+    final LayoutOutput background = calculateIdFromKey(keyHash, TYPE_BACKGROUND, -1);
+    final LayoutOutput duplicateContent = calculateIdFromKey(keyHash, TYPE_CONTENT, -1);
+
+    assertThat(content.getId()).isNotEqualTo(background.getId());
+    assertThat(content.getId()).isNotEqualTo(duplicateContent.getId());
+    assertThat(background.getId()).isNotEqualTo(duplicateContent.getId());
+  }
+
+  @Test
+  public void testIdsFromKeyAreDeterministic() {
+    final long keyHash = LayoutStateOutputIdCalculator.hashKey("key");
+    final long firstId = calculateIdFromKey(keyHash, TYPE_CONTENT, -1).getId();
+    final long secondId = calculateIdFromKey(keyHash, TYPE_CONTENT, -1).getId();
+
+    mCalculator.clear();
+
+    assertThat(calculateIdFromKey(keyHash, TYPE_CONTENT, -1).getId()).isEqualTo(firstId);
+    assertThat(calculateIdFromKey(keyHash, TYPE_CONTENT, -1).getId()).isEqualTo(secondId);
+  }
+
+  @Test
+  public void testUpdateStateFromKey() {
+    final long keyHash = LayoutStateOutputIdCalculator.hashKey("key");
+    final long previousId = calculateIdFromKey(keyHash, TYPE_CONTENT, -1).getId();
+
+    mCalculator.clear();
+    assertThat(calculateIdFromKey(keyHash, TYPE_CONTENT, previousId).getUpdateState())
+        .isEqualTo(LayoutOutput.STATE_UPDATED);
+
+    mCalculator.clear();
+    assertThat(calculateIdFromKey(keyHash, TYPE_CONTENT, previousId + 1).getUpdateState())
+        .isEqualTo(LayoutOutput.STATE_UNKNOWN);
+  }
+
+  @Test
+  public void testIdsFromKeyAreUniqueBeyondMaxSequence() {
+    // All the outputs share the same key, which is the worst case for collisions.
+    final long keyHash = LayoutStateOutputIdCalculator.hashKey("key");
+    final int count = 65535 + 2;
+    final LongSparseArray<Boolean> ids = new LongSparseArray<>(count);
+
+    for (int i = 0; i < count; i++) {
+      final long id = calculateIdFromKey(keyHash, TYPE_HOST, -1).getId();
+      assertThat(id).isGreaterThan(MountState.ROOT_HOST_ID);
+      ids.put(id, true);
+    }
+
+    assertThat(ids.size()).isEqualTo(count);
+  }
+
+  @Test
+  public void testDeepTreeBeyondMaxLevel() {
+    final Component component = new InlineLayoutSpec() {
+      @Override
+      protected ComponentLayout onCreateLayout(ComponentContext c) {
+        ComponentLayout.ContainerBuilder builder =
+            create(c).child(TestDrawableComponent.create(c)).wrapInView();
+        for (int i = 0; i < DEEP_TREE_LEVELS; i++) {
+          builder = create(c).child(builder).wrapInView();
+        }
+
+        return builder.build();
+      }
+    };
+
+    final LayoutState layoutState = calculateLayoutState(component);
+
+    // Root host, one host per wrapped level and the drawable.
+    assertThat(layoutState.getMountableOutputCount()).isEqualTo(DEEP_TREE_LEVELS + 2);
+
+    final LongSparseArray<Boolean> ids = new LongSparseArray<>();
+    for (int i = 0, size = layoutState.getMountableOutputCount(); i < size; i++) {
+      ids.put(layoutState.getMountableOutputAt(i).getId(), true);
+    }
+    assertThat(ids.size()).isEqualTo(layoutState.getMountableOutputCount());
+  }
+
+  @Test
+  public void testIdsAreStableAcrossReorders() {
+    final LayoutState layoutState = calculateLayoutState(createKeyedChildren("a", "b"));
+    final LayoutState reorderedLayoutState = calculateLayoutState(createKeyedChildren("b", "a"));
+
+    assertThat(reorderedLayoutState.getMountableOutputAt(1).getId())
+        .isEqualTo(layoutState.getMountableOutputAt(2).getId());
+    assertThat(reorderedLayoutState.getMountableOutputAt(2).getId())
+        .isEqualTo(layoutState.getMountableOutputAt(1).getId());
+  }
+
+  @Test
+  public void testIdsAreStableAcrossInsertions() {
+    final LayoutState layoutState = calculateLayoutState(createKeyedChildren("a", "b"));
+    final LayoutState insertedLayoutState =
+        calculateLayoutState(createKeyedChildren("c", "a", "b"));
+
+    assertThat(insertedLayoutState.getMountableOutputAt(2).getId())
+        .isEqualTo(layoutState.getMountableOutputAt(1).getId());
+    assertThat(insertedLayoutState.getMountableOutputAt(3).getId())
+        .isEqualTo(layoutState.getMountableOutputAt(2).getId());
+  }
+
+  private LayoutOutput calculateIdFromKey(long keyHash, int type, long previousId) {
+    final LayoutOutput layoutOutput = new LayoutOutput();
+    mCalculator.calculateAndSetLayoutOutputIdFromKeyAndUpdateState(
+        layoutOutput,
+        keyHash,
+        type,
+        previousId,
+        true);
+
+    return layoutOutput;
+  }
+
+  private static Component createKeyedChildren(final String... keys) {
+    return new InlineLayoutSpec() {
+      @Override
+      protected ComponentLayout onCreateLayout(ComponentContext c) {
+        final ComponentLayout.ContainerBuilder builder = create(c);
+        for (String key : keys) {
+          builder.child(TestDrawableComponent.create(c).key(key));
+        }
+
+        return builder.build();
+      }
+    };
+  }
+
+  private static LayoutState calculateLayoutState(Component<?> component) {
+    return LayoutState.calculate(
+        new ComponentContext(application),
+        component,
+        -1,
+        makeSizeSpec(100, EXACTLY),
+        makeSizeSpec(100, EXACTLY),
+        false,
+        false,
+        null,
+        false);
+  }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.testing.ComponentTestHelper;
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.robolectric.RuntimeEnvironment.application;
+
+@RunWith(ComponentsTestRunner.class)
+public class LifecycleProfilerTest {
+
+  private ComponentContext mContext;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(application);
+    LifecycleProfiler.reset();
+  }
+
+  @After
+  public void tearDown() {
+    LifecycleProfiler.stop();
+    LifecycleProfiler.reset();
+  }
+
+  @Test
+  public void testNothingIsProfiledByDefault() {
+    mountComponent(createRootComponent(new Component<?>[1]));
+
+    assertThat(LifecycleProfiler.isProfiling()).isFalse();
+    assertThat(LifecycleProfiler.getProfiles()).isEmpty();
+  }
+
+  @Test
+  public void testLifecycleMethodsAreProfiledPerComponentType() {
+    LifecycleProfiler.start(1);
+    final Component<?>[] child = new Component<?>[1];
+    final Component<?> root = createRootComponent(child);
+    mountComponent(root);
+
+    final LifecycleProfile rootProfile = getProfile(root.getLifecycle().getId());
+    assertThat(rootProfile.getComponentName()).isEqualTo("InlineLayout");
+    assertThat(rootProfile.getCount(LifecycleProfiler.METHOD_CREATE_LAYOUT)).isPositive();
+    assertThat(rootProfile.getCount(LifecycleProfiler.METHOD_MOUNT)).isEqualTo(0);
+
+    final LifecycleProfile childProfile = getProfile(child[0].getLifecycle().getId());
+    assertThat(childProfile.getComponentName()).isEqualTo("TestComponent");
+    assertThat(childProfile.getCount(LifecycleProfiler.METHOD_CREATE_LAYOUT)).isPositive();
+    assertThat(childProfile.getCount(LifecycleProfiler.METHOD_MOUNT)).isEqualTo(1);
+    assertThat(childProfile.getCount(LifecycleProfiler.METHOD_BIND)).isEqualTo(1);
+
+    final StringWriter writer = new StringWriter();
+    LifecycleProfiler.dump(new PrintWriter(writer));
+    assertThat(writer.toString()).contains("TestComponent").contains("onMount: count=1");
+  }
+
+  @Test
+  public void testCallsAreSampled() {
+    LifecycleProfiler.start(2);
+
+    int sampledCallsCount = 0;
+    for (int i = 0; i < 10; i++) {
+      if (LifecycleProfiler.beginMethod() != 0) {
+        sampledCallsCount++;
+      }
+    }
+
+    assertThat(sampledCallsCount).isEqualTo(5);
+  }
+
+  @Test
+  public void testHistogramBuckets() {
+    assertThat(LifecycleProfile.getBucket(999)).isEqualTo(0);
+    assertThat(LifecycleProfile.getBucket(1000)).isEqualTo(1);
+    assertThat(LifecycleProfile.getBucket(3000)).isEqualTo(2);
+    assertThat(LifecycleProfile.getBucket(4000)).isEqualTo(3);
+    assertThat(LifecycleProfile.getBucket(Long.MAX_VALUE))
+        .isEqualTo(LifecycleProfile.BUCKET_COUNT - 1);
+  }
+
+  private void mountComponent(Component<?> component) {
+    final LithoView lithoView = new LithoView(mContext);
+    lithoView.setComponentTree(ComponentTree.create(mContext, component)
+        .incrementalMount(false)
+        .layoutDiffing(false)
+        .build());
+    lithoView.onAttachedToWindow();
+    ComponentTestHelper.measureAndLayout(lithoView);
+  }
+
+  private static LifecycleProfile getProfile(int lifecycleId) {
+    for (LifecycleProfile profile : LifecycleProfiler.getProfiles()) {
+      if (profile.getLifecycleId() == lifecycleId) {
+        return profile;
+      }
+    }
+
+    throw new AssertionError("No profile for lifecycle " + lifecycleId);
+  }
+
+  private static Component<?> createRootComponent(final Component<?>[] child) {
+    return new InlineLayoutSpec() {
+      @Override
+      protected ComponentLayout onCreateLayout(ComponentContext c) {
+        child[0] = TestDrawableComponent.create(c).build();
+        return Column.create(c)
+            .child(child[0])
+            .build();
+      }
+    };
+  }
+}
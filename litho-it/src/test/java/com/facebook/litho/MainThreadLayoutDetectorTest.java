@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.ComponentTestHelper;
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.reflect.Whitebox;
+
+import java.util.List;
+
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.SizeSpec.makeSizeSpec;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.robolectric.RuntimeEnvironment.application;
+
+@RunWith(ComponentsTestRunner.class)
+public class MainThreadLayoutDetectorTest {
+
+  private final int mWidthSpec = makeSizeSpec(100, EXACTLY);
+  private final int mHeightSpec = makeSizeSpec(100, EXACTLY);
+
+  private ComponentContext mContext;
+  private boolean mWasDebugModeEnabled;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(application);
+    mWasDebugModeEnabled = ComponentsConfiguration.isDebugModeEnabled;
+    MainThreadLayoutDetector.reset();
+  }
+
+  @After
+  public void tearDown() {
+    MainThreadLayoutDetector.stop();
+    MainThreadLayoutDetector.reset();
+    ComponentsConfiguration.isDebugModeEnabled = mWasDebugModeEnabled;
+    ComponentsConfiguration.throwOnMainThreadLayout = false;
+  }
+
+  @Test
+  public void testNothingIsCountedByDefault() {
+    createComponentTree().setRootAndSizeSpec(
+        TestDrawableComponent.create(mContext).build(),
+        mWidthSpec,
+        mHeightSpec);
+
+    assertThat(MainThreadLayoutDetector.getCount(MainThreadLayoutDetector.TRIGGER_SET_ROOT))
+        .isEqualTo(0);
+  }
+
+  @Test
+  public void testSyncSetRootIsCounted() {
+    MainThreadLayoutDetector.start(1);
+    final ComponentTree componentTree = createComponentTree();
+    componentTree.setRootAndSizeSpec(
+        TestDrawableComponent.create(mContext).build(),
+        mWidthSpec,
+        mHeightSpec);
+    componentTree.setRoot(TestDrawableComponent.create(mContext).build());
+
+    assertThat(MainThreadLayoutDetector.getCount(MainThreadLayoutDetector.TRIGGER_SET_ROOT))
+        .isEqualTo(2);
+    assertThat(MainThreadLayoutDetector.getCount(MainThreadLayoutDetector.TRIGGER_MEASURE))
+        .isEqualTo(0);
+    assertThat(MainThreadLayoutDetector.getCount("TestComponent")).isEqualTo(2);
+  }
+
+  @Test
+  public void testLayoutOnMeasureIsCounted() {
+    MainThreadLayoutDetector.start(1);
+    final LithoView lithoView = new LithoView(mContext);
+    lithoView.setComponentTree(createComponentTree());
+    lithoView.onAttachedToWindow();
+    ComponentTestHelper.measureAndLayout(lithoView);
+
+    assertThat(MainThreadLayoutDetector.getCount(MainThreadLayoutDetector.TRIGGER_MEASURE))
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void testLayoutsAreSampled() {
+    MainThreadLayoutDetector.start(2);
+    final ComponentTree componentTree = createComponentTree();
+    for (int i = 0; i < 4; i++) {
+      componentTree.setRootAndSizeSpec(
+          TestDrawableComponent.create(mContext).build(),
+          mWidthSpec,
+          mHeightSpec);
+    }
+
+    assertThat(MainThreadLayoutDetector.getCount(MainThreadLayoutDetector.TRIGGER_SET_ROOT))
+        .isEqualTo(4);
+    final List<MainThreadLayoutSample> samples = MainThreadLayoutDetector.getSamples();
+    assertThat(samples).hasSize(2);
+    assertThat(samples.get(0).getTrigger()).isEqualTo(MainThreadLayoutDetector.TRIGGER_SET_ROOT);
+    assertThat(samples.get(0).getRootComponentName()).isEqualTo("TestComponent");
+    assertThat(samples.get(0).getStackTrace()).isNotEmpty();
+  }
+
+  @Test
+  public void testStrictModeThrowsInDebugMode() {
+    ComponentsConfiguration.isDebugModeEnabled = true;
+    ComponentsConfiguration.throwOnMainThreadLayout = true;
+
+    try {
+      createComponentTree().setRootAndSizeSpec(
+          TestDrawableComponent.create(mContext).build(),
+          mWidthSpec,
+          mHeightSpec);
+      fail("Main thread layouts should throw in strict mode");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage()).contains("TestComponent").contains("setRoot");
+    }
+  }
+
+  @Test
+  public void testStrictModeThrowsBeforeMeasureChangesTheTree() {
+    final ComponentTree componentTree = createComponentTree();
+    final LithoView lithoView = new LithoView(mContext);
+    lithoView.setComponentTree(componentTree);
+    lithoView.onAttachedToWindow();
+    ComponentTestHelper.measureAndLayout(lithoView);
+    final LayoutState layoutState =
+        Whitebox.getInternalState(componentTree, "mMainThreadLayoutState");
+
+    ComponentsConfiguration.isDebugModeEnabled = true;
+    ComponentsConfiguration.throwOnMainThreadLayout = true;
+
+    try {
+      componentTree.measure(
+          makeSizeSpec(200, EXACTLY),
+          makeSizeSpec(200, EXACTLY),
+          new int[2],
+          false);
+      fail("Main thread layouts should throw in strict mode");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage()).contains("measure");
+    }
+
+    assertThat((boolean) Whitebox.getInternalState(componentTree, "mIsMeasuring")).isFalse();
+    assertThat(Whitebox.getInternalState(componentTree, "mMainThreadLayoutState"))
+        .isSameAs(layoutState);
+  }
+
+  @Test
+  public void testStrictModeIsIgnoredOutsideOfDebugMode() {
+    ComponentsConfiguration.isDebugModeEnabled = false;
+    ComponentsConfiguration.throwOnMainThreadLayout = true;
+
+    createComponentTree().setRootAndSizeSpec(
+        TestDrawableComponent.create(mContext).build(),
+        mWidthSpec,
+        mHeightSpec);
+  }
+
+  private ComponentTree createComponentTree() {
+    return ComponentTree.create(mContext, TestDrawableComponent.create(mContext).build())
+        .incrementalMount(false)
+        .layoutDiffing(false)
+        .build();
+  }
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.graphics.drawable.ColorDrawable;
+
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+
+import static com.facebook.litho.testing.ComponentTestHelper.mountComponent;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Tests that MountState keeps remounted items bound when
+ * {@link ComponentsConfiguration#skipRebindOfUnchangedMountItems} is set and none of their bind
+ * dependencies changed.
+ */
+@RunWith(ComponentsTestRunner.class)
+public class MountStateRebindTest {
+
+  // The bit of BindTrackingLifecycle's change mask for BindTrackingComponent#mBoundValue.
+  private static final long BOUND_VALUE_BIT = 1L;
+  // The bit for BindTrackingComponent#mOtherValue, which isn't used when binding.
+  private static final long OTHER_VALUE_BIT = 1L << 1;
+
+  private ComponentContext mContext;
+  private boolean mSkipRebindOfUnchangedMountItems;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(RuntimeEnvironment.application);
+    mSkipRebindOfUnchangedMountItems = ComponentsConfiguration.skipRebindOfUnchangedMountItems;
+    ComponentsConfiguration.skipRebindOfUnchangedMountItems = true;
+  }
+
+  @After
+  public void tearDown() {
+    ComponentsConfiguration.skipRebindOfUnchangedMountItems = mSkipRebindOfUnchangedMountItems;
+  }
+
+  @Test
+  public void testItemStaysBoundWhenBindDependenciesDidNotChange() {
+    final BindTrackingLifecycle lifecycle = new BindTrackingLifecycle(BOUND_VALUE_BIT);
+
+    final LithoView lithoView = mountComponent(mContext, lifecycle.create(1, 1));
+    mountComponent(mContext, lithoView, lifecycle.create(1, 2));
+
+    assertThat(lifecycle.mBindCount).isEqualTo(1);
+    assertThat(lifecycle.mUnbindCount).isEqualTo(0);
+    assertThat(lifecycle.mMountCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testItemIsReboundWhenABindDependencyChanged() {
+    final BindTrackingLifecycle lifecycle = new BindTrackingLifecycle(BOUND_VALUE_BIT);
+
+    final LithoView lithoView = mountComponent(mContext, lifecycle.create(1, 1));
+    mountComponent(mContext, lithoView, lifecycle.create(2, 1));
+
+    assertThat(lifecycle.mBindCount).isEqualTo(2);
+    assertThat(lifecycle.mUnbindCount).isEqualTo(1);
+    assertThat(lifecycle.mMountCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testItemIsReboundWhenBindDependenciesAreNotTracked() {
+    // Bind methods reading inter-stage outputs or tree props depend on everything.
+    final BindTrackingLifecycle lifecycle =
+        new BindTrackingLifecycle(ComponentLifecycle.CHANGE_MASK_ALL);
+
+    final LithoView lithoView = mountComponent(mContext, lifecycle.create(1, 1));
+    mountComponent(mContext, lithoView, lifecycle.create(1, 1));
+
+    assertThat(lifecycle.mBindCount).isEqualTo(2);
+    assertThat(lifecycle.mUnbindCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testItemIsReboundWhenTheFlagIsOff() {
+    ComponentsConfiguration.skipRebindOfUnchangedMountItems = false;
+    final BindTrackingLifecycle lifecycle = new BindTrackingLifecycle(BOUND_VALUE_BIT);
+
+    final LithoView lithoView = mountComponent(mContext, lifecycle.create(1, 1));
+    mountComponent(mContext, lithoView, lifecycle.create(1, 2));
+
+    assertThat(lifecycle.mBindCount).isEqualTo(2);
+    assertThat(lifecycle.mUnbindCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testCannotSkipRebindWhenLifecycleChanged() {
+    final BindTrackingLifecycle lifecycle = new BindTrackingLifecycle(BOUND_VALUE_BIT);
+    final BindTrackingLifecycle otherLifecycle = new BindTrackingLifecycle(BOUND_VALUE_BIT);
+    final Component<?> component = lifecycle.create(1, 1);
+
+    final MountItem mountItem = new MountItem();
+    mountItem.init(component, null, new ColorDrawable(), null, null, null, 0, 0);
+    mountItem.setIsBound(true);
+
+    assertThat(MountState.canSkipRebind(mountItem, component, lifecycle.create(1, 1))).isTrue();
+    assertThat(MountState.canSkipRebind(mountItem, component, otherLifecycle.create(1, 1)))
+        .isFalse();
+
+    mountItem.setIsBound(false);
+    assertThat(MountState.canSkipRebind(mountItem, component, lifecycle.create(1, 1))).isFalse();
+  }
+
+  /**
+   * A drawable lifecycle which never needs a remount and counts its bind calls. Its change mask is
+   * computed like the one generated for pure render specs.
+   */
+  private static class BindTrackingLifecycle extends ComponentLifecycle {
+
+    private final long mBindDependenciesMask;
+    private int mMountCount;
+    private int mBindCount;
+    private int mUnbindCount;
+
+    BindTrackingLifecycle(long bindDependenciesMask) {
+      mBindDependenciesMask = bindDependenciesMask;
+    }
+
+    BindTrackingComponent create(int boundValue, int otherValue) {
+      return new BindTrackingComponent(this, boundValue, otherValue);
+    }
+
+    @Override
+    public MountType getMountType() {
+      return MountType.DRAWABLE;
+    }
+
+    @Override
+    protected Object onCreateMountContent(ComponentContext c) {
+      return new ColorDrawable();
+    }
+
+    @Override
+    protected void onMount(ComponentContext c, Object mountedContent, Component<?> component) {
+      mMountCount++;
+    }
+
+    @Override
+    protected void onBind(ComponentContext c, Object mountedContent, Component<?> component) {
+      mBindCount++;
+    }
+
+    @Override
+    protected void onUnbind(ComponentContext c, Object mountedContent, Component<?> component) {
+      mUnbindCount++;
+    }
+
+    @Override
+    protected boolean callsShouldUpdateOnMount() {
+      return true;
+    }
+
+    @Override
+    protected boolean isPureRender() {
+      return true;
+    }
+
+    @Override
+    protected boolean shouldUpdate(Component previous, Component next) {
+      return false;
+    }
+
+    @Override
+    protected long getChangeMask(Component previous, Component next) {
+      final BindTrackingComponent previousComponent = (BindTrackingComponent) previous;
+      final BindTrackingComponent nextComponent = (BindTrackingComponent) next;
+
+      long mask = 0;
+      if (previousComponent.mBoundValue != nextComponent.mBoundValue) {
+        mask |= BOUND_VALUE_BIT;
+      }
+      if (previousComponent.mOtherValue != nextComponent.mOtherValue) {
+        mask |= OTHER_VALUE_BIT;
+      }
+      return mask;
+    }
+
+    @Override
+    protected long getBindDependenciesMask() {
+      return mBindDependenciesMask;
+    }
+  }
+
+  private static class BindTrackingComponent extends Component<BindTrackingLifecycle> {
+
+    private final int mBoundValue;
+    private final int mOtherValue;
+
+    BindTrackingComponent(BindTrackingLifecycle lifecycle, int boundValue, int otherValue) {
+      super(lifecycle);
+      mBoundValue = boundValue;
+      mOtherValue = otherValue;
+    }
+
+    @Override
+    public String getSimpleName() {
+      return "BindTrackingComponent";
+    }
+  }
+}
@@ -9,6 +9,7 @@
 
 package com.facebook.litho;
 
+import com.facebook.litho.config.ComponentsConfiguration;
 import com.facebook.litho.testing.TestDrawableComponent;
 import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
 import com.facebook.litho.testing.util.InlineLayoutSpec;
@@ -324,4 +325,67 @@ public class MountStateRemountEventHandlerTest {
     assertThat(listener).isNotNull();
     assertThat(listener.getEventHandler()).isNotNull();
   }
+
+  @Test
+  public void testMergedClickHandlerIsUpdatedOnFlattenedHost() {
+    ComponentsConfiguration.flattenHostViews = true;
+    try {
+      final LithoView lithoView = mountComponent(mContext, createFlattenedHostComponent(1, false));
+      final ComponentHost host = (ComponentHost) lithoView.getChildAt(0);
+      assertThat(getComponentClickListener(host).getEventHandler().id).isEqualTo(1);
+
+      lithoView.getComponentTree().setRoot(createFlattenedHostComponent(2, false));
+
+      assertThat(lithoView.getChildAt(0)).isSameAs(host);
+      assertThat(getComponentClickListener(host).getEventHandler().id).isEqualTo(2);
+    } finally {
+      ComponentsConfiguration.flattenHostViews = false;
+    }
+  }
+
+  @Test
+  public void testMergedLongClickHandlerIsSetOnFlattenedHost() {
+    ComponentsConfiguration.flattenHostViews = true;
+    try {
+      final LithoView lithoView = mountComponent(mContext, createFlattenedHostComponent(1, false));
+      final ComponentHost host = (ComponentHost) lithoView.getChildAt(0);
+      final ComponentLongClickListener longClickListener = getComponentLongClickListener(host);
+      assertThat(longClickListener == null || longClickListener.getEventHandler() == null)
+          .isTrue();
+
+      lithoView.getComponentTree().setRoot(createFlattenedHostComponent(1, true));
+
+      assertThat(lithoView.getChildAt(0)).isSameAs(host);
+      assertThat(getComponentLongClickListener(host).getEventHandler()).isNotNull();
+    } finally {
+      ComponentsConfiguration.flattenHostViews = false;
+    }
+  }
+
+  /**
+   * @return a component whose inner host has the same bounds as its outer host, so that its
+   * handlers are merged into the outer host's view.
+   */
+  private static Component createFlattenedHostComponent(
+      final int clickHandlerId,
+      final boolean hasLongClickHandler) {
+    return new InlineLayoutSpec() {
+      @Override
+      protected ComponentLayout onCreateLayout(ComponentContext c) {
+        final ComponentLayout.ContainerBuilder inner = create(c)
+            .clickHandler(c.newEventHandler(clickHandlerId))
+            .child(TestDrawableComponent.create(c));
+        if (hasLongClickHandler) {
+          inner.longClickHandler(c.newEventHandler(3));
+        }
+
+        return create(c)
+            .child(
+                create(c)
+                    .viewTag("host")
+                    .child(inner))
+            .build();
+      }
+    };
+  }
 }
@@ -666,8 +666,10 @@ public class MountStateRemountInPlaceTest {
     ComponentTestHelper.mountComponent(cv, tree);
     tree.setRoot(secondLayout);
 
+    // The second host and its text are shifted by the removal of the subtree, but they keep their
+    // order relative to the other items of their hosts so they don't need to be moved.
     final LogEvent event = mComponentsLogger.newPerformanceEvent(EVENT_PREPARE_MOUNT);
-    event.addParam(PARAM_MOVED_COUNT, "2");
+    event.addParam(PARAM_MOVED_COUNT, "0");
     verify(mComponentsLogger).log(eq(event));
   }
 }
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.graphics.drawable.Drawable;
+
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.displaylist.DisplayList;
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.reflect.Whitebox;
+import org.robolectric.RuntimeEnvironment;
+
+import static com.facebook.litho.testing.ComponentTestHelper.mountComponent;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that remounting an unchanged drawable keeps its DisplayList when
+ * {@link ComponentsConfiguration#reuseDisplayListsAcrossLayoutStates} is set. The layouts mounted
+ * here don't use diffing, like the ones calculated in the background.
+ */
+@RunWith(ComponentsTestRunner.class)
+public class MountStateReuseDisplayListsTest {
+
+  private ComponentContext mContext;
+  private boolean mReuseDisplayListsAcrossLayoutStates;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(RuntimeEnvironment.application);
+    mReuseDisplayListsAcrossLayoutStates =
+        ComponentsConfiguration.reuseDisplayListsAcrossLayoutStates;
+    ComponentsConfiguration.reuseDisplayListsAcrossLayoutStates = true;
+  }
+
+  @After
+  public void tearDown() {
+    ComponentsConfiguration.reuseDisplayListsAcrossLayoutStates =
+        mReuseDisplayListsAcrossLayoutStates;
+  }
+
+  @Test
+  public void testDisplayListIsKeptWhenRemountingAnUnchangedDrawable() {
+    final LithoView lithoView = mountComponent(mContext, createComponent(10));
+    final DisplayList displayList = recordDisplayList(lithoView);
+
+    mountComponent(mContext, lithoView, createComponent(10));
+
+    assertThat(getDisplayListDrawable(lithoView).getDisplayList()).isSameAs(displayList);
+  }
+
+  @Test
+  public void testDisplayListIsDroppedWhenBoundsChanged() {
+    final LithoView lithoView = mountComponent(mContext, createComponent(10));
+    recordDisplayList(lithoView);
+
+    mountComponent(mContext, lithoView, createComponent(20));
+
+    assertThat(getDisplayListDrawable(lithoView).getDisplayList()).isNull();
+  }
+
+  @Test
+  public void testDisplayListIsDroppedWhenTheFlagIsOff() {
+    ComponentsConfiguration.reuseDisplayListsAcrossLayoutStates = false;
+    final LithoView lithoView = mountComponent(mContext, createComponent(10));
+    recordDisplayList(lithoView);
+
+    mountComponent(mContext, lithoView, createComponent(10));
+
+    assertThat(getDisplayListDrawable(lithoView).getDisplayList()).isNull();
+  }
+
+  private Component createComponent(final int width) {
+    return new InlineLayoutSpec() {
+      @Override
+      protected ComponentLayout onCreateLayout(ComponentContext c) {
+        return Column.create(c)
+            .child(
+                TestDrawableComponent.create(c)
+                    .withLayout()
+                    .widthPx(width)
+                    .heightPx(10))
+            .build();
+      }
+    };
+  }
+
+  /**
+   * Robolectric can't create DisplayLists, so wrap the mounted drawable with a valid mock one as
+   * if it had been drawn.
+   */
+  private static DisplayList recordDisplayList(LithoView lithoView) {
+    final MountItem mountItem = lithoView.getMountState().getItemAt(1);
+    final DisplayList displayList = mock(DisplayList.class);
+    when(displayList.isValid()).thenReturn(true);
+    Whitebox.setInternalState(
+        mountItem,
+        "mDisplayListDrawable",
+        new DisplayListDrawable((Drawable) mountItem.getContent(), displayList));
+    return displayList;
+  }
+
+  private static DisplayListDrawable getDisplayListDrawable(LithoView lithoView) {
+    return lithoView.getMountState().getItemAt(1).getDisplayListDrawable();
+  }
+}
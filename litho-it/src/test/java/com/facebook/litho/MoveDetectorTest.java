@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(ComponentsTestRunner.class)
+public class MoveDetectorTest {
+
+  private static final long HOST_A = 1;
+  private static final long HOST_B = 2;
+
+  private MoveDetector mMoveDetector;
+
+  @Before
+  public void setup() {
+    mMoveDetector = new MoveDetector();
+  }
+
+  @Test
+  public void testShiftedItemsDontNeedMoves() {
+    // An item got inserted at the top, all the others keep their relative order.
+    add(HOST_A, 2, 3, 4, 5);
+
+    assertThat(countMoves()).isEqualTo(0);
+  }
+
+  @Test
+  public void testSingleItemMovedToTheTop() {
+    add(HOST_A, 2, 3, 4, 1);
+
+    assertThat(countMoves()).isEqualTo(1);
+    assertThat(mMoveDetector.needsMove(3)).isTrue();
+  }
+
+  @Test
+  public void testSwappedItems() {
+    add(HOST_A, 1, 3, 2, 4);
+
+    assertThat(countMoves()).isEqualTo(1);
+  }
+
+  @Test
+  public void testReversedItems() {
+    add(HOST_A, 5, 4, 3, 2, 1);
+
+    assertThat(countMoves()).isEqualTo(4);
+  }
+
+  @Test
+  public void testOrderIsOnlyRelevantWithinHosts() {
+    mMoveDetector.add(0, 3, HOST_A);
+    mMoveDetector.add(1, 1, HOST_B);
+    mMoveDetector.add(2, 4, HOST_A);
+    mMoveDetector.add(3, 2, HOST_B);
+    mMoveDetector.detectMoves();
+
+    assertThat(countMoves()).isEqualTo(0);
+  }
+
+  @Test
+  public void testResetClearsItems() {
+    add(HOST_A, 2, 1);
+    assertThat(countMoves()).isEqualTo(1);
+
+    mMoveDetector.reset();
+    add(HOST_A, 1, 2);
+    assertThat(mMoveDetector.size()).isEqualTo(2);
+    assertThat(countMoves()).isEqualTo(0);
+  }
+
+  @Test
+  public void testLargeReorderNeedsMinimalMoves() {
+    // Moving one item from the end to the start of a long list should only move that item.
+    final int count = 1000;
+    for (int i = 0; i < count - 1; i++) {
+      mMoveDetector.add(i, i + 1, HOST_A);
+    }
+    mMoveDetector.add(count - 1, 0, HOST_A);
+    mMoveDetector.detectMoves();
+
+    assertThat(countMoves()).isEqualTo(1);
+    assertThat(mMoveDetector.needsMove(count - 1)).isTrue();
+  }
+
+  private void add(long hostMarker, int... newPositions) {
+    for (int i = 0; i < newPositions.length; i++) {
+      mMoveDetector.add(i, newPositions[i], hostMarker);
+    }
+    mMoveDetector.detectMoves();
+  }
+
+  private int countMoves() {
+    int moves = 0;
+    for (int i = 0, size = mMoveDetector.size(); i < size; i++) {
+      if (mMoveDetector.needsMove(i)) {
+        moves++;
+      }
+    }
+
+    return moves;
+  }
+}
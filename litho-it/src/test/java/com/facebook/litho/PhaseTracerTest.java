@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.SizeSpec.makeSizeSpec;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.robolectric.RuntimeEnvironment.application;
+
+@RunWith(ComponentsTestRunner.class)
+public class PhaseTracerTest {
+
+  @After
+  public void tearDown() {
+    PhaseTracer.stop();
+  }
+
+  @Test
+  public void testNothingIsRecordedWhenNotStarted() {
+    final long startNanos = PhaseTracer.beginPhase();
+    PhaseTracer.start(4);
+    PhaseTracer.endPhase(startNanos, PhaseTracer.PHASE_MOUNT, 1, null);
+
+    assertThat(startNanos).isEqualTo(0);
+    assertThat(PhaseTracer.getBuffer().size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testBufferKeepsLatestRecords() {
+    final PhaseTraceBuffer buffer = new PhaseTraceBuffer(2);
+    buffer.record(PhaseTracer.PHASE_CREATE_TREE, 1, null, 10, 1);
+    buffer.record(PhaseTracer.PHASE_CSS_LAYOUT, 1, null, 20, 2);
+    buffer.record(PhaseTracer.PHASE_COLLECT_RESULTS, 2, null, 30, 3);
+
+    assertThat(buffer.size()).isEqualTo(2);
+    assertThat(buffer.getPhase(0)).isEqualTo(PhaseTracer.PHASE_CSS_LAYOUT);
+    assertThat(buffer.getDurationNanos(0)).isEqualTo(2);
+    assertThat(buffer.getPhase(1)).isEqualTo(PhaseTracer.PHASE_COLLECT_RESULTS);
+    assertThat(buffer.getComponentTreeId(1)).isEqualTo(2);
+  }
+
+  @Test
+  public void testBufferRecordsFromSeveralThreads() throws InterruptedException {
+    final ComponentContext c = new ComponentContext(application);
+    final Component<?> component = TestDrawableComponent.create(c).build();
+    final int componentId = component.getLifecycle().getId();
+    final int threadCount = 4;
+    final int recordsPerThread = 1000;
+
+    final PhaseTraceBuffer buffer = new PhaseTraceBuffer(64);
+    final Thread[] threads = new Thread[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      final int componentTreeId = i;
+      threads[i] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int j = 0; j < recordsPerThread; j++) {
+            buffer.record(
+                PhaseTracer.PHASE_MOUNT,
+                componentTreeId,
+                component,
+                j,
+                componentTreeId + 1);
+          }
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(buffer.size()).isEqualTo(64);
+    // The fields of a record are never written by two threads.
+    for (int i = 0; i < buffer.size(); i++) {
+      assertThat(buffer.getDurationNanos(i)).isEqualTo(buffer.getComponentTreeId(i) + 1);
+    }
+    assertThat(buffer.getCount(PhaseTracer.PHASE_MOUNT, componentId))
+        .isEqualTo(threadCount * recordsPerThread);
+    // Every thread records durations of its ComponentTree id plus one: 1 + 2 + 3 + 4.
+    assertThat(buffer.getTotalNanos(PhaseTracer.PHASE_MOUNT, componentId))
+        .isEqualTo(10 * recordsPerThread);
+
+    buffer.clear();
+
+    assertThat(buffer.size()).isEqualTo(0);
+    assertThat(buffer.getCount(PhaseTracer.PHASE_MOUNT, componentId)).isEqualTo(0);
+  }
+
+  @Test
+  public void testAggregatesByComponentType() throws IOException {
+    final ComponentContext c = new ComponentContext(application);
+    final Component<?> component = TestDrawableComponent.create(c).build();
+    final int componentId = component.getLifecycle().getId();
+
+    final PhaseTraceBuffer buffer = new PhaseTraceBuffer(1);
+    buffer.record(PhaseTracer.PHASE_CREATE_TREE, 1, component, 1000, 2000);
+    buffer.record(PhaseTracer.PHASE_CREATE_TREE, 1, component, 5000, 4000);
+
+    assertThat(buffer.size()).isEqualTo(1);
+    assertThat(buffer.getComponentId(0)).isEqualTo(componentId);
+    assertThat(buffer.getCount(PhaseTracer.PHASE_CREATE_TREE, componentId)).isEqualTo(2);
+    assertThat(buffer.getTotalNanos(PhaseTracer.PHASE_CREATE_TREE, componentId)).isEqualTo(6000);
+    assertThat(buffer.getCount(PhaseTracer.PHASE_CSS_LAYOUT, componentId)).isEqualTo(0);
+
+    final StringWriter writer = new StringWriter();
+    buffer.writeTrace(writer);
+    assertThat(writer.toString()).isEqualTo(
+        "{\"traceEvents\":[{\"name\":\"createTree\",\"cat\":\"litho\",\"ph\":\"X\",\"pid\":0," +
+            "\"tid\":1,\"ts\":5,\"dur\":4,\"args\":{\"component\":\"TestComponent\"}}]," +
+            "\"componentAggregates\":[{\"component\":\"TestComponent\"," +
+            "\"phase\":\"createTree\",\"count\":2,\"totalUs\":6,\"maxUs\":4}]}");
+  }
+
+  @Test
+  public void testLayoutPhasesAreRecorded() {
+    PhaseTracer.start(64);
+
+    final ComponentContext c = new ComponentContext(application);
+    final Component<?> root = new InlineLayoutSpec() {
+      @Override
+      protected ComponentLayout onCreateLayout(ComponentContext c) {
+        return Column.create(c)
+            .child(TestDrawableComponent.create(c))
+            .build();
+      }
+    };
+    final ComponentTree componentTree = ComponentTree.create(c, root)
+        .incrementalMount(false)
+        .layoutDiffing(false)
+        .build();
+    componentTree.setSizeSpec(makeSizeSpec(100, EXACTLY), makeSizeSpec(100, EXACTLY));
+
+    final PhaseTraceBuffer buffer = PhaseTracer.stop();
+    final List<Integer> phases = new ArrayList<>();
+    for (int i = 0; i < buffer.size(); i++) {
+      phases.add(buffer.getPhase(i));
+    }
+
+    assertThat(phases).containsExactly(
+        PhaseTracer.PHASE_CREATE_TREE,
+        PhaseTracer.PHASE_CSS_LAYOUT,
+        PhaseTracer.PHASE_COLLECT_RESULTS,
+        PhaseTracer.PHASE_CALCULATE_LAYOUT);
+    assertThat(buffer.getComponentTreeId(0)).isEqualTo(componentTree.mId);
+  }
+}
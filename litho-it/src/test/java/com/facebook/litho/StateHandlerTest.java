@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.ComponentLifecycle.StateContainer;
+import com.facebook.litho.ComponentLifecycle.StateUpdate;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.reflect.Whitebox;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.robolectric.RuntimeEnvironment.application;
+
+@RunWith(ComponentsTestRunner.class)
+public class StateHandlerTest {
+  private static final String KEY = "key";
+
+  private final ComponentLifecycle mLifecycle = new ComponentLifecycle() {
+    @Override
+    protected boolean hasState() {
+      return true;
+    }
+
+    @Override
+    protected void transferState(
+        ComponentContext c,
+        StateContainer stateContainer,
+        Component component) {
+      ((TestComponent) component).mStateContainer.mCount =
+          ((TestStateContainer) stateContainer).mCount;
+    }
+  };
+
+  private ComponentContext mContext;
+  private StateHandler mStateHandler;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(application);
+    mStateHandler = new StateHandler();
+    mStateHandler.applyStateUpdatesForComponent(createComponent());
+  }
+
+  @Test
+  public void testSnapshotReadsCommittedStateWithoutCopyingIt() {
+    final StateHandler snapshot = StateHandler.acquireNewInstance(mStateHandler);
+
+    assertThat(snapshot.mStateContainers).isNull();
+    assertThat(snapshot.isEmpty()).isFalse();
+    assertThat(snapshot.getStateContainers().get(KEY))
+        .isSameAs(mStateHandler.getStateContainers().get(KEY));
+  }
+
+  @Test
+  public void testSnapshotUpdatesDontAffectCommittedStateUntilCommit() {
+    final StateContainer committedStateContainer = mStateHandler.getStateContainers().get(KEY);
+    mStateHandler.queueStateUpdate(KEY, new IncrementStateUpdate());
+
+    final StateHandler snapshot = StateHandler.acquireNewInstance(mStateHandler);
+    final TestComponent component = createComponent();
+    snapshot.applyStateUpdatesForComponent(component);
+
+    assertThat(component.mStateContainer.mCount).isEqualTo(1);
+    assertThat(mStateHandler.getStateContainers().get(KEY)).isSameAs(committedStateContainer);
+
+    mStateHandler.commit(snapshot);
+
+    assertThat(mStateHandler.getStateContainers().get(KEY))
+        .isSameAs(component.mStateContainer);
+    assertThat(mStateHandler.getPendingStateUpdates()).isEmpty();
+  }
+
+  @Test
+  public void testCommitDoesntAffectOtherSnapshots() {
+    final StateContainer committedStateContainer = mStateHandler.getStateContainers().get(KEY);
+    mStateHandler.queueStateUpdate(KEY, new IncrementStateUpdate());
+
+    final StateHandler firstSnapshot = StateHandler.acquireNewInstance(mStateHandler);
+    final StateHandler secondSnapshot = StateHandler.acquireNewInstance(mStateHandler);
+
+    final TestComponent component = createComponent();
+    firstSnapshot.applyStateUpdatesForComponent(component);
+    mStateHandler.commit(firstSnapshot);
+
+    assertThat(mStateHandler.getStateContainers().get(KEY))
+        .isSameAs(component.mStateContainer);
+    assertThat(secondSnapshot.getStateContainers().get(KEY)).isSameAs(committedStateContainer);
+  }
+
+  @Test
+  public void testSnapshotOfSnapshotSeesItsUpdates() {
+    final StateHandler snapshot = StateHandler.acquireNewInstance(mStateHandler);
+    final TestComponent component = createComponent();
+    snapshot.applyStateUpdatesForComponent(component);
+
+    final StateHandler nestedSnapshot = StateHandler.acquireNewInstance(snapshot);
+
+    assertThat(nestedSnapshot.getStateContainers().get(KEY)).isSameAs(component.mStateContainer);
+  }
+
+  private TestComponent createComponent() {
+    final TestComponent component = new TestComponent(mLifecycle);
+    component.setScopedContext(mContext);
+    Whitebox.setInternalState(component, "mGlobalKey", KEY);
+    return component;
+  }
+
+  private static class IncrementStateUpdate implements StateUpdate {
+
+    @Override
+    public void updateState(StateContainer stateContainer, Component component) {
+      ((TestComponent) component).mStateContainer.mCount =
+          ((TestStateContainer) stateContainer).mCount + 1;
+    }
+  }
+
+  private static class TestComponent extends Component<ComponentLifecycle> {
+    private final TestStateContainer mStateContainer = new TestStateContainer();
+
+    TestComponent(ComponentLifecycle lifecycle) {
+      super(lifecycle);
+    }
+
+    @Override
+    public String getSimpleName() {
+      return "TestComponent";
+    }
+
+    @Override
+    protected StateContainer getStateContainer() {
+      return mStateContainer;
+    }
+  }
+
+  private static class TestStateContainer implements StateContainer {
+    private int mCount;
+  }
+}
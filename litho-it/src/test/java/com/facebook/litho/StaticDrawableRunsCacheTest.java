@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+import com.facebook.litho.displaylist.DisplayList;
+import com.facebook.litho.displaylist.DisplayListException;
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.reflect.Whitebox;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static android.view.View.IMPORTANT_FOR_ACCESSIBILITY_AUTO;
+import static com.facebook.litho.MountItem.FLAG_DUPLICATE_PARENT_STATE;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the caching of static drawable runs in {@link ComponentHost}.
+ */
+@RunWith(ComponentsTestRunner.class)
+public class StaticDrawableRunsCacheTest {
+
+  private ComponentContext mContext;
+  private Component<?> mDrawableComponent;
+  private ComponentHost mHost;
+  private TestStaticDrawableRunsCache mCache;
+  private Canvas mHardwareCanvas;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(RuntimeEnvironment.application);
+    mDrawableComponent = TestDrawableComponent.create(mContext).build();
+    mHost = new ComponentHost(mContext);
+    mCache = new TestStaticDrawableRunsCache();
+    Whitebox.setInternalState(mHost, "mStaticDrawableRunsCache", mCache);
+
+    mHardwareCanvas = mock(Canvas.class);
+    when(mHardwareCanvas.isHardwareAccelerated()).thenReturn(true);
+  }
+
+  @Test
+  public void testRunIsRecordedOnceAndReplayed() throws DisplayListException {
+    final Drawable d1 = mountDrawable(0);
+    final Drawable d2 = mountDrawable(1);
+
+    mHost.dispatchDraw(mHardwareCanvas);
+    mHost.dispatchDraw(mHardwareCanvas);
+
+    assertThat(mCache.getRunCount()).isEqualTo(1);
+    assertThat(mCache.mDisplayLists).hasSize(1);
+    final DisplayList displayList = mCache.mDisplayLists.get(0);
+    verify(displayList, times(1)).start(anyInt(), anyInt());
+    verify(displayList, times(2)).draw(mHardwareCanvas);
+    verify(d1, times(1)).draw(mCache.mRecordingCanvas);
+    verify(d2, times(1)).draw(mCache.mRecordingCanvas);
+    verify(d1, never()).draw(mHardwareCanvas);
+    verify(d2, never()).draw(mHardwareCanvas);
+  }
+
+  @Test
+  public void testInvalidateDrawableOnlyRerecordsItsRun() throws DisplayListException {
+    final Drawable d1 = mountDrawable(0);
+    mountDrawable(1);
+    // A drawable following the host's state can't be cached, so it splits the items in two runs.
+    final Drawable stateful = mountDrawable(2, FLAG_DUPLICATE_PARENT_STATE);
+    mountDrawable(3);
+    final Drawable d5 = mountDrawable(4);
+
+    mHost.dispatchDraw(mHardwareCanvas);
+
+    assertThat(mCache.getRunCount()).isEqualTo(2);
+    verify(stateful, times(1)).draw(mHardwareCanvas);
+
+    mHost.invalidateDrawable(d5);
+    mHost.dispatchDraw(mHardwareCanvas);
+
+    verify(mCache.mDisplayLists.get(0), times(1)).start(anyInt(), anyInt());
+    verify(mCache.mDisplayLists.get(1), times(2)).start(anyInt(), anyInt());
+    verify(d1, times(1)).draw(mCache.mRecordingCanvas);
+    verify(d5, times(2)).draw(mCache.mRecordingCanvas);
+  }
+
+  @Test
+  public void testShortenedRunForgetsDrawablesThatLeftIt() throws DisplayListException {
+    mountDrawable(0);
+    mountDrawable(1);
+    // Static as long as it isn't stateful.
+    final MountItem mountItem = mount(2, createDrawable(false), FLAG_DUPLICATE_PARENT_STATE);
+    final Drawable d3 = (Drawable) mountItem.getContent();
+
+    mHost.dispatchDraw(mHardwareCanvas);
+    assertThat(mCache.getRecordedDrawableCount()).isEqualTo(3);
+
+    when(d3.isStateful()).thenReturn(true);
+    mHost.dispatchDraw(mHardwareCanvas);
+
+    assertThat(mCache.getRunCount()).isEqualTo(1);
+    assertThat(mCache.getRecordedDrawableCount()).isEqualTo(2);
+
+    // The drawable is no longer part of a run, so it doesn't cause a recording.
+    mHost.invalidateDrawable(d3);
+    mHost.dispatchDraw(mHardwareCanvas);
+    verify(mCache.mDisplayLists.get(1), times(1)).start(anyInt(), anyInt());
+  }
+
+  @Test
+  public void testMountAndUnmountDropRuns() {
+    mountDrawable(0);
+    final MountItem mountItem = mount(1, createDrawable(false), 0);
+    drawAndAssertRunIsRecorded();
+
+    mountDrawable(2);
+    assertThat(mCache.getRunCount()).isEqualTo(0);
+
+    drawAndAssertRunIsRecorded();
+
+    mHost.unmount(1, mountItem);
+    assertThat(mCache.getRunCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testMoveDropsRuns() {
+    mountDrawable(0);
+    final MountItem mountItem = mount(1, createDrawable(false), 0);
+    drawAndAssertRunIsRecorded();
+
+    mHost.moveItem(mountItem, 1, 2);
+    assertThat(mCache.getRunCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testHostChangesDropRuns() {
+    mountDrawable(0);
+    mountDrawable(1);
+
+    drawAndAssertRunIsRecorded();
+    mHost.onSizeChanged(10, 10, 0, 0);
+    assertThat(mCache.getRunCount()).isEqualTo(0);
+
+    drawAndAssertRunIsRecorded();
+    mHost.drawableStateChanged();
+    assertThat(mCache.getRunCount()).isEqualTo(0);
+
+    drawAndAssertRunIsRecorded();
+    mHost.setVisibility(View.INVISIBLE);
+    assertThat(mCache.getRunCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testSoftwareCanvasDrawsDrawablesDirectly() {
+    final Drawable d1 = mountDrawable(0);
+    final Drawable d2 = mountDrawable(1);
+    final Canvas softwareCanvas = mock(Canvas.class);
+
+    mHost.dispatchDraw(softwareCanvas);
+
+    assertThat(mCache.getRunCount()).isEqualTo(0);
+    assertThat(mCache.getRecordedDrawableCount()).isEqualTo(0);
+    assertThat(mCache.mDisplayLists).isEmpty();
+    verify(d1, times(1)).draw(softwareCanvas);
+    verify(d2, times(1)).draw(softwareCanvas);
+  }
+
+  private void drawAndAssertRunIsRecorded() {
+    mHost.dispatchDraw(mHardwareCanvas);
+    assertThat(mCache.getRunCount()).isEqualTo(1);
+  }
+
+  private Drawable mountDrawable(int index) {
+    return mountDrawable(index, 0);
+  }
+
+  private Drawable mountDrawable(int index, int flags) {
+    final Drawable drawable = createDrawable(flags == FLAG_DUPLICATE_PARENT_STATE);
+    mount(index, drawable, flags);
+    return drawable;
+  }
+
+  private static Drawable createDrawable(boolean isStateful) {
+    final Drawable drawable = mock(ColorDrawable.class);
+    when(drawable.getBounds()).thenReturn(new Rect());
+    when(drawable.isStateful()).thenReturn(isStateful);
+    return drawable;
+  }
+
+  private MountItem mount(int index, Drawable drawable, int flags) {
+    final MountItem mountItem = new MountItem();
+    mountItem.init(
+        mDrawableComponent,
+        null,
+        drawable,
+        null,
+        null,
+        null,
+        flags,
+        IMPORTANT_FOR_ACCESSIBILITY_AUTO);
+    mHost.mount(index, mountItem, new Rect());
+    return mountItem;
+  }
+
+  private static class TestStaticDrawableRunsCache extends StaticDrawableRunsCache {
+
+    private final List<DisplayList> mDisplayLists = new ArrayList<>();
+    private final Canvas mRecordingCanvas = mock(Canvas.class);
+
+    @Override
+    DisplayList createDisplayList() {
+      final DisplayList displayList = mock(DisplayList.class);
+      try {
+        when(displayList.start(anyInt(), anyInt())).thenReturn(mRecordingCanvas);
+      } catch (DisplayListException e) {
+        throw new RuntimeException(e);
+      }
+      when(displayList.isValid()).thenReturn(true);
+      mDisplayLists.add(displayList);
+      return displayList;
+    }
+  }
+}
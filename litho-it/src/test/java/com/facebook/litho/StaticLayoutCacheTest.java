@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+import com.facebook.yoga.YogaAlign;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.SizeSpec.makeSizeSpec;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.robolectric.RuntimeEnvironment.application;
+
+@RunWith(ComponentsTestRunner.class)
+public class StaticLayoutCacheTest {
+
+  private boolean mWasDebugModeEnabled;
+  private boolean mIncrementalStateUpdates;
+  private ComponentContext mContext;
+  private StaticLayoutLifecycle mStaticLifecycle;
+
+  @Before
+  public void setup() {
+    mWasDebugModeEnabled = ComponentsConfiguration.isDebugModeEnabled;
+    // Debug mode keeps the node trees around until the LayoutState is released.
+    ComponentsConfiguration.isDebugModeEnabled = false;
+    ComponentsConfiguration.memoizeStaticLayouts = true;
+    mIncrementalStateUpdates = ComponentsConfiguration.incrementalStateUpdates;
+
+    mContext = new ComponentContext(application);
+    mStaticLifecycle = new StaticLayoutLifecycle();
+  }
+
+  @After
+  public void tearDown() {
+    ComponentsConfiguration.isDebugModeEnabled = mWasDebugModeEnabled;
+    ComponentsConfiguration.memoizeStaticLayouts = false;
+    ComponentsConfiguration.incrementalStateUpdates = mIncrementalStateUpdates;
+  }
+
+  @Test
+  public void testStaticLayoutIsReusedAcrossLayouts() {
+    final ComponentTree componentTree = createComponentTree(false);
+
+    componentTree.setSizeSpec(makeSizeSpec(100, EXACTLY), makeSizeSpec(100, EXACTLY));
+    assertThat(mStaticLifecycle.mCreateLayoutCount).isEqualTo(1);
+    assertThat(componentTree.getStaticLayoutCache().size()).isEqualTo(1);
+
+    componentTree.setSizeSpec(makeSizeSpec(200, EXACTLY), makeSizeSpec(100, EXACTLY));
+    assertThat(mStaticLifecycle.mCreateLayoutCount).isEqualTo(1);
+    assertThat(componentTree.getStaticLayoutCache().size()).isEqualTo(1);
+
+    componentTree.release();
+    assertThat(componentTree.getStaticLayoutCache().size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testStaticLayoutIsNotReusedWhenDisabled() {
+    ComponentsConfiguration.memoizeStaticLayouts = false;
+    final ComponentTree componentTree = createComponentTree(false);
+
+    componentTree.setSizeSpec(makeSizeSpec(100, EXACTLY), makeSizeSpec(100, EXACTLY));
+    componentTree.setSizeSpec(makeSizeSpec(200, EXACTLY), makeSizeSpec(100, EXACTLY));
+
+    assertThat(mStaticLifecycle.mCreateLayoutCount).isEqualTo(2);
+    assertThat(componentTree.getStaticLayoutCache().size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testStaticLayoutIsReusedWhenTheBackgroundLayoutKeepsItsTree() {
+    // Incremental state updates keep the node tree, and the nested trees memoized in it, around.
+    ComponentsConfiguration.incrementalStateUpdates = true;
+    final ComponentTree componentTree = createComponentTree(false);
+
+    componentTree.setSizeSpec(makeSizeSpec(100, EXACTLY), makeSizeSpec(100, EXACTLY));
+    componentTree.setSizeSpec(makeSizeSpec(200, EXACTLY), makeSizeSpec(100, EXACTLY));
+
+    assertThat(mStaticLifecycle.mCreateLayoutCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testStaticLayoutIsReusedWhenThePreviousLayoutKeepsItsTree() {
+    ComponentsConfiguration.incrementalStateUpdates = true;
+    final ComponentTree componentTree = createComponentTree(false);
+
+    // Measuring computes the layout on the main thread, which is then the previous LayoutState.
+    componentTree.measure(
+        makeSizeSpec(100, EXACTLY),
+        makeSizeSpec(100, EXACTLY),
+        new int[2],
+        false);
+    componentTree.setRoot(createRoot(false));
+
+    assertThat(mStaticLifecycle.mCreateLayoutCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testStaticLayoutIsRecreatedForIncompatibleSizeSpecs() {
+    final ComponentTree componentTree = createComponentTree(true);
+
+    componentTree.setSizeSpec(makeSizeSpec(100, EXACTLY), makeSizeSpec(100, EXACTLY));
+    componentTree.setSizeSpec(makeSizeSpec(100, EXACTLY), makeSizeSpec(50, EXACTLY));
+
+    assertThat(mStaticLifecycle.mCreateLayoutCount).isEqualTo(2);
+    assertThat(componentTree.getStaticLayoutCache().size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testHolderWithPropsIsNotMemoized() {
+    final Component<?> root = new InlineLayoutSpec() {
+      @Override
+      protected ComponentLayout onCreateLayout(ComponentContext c) {
+        return Row.create(c)
+            .child(
+                Layout.create(c, new StaticLayoutComponent(mStaticLifecycle))
+                    .backgroundColor(0xFFFF0000))
+            .build();
+      }
+    };
+    final ComponentTree componentTree = ComponentTree.create(mContext, root)
+        .incrementalMount(false)
+        .layoutDiffing(false)
+        .build();
+
+    componentTree.setSizeSpec(makeSizeSpec(100, EXACTLY), makeSizeSpec(100, EXACTLY));
+    componentTree.setSizeSpec(makeSizeSpec(200, EXACTLY), makeSizeSpec(100, EXACTLY));
+
+    assertThat(mStaticLifecycle.mCreateLayoutCount).isEqualTo(2);
+    assertThat(componentTree.getStaticLayoutCache().size()).isEqualTo(0);
+  }
+
+  private ComponentTree createComponentTree(boolean stretchStaticLayout) {
+    return ComponentTree.create(mContext, createRoot(stretchStaticLayout))
+        .incrementalMount(false)
+        .layoutDiffing(false)
+        .build();
+  }
+
+  private Component<?> createRoot(final boolean stretchStaticLayout) {
+    return new InlineLayoutSpec() {
+      @Override
+      protected ComponentLayout onCreateLayout(ComponentContext c) {
+        return Row.create(c)
+            .alignItems(stretchStaticLayout ? YogaAlign.STRETCH : YogaAlign.FLEX_START)
+            .child(new StaticLayoutComponent(mStaticLifecycle))
+            .build();
+      }
+    };
+  }
+
+  private static class StaticLayoutLifecycle extends ComponentLifecycle {
+    private int mCreateLayoutCount;
+
+    @Override
+    protected boolean hasStaticLayout() {
+      return true;
+    }
+
+    @Override
+    protected ComponentLayout onCreateLayout(ComponentContext c, Component<?> component) {
+      mCreateLayoutCount++;
+
+      return Column.create(c)
+          .child(
+              TestDrawableComponent.create(c)
+                  .withLayout()
+                  .widthPx(10)
+                  .heightPx(10))
+          .build();
+    }
+  }
+
+  private static class StaticLayoutComponent extends Component<StaticLayoutLifecycle> {
+
+    StaticLayoutComponent(StaticLayoutLifecycle lifecycle) {
+      super(lifecycle);
+    }
+
+    @Override
+    public String getSimpleName() {
+      return "StaticLayoutComponent";
+    }
+  }
+}
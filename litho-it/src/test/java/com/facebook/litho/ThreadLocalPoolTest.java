@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(ComponentsTestRunner.class)
+public class ThreadLocalPoolTest {
+
+  @Test
+  public void testAcquireReleasedInstance() {
+    final ThreadLocalPool<Object> pool = new ThreadLocalPool<>(2);
+    final Object instance = new Object();
+
+    assertThat(pool.acquire()).isNull();
+    assertThat(pool.release(instance)).isTrue();
+    assertThat(pool.acquire()).isSameAs(instance);
+    assertThat(pool.acquire()).isNull();
+  }
+
+  @Test
+  public void testReleaseWhenFull() {
+    final ThreadLocalPool<Object> pool = new ThreadLocalPool<>(1);
+
+    assertThat(pool.release(new Object())).isTrue();
+    assertThat(pool.release(new Object())).isFalse();
+  }
+
+  @Test
+  public void testThreadsDontShareInstances() throws InterruptedException {
+    final ThreadLocalPool<Object> pool = new ThreadLocalPool<>(2);
+    final Object instance = new Object();
+    pool.release(instance);
+
+    final Object[] acquiredFromOtherThread = new Object[1];
+    final Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        acquiredFromOtherThread[0] = pool.acquire();
+      }
+    });
+    thread.start();
+    thread.join();
+
+    assertThat(acquiredFromOtherThread[0]).isNull();
+    assertThat(pool.acquire()).isSameAs(instance);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaxPoolSize() {
+    new ThreadLocalPool<>(0);
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(ComponentsTestRunner.class)
+public class TreePropsTest {
+
+  @Before
+  public void setup() {
+    ComponentsConfiguration.shareParentTreeProps = true;
+  }
+
+  @After
+  public void tearDown() {
+    ComponentsConfiguration.shareParentTreeProps = false;
+  }
+
+  @Test
+  public void testCopyReadsPropsOfParent() {
+    final TreeProps parent = new TreeProps();
+    parent.put(String.class, "parent");
+    parent.put(Integer.class, 1);
+
+    final TreeProps child = TreeProps.copy(parent);
+    child.put(Integer.class, 2);
+
+    assertThat(child.getDepth()).isEqualTo(1);
+    assertThat((String) child.get(String.class)).isEqualTo("parent");
+    assertThat((Integer) child.get(Integer.class)).isEqualTo(2);
+    assertThat((Integer) parent.get(Integer.class)).isEqualTo(1);
+    assertThat(child.toMap()).hasSize(2).containsEntry(Integer.class, 2);
+  }
+
+  @Test
+  public void testNullValueOverridesParent() {
+    final TreeProps parent = new TreeProps();
+    parent.put(String.class, "parent");
+
+    final TreeProps child = TreeProps.copy(parent);
+    child.put(String.class, null);
+
+    assertThat((String) child.get(String.class)).isNull();
+  }
+
+  @Test
+  public void testEmptyTreePropsAreSkipped() {
+    final TreeProps parent = new TreeProps();
+    parent.put(String.class, "parent");
+
+    final TreeProps emptyChild = TreeProps.copy(parent);
+    final TreeProps child = TreeProps.copy(emptyChild);
+
+    assertThat(child.getDepth()).isEqualTo(1);
+    assertThat((String) child.get(String.class)).isEqualTo("parent");
+  }
+
+  @Test
+  public void testDeepChainsAreFlattened() {
+    TreeProps treeProps = new TreeProps();
+    for (int i = 0; i <= TreeProps.MAX_DEPTH; i++) {
+      treeProps.put(Integer.class, i);
+      treeProps.put(String.class, "props" + i);
+      treeProps = TreeProps.copy(treeProps);
+    }
+    treeProps.put(Long.class, 1L);
+
+    assertThat(treeProps.getDepth()).isEqualTo(0);
+    assertThat((Integer) treeProps.get(Integer.class)).isEqualTo(TreeProps.MAX_DEPTH);
+    assertThat(treeProps.toMap()).hasSize(3);
+  }
+
+  @Test
+  public void testFlatCopyDoesntReferenceSource() {
+    final TreeProps parent = new TreeProps();
+    parent.put(String.class, "parent");
+    final TreeProps child = TreeProps.copy(parent);
+    child.put(Integer.class, 1);
+
+    final TreeProps flatCopy = TreeProps.flatCopy(child);
+    parent.reset();
+    child.reset();
+
+    assertThat(flatCopy.getDepth()).isEqualTo(0);
+    assertThat((String) flatCopy.get(String.class)).isEqualTo("parent");
+    assertThat((Integer) flatCopy.get(Integer.class)).isEqualTo(1);
+  }
+
+  @Test
+  public void testCopyFlattensWhenDisabled() {
+    ComponentsConfiguration.shareParentTreeProps = false;
+    final TreeProps parent = new TreeProps();
+    parent.put(String.class, "parent");
+
+    final TreeProps child = TreeProps.copy(parent);
+    parent.reset();
+
+    assertThat(child.getDepth()).isEqualTo(0);
+    assertThat((String) child.get(String.class)).isEqualTo("parent");
+  }
+}
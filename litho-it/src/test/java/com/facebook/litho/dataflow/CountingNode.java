@@ -0,0 +1,28 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.dataflow;
+
+/**
+ * Test node that passes through its input value and counts how many times it was calculated.
+ */
+public class CountingNode extends ValueNode {
+
+  private int mCalculateCount = 0;
+
+  @Override
+  protected float calculateValue(long frameTimeNanos) {
+    mCalculateCount++;
+    return getInput().getValue();
+  }
+
+  public int getCalculateCount() {
+    return mCalculateCount;
+  }
+}
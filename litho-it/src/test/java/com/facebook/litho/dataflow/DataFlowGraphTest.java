@@ -156,6 +156,69 @@ public class DataFlowGraphTest {
     assertThat(dest.getValue()).isEqualTo(3588f);
   }
 
+  @Test
+  public void testBindingsAreAddedAndRemovedBetweenFrames() {
+    NumFramesNode source1 = new NumFramesNode();
+    SimpleNode middle1 = new SimpleNode();
+    OutputOnlyNode destination1 = new OutputOnlyNode();
+
+    GraphBinding binding1 = create(mDataFlowGraph);
+    binding1.addBinding(source1, middle1);
+    binding1.addBinding(middle1, destination1);
+    binding1.activate();
+
+    mTestTimingSource.step(1);
+
+    NumFramesNode source2 = new NumFramesNode();
+    SimpleNode middle2 = new SimpleNode();
+    OutputOnlyNode destination2 = new OutputOnlyNode();
+
+    GraphBinding binding2 = create(mDataFlowGraph);
+    binding2.addBinding(middle2, destination2);
+    binding2.addBinding(source2, middle2);
+    binding2.activate();
+
+    mTestTimingSource.step(1);
+
+    assertThat(destination1.getValue()).isEqualTo(2f);
+    assertThat(destination2.getValue()).isEqualTo(1f);
+
+    binding1.deactivate();
+    mTestTimingSource.step(1);
+
+    assertThat(source1.getValue()).isEqualTo(2f);
+    assertThat(destination1.getValue()).isEqualTo(2f);
+    assertThat(destination2.getValue()).isEqualTo(2f);
+  }
+
+  @Test
+  public void testNodeIsReaddedAfterItsBindingWasRemoved() {
+    NumFramesNode source = new NumFramesNode();
+    OutputOnlyNode destination = new OutputOnlyNode();
+
+    GraphBinding binding = create(mDataFlowGraph);
+    binding.addBinding(source, destination);
+    binding.activate();
+
+    GraphBinding otherBinding = create(mDataFlowGraph);
+    otherBinding.addBinding(new NumFramesNode(), new OutputOnlyNode());
+    otherBinding.activate();
+
+    mTestTimingSource.step(1);
+
+    binding.deactivate();
+    OutputOnlyNode newDestination = new OutputOnlyNode();
+    GraphBinding newBinding = create(mDataFlowGraph);
+    newBinding.addBinding(source, newDestination);
+    newBinding.activate();
+
+    mTestTimingSource.step(1);
+
+    assertThat(source.getValue()).isEqualTo(2f);
+    assertThat(destination.getValue()).isEqualTo(1f);
+    assertThat(newDestination.getValue()).isEqualTo(2f);
+  }
+
   @Test(expected = DetectedCycleException.class)
   public void testSimpleCycle() {
     SimpleNode node1 = new SimpleNode();
@@ -77,4 +77,34 @@ public class GraphBindingFinishesTest {
     assertThat(destination.getValue()).isEqualTo(100f);
     assertThat(testListener.getNumFinishCalls()).isEqualTo(1);
   }
+
+  @Test
+  public void testFinishedBindingIsNotCalculatedAgain() {
+    int durationMs = 64;
+    int numExpectedFrames = durationMs / FRAME_TIME_MS + 2;
+
+    TimingNode timingNode = new TimingNode(durationMs);
+    CountingNode destination = new CountingNode();
+
+    GraphBinding binding = create(mDataFlowGraph);
+    binding.addBinding(timingNode, destination);
+    binding.addBinding(new ConstantNode(0f), timingNode, INITIAL_INPUT);
+    binding.addBinding(new ConstantNode(100f), timingNode, END_INPUT);
+
+    TrackingBindingListener testListener = new TrackingBindingListener();
+    binding.setListener(testListener);
+    binding.activate();
+
+    mTestTimingSource.step(numExpectedFrames + 1);
+
+    assertThat(testListener.getNumFinishCalls()).isEqualTo(1);
+    assertThat(destination.getValue()).isEqualTo(100f);
+
+    final int calculateCount = destination.getCalculateCount();
+    mTestTimingSource.step(5);
+
+    assertThat(destination.getCalculateCount()).isEqualTo(calculateCount);
+    assertThat(destination.getValue()).isEqualTo(100f);
+    assertThat(testListener.getNumFinishCalls()).isEqualTo(1);
+  }
 }
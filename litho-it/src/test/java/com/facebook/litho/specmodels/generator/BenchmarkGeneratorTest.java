@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.specmodels.generator;
+
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.ComponentLayout;
+import com.facebook.litho.annotations.LayoutSpec;
+import com.facebook.litho.annotations.OnCreateLayout;
+import com.facebook.litho.annotations.Prop;
+import com.facebook.litho.specmodels.model.LayoutSpecModel;
+import com.facebook.litho.specmodels.processor.LayoutSpecModelFactory;
+import com.google.testing.compile.CompilationRule;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.util.Elements;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Tests {@link BenchmarkGenerator}
+ */
+public class BenchmarkGeneratorTest {
+  @Rule public CompilationRule mCompilationRule = new CompilationRule();
+
+  @LayoutSpec(generateBenchmark = true)
+  static class TestSpec {
+    @OnCreateLayout
+    static ComponentLayout onCreateLayout(
+        ComponentContext c,
+        @Prop String text,
+        @Prop long count,
+        @Prop boolean flag,
+        @Prop Object object,
+        @Prop(optional = true) int optionalCount) {
+      return null;
+    }
+  }
+
+  @Test
+  public void testGenerateBenchmark() {
+    final TypeSpec typeSpec = BenchmarkGenerator.generate(createSpecModel(TestSpec.class));
+
+    final List<String> methodNames = new ArrayList<>();
+    for (MethodSpec methodSpec : typeSpec.methodSpecs) {
+      methodNames.add(methodSpec.name);
+    }
+
+    assertThat(typeSpec.name).isEqualTo("TestBenchmark");
+    assertThat(methodNames).containsExactly(
+        "<init>",
+        "createBuilder",
+        "createComponent",
+        "createLayout",
+        "measure",
+        "calculateLayout",
+        "release",
+        "createObjectProp");
+    assertThat(typeSpec.modifiers).contains(Modifier.ABSTRACT);
+  }
+
+  @Test
+  public void testCreateBuilderOnlySetsRequiredProps() {
+    final TypeSpec typeSpec = BenchmarkGenerator.generate(createSpecModel(TestSpec.class));
+
+    assertThat(typeSpec.methodSpecs.get(1).code.toString()).isEqualTo(
+        "return com.facebook.litho.specmodels.generator.BenchmarkGeneratorTest.Test" +
+            ".create(context)\n" +
+        "    .text(\"\")\n" +
+        "    .count((long) 0)\n" +
+        "    .flag(false)\n" +
+        "    .object(createObjectProp());\n");
+  }
+
+  @Test
+  public void testMeasureReleasesTheMeasuredLayout() {
+    final TypeSpec typeSpec = BenchmarkGenerator.generate(createSpecModel(TestSpec.class));
+
+    assertThat(typeSpec.methodSpecs.get(4).code.toString()).isEqualTo(
+        "final com.facebook.litho.Component<" +
+            "com.facebook.litho.specmodels.generator.BenchmarkGeneratorTest.Test> component = " +
+            "createComponent();\n" +
+        "component.measure(mContext, mWidthSpec, mHeightSpec, mSize);\n" +
+        "com.facebook.litho.ComponentsPools.releaseMeasuredLayout(component);\n" +
+        "return mSize;\n");
+  }
+
+  @Test
+  public void testRepresentativeValues() {
+    assertThat(BenchmarkGenerator.getRepresentativeValue(TypeName.FLOAT).toString())
+        .isEqualTo("(float) 0");
+    assertThat(BenchmarkGenerator.getRepresentativeValue(TypeName.INT.box()).toString())
+        .isEqualTo("(int) 0");
+    assertThat(BenchmarkGenerator.getRepresentativeValue(TypeName.BOOLEAN.box()).toString())
+        .isEqualTo("false");
+    assertThat(
+        BenchmarkGenerator.getRepresentativeValue(TypeName.get(CharSequence.class)).toString())
+        .isEqualTo("\"\"");
+    assertThat(BenchmarkGenerator.getRepresentativeValue(TypeName.OBJECT)).isNull();
+  }
+
+  private LayoutSpecModel createSpecModel(Class<?> specClass) {
+    Elements elements = mCompilationRule.getElements();
+    return LayoutSpecModelFactory.create(
+        elements,
+        elements.getTypeElement(specClass.getCanonicalName()),
+        null);
+  }
+}
@@ -10,6 +10,7 @@
 
 package com.facebook.litho.specmodels.generator;
 
+import com.facebook.litho.annotations.LayoutSpec;
 import com.facebook.litho.annotations.OnCreateLayout;
 import com.facebook.litho.annotations.OnEvent;
 import com.facebook.litho.annotations.OnUpdateState;
@@ -62,6 +63,18 @@ public class BuilderGeneratorTest {
     public void testUpdateStateMethod() {}
   }
 
+  @LayoutSpec(builderPoolSize = 16, threadLocalBuilderPool = true)
+  static class ThreadLocalPoolTestSpec {
+    @OnCreateLayout
+    public void onCreateLayout(@Prop boolean arg0) {}
+  }
+
+  @LayoutSpec(isPureRender = true)
+  static class PureRenderTestSpec {
+    @OnCreateLayout
+    public void onCreateLayout(@Prop boolean arg0) {}
+  }
+
   private SpecModel mSpecModel;
 
   @Before
@@ -174,4 +187,33 @@ public class BuilderGeneratorTest {
         "  }\n" +
         "}\n");
   }
+
+  @Test
+  public void testGenerateThreadLocalBuilderPool() {
+    Elements elements = mCompilationRule.getElements();
+    TypeElement typeElement =
+        elements.getTypeElement(ThreadLocalPoolTestSpec.class.getCanonicalName());
+    SpecModel specModel = LayoutSpecModelFactory.create(elements, typeElement, null);
+
+    TypeSpecDataHolder dataHolder = BuilderGenerator.generateFactoryMethods(specModel);
+
+    assertThat(dataHolder.getFieldSpecs().get(0).toString()).isEqualTo(
+        "private static final com.facebook.litho.ThreadLocalPool<Builder> sBuilderPool = " +
+            "new com.facebook.litho.ThreadLocalPool<Builder>(16);\n");
+  }
+
+  @Test
+  public void testBuildComputesPropsHashCodeOfPureRenderComponents() {
+    Elements elements = mCompilationRule.getElements();
+    TypeElement typeElement = elements.getTypeElement(PureRenderTestSpec.class.getCanonicalName());
+    SpecModel specModel = LayoutSpecModelFactory.create(elements, typeElement, null);
+
+    assertThat(BuilderGenerator.generate(specModel).getTypeSpecs().get(0).toString())
+        .contains(
+            "    PureRenderTestImpl pureRenderTestImpl = mPureRenderTestImpl;\n" +
+            "    pureRenderTestImpl.hashCode();\n" +
+            "    release();\n");
+    assertThat(BuilderGenerator.generate(mSpecModel).getTypeSpecs().get(0).toString())
+        .doesNotContain("testImpl.hashCode()");
+  }
 }
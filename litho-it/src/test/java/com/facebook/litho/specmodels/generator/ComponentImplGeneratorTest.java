@@ -9,6 +9,7 @@
 
 package com.facebook.litho.specmodels.generator;
 
+import com.facebook.litho.annotations.LayoutSpec;
 import com.facebook.litho.annotations.OnCreateLayout;
 import com.facebook.litho.annotations.OnEvent;
 import com.facebook.litho.annotations.OnUpdateState;
@@ -66,13 +67,27 @@ public class ComponentImplGeneratorTest {
     public void testUpdateStateMethod() {}
   }
 
+  @LayoutSpec(isPureRender = true)
+  static class PureRenderTestSpec {
+    @OnCreateLayout
+    public void testDelegateMethod(
+        @Prop float arg0,
+        @Prop String arg1) {
+    }
+  }
+
   private SpecModel mSpecModelDI;
+  private SpecModel mPureRenderSpecModel;
 
   @Before
   public void setUp() {
     Elements elements = mCompilationRule.getElements();
     TypeElement typeElement = elements.getTypeElement(TestSpec.class.getCanonicalName());
     mSpecModelDI = LayoutSpecModelFactory.create(elements, typeElement, null);
+
+    TypeElement pureRenderTypeElement =
+        elements.getTypeElement(PureRenderTestSpec.class.getCanonicalName());
+    mPureRenderSpecModel = LayoutSpecModelFactory.create(elements, pureRenderTypeElement, null);
   }
 
   @Test
@@ -184,6 +199,46 @@ public class ComponentImplGeneratorTest {
             "}\n");
   }
 
+  @Test
+  public void testGenerateHashCodeMethod() {
+    assertThat(ComponentImplGenerator.generateHashCodeMethod(mSpecModelDI).toString())
+        .isEqualTo(
+            "@java.lang.Override\n" +
+            "public int hashCode() {\n" +
+            "  int result = \"Test\".hashCode();\n" +
+            "  result = 31 * result + (arg0 ? 1231 : 1237);\n" +
+            "  return result;\n" +
+            "}\n");
+  }
+
+  @Test
+  public void testGenerateCachedHashCodeMethodForPureRender() {
+    assertThat(ComponentImplGenerator.hasCachedPropsHashCode(mSpecModelDI)).isFalse();
+    assertThat(ComponentImplGenerator.hasCachedPropsHashCode(mPureRenderSpecModel)).isTrue();
+
+    assertThat(ComponentImplGenerator.generateHashCodeMethod(mPureRenderSpecModel).toString())
+        .isEqualTo(
+            "@java.lang.Override\n" +
+            "public int hashCode() {\n" +
+            "  if (mPropsHashCode != 0) {\n" +
+            "    return mPropsHashCode;\n" +
+            "  }\n" +
+            "  int result = \"PureRenderTest\".hashCode();\n" +
+            "  result = 31 * result + Float.floatToIntBits(arg0);\n" +
+            "  result = 31 * result + (arg1 != null ? arg1.hashCode() : 0);\n" +
+            "  mPropsHashCode = result;\n" +
+            "  return result;\n" +
+            "}\n");
+  }
+
+  @Test
+  public void testGenerateEqualsMethodForPureRenderComparesHashCodes() {
+    assertThat(ComponentImplGenerator.generateEqualsMethod(mPureRenderSpecModel, true).toString())
+        .contains(
+            "mPropsHashCode != 0 && pureRenderTestImpl.mPropsHashCode != 0 " +
+            "&& mPropsHashCode != pureRenderTestImpl.mPropsHashCode");
+  }
+
   @Test
   public void testOnUpdateStateMethods() {
     TypeSpecDataHolder dataHolder =
@@ -10,6 +10,7 @@
 
 package com.facebook.litho.specmodels.generator;
 
+import com.facebook.litho.ComponentContext;
 import com.facebook.litho.annotations.FromEvent;
 import com.facebook.litho.annotations.OnEvent;
 import com.facebook.litho.annotations.Param;
@@ -61,7 +62,20 @@ public class EventGeneratorTest {
         @State int arg1) {}
   }
 
+  static class InlineParamsTestSpec {
+    @OnEvent(Object.class)
+    public void onItemClick(
+        ComponentContext c,
+        @Param int index) {}
+
+    @OnEvent(Object.class)
+    public void onCheckedChange(
+        ComponentContext c,
+        @Param boolean checked) {}
+  }
+
   private SpecModel mSpecModel;
+  private SpecModel mInlineParamsSpecModel;
   private final SpecModel mMockSpecModel = mock(SpecModel.class);
 
   @Before
@@ -69,6 +83,10 @@ public class EventGeneratorTest {
     Elements elements = mCompilationRule.getElements();
     TypeElement typeElement = elements.getTypeElement(TestSpec.class.getCanonicalName());
     mSpecModel = LayoutSpecModelFactory.create(elements, typeElement, null);
+    mInlineParamsSpecModel = LayoutSpecModelFactory.create(
+        elements,
+        elements.getTypeElement(InlineParamsTestSpec.class.getCanonicalName()),
+        null);
     EventDeclarationModel eventDeclarationModel = new EventDeclarationModel(
         ClassName.OBJECT,
         ClassName.OBJECT,
@@ -125,7 +143,7 @@ public class EventGeneratorTest {
         .isEqualTo(
             "public static <T extends java.lang.CharSequence> com.facebook.litho.EventHandler<java.lang.Object> testEventMethod1(com.facebook.litho.ComponentContext c,\n" +
             "    java.lang.Object arg2, T arg3) {\n" +
-            "  return newEventHandler(c, -1400079064, new Object[] {\n" +
+            "  return newEventHandler(c, 0, new Object[] {\n" +
             "        c,\n" +
             "        arg2,\n" +
             "        arg3,\n" +
@@ -136,7 +154,7 @@ public class EventGeneratorTest {
         .isEqualTo(
             "public static <T extends java.lang.CharSequence> com.facebook.litho.EventHandler<java.lang.Object> testEventMethod1(com.facebook.litho.Component c,\n" +
             "    java.lang.Object arg2, T arg3) {\n" +
-            "  return newEventHandler(c, -1400079064, new Object[] {\n" +
+            "  return newEventHandler(c, 0, new Object[] {\n" +
             "        c,\n" +
             "        arg2,\n" +
             "        arg3,\n" +
@@ -146,17 +164,13 @@ public class EventGeneratorTest {
     assertThat(dataHolder.getMethodSpecs().get(2).toString())
         .isEqualTo(
             "public static com.facebook.litho.EventHandler<java.lang.Object> testEventMethod2(com.facebook.litho.ComponentContext c) {\n" +
-            "  return newEventHandler(c, -1400079063, new Object[] {\n" +
-            "        c,\n" +
-            "      });\n" +
+            "  return newEventHandler(c, 1, c, null);\n" +
             "}\n");
 
     assertThat(dataHolder.getMethodSpecs().get(3).toString())
         .isEqualTo(
             "public static com.facebook.litho.EventHandler<java.lang.Object> testEventMethod2(com.facebook.litho.Component c) {\n" +
-            "  return newEventHandler(c, -1400079063, new Object[] {\n" +
-            "        c,\n" +
-            "      });\n" +
+            "  return newEventHandler(c, 1, c, null);\n" +
             "}\n");
   }
 
@@ -169,7 +183,7 @@ public class EventGeneratorTest {
             "    final java.lang.Object eventState) {\n" +
             "  int id = eventHandler.id;\n" +
             "  switch(id) {\n" +
-            "    case -1400079064: {\n" +
+            "    case 0: {\n" +
             "      java.lang.Object _event = (java.lang.Object) eventState;\n" +
             "      testEventMethod1(\n" +
             "            eventHandler.mHasEventDispatcher,\n" +
@@ -177,7 +191,7 @@ public class EventGeneratorTest {
             "            (T) eventHandler.params[1]);\n" +
             "      return null;\n" +
             "    }\n" +
-            "    case -1400079063: {\n" +
+            "    case 1: {\n" +
             "      java.lang.Object _event = (java.lang.Object) eventState;\n" +
             "      testEventMethod2(\n" +
             "            eventHandler.mHasEventDispatcher);\n" +
@@ -189,6 +203,34 @@ public class EventGeneratorTest {
             "}\n");
   }
 
+  @Test
+  public void testEventHandlersWithOneParamDontAllocateParamsArray() {
+    TypeSpecDataHolder dataHolder =
+        EventGenerator.generateEventHandlerFactories(mInlineParamsSpecModel);
+
+    assertThat(dataHolder.getMethodSpecs().get(0).toString())
+        .contains("  return newEventHandler(c, 0, c, index);\n");
+
+    assertThat(EventGenerator.generateDispatchOnEvent(mInlineParamsSpecModel).toString())
+        .contains("    case 0: {\n")
+        .contains("(com.facebook.litho.ComponentContext) eventHandler.getParam(0)")
+        .contains("(int) eventHandler.getPrimitiveParam(1)")
+        .doesNotContain("eventHandler.params[");
+  }
+
+  @Test
+  public void testBooleanInlineParamIsNotBoxed() {
+    TypeSpecDataHolder dataHolder =
+        EventGenerator.generateEventHandlerFactories(mInlineParamsSpecModel);
+
+    assertThat(dataHolder.getMethodSpecs().get(2).toString())
+        .contains("  return newEventHandler(c, 1, c, checked ? 1L : 0L);\n");
+
+    assertThat(EventGenerator.generateDispatchOnEvent(mInlineParamsSpecModel).toString())
+        .contains("    case 1: {\n")
+        .contains("eventHandler.getPrimitiveParam(1) != 0");
+  }
+
   @Test
   public void testGetEventHandlerMethods() {
     TypeSpecDataHolder dataHolder = EventGenerator.generateGetEventHandlerMethods(mMockSpecModel);
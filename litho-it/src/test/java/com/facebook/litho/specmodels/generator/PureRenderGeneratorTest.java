@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.specmodels.generator;
+
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.annotations.MountSpec;
+import com.facebook.litho.annotations.OnBind;
+import com.facebook.litho.annotations.OnMount;
+import com.facebook.litho.annotations.Prop;
+import com.facebook.litho.annotations.State;
+import com.facebook.litho.specmodels.model.MountSpecModel;
+import com.facebook.litho.specmodels.processor.MountSpecModelFactory;
+import com.google.testing.compile.CompilationRule;
+import com.squareup.javapoet.MethodSpec;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Tests {@link PureRenderGenerator}
+ */
+public class PureRenderGeneratorTest {
+  @Rule public CompilationRule mCompilationRule = new CompilationRule();
+
+  @MountSpec(isPureRender = true)
+  static class TestSpec {
+
+    @OnMount
+    static void onMount(
+        ComponentContext c,
+        Object content,
+        @Prop int size,
+        @Prop String text) {}
+
+    @OnBind
+    static void onBind(
+        ComponentContext c,
+        Object content,
+        @Prop(optional = true) float alpha,
+        @State boolean pressed) {}
+  }
+
+  private MountSpecModel mSpecModel;
+
+  @Before
+  public void setUp() {
+    Elements elements = mCompilationRule.getElements();
+    TypeElement typeElement = elements.getTypeElement(TestSpec.class.getCanonicalName());
+    mSpecModel = MountSpecModelFactory.create(elements, typeElement, null);
+  }
+
+  @Test
+  public void testGenerateChangeMask() {
+    TypeSpecDataHolder dataHolder = PureRenderGenerator.generateChangeMaskMethods(mSpecModel);
+    assertThat(dataHolder.getMethodSpecs()).hasSize(2);
+
+    final String getChangeMask = findMethod(dataHolder, "getChangeMask").toString();
+    assertThat(getChangeMask)
+        .contains("TestImpl previousImpl = (TestImpl) previous;\n")
+        .contains("TestImpl nextImpl = (TestImpl) next;\n")
+        .contains(
+            "  if (previousImpl.size != nextImpl.size) {\n" +
+            "    mask |= 0x1L;\n" +
+            "  }\n")
+        .contains(
+            "  if (previousImpl.text != null ? !previousImpl.text.equals(nextImpl.text) " +
+            ": nextImpl.text != null) {\n" +
+            "    mask |= 0x2L;\n" +
+            "  }\n")
+        .contains(
+            "  if (Float.compare(previousImpl.alpha, nextImpl.alpha) != 0) {\n" +
+            "    mask |= 0x4L;\n" +
+            "  }\n")
+        .contains(
+            "  if (previousImpl.mStateContainerImpl.pressed " +
+            "!= nextImpl.mStateContainerImpl.pressed) {\n" +
+            "    mask |= 0x8L;\n" +
+            "  }\n")
+        .contains("  return mask;\n");
+  }
+
+  @Test
+  public void testGenerateBindDependenciesMask() {
+    TypeSpecDataHolder dataHolder = PureRenderGenerator.generateChangeMaskMethods(mSpecModel);
+
+    assertThat(findMethod(dataHolder, "getBindDependenciesMask").toString())
+        .isEqualTo(
+            "@java.lang.Override\n" +
+            "protected long getBindDependenciesMask() {\n" +
+            "  return 0xcL;\n" +
+            "}\n");
+  }
+
+  private static MethodSpec findMethod(TypeSpecDataHolder dataHolder, String name) {
+    for (MethodSpec methodSpec : dataHolder.getMethodSpecs()) {
+      if (methodSpec.name.equals(name)) {
+        return methodSpec;
+      }
+    }
+
+    throw new AssertionError("Method " + name + " not generated");
+  }
+}
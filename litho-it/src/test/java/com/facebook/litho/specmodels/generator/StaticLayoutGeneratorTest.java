@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.specmodels.generator;
+
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.ComponentLayout;
+import com.facebook.litho.annotations.LayoutSpec;
+import com.facebook.litho.annotations.OnCreateLayout;
+import com.facebook.litho.specmodels.model.LayoutSpecModel;
+import com.facebook.litho.specmodels.processor.LayoutSpecModelFactory;
+import com.google.testing.compile.CompilationRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import javax.lang.model.util.Elements;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Tests {@link StaticLayoutGenerator}
+ */
+public class StaticLayoutGeneratorTest {
+  @Rule public CompilationRule mCompilationRule = new CompilationRule();
+
+  @LayoutSpec(hasStaticLayout = true)
+  static class StaticTestSpec {
+    @OnCreateLayout
+    static ComponentLayout onCreateLayout(ComponentContext c) {
+      return null;
+    }
+  }
+
+  @LayoutSpec
+  static class TestSpec {
+    @OnCreateLayout
+    static ComponentLayout onCreateLayout(ComponentContext c) {
+      return null;
+    }
+  }
+
+  @Test
+  public void testGenerateHasStaticLayout() {
+    TypeSpecDataHolder dataHolder =
+        StaticLayoutGenerator.generate(createSpecModel(StaticTestSpec.class));
+
+    assertThat(dataHolder.getMethodSpecs()).hasSize(1);
+    assertThat(dataHolder.getMethodSpecs().get(0).toString()).isEqualTo(
+        "@java.lang.Override\n" +
+        "protected boolean hasStaticLayout() {\n" +
+        "  return true;\n" +
+        "}\n");
+  }
+
+  @Test
+  public void testDoNotGenerateHasStaticLayoutByDefault() {
+    TypeSpecDataHolder dataHolder = StaticLayoutGenerator.generate(createSpecModel(TestSpec.class));
+
+    assertThat(dataHolder.getMethodSpecs()).isEmpty();
+  }
+
+  private LayoutSpecModel createSpecModel(Class<?> specClass) {
+    Elements elements = mCompilationRule.getElements();
+    return LayoutSpecModelFactory.create(
+        elements,
+        elements.getTypeElement(specClass.getCanonicalName()),
+        null);
+  }
+}
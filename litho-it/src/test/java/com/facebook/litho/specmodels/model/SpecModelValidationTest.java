@@ -9,6 +9,9 @@
 
 package com.facebook.litho.specmodels.model;
 
+import com.facebook.litho.specmodels.internal.ImmutableList;
+import com.squareup.javapoet.TypeVariableName;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -69,4 +72,51 @@ public class SpecModelValidationTest {
     assertThat(validationErrors.get(0).message).isEqualTo(
         "shouldUseDisplayList = true can only be used on MountSpecs that mount a drawable.");
   }
+
+  @Test
+  public void testBuilderPoolSizeValidation() {
+    when(mMountSpecModel.getBuilderPoolSize()).thenReturn(0);
+    List<SpecModelValidationError> validationErrors =
+        SpecModelValidation.validateBuilderPoolSize(mMountSpecModel);
+
+    assertThat(validationErrors).hasSize(1);
+    assertThat(validationErrors.get(0).element).isSameAs(mMountSpecModelRepresentedObject);
+    assertThat(validationErrors.get(0).message).isEqualTo(
+        "builderPoolSize must be greater than 0.");
+  }
+
+  @Test
+  public void testStaticLayoutValidation() {
+    final LayoutSpecModel layoutSpecModel = mock(LayoutSpecModel.class);
+    when(layoutSpecModel.getRepresentedObject()).thenReturn(mModelRepresentedObject);
+    when(layoutSpecModel.hasStaticLayout()).thenReturn(true);
+    when(layoutSpecModel.getProps()).thenReturn(ImmutableList.of(mock(PropModel.class)));
+    when(layoutSpecModel.getStateValues()).thenReturn(ImmutableList.<StateParamModel>of());
+    when(layoutSpecModel.getTreeProps()).thenReturn(ImmutableList.<TreePropModel>of());
+    List<SpecModelValidationError> validationErrors =
+        SpecModelValidation.validateStaticLayout(layoutSpecModel);
+
+    assertThat(validationErrors).hasSize(1);
+    assertThat(validationErrors.get(0).element).isSameAs(mModelRepresentedObject);
+    assertThat(validationErrors.get(0).message).isEqualTo(
+        "Specs with hasStaticLayout = true can't declare props, state or tree props, since " +
+            "their layout must only depend on the size constraints it's measured with.");
+  }
+
+  @Test
+  public void testBenchmarkValidation() {
+    final LayoutSpecModel layoutSpecModel = mock(LayoutSpecModel.class);
+    when(layoutSpecModel.getRepresentedObject()).thenReturn(mModelRepresentedObject);
+    when(layoutSpecModel.shouldGenerateBenchmark()).thenReturn(true);
+    when(layoutSpecModel.getTypeVariables())
+        .thenReturn(ImmutableList.of(TypeVariableName.get("T")));
+    List<SpecModelValidationError> validationErrors =
+        SpecModelValidation.validateBenchmark(layoutSpecModel);
+
+    assertThat(validationErrors).hasSize(1);
+    assertThat(validationErrors.get(0).element).isSameAs(mModelRepresentedObject);
+    assertThat(validationErrors.get(0).message).isEqualTo(
+        "Specs with generateBenchmark = true can't have type variables or injected " +
+            "dependencies, since the benchmark needs to create the component on its own.");
+  }
 }
@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.specmodels.generator;
+
+import com.facebook.litho.specmodels.model.ClassNames;
+import com.facebook.litho.specmodels.model.LayoutSpecModel;
+import com.facebook.litho.specmodels.model.PropModel;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.annotation.Nullable;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Class that generates the {@code <ComponentName>Benchmark} harness of a Component, which runs the
+ * layout stages of the component once per call. It doesn't depend on any benchmark framework, so
+ * that it can be driven by JMH or by a simple timing loop.
+ */
+public class BenchmarkGenerator {
+
+  static final String BENCHMARK_SUFFIX = "Benchmark";
+
+  private static final String CONTEXT_MEMBER_NAME = "mContext";
+  private static final String WIDTH_SPEC_MEMBER_NAME = "mWidthSpec";
+  private static final String HEIGHT_SPEC_MEMBER_NAME = "mHeightSpec";
+  private static final String SIZE_MEMBER_NAME = "mSize";
+  private static final String COMPONENT_TREE_MEMBER_NAME = "mComponentTree";
+
+  private BenchmarkGenerator() {
+  }
+
+  public static TypeSpec generate(LayoutSpecModel specModel) {
+    final ClassName componentClass =
+        ClassName.bestGuess(specModel.getComponentTypeName().toString());
+    final TypeName componentType = ParameterizedTypeName.get(ClassNames.COMPONENT, componentClass);
+
+    final TypeSpec.Builder typeSpec =
+        TypeSpec.classBuilder(specModel.getComponentName() + BENCHMARK_SUFFIX)
+            .addModifiers(Modifier.PUBLIC)
+            .addJavadoc(
+                "Benchmark harness for {@link $T}. Every method runs a single layout stage of a\n" +
+                    "new instance of the component created by {@link #createBuilder}, with the\n" +
+                    "size specs given to the constructor.\n",
+                componentClass);
+
+    typeSpec
+        .addField(
+            FieldSpec.builder(
+                specModel.getContextClass(),
+                CONTEXT_MEMBER_NAME,
+                Modifier.PRIVATE,
+                Modifier.FINAL).build())
+        .addField(TypeName.INT, WIDTH_SPEC_MEMBER_NAME, Modifier.PRIVATE, Modifier.FINAL)
+        .addField(TypeName.INT, HEIGHT_SPEC_MEMBER_NAME, Modifier.PRIVATE, Modifier.FINAL)
+        .addField(
+            FieldSpec.builder(ClassNames.SIZE, SIZE_MEMBER_NAME, Modifier.PRIVATE, Modifier.FINAL)
+                .initializer("new $T()", ClassNames.SIZE)
+                .build())
+        .addField(ClassNames.COMPONENT_TREE, COMPONENT_TREE_MEMBER_NAME, Modifier.PRIVATE)
+        .addMethod(generateConstructor(specModel))
+        .addMethod(generateCreateBuilderMethod(specModel, componentClass))
+        .addMethod(
+            MethodSpec.methodBuilder("createComponent")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(componentType)
+                .addStatement("return createBuilder($L).build()", CONTEXT_MEMBER_NAME)
+                .build())
+        .addMethod(
+            MethodSpec.methodBuilder("createLayout")
+                .addJavadoc(
+                    "Runs onCreateLayout of a new component, then releases the created layout\n" +
+                        "tree back to the pools.\n")
+                .addModifiers(Modifier.PUBLIC)
+                .addStatement(
+                    "$T.releaseLayoutTree($T.create($L, createComponent()).build())",
+                    ClassNames.COMPONENTS_POOLS,
+                    ClassNames.LAYOUT,
+                    CONTEXT_MEMBER_NAME)
+                .build())
+        .addMethod(
+            MethodSpec.methodBuilder("measure")
+                .addJavadoc(
+                    "Creates and measures the layout of a new component, then releases the\n" +
+                        "measured layout back to the pools.\n")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ClassNames.SIZE)
+                .addStatement("final $T component = createComponent()", componentType)
+                .addStatement(
+                    "component.measure($L, $L, $L, $L)",
+                    CONTEXT_MEMBER_NAME,
+                    WIDTH_SPEC_MEMBER_NAME,
+                    HEIGHT_SPEC_MEMBER_NAME,
+                    SIZE_MEMBER_NAME)
+                .addStatement("$T.releaseMeasuredLayout(component)", ClassNames.COMPONENTS_POOLS)
+                .addStatement("return $L", SIZE_MEMBER_NAME)
+                .build())
+        .addMethod(generateCalculateLayoutMethod(componentType))
+        .addMethod(
+            MethodSpec.methodBuilder("release")
+                .addModifiers(Modifier.PUBLIC)
+                .beginControlFlow("if ($L != null)", COMPONENT_TREE_MEMBER_NAME)
+                .addStatement("$L.release()", COMPONENT_TREE_MEMBER_NAME)
+                .addStatement("$L = null", COMPONENT_TREE_MEMBER_NAME)
+                .endControlFlow()
+                .build());
+
+    // Required props without a representative value, e.g. components or drawables, have to be
+    // supplied by a subclass: null would make most specs throw in onCreateLayout.
+    boolean hasAbstractPropValues = false;
+    for (PropModel prop : specModel.getProps()) {
+      if (!prop.isOptional() && getRepresentativeValue(prop.getType()) == null) {
+        typeSpec.addMethod(generatePropValueMethod(prop));
+        hasAbstractPropValues = true;
+      }
+    }
+    if (hasAbstractPropValues) {
+      typeSpec.addModifiers(Modifier.ABSTRACT);
+    }
+
+    return typeSpec.build();
+  }
+
+  private static MethodSpec generateConstructor(LayoutSpecModel specModel) {
+    return MethodSpec.constructorBuilder()
+        .addModifiers(Modifier.PUBLIC)
+        .addParameter(specModel.getContextClass(), "context")
+        .addParameter(TypeName.INT, "widthSpec")
+        .addParameter(TypeName.INT, "heightSpec")
+        .addStatement("$L = context", CONTEXT_MEMBER_NAME)
+        .addStatement("$L = widthSpec", WIDTH_SPEC_MEMBER_NAME)
+        .addStatement("$L = heightSpec", HEIGHT_SPEC_MEMBER_NAME)
+        .build();
+  }
+
+  /**
+   * Generates the factory of the components that are benchmarked. It only sets the required props,
+   * so that optional ones keep their default values.
+   */
+  private static MethodSpec generateCreateBuilderMethod(
+      LayoutSpecModel specModel,
+      ClassName componentClass) {
+    final CodeBlock.Builder codeBlock = CodeBlock.builder()
+        .add("return $T.create(context)", componentClass)
+        .indent()
+        .indent();
+
+    for (PropModel prop : specModel.getProps()) {
+      if (prop.isOptional()) {
+        continue;
+      }
+
+      final CodeBlock value = getRepresentativeValue(prop.getType());
+      if (value != null) {
+        codeBlock.add("\n.$L($L)", prop.getName(), value);
+      } else {
+        codeBlock.add("\n.$L($L())", prop.getName(), getPropValueMethodName(prop));
+      }
+    }
+
+    codeBlock.add(";\n").unindent().unindent();
+
+    return MethodSpec.methodBuilder("createBuilder")
+        .addJavadoc(
+            "Override to benchmark the component with other prop values. Required props are set\n" +
+                "to zero, false or an empty string, and to the value of their abstract factory if\n" +
+                "they have any other type.\n")
+        .addModifiers(Modifier.PROTECTED)
+        .returns(componentClass.nestedClass("Builder"))
+        .addParameter(specModel.getContextClass(), "context")
+        .addCode(codeBlock.build())
+        .build();
+  }
+
+  private static MethodSpec generateCalculateLayoutMethod(TypeName componentType) {
+    return MethodSpec.methodBuilder("calculateLayout")
+        .addJavadoc(
+            "Calculates the layout of a ComponentTree whose root is set to a new component. The\n" +
+                "ComponentTree is kept across calls until {@link #release()} is called.\n")
+        .addModifiers(Modifier.PUBLIC)
+        .returns(ClassNames.SIZE)
+        .addStatement("final $T component = createComponent()", componentType)
+        .beginControlFlow("if ($L == null)", COMPONENT_TREE_MEMBER_NAME)
+        .addStatement(
+            "$L = $T.create($L, component).build()",
+            COMPONENT_TREE_MEMBER_NAME,
+            ClassNames.COMPONENT_TREE,
+            CONTEXT_MEMBER_NAME)
+        .endControlFlow()
+        .addStatement(
+            "$L.setRootAndSizeSpec(component, $L, $L, $L)",
+            COMPONENT_TREE_MEMBER_NAME,
+            WIDTH_SPEC_MEMBER_NAME,
+            HEIGHT_SPEC_MEMBER_NAME,
+            SIZE_MEMBER_NAME)
+        .addStatement("return $L", SIZE_MEMBER_NAME)
+        .build();
+  }
+
+  private static MethodSpec generatePropValueMethod(PropModel prop) {
+    return MethodSpec.methodBuilder(getPropValueMethodName(prop))
+        .addJavadoc("@return the value of the required prop {@code $L}.\n", prop.getName())
+        .addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
+        .returns(prop.getType())
+        .build();
+  }
+
+  static String getPropValueMethodName(PropModel prop) {
+    final String name = prop.getName();
+    return "create" + Character.toUpperCase(name.charAt(0)) + name.substring(1) + "Prop";
+  }
+
+  /**
+   * @return a value for a required prop of the given type, or null if there is no value that can
+   * stand in for any other, e.g. for components, drawables or collections.
+   */
+  @Nullable
+  static CodeBlock getRepresentativeValue(TypeName type) {
+    final TypeName unboxedType = type.isBoxedPrimitive() ? type.unbox() : type;
+
+    if (unboxedType.equals(TypeName.BOOLEAN)) {
+      return CodeBlock.of("false");
+    } else if (unboxedType.isPrimitive()) {
+      return CodeBlock.of("($T) 0", unboxedType);
+    } else if (type.equals(ClassNames.STRING) || type.equals(ClassName.get(CharSequence.class))) {
+      return CodeBlock.of("\"\"");
+    }
+
+    return null;
+  }
+}
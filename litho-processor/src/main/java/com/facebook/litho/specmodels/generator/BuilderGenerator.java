@@ -12,6 +12,7 @@ package com.facebook.litho.specmodels.generator;
 import com.facebook.litho.specmodels.internal.ImmutableList;
 import com.facebook.litho.specmodels.model.ClassNames;
 import com.facebook.litho.specmodels.model.EventDeclarationModel;
+import com.facebook.litho.specmodels.model.HasBuilderPool;
 import com.facebook.litho.specmodels.model.PropDefaultModel;
 import com.facebook.litho.specmodels.model.PropModel;
 import com.facebook.litho.specmodels.model.SpecModel;
@@ -34,6 +35,8 @@ import java.util.List;
 
 import javax.lang.model.element.Modifier;
 
+import static com.facebook.litho.specmodels.generator.GeneratorConstants.DEFAULT_BUILDER_POOL_SIZE;
+
 /**
  * Class that generates the builder for a Component.
  */
@@ -60,12 +63,15 @@ public class BuilderGenerator {
   static TypeSpecDataHolder generateFactoryMethods(SpecModel specModel) {
     final TypeSpecDataHolder.Builder dataHolder = TypeSpecDataHolder.newBuilder();
 
-    final ParameterizedTypeName synchronizedPoolClass =
-        ParameterizedTypeName.get(ClassNames.SYNCHRONIZED_POOL, BUILDER_CLASS_NAME);
+    final ParameterizedTypeName poolClass = ParameterizedTypeName.get(
+        hasThreadLocalBuilderPool(specModel)
+            ? ClassNames.THREAD_LOCAL_POOL
+            : ClassNames.SYNCHRONIZED_POOL,
+        BUILDER_CLASS_NAME);
 
-    final FieldSpec.Builder poolField = FieldSpec.builder(synchronizedPoolClass, BUILDER_POOL_FIELD)
+    final FieldSpec.Builder poolField = FieldSpec.builder(poolClass, BUILDER_POOL_FIELD)
         .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
-        .initializer("new $T(2)", synchronizedPoolClass);
+        .initializer("new $T($L)", poolClass, getBuilderPoolSize(specModel));
 
     final MethodSpec.Builder factoryMethod = MethodSpec.methodBuilder("create")
         .addModifiers(Modifier.PUBLIC)
@@ -104,6 +110,17 @@ public class BuilderGenerator {
         .build();
   }
 
+  private static int getBuilderPoolSize(SpecModel specModel) {
+    return specModel instanceof HasBuilderPool
+        ? ((HasBuilderPool) specModel).getBuilderPoolSize()
+        : DEFAULT_BUILDER_POOL_SIZE;
+  }
+
+  private static boolean hasThreadLocalBuilderPool(SpecModel specModel) {
+    return specModel instanceof HasBuilderPool
+        && ((HasBuilderPool) specModel).hasThreadLocalBuilderPool();
+  }
+
   private static MethodSpec generateDelegatingCreateBuilderMethod(SpecModel specModel) {
     return MethodSpec.methodBuilder("create")
         .addModifiers(Modifier.PUBLIC)
@@ -822,12 +839,21 @@ public class BuilderGenerator {
               REQUIRED_PROPS_NAMES);
     }
 
+    buildMethodBuilder.addStatement(
+        "$L $L = $L",
+        ComponentImplGenerator.getImplClassName(specModel),
+        ComponentImplGenerator.getImplInstanceName(specModel),
+        getImplMemberInstanceName(specModel));
+
+    // Pure render props can't change once built, so the hash code is cached here: the generated
+    // equals only compares the cached hash codes when both components have one.
+    if (ComponentImplGenerator.hasCachedPropsHashCode(specModel)) {
+      buildMethodBuilder.addStatement(
+          "$L.hashCode()",
+          ComponentImplGenerator.getImplInstanceName(specModel));
+    }
+
     return buildMethodBuilder
-        .addStatement(
-            "$L $L = $L",
-            ComponentImplGenerator.getImplClassName(specModel),
-            ComponentImplGenerator.getImplInstanceName(specModel),
-            getImplMemberInstanceName(specModel))
         .addStatement("release()")
         .addStatement("return $L", ComponentImplGenerator.getImplInstanceName(specModel))
         .build();
@@ -17,6 +17,7 @@ import com.facebook.litho.specmodels.internal.ImmutableList;
 import com.facebook.litho.specmodels.model.ClassNames;
 import com.facebook.litho.specmodels.model.DiffModel;
 import com.facebook.litho.specmodels.model.EventDeclarationModel;
+import com.facebook.litho.specmodels.model.HasPureRender;
 import com.facebook.litho.specmodels.model.InterStageInputParamModel;
 import com.facebook.litho.specmodels.model.MethodParamModel;
 import com.facebook.litho.specmodels.model.PropModel;
@@ -46,6 +47,7 @@ import javax.lang.model.element.Modifier;
 
 import static com.facebook.litho.specmodels.generator.GeneratorConstants.IMPL_CLASS_NAME_SUFFIX;
 import static com.facebook.litho.specmodels.generator.GeneratorConstants.PREVIOUS_RENDER_INFO_FIELD_NAME;
+import static com.facebook.litho.specmodels.generator.GeneratorConstants.PROPS_HASH_CODE_FIELD_NAME;
 import static com.facebook.litho.specmodels.generator.GeneratorConstants.STATE_CONTAINER_FIELD_NAME;
 import static com.facebook.litho.specmodels.model.ClassNames.COMPONENT;
 
@@ -91,6 +93,11 @@ public class ComponentImplGenerator {
       implClassBuilder.addField(previousRenderInfoImplClass, PREVIOUS_RENDER_INFO_FIELD_NAME);
     }
 
+    if (hasCachedPropsHashCode(specModel)) {
+      implClassBuilder.addField(
+          FieldSpec.builder(TypeName.INT, PROPS_HASH_CODE_FIELD_NAME, Modifier.PRIVATE).build());
+    }
+
     generateProps(specModel).addToTypeSpec(implClassBuilder);
     generateTreeProps(specModel).addToTypeSpec(implClassBuilder);
     generateInterStageInputs(specModel).addToTypeSpec(implClassBuilder);
@@ -99,6 +106,7 @@ public class ComponentImplGenerator {
     implClassBuilder.addMethod(generateImplConstructor(stateContainerImplClass, hasState));
     implClassBuilder.addMethod(generateGetSimpleName(specModel));
     implClassBuilder.addMethod(generateEqualsMethod(specModel, true));
+    implClassBuilder.addMethod(generateHashCodeMethod(specModel));
 
     generateCopyInterStageImpl(specModel).addToTypeSpec(implClassBuilder);
 
@@ -337,6 +345,21 @@ public class ComponentImplGenerator {
           .endControlFlow();
     }
 
+    if (hasCachedPropsHashCode(specModel)) {
+      // Props can't be equal if the hash codes computed so far differ.
+      equalsBuilder
+          .beginControlFlow(
+              "if ($L != 0 && $L.$L != 0 && $L != $L.$L)",
+              PROPS_HASH_CODE_FIELD_NAME,
+              implInstanceName,
+              PROPS_HASH_CODE_FIELD_NAME,
+              PROPS_HASH_CODE_FIELD_NAME,
+              implInstanceName,
+              PROPS_HASH_CODE_FIELD_NAME)
+          .addStatement("return false")
+          .endControlFlow();
+    }
+
     for (PropModel prop : specModel.getProps()) {
       equalsBuilder.addCode(getCompareStatement(specModel, implInstanceName, prop));
     }
@@ -354,6 +377,75 @@ public class ComponentImplGenerator {
     return equalsBuilder.build();
   }
 
+  /**
+   * Generates a hashCode consistent with the generated equals. Only props are hashed: state and
+   * tree props are set after the component is created. Component props are compared with their
+   * equals, but are left out so that hashing doesn't recurse into child components, and Reference
+   * props are compared through {@code Reference.shouldUpdate}, which hashCode can't follow. For
+   * pure render specs, whose props are immutable once the component is built, the hash code is
+   * computed by the builder and cached.
+   */
+  static MethodSpec generateHashCodeMethod(SpecModel specModel) {
+    final boolean cacheHashCode = hasCachedPropsHashCode(specModel);
+
+    final MethodSpec.Builder hashCodeBuilder = MethodSpec.methodBuilder("hashCode")
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PUBLIC)
+        .returns(TypeName.INT);
+
+    if (cacheHashCode) {
+      hashCodeBuilder
+          .beginControlFlow("if ($L != 0)", PROPS_HASH_CODE_FIELD_NAME)
+          .addStatement("return $L", PROPS_HASH_CODE_FIELD_NAME)
+          .endControlFlow();
+    }
+
+    hashCodeBuilder.addStatement("int result = $S.hashCode()", specModel.getComponentName());
+
+    for (PropModel prop : specModel.getProps()) {
+      if (isComponentType(prop.getType()) || isReferenceType(prop.getType())) {
+        continue;
+      }
+
+      hashCodeBuilder.addStatement(
+          "result = 31 * result + $L",
+          getHashCodeStatement(prop.getType(), getImplAccessor(specModel, prop)));
+    }
+
+    if (cacheHashCode) {
+      hashCodeBuilder.addStatement("$L = result", PROPS_HASH_CODE_FIELD_NAME);
+    }
+
+    hashCodeBuilder.addStatement("return result");
+
+    return hashCodeBuilder.build();
+  }
+
+  static boolean hasCachedPropsHashCode(SpecModel specModel) {
+    return specModel instanceof HasPureRender && ((HasPureRender) specModel).isPureRender();
+  }
+
+  private static CodeBlock getHashCodeStatement(TypeName type, String accessor) {
+    if (type.equals(TypeName.BOOLEAN)) {
+      return CodeBlock.of("($L ? 1231 : 1237)", accessor);
+    } else if (type.equals(TypeName.LONG)) {
+      return CodeBlock.of("(int) ($L ^ ($L >>> 32))", accessor, accessor);
+    } else if (type.equals(TypeName.FLOAT)) {
+      return CodeBlock.of("Float.floatToIntBits($L)", accessor);
+    } else if (type.equals(TypeName.DOUBLE)) {
+      return CodeBlock.of(
+          "(int) (Double.doubleToLongBits($L) ^ (Double.doubleToLongBits($L) >>> 32))",
+          accessor,
+          accessor);
+    } else if (type.isPrimitive()) {
+      return CodeBlock.of("(int) $L", accessor);
+    } else if (type instanceof ArrayTypeName) {
+      return CodeBlock.of("$T.hashCode($L)", Arrays.class, accessor);
+    }
+
+    return CodeBlock.of("($L != null ? $L.hashCode() : 0)", accessor, accessor);
+  }
+
   static TypeSpecDataHolder generateCopyInterStageImpl(SpecModel specModel) {
     final TypeSpecDataHolder.Builder typeSpecDataHolder = TypeSpecDataHolder.newBuilder();
     final ImmutableList<InterStageInputParamModel> interStageInputs =
@@ -500,10 +592,7 @@ public class ComponentImplGenerator {
     final List<MethodParamModel> componentsInImpl = new ArrayList<>();
 
     for (PropModel prop : specModel.getProps()) {
-      final TypeName typeName = prop.getType();
-      if (typeName.equals(ClassNames.COMPONENT) ||
-          (typeName instanceof ParameterizedTypeName &&
-              ((ParameterizedTypeName) typeName).rawType.equals(COMPONENT))) {
+      if (isComponentType(prop.getType())) {
         componentsInImpl.add(prop);
       }
     }
@@ -511,6 +600,18 @@ public class ComponentImplGenerator {
     return componentsInImpl;
   }
 
+  private static boolean isComponentType(TypeName typeName) {
+    return typeName.equals(ClassNames.COMPONENT) ||
+        (typeName instanceof ParameterizedTypeName &&
+            ((ParameterizedTypeName) typeName).rawType.equals(COMPONENT));
+  }
+
+  private static boolean isReferenceType(TypeName typeName) {
+    return typeName.equals(ClassNames.REFERENCE) ||
+        (typeName instanceof ParameterizedTypeName &&
+            ((ParameterizedTypeName) typeName).rawType.equals(ClassNames.REFERENCE));
+  }
+
   private static List<MethodParamModel> getParams(UpdateStateMethodModel updateStateMethodModel) {
     final List<MethodParamModel> params = new ArrayList<>();
     for (MethodParamModel methodParamModel : updateStateMethodModel.methodParams) {
@@ -536,70 +637,38 @@ public class ComponentImplGenerator {
       SpecModel specModel,
       String implInstanceName,
       MethodParamModel field) {
-    final CodeBlock.Builder codeBlock = CodeBlock.builder();
-
     final String implAccessor = getImplAccessor(specModel, field);
-    if (field.getType() == TypeName.FLOAT) {
-      codeBlock
-          .beginControlFlow(
-              "if (Float.compare($L, $L.$L) != 0)",
-              implAccessor,
-              implInstanceName,
-              implAccessor)
-          .addStatement("return false")
-          .endControlFlow();
-    } else if (field.getType() == TypeName.DOUBLE) {
-      codeBlock
-          .beginControlFlow(
-              "if (Double.compare($L, $L.$L) != 0)",
-              implAccessor,
-              implInstanceName,
-              implAccessor)
-          .addStatement("return false")
-          .endControlFlow();
-    } else if (field.getType() instanceof ArrayTypeName) {
-      codeBlock
-          .beginControlFlow(
-              "if (!$T.equals($L, $L.$L))",
-              Arrays.class,
-              implAccessor,
-              implInstanceName,
-              implAccessor)
-          .addStatement("return false")
-          .endControlFlow();
-    } else if (field.getType().isPrimitive()) {
-      codeBlock
-          .beginControlFlow(
-              "if ($L != $L.$L)",
-              implAccessor,
-              implInstanceName,
-              implAccessor)
-          .addStatement("return false")
-          .endControlFlow();
-    } else if (field.getType().equals(ClassNames.REFERENCE)) {
-      codeBlock
-          .beginControlFlow(
-              "if (Reference.shouldUpdate($L != $L.$L))",
-              implAccessor,
-              implInstanceName,
-              implAccessor)
-          .addStatement("return false")
-          .endControlFlow();
-    } else {
-      codeBlock
-          .beginControlFlow(
-              "if ($L != null ? !$L.equals($L.$L) : $L.$L != null)",
-              implAccessor,
-              implAccessor,
-              implInstanceName,
-              implAccessor,
-              implInstanceName,
-              implAccessor)
-          .addStatement("return false")
-          .endControlFlow();
-    }
 
-    return codeBlock.build();
+    return CodeBlock.builder()
+        .beginControlFlow(
+            "if ($L)",
+            getNotEqualsCondition(
+                field.getType(),
+                implAccessor,
+                implInstanceName + "." + implAccessor))
+        .addStatement("return false")
+        .endControlFlow()
+        .build();
+  }
+
+  /**
+   * @return a condition which is true if the two expressions of the given type are not equal,
+   * following the same semantics as the generated equals.
+   */
+  static CodeBlock getNotEqualsCondition(TypeName type, String left, String right) {
+    if (type == TypeName.FLOAT) {
+      return CodeBlock.of("Float.compare($L, $L) != 0", left, right);
+    } else if (type == TypeName.DOUBLE) {
+      return CodeBlock.of("Double.compare($L, $L) != 0", left, right);
+    } else if (type instanceof ArrayTypeName) {
+      return CodeBlock.of("!$T.equals($L, $L)", Arrays.class, left, right);
+    } else if (type.isPrimitive()) {
+      return CodeBlock.of("$L != $L", left, right);
+    } else if (type.equals(ClassNames.REFERENCE)) {
+      return CodeBlock.of("Reference.shouldUpdate($L != $L)", left, right);
+    }
+
+    return CodeBlock.of("$L != null ? !$L.equals($L) : $L != null", left, left, right, right);
   }
 
   static String getImplAccessor(SpecModel specModel, MethodParamModel methodParamModel) {
@@ -210,6 +210,29 @@ public class EventGenerator {
     return methodSpec.build();
   }
 
+  /**
+   * Event methods are identified by their index in the spec. Since ids are dense, the switch in
+   * dispatchOnEvent compiles to a jump table indexed by id.
+   */
+  static int getEventMethodId(SpecModel specModel, EventMethodModel eventMethodModel) {
+    return specModel.getEventMethods().indexOf(eventMethodModel);
+  }
+
+  /**
+   * Handlers for event methods with at most one {@link Param} store the context and param inline
+   * in the EventHandler instead of allocating an array. A primitive param isn't boxed.
+   */
+  static boolean hasInlineParams(EventMethodModel eventMethodModel) {
+    int paramsCount = 0;
+    for (MethodParamModel methodParamModel : eventMethodModel.methodParams) {
+      if (MethodParamModelUtils.isAnnotatedWith(methodParamModel, Param.class)) {
+        paramsCount++;
+      }
+    }
+
+    return paramsCount <= 1;
+  }
+
   /**
    * Generate a dispatchOnEvent() implementation for the component.
    */
@@ -228,7 +251,8 @@ public class EventGenerator {
     methodBuilder.beginControlFlow("switch($L)", "id");
 
     for (EventMethodModel eventMethodModel : specModel.getEventMethods()) {
-      methodBuilder.beginControlFlow("case $L:", eventMethodModel.name.toString().hashCode());
+      methodBuilder.beginControlFlow("case $L:", getEventMethodId(specModel, eventMethodModel));
+      final boolean hasInlineParams = hasInlineParams(eventMethodModel);
 
       final String eventVariableName = "_event";
 
@@ -249,8 +273,13 @@ public class EventGenerator {
           eventHandlerParams.add(",\n$L.$L", eventVariableName, methodParamModel.getName());
         } else if (MethodParamModelUtils.isAnnotatedWith(methodParamModel, Param.class) ||
             methodParamModel.getType().equals(specModel.getContextClass())) {
-          eventHandlerParams.add(
-              ",\n($T) eventHandler.params[$L]", methodParamModel.getType(), paramIndex++);
+          if (hasInlineParams) {
+            eventHandlerParams.add(
+                ",\n$L", readInlineParam(methodParamModel.getType(), paramIndex++));
+          } else {
+            eventHandlerParams.add(
+                ",\n($T) eventHandler.params[$L]", methodParamModel.getType(), paramIndex++);
+          }
         }
       }
 
@@ -277,13 +306,53 @@ public class EventGenerator {
         .build();
   }
 
+  /**
+   * Reads an inline param of the given type, decoding primitives as described in
+   * {@code EventHandler#getPrimitiveParam}.
+   */
+  private static CodeBlock readInlineParam(TypeName type, int index) {
+    if (!type.isPrimitive()) {
+      return CodeBlock.of("($T) eventHandler.getParam($L)", type, index);
+    }
+
+    final CodeBlock primitiveParam = CodeBlock.of("eventHandler.getPrimitiveParam($L)", index);
+    if (type.equals(TypeName.BOOLEAN)) {
+      return CodeBlock.of("$L != 0", primitiveParam);
+    } else if (type.equals(TypeName.FLOAT)) {
+      return CodeBlock.of("$T.intBitsToFloat((int) $L)", Float.class, primitiveParam);
+    } else if (type.equals(TypeName.DOUBLE)) {
+      return CodeBlock.of("$T.longBitsToDouble($L)", Double.class, primitiveParam);
+    } else if (type.equals(TypeName.LONG)) {
+      return primitiveParam;
+    }
+
+    return CodeBlock.of("($T) $L", type, primitiveParam);
+  }
+
+  /**
+   * Encodes a primitive inline param as the long expected by {@code EventHandler}. Other integral
+   * types are widened implicitly.
+   */
+  private static CodeBlock writeInlineParam(TypeName type, String name) {
+    if (type.equals(TypeName.BOOLEAN)) {
+      return CodeBlock.of("$L ? 1L : 0L", name);
+    } else if (type.equals(TypeName.FLOAT)) {
+      return CodeBlock.of("$T.floatToRawIntBits($L)", Float.class, name);
+    } else if (type.equals(TypeName.DOUBLE)) {
+      return CodeBlock.of("$T.doubleToRawLongBits($L)", Double.class, name);
+    }
+
+    return CodeBlock.of("$L", name);
+  }
+
   static TypeSpecDataHolder generateEventHandlerFactories(SpecModel specModel) {
     final TypeSpecDataHolder.Builder typeSpecDataHolder = TypeSpecDataHolder.newBuilder();
     for (EventMethodModel eventMethodModel : specModel.getEventMethods()) {
+      final int id = getEventMethodId(specModel, eventMethodModel);
       typeSpecDataHolder.addMethod(
-          generateEventHandlerFactory(eventMethodModel, specModel.getContextClass()));
+          generateEventHandlerFactory(eventMethodModel, id, specModel.getContextClass()));
       typeSpecDataHolder.addMethod(
-          generateEventHandlerFactory(eventMethodModel, specModel.getComponentClass()));
+          generateEventHandlerFactory(eventMethodModel, id, specModel.getComponentClass()));
     }
 
     return typeSpecDataHolder.build();
@@ -291,6 +360,7 @@ public class EventGenerator {
 
   static MethodSpec generateEventHandlerFactory(
       EventMethodModel eventMethodModel,
+      int id,
       TypeName paramClass) {
     final MethodSpec.Builder builder = MethodSpec.methodBuilder(eventMethodModel.name.toString())
         .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
@@ -299,6 +369,22 @@ public class EventGenerator {
             ClassNames.EVENT_HANDLER,
             eventMethodModel.eventType.name));
 
+    if (hasInlineParams(eventMethodModel)) {
+      CodeBlock param = CodeBlock.of("null");
+      for (MethodParamModel methodParamModel : eventMethodModel.methodParams) {
+        if (MethodParamModelUtils.isAnnotatedWith(methodParamModel, Param.class)) {
+          builder.addParameter(methodParamModel.getType(), methodParamModel.getName());
+          param = writeInlineParam(methodParamModel.getType(), methodParamModel.getName());
+
+          if (methodParamModel.getType() instanceof TypeVariableName) {
+            builder.addTypeVariable((TypeVariableName) methodParamModel.getType());
+          }
+        }
+      }
+
+      return builder.addStatement("return newEventHandler(c, $L, c, $L)", id, param).build();
+    }
+
     final CodeBlock.Builder paramsBlock = CodeBlock.builder();
 
     paramsBlock.add("new Object[] {\n");
@@ -321,7 +407,7 @@ public class EventGenerator {
 
     builder.addStatement(
         "return newEventHandler(c, $L, $L)",
-        eventMethodModel.name.toString().hashCode(),
+        id,
         paramsBlock.build());
 
     return builder.build();
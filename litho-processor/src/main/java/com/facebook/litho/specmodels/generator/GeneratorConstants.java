@@ -20,6 +20,9 @@ public interface GeneratorConstants {
   String IMPL_CLASS_NAME_SUFFIX = "Impl";
   String STATE_CONTAINER_FIELD_NAME = "mStateContainerImpl";
   String PREVIOUS_RENDER_INFO_FIELD_NAME = "mPreviousRenderInfo";
+  String PROPS_HASH_CODE_FIELD_NAME = "mPropsHashCode";
   String STATE_CONTAINER_IMPL_NAME_SUFFIX = "StateContainerImpl";
   String STATE_UPDATE_IMPL_NAME_SUFFIX = "StateUpdate";
+  /** Builder pool size of specs that don't set one, same as the annotations' default. */
+  int DEFAULT_BUILDER_POOL_SIZE = 2;
 }
@@ -9,17 +9,27 @@
 
 package com.facebook.litho.specmodels.generator;
 
+import com.facebook.litho.annotations.OnBind;
+import com.facebook.litho.annotations.OnUnbind;
 import com.facebook.litho.annotations.ShouldUpdate;
+import com.facebook.litho.specmodels.model.ClassNames;
 import com.facebook.litho.specmodels.model.DelegateMethodModel;
 import com.facebook.litho.specmodels.model.HasPureRender;
+import com.facebook.litho.specmodels.model.InterStageInputParamModel;
 import com.facebook.litho.specmodels.model.MethodParamModel;
+import com.facebook.litho.specmodels.model.MountSpecModel;
+import com.facebook.litho.specmodels.model.PropModel;
 import com.facebook.litho.specmodels.model.SpecModel;
 import com.facebook.litho.specmodels.model.SpecModelUtils;
+import com.facebook.litho.specmodels.model.StateParamModel;
+import com.facebook.litho.specmodels.model.TreePropModel;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.TypeName;
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.lang.model.element.Modifier;
 
@@ -37,11 +47,113 @@ public class PureRenderGenerator {
     if (specModel.isPureRender()) {
       dataHolder.addTypeSpecDataHolder(generateIsPureRender());
       dataHolder.addTypeSpecDataHolder(generateShouldUpdateMethod(specModel));
+      dataHolder.addTypeSpecDataHolder(generateChangeMaskMethods(specModel));
     }
 
     return dataHolder.build();
   }
 
+  /**
+   * Generates getChangeMask, which compares each prop and state value of two components and
+   * returns a mask with one bit set per changed value, and for mount specs
+   * getBindDependenciesMask, the mask of the values used by the bind methods. Values past the
+   * 63rd share the last bit.
+   */
+  static TypeSpecDataHolder generateChangeMaskMethods(SpecModel specModel) {
+    final TypeSpecDataHolder.Builder dataHolder = TypeSpecDataHolder.newBuilder();
+    final List<MethodParamModel> values = getChangeMaskValues(specModel);
+    final String implClassName = ComponentImplGenerator.getImplClassName(specModel);
+
+    final MethodSpec.Builder getChangeMask =
+        MethodSpec.methodBuilder("getChangeMask")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PROTECTED)
+            .returns(TypeName.LONG)
+            .addParameter(ClassNames.COMPONENT, "previous")
+            .addParameter(ClassNames.COMPONENT, "next");
+
+    if (!values.isEmpty()) {
+      getChangeMask
+          .addStatement("$L previousImpl = ($L) previous", implClassName, implClassName)
+          .addStatement("$L nextImpl = ($L) next", implClassName, implClassName);
+    }
+
+    getChangeMask.addStatement("long mask = 0");
+
+    for (int i = 0, size = values.size(); i < size; i++) {
+      final MethodParamModel value = values.get(i);
+      final String implAccessor = ComponentImplGenerator.getImplAccessor(specModel, value);
+
+      getChangeMask
+          .beginControlFlow(
+              "if ($L)",
+              ComponentImplGenerator.getNotEqualsCondition(
+                  value.getType(),
+                  "previousImpl." + implAccessor,
+                  "nextImpl." + implAccessor))
+          .addStatement("mask |= $L", getMaskLiteral(getChangeMaskBit(i)))
+          .endControlFlow();
+    }
+
+    getChangeMask.addStatement("return mask");
+    dataHolder.addMethod(getChangeMask.build());
+
+    if (specModel instanceof MountSpecModel) {
+      dataHolder.addMethod(
+          MethodSpec.methodBuilder("getBindDependenciesMask")
+              .addAnnotation(Override.class)
+              .addModifiers(Modifier.PROTECTED)
+              .returns(TypeName.LONG)
+              .addStatement("return $L", getMaskLiteral(getBindDependenciesMask(specModel, values)))
+              .build());
+    }
+
+    return dataHolder.build();
+  }
+
+  private static List<MethodParamModel> getChangeMaskValues(SpecModel specModel) {
+    final List<MethodParamModel> values = new ArrayList<>();
+    values.addAll(specModel.getProps());
+    values.addAll(specModel.getStateValues());
+
+    return values;
+  }
+
+  private static long getChangeMaskBit(int index) {
+    return 1L << Math.min(index, 63);
+  }
+
+  private static long getBindDependenciesMask(
+      SpecModel specModel,
+      List<MethodParamModel> values) {
+    long mask = 0;
+    final List<DelegateMethodModel> bindMethods = new ArrayList<>();
+    bindMethods.addAll(SpecModelUtils.getMethodModelsWithAnnotation(specModel, OnBind.class));
+    bindMethods.addAll(SpecModelUtils.getMethodModelsWithAnnotation(specModel, OnUnbind.class));
+
+    for (DelegateMethodModel bindMethod : bindMethods) {
+      for (MethodParamModel param : bindMethod.methodParams) {
+        if (param instanceof PropModel || param instanceof StateParamModel) {
+          for (int i = 0, size = values.size(); i < size; i++) {
+            if (values.get(i).getName().equals(param.getName())) {
+              mask |= getChangeMaskBit(i);
+              break;
+            }
+          }
+        } else if (param instanceof InterStageInputParamModel || param instanceof TreePropModel) {
+          // These aren't tracked by the change mask, so the content always needs to be re-bound.
+          return -1L;
+        }
+      }
+    }
+
+    return mask;
+  }
+
+  private static String getMaskLiteral(long mask) {
+    return "0x" + Long.toHexString(mask) + "L";
+  }
+
   static TypeSpecDataHolder generateIsPureRender() {
     return TypeSpecDataHolder.newBuilder().addMethod(
         MethodSpec.methodBuilder("isPureRender")
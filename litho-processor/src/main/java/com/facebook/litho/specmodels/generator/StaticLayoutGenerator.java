@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.specmodels.generator;
+
+import com.facebook.litho.specmodels.model.LayoutSpecModel;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Modifier;
+
+/**
+ * Class that generates the methods for a Component whose layout can be memoized.
+ */
+public class StaticLayoutGenerator {
+
+  private StaticLayoutGenerator() {
+  }
+
+  public static TypeSpecDataHolder generate(LayoutSpecModel specModel) {
+    final TypeSpecDataHolder.Builder dataHolder = TypeSpecDataHolder.newBuilder();
+
+    if (specModel.hasStaticLayout()) {
+      dataHolder.addMethod(
+          MethodSpec.methodBuilder("hasStaticLayout")
+              .addAnnotation(Override.class)
+              .addModifiers(Modifier.PROTECTED)
+              .returns(TypeName.BOOLEAN)
+              .addStatement("return true")
+              .build());
+    }
+
+    return dataHolder.build();
+  }
+}
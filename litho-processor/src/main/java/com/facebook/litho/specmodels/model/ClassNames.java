@@ -43,6 +43,7 @@ public interface ClassNames {
 
   ClassName SYNCHRONIZED_POOL =
       ClassName.bestGuess("android.support.v4.util.Pools.SynchronizedPool");
+  ClassName THREAD_LOCAL_POOL = ClassName.bestGuess("com.facebook.litho.ThreadLocalPool");
 
   ClassName LAYOUT_SPEC = ClassName.bestGuess("com.facebook.litho.annotations.LayoutSpec");
   ClassName MOUNT_SPEC = ClassName.bestGuess("com.facebook.litho.annotations.MountSpec");
@@ -59,6 +60,9 @@ public interface ClassNames {
 
   ClassName COMPONENT_CONTEXT = ClassName.bestGuess("com.facebook.litho.ComponentContext");
   ClassName COMPONENT_LAYOUT = ClassName.bestGuess("com.facebook.litho.ComponentLayout");
+  ClassName LAYOUT = ClassName.bestGuess("com.facebook.litho.Layout");
+  ClassName COMPONENT_TREE = ClassName.bestGuess("com.facebook.litho.ComponentTree");
+  ClassName COMPONENTS_POOLS = ClassName.bestGuess("com.facebook.litho.ComponentsPools");
   ClassName COMPONENT_LAYOUT_BUILDER =
       ClassName.bestGuess("com.facebook.litho.ComponentLayout.Builder");
   ClassName COMPONENT_LAYOUT_CONTAINER_BUILDER =
@@ -18,6 +18,7 @@ import com.facebook.litho.specmodels.generator.PreambleGenerator;
 import com.facebook.litho.specmodels.generator.PureRenderGenerator;
 import com.facebook.litho.specmodels.generator.RenderInfoGenerator;
 import com.facebook.litho.specmodels.generator.StateGenerator;
+import com.facebook.litho.specmodels.generator.StaticLayoutGenerator;
 import com.facebook.litho.specmodels.generator.TreePropGenerator;
 import com.facebook.litho.specmodels.generator.TypeSpecDataHolder;
 import com.squareup.javapoet.TypeSpec;
@@ -52,6 +53,7 @@ public class DefaultLayoutSpecGenerator implements LayoutSpecGenerator {
             layoutSpecModel,
             DelegateMethodDescriptions.LAYOUT_SPEC_DELEGATE_METHODS_MAP))
         .addTypeSpecDataHolder(PureRenderGenerator.generate(layoutSpecModel))
+        .addTypeSpecDataHolder(StaticLayoutGenerator.generate(layoutSpecModel))
         .addTypeSpecDataHolder(EventGenerator.generate(layoutSpecModel))
         .addTypeSpecDataHolder(StateGenerator.generate(layoutSpecModel))
         .addTypeSpecDataHolder(RenderInfoGenerator.generate(layoutSpecModel))
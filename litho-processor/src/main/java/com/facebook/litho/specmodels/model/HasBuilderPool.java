@@ -0,0 +1,28 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.specmodels.model;
+
+/**
+ * An interface for {@link SpecModel}s that can configure the pool of Builders used by the
+ * generated component.
+ */
+public interface HasBuilderPool {
+
+  /**
+   * The max number of Builders kept in the pool.
+   */
+  int getBuilderPoolSize();
+
+  /**
+   * Whether every thread should keep its own pool of Builders instead of sharing a synchronized
+   * one.
+   */
+  boolean hasThreadLocalBuilderPool();
+}
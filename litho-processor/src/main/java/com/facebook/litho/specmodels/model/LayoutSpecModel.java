@@ -21,9 +21,13 @@ import java.util.List;
  * Model that is an abstract representation of a
  * {@link com.facebook.litho.annotations.LayoutSpec}.
  */
-public class LayoutSpecModel implements SpecModel, HasPureRender {
+public class LayoutSpecModel implements SpecModel, HasPureRender, HasBuilderPool {
   private final SpecModelImpl mSpecModel;
   private final boolean mIsPureRender;
+  private final boolean mHasStaticLayout;
+  private final int mBuilderPoolSize;
+  private final boolean mHasThreadLocalBuilderPool;
+  private final boolean mGenerateBenchmark;
   private final LayoutSpecGenerator mLayoutSpecGenerator;
 
   public LayoutSpecModel(
@@ -40,6 +44,10 @@ public class LayoutSpecModel implements SpecModel, HasPureRender {
       boolean isPublic,
       DependencyInjectionHelper dependencyInjectionHelper,
       boolean isPureRender,
+      boolean hasStaticLayout,
+      int builderPoolSize,
+      boolean hasThreadLocalBuilderPool,
+      boolean generateBenchmark,
       Object representedObject,
       LayoutSpecGenerator layoutSpecGenerator) {
     mSpecModel =
@@ -59,6 +67,10 @@ public class LayoutSpecModel implements SpecModel, HasPureRender {
             .representedObject(representedObject)
             .build();
     mIsPureRender = isPureRender;
+    mHasStaticLayout = hasStaticLayout;
+    mBuilderPoolSize = builderPoolSize;
+    mHasThreadLocalBuilderPool = hasThreadLocalBuilderPool;
+    mGenerateBenchmark = generateBenchmark;
     mLayoutSpecGenerator = layoutSpecGenerator;
   }
 
@@ -206,4 +218,29 @@ public class LayoutSpecModel implements SpecModel, HasPureRender {
   public boolean isPureRender() {
     return mIsPureRender;
   }
+
+  /**
+   * Whether the layout of this spec only depends on the size constraints it's measured with, so
+   * that it can be memoized.
+   */
+  public boolean hasStaticLayout() {
+    return mHasStaticLayout;
+  }
+
+  @Override
+  public int getBuilderPoolSize() {
+    return mBuilderPoolSize;
+  }
+
+  @Override
+  public boolean hasThreadLocalBuilderPool() {
+    return mHasThreadLocalBuilderPool;
+  }
+
+  /**
+   * Whether a benchmark harness class should be generated for the component of this spec.
+   */
+  public boolean shouldGenerateBenchmark() {
+    return mGenerateBenchmark;
+  }
 }
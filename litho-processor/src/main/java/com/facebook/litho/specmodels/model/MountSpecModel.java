@@ -35,12 +35,14 @@ import javax.lang.model.element.Modifier;
  * Model that is an abstract representation of a
  * {@link com.facebook.litho.annotations.MountSpec}.
  */
-public class MountSpecModel implements SpecModel, HasPureRender {
+public class MountSpecModel implements SpecModel, HasPureRender, HasBuilderPool {
   private final SpecModelImpl mSpecModel;
   private final boolean mIsPureRender;
   private final boolean mCanMountIncrementally;
   private final boolean mShouldUseDisplayList;
   private final int mPoolSize;
+  private final int mBuilderPoolSize;
+  private final boolean mHasThreadLocalBuilderPool;
   private final TypeName mMountType;
 
   public MountSpecModel(
@@ -60,6 +62,8 @@ public class MountSpecModel implements SpecModel, HasPureRender {
       boolean canMountIncrementally,
       boolean shouldUseDisplayList,
       int poolSize,
+      int builderPoolSize,
+      boolean hasThreadLocalBuilderPool,
       TypeName mountType,
       Object representedObject) {
     mSpecModel =
@@ -82,6 +86,8 @@ public class MountSpecModel implements SpecModel, HasPureRender {
     mCanMountIncrementally = canMountIncrementally;
     mShouldUseDisplayList = shouldUseDisplayList;
     mPoolSize = poolSize;
+    mBuilderPoolSize = builderPoolSize;
+    mHasThreadLocalBuilderPool = hasThreadLocalBuilderPool;
     mMountType = mountType;
   }
 
@@ -277,6 +283,16 @@ public class MountSpecModel implements SpecModel, HasPureRender {
     return mPoolSize;
   }
 
+  @Override
+  public int getBuilderPoolSize() {
+    return mBuilderPoolSize;
+  }
+
+  @Override
+  public boolean hasThreadLocalBuilderPool() {
+    return mHasThreadLocalBuilderPool;
+  }
+
   public TypeName getMountType() {
     return mMountType;
   }
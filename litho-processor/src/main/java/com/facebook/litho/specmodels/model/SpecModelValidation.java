@@ -36,6 +36,9 @@ public class SpecModelValidation {
     validationErrors.addAll(validateSpecModel(specModel));
     validationErrors.addAll(PureRenderValidation.validate(specModel));
     validationErrors.addAll(DelegateMethodValidation.validateLayoutSpecModel(specModel));
+    validationErrors.addAll(validateBuilderPoolSize(specModel));
+    validationErrors.addAll(validateStaticLayout(specModel));
+    validationErrors.addAll(validateBenchmark(specModel));
     return validationErrors;
   }
 
@@ -44,6 +47,7 @@ public class SpecModelValidation {
     validationErrors.addAll(validateSpecModel(specModel));
     validationErrors.addAll(PureRenderValidation.validate(specModel));
     validationErrors.addAll(DelegateMethodValidation.validateMountSpecModel(specModel));
+    validationErrors.addAll(validateBuilderPoolSize(specModel));
     validationErrors.addAll(validateGetMountType(specModel));
     validationErrors.addAll(validateShouldUseDisplayLists(specModel));
     return validationErrors;
@@ -63,6 +67,52 @@ public class SpecModelValidation {
     return validationErrors;
   }
 
+  static <S extends SpecModel & HasBuilderPool> List<SpecModelValidationError>
+      validateBuilderPoolSize(S specModel) {
+    List<SpecModelValidationError> validationErrors = new ArrayList<>();
+
+    if (specModel.getBuilderPoolSize() <= 0) {
+      validationErrors.add(
+          new SpecModelValidationError(
+              specModel.getRepresentedObject(),
+              "builderPoolSize must be greater than 0."));
+    }
+
+    return validationErrors;
+  }
+
+  static List<SpecModelValidationError> validateStaticLayout(LayoutSpecModel specModel) {
+    List<SpecModelValidationError> validationErrors = new ArrayList<>();
+
+    if (specModel.hasStaticLayout() &&
+        (!specModel.getProps().isEmpty() ||
+            !specModel.getStateValues().isEmpty() ||
+            !specModel.getTreeProps().isEmpty())) {
+      validationErrors.add(
+          new SpecModelValidationError(
+              specModel.getRepresentedObject(),
+              "Specs with hasStaticLayout = true can't declare props, state or tree props, since " +
+                  "their layout must only depend on the size constraints it's measured with."));
+    }
+
+    return validationErrors;
+  }
+
+  static List<SpecModelValidationError> validateBenchmark(LayoutSpecModel specModel) {
+    List<SpecModelValidationError> validationErrors = new ArrayList<>();
+
+    if (specModel.shouldGenerateBenchmark() &&
+        (!specModel.getTypeVariables().isEmpty() || specModel.hasInjectedDependencies())) {
+      validationErrors.add(
+          new SpecModelValidationError(
+              specModel.getRepresentedObject(),
+              "Specs with generateBenchmark = true can't have type variables or injected " +
+                  "dependencies, since the benchmark needs to create the component on its own."));
+    }
+
+    return validationErrors;
+  }
+
   static List<SpecModelValidationError> validateGetMountType(MountSpecModel specModel) {
     List<SpecModelValidationError> validationErrors = new ArrayList<>();
 
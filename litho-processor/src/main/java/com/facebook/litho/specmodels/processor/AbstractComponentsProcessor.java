@@ -11,8 +11,10 @@ package com.facebook.litho.specmodels.processor;
 
 import com.facebook.litho.annotations.LayoutSpec;
 import com.facebook.litho.annotations.MountSpec;
+import com.facebook.litho.specmodels.generator.BenchmarkGenerator;
 import com.facebook.litho.specmodels.model.ClassNames;
 import com.facebook.litho.specmodels.model.DependencyInjectionHelper;
+import com.facebook.litho.specmodels.model.LayoutSpecModel;
 import com.facebook.litho.specmodels.model.SpecModel;
 import com.squareup.javapoet.JavaFile;
 
@@ -100,6 +102,16 @@ public abstract class AbstractComponentsProcessor extends AbstractProcessor {
         .skipJavaLangImports(true)
         .build()
         .writeTo(processingEnv.getFiler());
+
+    if (specModel instanceof LayoutSpecModel
+        && ((LayoutSpecModel) specModel).shouldGenerateBenchmark()) {
+      JavaFile.builder(
+          getPackageName(specModel.getComponentTypeName().toString()),
+          BenchmarkGenerator.generate((LayoutSpecModel) specModel))
+          .skipJavaLangImports(true)
+          .build()
+          .writeTo(processingEnv.getFiler());
+    }
   }
 
   protected static String getPackageName(String qualifiedName) {
@@ -27,6 +27,8 @@ import javax.annotation.Nullable;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.util.Elements;
 
+import static com.facebook.litho.specmodels.generator.GeneratorConstants.DEFAULT_BUILDER_POOL_SIZE;
+
 /**
  * Factory for creating {@link LayoutSpecModel}s.
  */
@@ -84,6 +86,10 @@ public class LayoutSpecModelFactory {
         isPublic(element),
         dependencyInjectionHelper,
         isPureRender(element),
+        hasStaticLayout(element),
+        getBuilderPoolSize(element),
+        hasThreadLocalBuilderPool(element),
+        generateBenchmark(element),
         element,
         layoutSpecGenerator);
   }
@@ -102,4 +108,24 @@ public class LayoutSpecModelFactory {
     final LayoutSpec layoutSpec = element.getAnnotation(LayoutSpec.class);
     return layoutSpec != null && layoutSpec.isPureRender();
   }
+
+  private static boolean hasStaticLayout(TypeElement element) {
+    final LayoutSpec layoutSpec = element.getAnnotation(LayoutSpec.class);
+    return layoutSpec != null && layoutSpec.hasStaticLayout();
+  }
+
+  private static int getBuilderPoolSize(TypeElement element) {
+    final LayoutSpec layoutSpec = element.getAnnotation(LayoutSpec.class);
+    return layoutSpec != null ? layoutSpec.builderPoolSize() : DEFAULT_BUILDER_POOL_SIZE;
+  }
+
+  private static boolean hasThreadLocalBuilderPool(TypeElement element) {
+    final LayoutSpec layoutSpec = element.getAnnotation(LayoutSpec.class);
+    return layoutSpec != null && layoutSpec.threadLocalBuilderPool();
+  }
+
+  private static boolean generateBenchmark(TypeElement element) {
+    final LayoutSpec layoutSpec = element.getAnnotation(LayoutSpec.class);
+    return layoutSpec != null && layoutSpec.generateBenchmark();
+  }
 }
@@ -40,6 +40,8 @@ import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 
+import static com.facebook.litho.specmodels.generator.GeneratorConstants.DEFAULT_BUILDER_POOL_SIZE;
+
 /**
  * Factory for creating {@link MountSpecModel}s.
  */
@@ -91,6 +93,8 @@ public class MountSpecModelFactory {
         canMountIncrementally(element),
         shouldUseDisplayList(element),
         getPoolSize(element),
+        getBuilderPoolSize(element),
+        hasThreadLocalBuilderPool(element),
         getMountType(element),
         element);
   }
@@ -125,6 +129,16 @@ public class MountSpecModelFactory {
     return mountSpec != null ? mountSpec.poolSize() : 15;
   }
 
+  private static int getBuilderPoolSize(TypeElement element) {
+    final MountSpec mountSpec = element.getAnnotation(MountSpec.class);
+    return mountSpec != null ? mountSpec.builderPoolSize() : DEFAULT_BUILDER_POOL_SIZE;
+  }
+
+  private static boolean hasThreadLocalBuilderPool(TypeElement element) {
+    final MountSpec mountSpec = element.getAnnotation(MountSpec.class);
+    return mountSpec != null && mountSpec.threadLocalBuilderPool();
+  }
+
   private static TypeName getMountType(TypeElement element) {
     for (Element enclosedElement : element.getEnclosedElements()) {
       if (enclosedElement.getKind() != ElementKind.METHOD) {
@@ -128,6 +128,10 @@ public final class DebugComponentDescriptor
       accumulator.store("layout", element.isLayoutNode());
     }
 
+    if (!getPerformance(element).isEmpty()) {
+      accumulator.store("performance", false);
+    }
+
     // This method is called once a node is inspected and not during tree creation like many of the
     // other lifecycle methods.
     logInspected(element.getContext());
@@ -166,6 +170,11 @@ public final class DebugComponentDescriptor
           accumulator.store(key, value.toString(), false);
         }
       }
+    } else if ("performance".equals(ruleName)) {
+      final Map<String, Object> performance = getPerformance(element);
+      for (String key : performance.keySet()) {
+        accumulator.store(key, performance.get(key).toString(), false);
+      }
     }
   }
 
@@ -288,6 +297,35 @@ public final class DebugComponentDescriptor
     return styles;
   }
 
+  /**
+   * Read-only values showing how much work the last layout and mount of this component did. Timings
+   * are only recorded in debug mode.
+   */
+  private static Map<String, Object> getPerformance(DebugComponent element) {
+    final Map<String, Object> performance = new ArrayMap<>();
+
+    final long lastMeasureDurationNanos = element.getLastMeasureDurationNanos();
+    if (lastMeasureDurationNanos >= 0) {
+      performance.put("last-measure-time-us", lastMeasureDurationNanos / 1000);
+    }
+    if (element.isLayoutNode()) {
+      performance.put("cached-measure-reused", element.isCachedMeasureReused());
+    }
+
+    final String mountContentType = element.getMountContentType();
+    if (mountContentType != null) {
+      performance.put("mount-content", mountContentType);
+      performance.put("mount-content-from-pool", element.isMountContentFromPool());
+    }
+
+    final int visibilityHandlerCount = element.getVisibilityHandlerCount();
+    if (visibilityHandlerCount > 0) {
+      performance.put("visibility-handlers", visibilityHandlerCount);
+    }
+
+    return performance;
+  }
+
   private static Map<String, Pair<Prop, Object>> getProps(DebugComponent element) {
     final Component component = element.getComponent();
     if (component == null) {
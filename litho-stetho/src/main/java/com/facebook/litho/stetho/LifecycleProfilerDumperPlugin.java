@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.stetho;
+
+import com.facebook.litho.LifecycleProfiler;
+import com.facebook.stetho.dumpapp.DumpException;
+import com.facebook.stetho.dumpapp.DumpUsageException;
+import com.facebook.stetho.dumpapp.DumperContext;
+import com.facebook.stetho.dumpapp.DumperPlugin;
+
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Controls the {@link LifecycleProfiler} from dumpapp:
+ * <pre>
+ *   dumpapp litho-profiler start [samplingInterval]
+ *   dumpapp litho-profiler stop
+ *   dumpapp litho-profiler reset
+ *   dumpapp litho-profiler dump
+ * </pre>
+ */
+public class LifecycleProfilerDumperPlugin implements DumperPlugin {
+
+  private static final String NAME = "litho-profiler";
+  private static final int DEFAULT_SAMPLING_INTERVAL = 1;
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public void dump(DumperContext dumpContext) throws DumpException {
+    final List<String> args = dumpContext.getArgsAsList();
+    final String command = args.isEmpty() ? "dump" : args.get(0);
+
+    switch (command) {
+      case "start":
+        LifecycleProfiler.start(
+            args.size() > 1 ? parseSamplingInterval(args.get(1)) : DEFAULT_SAMPLING_INTERVAL);
+        break;
+      case "stop":
+        LifecycleProfiler.stop();
+        break;
+      case "reset":
+        LifecycleProfiler.reset();
+        break;
+      case "dump":
+        LifecycleProfiler.dump(new PrintWriter(dumpContext.getStdout()));
+        break;
+      default:
+        throw new DumpUsageException(
+            "Usage: dumpapp " + NAME + " <start [samplingInterval]|stop|reset|dump>");
+    }
+  }
+
+  private static int parseSamplingInterval(String arg) throws DumpUsageException {
+    try {
+      final int samplingInterval = Integer.parseInt(arg);
+      if (samplingInterval > 0) {
+        return samplingInterval;
+      }
+    } catch (NumberFormatException e) {
+      // Reported below.
+    }
+
+    throw new DumpUsageException("The sampling interval must be a positive integer: " + arg);
+  }
+}
@@ -27,12 +27,15 @@ import com.facebook.stetho.inspector.elements.android.HighlightableDescriptor;
 /**
  * Exposes LithoView to the stetho elements inspector. It ensures that the view children
  * of a LithoView are not exposed (as they would if we used the ViewGroupDescriptor) as
- * they are an implementation detail of the framework (ComponentHost etc.).
+ * they are an implementation detail of the framework (ComponentHost etc.). Also adds a read-only
+ * summary of how long the last layout and mount of the LithoView took.
  */
 public final class LithoViewDescriptor
     extends Descriptor<LithoView>
     implements ChainedDescriptor<LithoView>, HighlightableDescriptor<LithoView> {
 
+  private static final String PERFORMANCE_RULE_NAME = "litho-performance";
+
   private Descriptor<? super LithoView> mSuper;
 
   @Override
@@ -94,16 +97,43 @@ public final class LithoViewDescriptor
   @Override
   public void getStyleRuleNames(LithoView element, StyleRuleNameAccumulator accumulator) {
     mSuper.getStyleRuleNames(element, accumulator);
+    accumulator.store(PERFORMANCE_RULE_NAME, false);
   }
 
   @Override
   public void getStyles(LithoView element, String ruleName, StyleAccumulator accumulator) {
-    mSuper.getStyles(element, ruleName, accumulator);
+    if (!PERFORMANCE_RULE_NAME.equals(ruleName)) {
+      mSuper.getStyles(element, ruleName, accumulator);
+      return;
+    }
+
+    final long lastLayoutDurationNanos = DebugComponent.getLastLayoutDurationNanos(element);
+    if (lastLayoutDurationNanos >= 0) {
+      accumulator.store(
+          "last-layout-time-us",
+          String.valueOf(lastLayoutDurationNanos / 1000),
+          false);
+    }
+
+    final long lastMountDurationNanos = DebugComponent.getLastMountDurationNanos(element);
+    if (lastMountDurationNanos >= 0) {
+      accumulator.store(
+          "last-mount-time-us",
+          String.valueOf(lastMountDurationNanos / 1000),
+          false);
+    }
+
+    accumulator.store(
+        "mounted-items",
+        String.valueOf(DebugComponent.getMountedItemCount(element)),
+        false);
   }
 
   @Override
   public void setStyle(LithoView element, String ruleName, String name, String value) {
-    mSuper.setStyle(element, ruleName, name, value);
+    if (!PERFORMANCE_RULE_NAME.equals(ruleName)) {
+      mSuper.setStyle(element, ruleName, name, value);
+    }
   }
 
   @Override
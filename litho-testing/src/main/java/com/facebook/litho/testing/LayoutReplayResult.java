@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.testing;
+
+import com.facebook.litho.LayoutSnapshot;
+import com.facebook.litho.PhaseTracer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The layouts calculated by {@link LayoutSnapshotReplayer#replay}, next to the one that was
+ * recorded.
+ */
+public final class LayoutReplayResult {
+
+  private final LayoutSnapshot mRecorded;
+  private final List<LayoutSnapshot> mReplayed;
+  private final List<String> mUnmatchedStatePaths;
+
+  LayoutReplayResult(
+      LayoutSnapshot recorded,
+      List<LayoutSnapshot> replayed,
+      List<String> unmatchedStatePaths) {
+    mRecorded = recorded;
+    mReplayed = replayed;
+    mUnmatchedStatePaths = unmatchedStatePaths;
+  }
+
+  public LayoutSnapshot getRecorded() {
+    return mRecorded;
+  }
+
+  public List<LayoutSnapshot> getReplayed() {
+    return Collections.unmodifiableList(mReplayed);
+  }
+
+  /**
+   * @return the paths of the recorded states that couldn't be restored, because the replay didn't
+   * resolve a stateful component at the same place.
+   */
+  public List<String> getUnmatchedStatePaths() {
+    return Collections.unmodifiableList(mUnmatchedStatePaths);
+  }
+
+  public long getMedianDurationNanos() {
+    final long[] durations = new long[mReplayed.size()];
+    for (int i = 0; i < durations.length; i++) {
+      durations[i] = mReplayed.get(i).getDurationNanos();
+    }
+    return median(durations);
+  }
+
+  public long getMedianPhaseDurationNanos(int phase) {
+    final long[] durations = new long[mReplayed.size()];
+    for (int i = 0; i < durations.length; i++) {
+      durations[i] = mReplayed.get(i).getPhaseDurationNanos(phase);
+    }
+    return median(durations);
+  }
+
+  private static long median(long[] values) {
+    if (values.length == 0) {
+      return 0;
+    }
+
+    Arrays.sort(values);
+    return values[values.length / 2];
+  }
+
+  /**
+   * @return the recorded and the median replayed duration of the layout and of each of its phases.
+   */
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder()
+        .append(mRecorded.getRoot().getSimpleName())
+        .append(": recorded ")
+        .append(mRecorded.getDurationNanos() / 1000)
+        .append("us, replayed ")
+        .append(getMedianDurationNanos() / 1000)
+        .append("us over ")
+        .append(mReplayed.size())
+        .append(" layouts\n");
+    for (int phase = 0; phase < PhaseTracer.PHASE_COUNT; phase++) {
+      final long recordedNanos = mRecorded.getPhaseDurationNanos(phase);
+      final long replayedNanos = getMedianPhaseDurationNanos(phase);
+      if (recordedNanos > 0 || replayedNanos > 0) {
+        builder
+            .append("  ")
+            .append(PhaseTracer.getPhaseName(phase))
+            .append(": recorded ")
+            .append(recordedNanos / 1000)
+            .append("us, replayed ")
+            .append(replayedNanos / 1000)
+            .append("us\n");
+      }
+    }
+    if (!mUnmatchedStatePaths.isEmpty()) {
+      builder.append("  unmatched state: ").append(mUnmatchedStatePaths).append('\n');
+    }
+    return builder.toString();
+  }
+}
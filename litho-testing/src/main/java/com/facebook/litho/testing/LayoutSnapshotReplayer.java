@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.testing;
+
+import com.facebook.litho.Component;
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.ComponentLifecycle.StateContainer;
+import com.facebook.litho.ComponentSnapshot;
+import com.facebook.litho.ComponentTree;
+import com.facebook.litho.LayoutSnapshot;
+import com.facebook.litho.LayoutSnapshotRecorder;
+import com.facebook.litho.StateSnapshot;
+
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rebuilds the root component of a {@link LayoutSnapshot} and calculates its layout again with
+ * the recorded size specs and state, e.g. from a Robolectric test run under a profiler. Each
+ * replayed layout is itself recorded, so its timing breakdown can be compared with the recorded
+ * one:
+ *
+ * <pre>
+ * {@code
+ * final LayoutSnapshot snapshot = LayoutSnapshot.readFrom(new FileInputStream(path));
+ * final LayoutReplayResult result = LayoutSnapshotReplayer.replay(context, snapshot, 20);
+ * System.out.println(result);
+ * }
+ * </pre>
+ *
+ * Props that couldn't be recorded keep their {@code @PropDefault} value, or null, and state values
+ * that couldn't be recorded keep their initial value.
+ */
+public final class LayoutSnapshotReplayer {
+
+  private LayoutSnapshotReplayer() {
+  }
+
+  /**
+   * Instantiates the generated component class of the given snapshot and sets its recorded props.
+   */
+  public static Component<?> rebuild(ComponentSnapshot snapshot) {
+    final Class<?> componentClass;
+    final Component<?> component;
+    try {
+      componentClass = Class.forName(snapshot.getComponentClassName());
+      final Constructor<?> constructor = componentClass.getDeclaredConstructor();
+      constructor.setAccessible(true);
+      component = (Component<?>) constructor.newInstance();
+    } catch (Exception e) {
+      throw new IllegalArgumentException(
+          "Can't instantiate " + snapshot.getComponentClassName() + ", components with " +
+              "injected dependencies can't be rebuilt",
+          e);
+    }
+
+    for (Map.Entry<String, Serializable> prop : snapshot.getProps().entrySet()) {
+      setField(componentClass, component, prop.getKey(), prop.getValue());
+    }
+    for (Map.Entry<String, ComponentSnapshot> prop : snapshot.getComponentProps().entrySet()) {
+      setField(componentClass, component, prop.getKey(), rebuild(prop.getValue()));
+    }
+
+    return component;
+  }
+
+  /**
+   * Calculates the layout of the given snapshot {@code iterations} times, with a new instance of
+   * the root component every time. Replaces the listener of the {@link LayoutSnapshotRecorder}
+   * while it runs.
+   */
+  public static LayoutReplayResult replay(
+      ComponentContext c,
+      LayoutSnapshot snapshot,
+      int iterations) {
+    final List<LayoutSnapshot> taken = new ArrayList<>();
+    final List<LayoutSnapshot> replayed = new ArrayList<>(iterations);
+    final List<String> unmatchedStatePaths;
+    final ComponentTree componentTree =
+        ComponentTree.create(c, rebuild(snapshot.getRoot())).build();
+
+    LayoutSnapshotRecorder.start(new LayoutSnapshotRecorder.Listener() {
+      @Override
+      public void onSnapshotTaken(LayoutSnapshot takenSnapshot) {
+        taken.add(takenSnapshot);
+      }
+    });
+    try {
+      // The first layout resolves the components, so that their state can then be overwritten
+      // with the recorded values and carried over by the following layouts.
+      componentTree.setRootAndSizeSpec(
+          rebuild(snapshot.getRoot()),
+          snapshot.getWidthSpec(),
+          snapshot.getHeightSpec());
+      unmatchedStatePaths = restoreState(snapshot, getLast(taken));
+
+      for (int i = 0; i < iterations; i++) {
+        taken.clear();
+        componentTree.setRootAndSizeSpec(
+            rebuild(snapshot.getRoot()),
+            snapshot.getWidthSpec(),
+            snapshot.getHeightSpec());
+        replayed.add(getLast(taken));
+      }
+    } finally {
+      LayoutSnapshotRecorder.stop();
+      componentTree.release();
+    }
+
+    return new LayoutReplayResult(snapshot, replayed, unmatchedStatePaths);
+  }
+
+  /**
+   * Overwrites the state resolved by a replayed layout with the recorded values.
+   *
+   * @return the paths of the recorded states no component was resolved at.
+   */
+  private static List<String> restoreState(LayoutSnapshot recorded, LayoutSnapshot replayed) {
+    final Map<String, StateSnapshot> replayedStates = new HashMap<>();
+    for (StateSnapshot state : replayed.getStates()) {
+      replayedStates.put(state.getPath(), state);
+    }
+
+    final List<String> unmatchedPaths = new ArrayList<>();
+    for (StateSnapshot state : recorded.getStates()) {
+      final StateSnapshot replayedState = replayedStates.get(state.getPath());
+      if (replayedState == null || replayedState.getStateContainer() == null) {
+        unmatchedPaths.add(state.getPath());
+        continue;
+      }
+
+      final StateContainer stateContainer = replayedState.getStateContainer();
+      for (Map.Entry<String, Serializable> value : state.getValues().entrySet()) {
+        setField(stateContainer.getClass(), stateContainer, value.getKey(), value.getValue());
+      }
+    }
+
+    return unmatchedPaths;
+  }
+
+  private static LayoutSnapshot getLast(List<LayoutSnapshot> snapshots) {
+    if (snapshots.isEmpty()) {
+      throw new IllegalStateException("The replayed layout wasn't calculated");
+    }
+
+    // Layouts nested in the replayed one, e.g. of Recycler items, end before it.
+    return snapshots.get(snapshots.size() - 1);
+  }
+
+  private static void setField(Class<?> clazz, Object object, String name, Object value) {
+    try {
+      final Field field = clazz.getDeclaredField(name);
+      field.setAccessible(true);
+      field.set(object, value);
+    } catch (Exception e) {
+      throw new IllegalArgumentException(
+          "Can't set " + name + " on " + clazz.getName() + ", was it regenerated since the " +
+              "snapshot was taken?",
+          e);
+    }
+  }
+}
@@ -23,6 +23,7 @@ import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
 
+import com.facebook.litho.AllocationTracker;
 import com.facebook.litho.Component;
 import com.facebook.litho.ComponentContext;
 import com.facebook.litho.ComponentInfo;
@@ -31,6 +32,7 @@ import com.facebook.litho.EventHandler;
 import com.facebook.litho.LayoutHandler;
 import com.facebook.litho.LithoView;
 import com.facebook.litho.MeasureComparisonUtils;
+import com.facebook.litho.PhaseTracer;
 import com.facebook.litho.Size;
 import com.facebook.litho.SizeSpec;
 import com.facebook.litho.ThreadUtils;
@@ -765,9 +767,15 @@ public class RecyclerBinder implements
       return;
     }
 
+    AllocationTracker.onAllocation("RecyclerBinder.initRange");
     final Size size = new Size();
     final ComponentTreeHolder holder = mComponentTreeHolders.get(nextIndexToPrepare);
-    holder.computeLayoutSync(mComponentContext, childrenWidthSpec, childrenHeightSpec, size);
+    final long startNanos = PhaseTracer.beginPhase();
+    try {
+      holder.computeLayoutSync(mComponentContext, childrenWidthSpec, childrenHeightSpec, size);
+    } finally {
+      PhaseTracer.endPhase(startNanos, PhaseTracer.PHASE_INIT_RANGE, mComponentContext, null);
+    }
 
     final int rangeSize = Math.max(
         mLayoutInfo.approximateRangeSize(